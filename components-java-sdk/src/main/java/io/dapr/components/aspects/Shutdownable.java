@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.aspects;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A component that must release resources (connections, consumers, files...) when the server hosting it stops.
+ *
+ * <p>Shutdown hooks of all hosted components run in parallel, once every call they were serving has finished
+ * or has been aborted, and are bounded by the server shutdown deadline.</p>
+ */
+public interface Shutdownable {
+  default Mono<Void> shutdown() {
+    return Mono.empty();
+  }
+}
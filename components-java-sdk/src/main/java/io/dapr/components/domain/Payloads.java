@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.domain;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Payloads of domain objects, built from memory components already own rather than copied.
+ *
+ * <p>Constructors taking a {@code byte[]}, such as {@code GetResponse(byte[], String)}, copy it so the array can be
+ * reused afterwards. Components that hand a buffer over for good, or serve values straight from memory-mapped files,
+ * can pass the payloads built here to the {@code ByteString} constructors instead: the bytes are then read from
+ * where they are when the response is written to the wire, without ever being copied onto the heap.</p>
+ *
+ * <p>Ownership of the memory is transferred: it must not change once wrapped, as payloads are assumed immutable
+ * and may be read at any time until the response they belong to has been sent.</p>
+ */
+public final class Payloads {
+
+  private Payloads() {
+  }
+
+  /**
+   * Takes ownership of a byte array, without copying it.
+   *
+   * @param bytes the payload, which must not be modified afterwards.
+   * @return a payload backed by that array.
+   */
+  public static ByteString wrap(final byte[] bytes) {
+    return UnsafeByteOperations.unsafeWrap(Objects.requireNonNull(bytes));
+  }
+
+  /**
+   * Takes ownership of the remaining bytes of a buffer, without copying them.
+   *
+   * <p>Direct and memory-mapped buffers stay off the heap. The position and limit of the buffer are left
+   * untouched.</p>
+   *
+   * @param buffer the payload, from its position to its limit, whose content must not be modified afterwards.
+   * @return a payload backed by that buffer.
+   */
+  public static ByteString wrap(final ByteBuffer buffer) {
+    return UnsafeByteOperations.unsafeWrap(Objects.requireNonNull(buffer));
+  }
+
+  /**
+   * Composes a payload out of parts, without copying them.
+   *
+   * @param parts the parts of the payload, in order.
+   * @return the concatenation of those parts, sharing their memory.
+   */
+  public static ByteString compose(final Iterable<ByteString> parts) {
+    // Despite its name, ByteString#copyFrom(Iterable) ropes its parts together rather than copying them.
+    return ByteString.copyFrom(Objects.requireNonNull(parts));
+  }
+
+  /**
+   * Composes a payload out of buffers, taking ownership of their remaining bytes without copying them.
+   *
+   * @param buffers the parts of the payload, in order, whose content must not be modified afterwards.
+   * @return the concatenation of those buffers, sharing their memory.
+   */
+  public static ByteString compose(final ByteBuffer... buffers) {
+    final List<ByteString> parts = new ArrayList<>(buffers.length);
+    for (ByteBuffer buffer : buffers) {
+      parts.add(wrap(buffer));
+    }
+    return compose(parts);
+  }
+
+  /**
+   * Maps a whole file into memory as a payload, without loading it onto the heap.
+   *
+   * @param file the file to map, which must not be modified while the payload is in use.
+   * @return a payload backed by the file.
+   * @throws IOException if the file cannot be mapped.
+   * @throws IllegalArgumentException if the file is 2 GiB or larger, more than a payload can hold.
+   */
+  public static ByteString map(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(Objects.requireNonNull(file), StandardOpenOption.READ)) {
+      return map(channel, 0, channel.size());
+    }
+  }
+
+  /**
+   * Maps a region of a file into memory as a payload, without loading it onto the heap.
+   *
+   * <p>The mapping outlives the channel, which may be closed once this returns; it is released once the payload
+   * is no longer referenced.</p>
+   *
+   * @param channel an open channel to the file, which must not be modified while the payload is in use.
+   * @param position where the region starts in the file.
+   * @param size the length of the region.
+   * @return a payload backed by that region of the file.
+   * @throws IOException if the region cannot be mapped.
+   * @throws IllegalArgumentException if the region is negative or 2 GiB or larger, more than a payload can hold.
+   */
+  public static ByteString map(final FileChannel channel, final long position, final long size) throws IOException {
+    Objects.requireNonNull(channel);
+    if (position < 0 || size < 0 || size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          String.format("Invalid file region of %d bytes at %d: payloads hold up to %d bytes",
+              size, position, Integer.MAX_VALUE));
+    }
+    if (size == 0) {
+      return ByteString.EMPTY;
+    }
+    return wrap(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.domain;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable maps of domain objects, shared with the protocol buffers they are converted from rather than copied.
+ *
+ * <p>Domain objects copy the maps they are given so they cannot change behind their back. The maps of protocol
+ * buffer messages cannot change to begin with, so copying them on every request only produces garbage.
+ * Converting from protocol buffers with {@link #view(Map)} and copying with {@link #immutableCopyOf(Map)} shares
+ * them instead.</p>
+ */
+public final class ProtoMaps {
+
+  private ProtoMaps() {
+  }
+
+  /**
+   * Wraps a map of a protocol buffer message, so {@link #immutableCopyOf(Map)} shares it.
+   *
+   * @param protoMap a map returned by a protocol buffer message, which is immutable.
+   * @param <K> the type of keys.
+   * @param <V> the type of values.
+   * @return a read-only view of that map.
+   */
+  public static <K, V> Map<K, V> view(final Map<K, V> protoMap) {
+    return protoMap.isEmpty() ? Map.of() : new ProtoMapView<>(protoMap);
+  }
+
+  /**
+   * An immutable copy of a map, unless it is immutable already.
+   *
+   * @param map the map to copy, with no null keys nor values.
+   * @param <K> the type of keys.
+   * @param <V> the type of values.
+   * @return the map itself if it is a {@link #view(Map)} or an immutable copy, a copy of it otherwise.
+   */
+  public static <K, V> Map<K, V> immutableCopyOf(final Map<K, V> map) {
+    return map instanceof ProtoMapView ? map : Map.copyOf(map);
+  }
+
+  private static final class ProtoMapView<K, V> extends AbstractMap<K, V> {
+    private final Map<K, V> protoMap;
+
+    private ProtoMapView(final Map<K, V> protoMap) {
+      this.protoMap = Objects.requireNonNull(protoMap);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return protoMap.entrySet();
+    }
+
+    @Override
+    public int size() {
+      return protoMap.size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return protoMap.containsKey(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+      return protoMap.get(key);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other == this || protoMap.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return protoMap.hashCode();
+    }
+  }
+}
@@ -15,12 +15,13 @@ package io.dapr.components.domain.bindings;
 
 import io.dapr.components.aspects.InitializableWithProperties;
 import io.dapr.components.aspects.Pingable;
+import io.dapr.components.aspects.Shutdownable;
 import reactor.core.publisher.Flux;
 
 /**
  * Interface for input bindings.
  */
-public interface InputBinding extends InitializableWithProperties, Pingable {
+public interface InputBinding extends InitializableWithProperties, Pingable, Shutdownable {
   /**
    * Establishes a stream with the server, which sends messages down to the
    * client. The client streams acknowledgements back to the server. The server
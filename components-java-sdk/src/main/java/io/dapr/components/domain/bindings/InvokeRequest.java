@@ -14,6 +14,7 @@
 package io.dapr.components.domain.bindings;
 
 import com.google.protobuf.ByteString;
+import io.dapr.components.domain.ProtoMaps;
 
 import java.util.Map;
 import java.util.Objects;
@@ -36,7 +37,7 @@ public record InvokeRequest(ByteString data, Map<String, String> metadata, Strin
   public InvokeRequest(ByteString data, Map<String, String> metadata, String operation) {
     this.data = Objects.requireNonNull(data);
     // All this constructor just so we can make this Map unmodifiable and this class immutable ;)
-    this.metadata = Map.copyOf(Objects.requireNonNull(metadata));
+    this.metadata = ProtoMaps.immutableCopyOf(Objects.requireNonNull(metadata));
     this.operation = Objects.requireNonNull(operation);
   }
 
@@ -48,7 +49,7 @@ public record InvokeRequest(ByteString data, Map<String, String> metadata, Strin
    */
   public static InvokeRequest fromProto(dapr.proto.components.v1.Bindings.InvokeRequest other) {
     return new InvokeRequest(other.getData(),
-        other.getMetadataMap(),
+        ProtoMaps.view(other.getMetadataMap()),
         other.getOperation());
   }
 }
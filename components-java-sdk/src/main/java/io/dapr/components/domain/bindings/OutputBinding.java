@@ -15,6 +15,7 @@ package io.dapr.components.domain.bindings;
 
 import io.dapr.components.aspects.InitializableWithProperties;
 import io.dapr.components.aspects.Pingable;
+import io.dapr.components.aspects.Shutdownable;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -22,7 +23,7 @@ import java.util.List;
 /**
  * Interface for output bindings.
  */
-public interface OutputBinding extends InitializableWithProperties, Pingable {
+public interface OutputBinding extends InitializableWithProperties, Pingable, Shutdownable {
   /**
    * Invoke remote systems with optional payloads.
    *
@@ -16,13 +16,14 @@ package io.dapr.components.domain.pubsub;
 import io.dapr.components.aspects.AdvertisesFeatures;
 import io.dapr.components.aspects.InitializableWithProperties;
 import io.dapr.components.aspects.Pingable;
+import io.dapr.components.aspects.Shutdownable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * Represents a PubSub components.
  */
-public interface PubSub extends InitializableWithProperties, AdvertisesFeatures, Pingable {
+public interface PubSub extends InitializableWithProperties, AdvertisesFeatures, Pingable, Shutdownable {
 
   /** Publish publishes a new message for the given topicName.
    *
@@ -14,6 +14,7 @@
 package io.dapr.components.domain.pubsub;
 
 import com.google.protobuf.ByteString;
+import io.dapr.components.domain.ProtoMaps;
 
 import java.util.Map;
 import java.util.Objects;
@@ -44,7 +45,7 @@ public record PublishRequest(ByteString data, String pubSubName, String topic, M
     this.pubSubName = Objects.requireNonNull(pubSubName);
     this.topic = Objects.requireNonNull(topic);
     // All this constructor just so we can make this Map unmodifiable and this class immutable ;)
-    this.metadata = Map.copyOf(Objects.requireNonNull(metadata));
+    this.metadata = ProtoMaps.immutableCopyOf(Objects.requireNonNull(metadata));
     this.contentType = Objects.requireNonNull(contentType);
   }
 
@@ -58,7 +59,7 @@ public record PublishRequest(ByteString data, String pubSubName, String topic, M
     return new PublishRequest(other.getData(),
         other.getPubsubName(),
         other.getTopic(),
-        other.getMetadataMap(),
+        ProtoMaps.view(other.getMetadataMap()),
         other.getContentType());
   }
 }
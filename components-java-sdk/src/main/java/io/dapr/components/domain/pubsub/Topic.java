@@ -14,6 +14,7 @@
 package io.dapr.components.domain.pubsub;
 
 import dapr.proto.components.v1.Pubsub;
+import io.dapr.components.domain.ProtoMaps;
 import reactor.core.publisher.Flux;
 
 import java.util.Map;
@@ -35,7 +36,7 @@ public record Topic(String name, Map<String, String> metadata) {
   public Topic(String name, Map<String, String> metadata) {
     this.name = Objects.requireNonNull(name);
     // All this constructor just so we can make this Map unmodifiable and this class immutable ;)
-    this.metadata = Map.copyOf(Objects.requireNonNull(metadata));
+    this.metadata = ProtoMaps.immutableCopyOf(Objects.requireNonNull(metadata));
   }
 
   /**
@@ -45,7 +46,7 @@ public record Topic(String name, Map<String, String> metadata) {
    */
   public Topic(Pubsub.Topic other) {
     this(other.getName(),
-        other.getMetadataMap());
+        ProtoMaps.view(other.getMetadataMap()));
   }
 
   /**
@@ -13,6 +13,8 @@
 
 package io.dapr.components.domain.state;
 
+import io.dapr.components.domain.ProtoMaps;
+
 import java.util.Map;
 import java.util.Objects;
 
@@ -44,7 +46,7 @@ public record DeleteRequest(
     this.key = Objects.requireNonNull(key);
     this.etag = Objects.requireNonNull(etag);
     // All this constructor just so we can make this Map unmodifiable and this class immutable ;)
-    this.metadata = Map.copyOf(Objects.requireNonNull(metadata));
+    this.metadata = ProtoMaps.immutableCopyOf(Objects.requireNonNull(metadata));
     this.options = Objects.requireNonNull(options);
   }
 
@@ -57,7 +59,7 @@ public record DeleteRequest(
   public static DeleteRequest fromProto(dapr.proto.components.v1.State.DeleteRequest other) {
     return new DeleteRequest(other.getKey(),
         other.getEtag().getValue(),
-        other.getMetadataMap(),
-        new StateOptions(other.getOptions()));
+        ProtoMaps.view(other.getMetadataMap()),
+        StateOptions.fromProto(other.getOptions()));
   }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@
 package io.dapr.components.domain.state;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.BadRequest;
 import com.google.rpc.ErrorInfo;
 import com.google.rpc.Status;
@@ -31,6 +32,7 @@ public class Exceptions {
   private static final String AFFECTED = "affected";
   private static final String EXPECTED = "expected";
   private static final String ETAG_FIELD_NAME = "etag";
+  private static final String BULK_NOT_APPLIED_REASON = "BULK_NOT_APPLIED";
 
   /**
    * The default description for Etag Mismatch errors.
@@ -118,4 +120,48 @@ public class Exceptions {
         .build();
     return StatusProto.toStatusException(status);
   }
+
+  /**
+   * Builds an exception wrapping an gRPC status error for a bulk set or delete that failed as a whole, leaving
+   * every item of the request untouched.
+   *
+   * <p>Signals that each item may be sent again on its own, for instance to learn which of them made the bulk
+   * operation fail.</p>
+   *
+   * @param message a message-code for this error.
+   * @return A gRPC compatible exception.
+   */
+  public static Throwable getBulkNotAppliedException(final String message) {
+    final Status status = Status.newBuilder()
+        .setCode(io.grpc.Status.Code.ABORTED.value())
+        .setMessage(message)
+        .addDetails(Any.pack(ErrorInfo.newBuilder()
+            .setReason(BULK_NOT_APPLIED_REASON)
+            .build()))
+        .build();
+    return StatusProto.toStatusException(status);
+  }
+
+  /**
+   * Whether an error was built by {@link #getBulkNotAppliedException(String)}.
+   *
+   * @param error the error a bulk set or delete failed with.
+   * @return true if none of the items of the bulk operation was applied.
+   */
+  public static boolean isBulkNotApplied(final Throwable error) {
+    final Status status = StatusProto.fromThrowable(error);
+    if (status == null || status.getCode() != io.grpc.Status.Code.ABORTED.value()) {
+      return false;
+    }
+    for (Any detail : status.getDetailsList()) {
+      try {
+        if (detail.is(ErrorInfo.class) && detail.unpack(ErrorInfo.class).getReason().equals(BULK_NOT_APPLIED_REASON)) {
+          return true;
+        }
+      } catch (InvalidProtocolBufferException e) {
+        return false;
+      }
+    }
+    return false;
+  }
 }
@@ -13,6 +13,7 @@
 
 package io.dapr.components.domain.state;
 
+import io.dapr.components.domain.ProtoMaps;
 import io.dapr.components.domain.state.options.StateConsistency;
 
 import java.util.Map;
@@ -36,7 +37,7 @@ public record GetRequest(String key, Map<String, String> metadata, StateConsiste
    */
   public GetRequest(String key, Map<String, String> metadata, StateConsistency consistency) {
     this.key = Objects.requireNonNull(key);
-    this.metadata = Map.copyOf(Objects.requireNonNull(metadata));
+    this.metadata = ProtoMaps.immutableCopyOf(Objects.requireNonNull(metadata));
     this.consistency = Objects.requireNonNull(consistency);
   }
 
@@ -48,7 +49,7 @@ public record GetRequest(String key, Map<String, String> metadata, StateConsiste
    */
   public static GetRequest fromProto(dapr.proto.components.v1.State.GetRequest other) {
     return new GetRequest(other.getKey(),
-        other.getMetadataMap(),
+        ProtoMaps.view(other.getMetadataMap()),
         StateConsistency.fromProto(other.getConsistency()));
   }
 }
\ No newline at end of file
@@ -54,6 +54,8 @@ public record GetResponse(ByteString data, String etag, Map<String, String> meta
   /**
    * Constructor.
    *
+   * <p>The array is copied; use {@link io.dapr.components.domain.Payloads#wrap(byte[])} to hand it over instead.</p>
+   *
    * @param data The value of the GetRequest response.
    * @param etag The etag of the associated key.
    * @param metadata Metadata related to the response.
@@ -70,6 +72,8 @@ public record GetResponse(ByteString data, String etag, Map<String, String> meta
   /**
    * Constructor with no metadata and using DEFAULT_CONTENT_TYPE for content type.
    *
+   * <p>The array is copied; use {@link io.dapr.components.domain.Payloads#wrap(byte[])} to hand it over instead.</p>
+   *
    * @param data The value of the GetRequest response.
    * @param etag The etag of the associated key.
    */
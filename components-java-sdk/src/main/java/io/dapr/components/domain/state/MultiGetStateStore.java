@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.domain.state;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MultiGetStateStore is implemented by state stores whose backend can read many keys in a single round trip.
+ *
+ * <p>When the state store registered with a component implements it, bulk gets call {@link #multiGet(List)} once
+ * instead of going through {@link StateStore#bulkGet(List)}, which yields a {@link Mono} per key.</p>
+ */
+public interface MultiGetStateStore {
+  /**
+   * Retrieves many keys at once.
+   *
+   * @param getRequests the gets to perform, in a single round trip to the backend if possible.
+   * @return the response to each request, keyed by request. Requests for keys that do not exist are left out.
+   */
+  Mono<Map<GetRequest, GetResponse>> multiGet(List<GetRequest> getRequests);
+}
@@ -14,6 +14,7 @@
 package io.dapr.components.domain.state;
 
 import dapr.proto.components.v1.State;
+import io.dapr.components.domain.state.query.QueryPlan;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -61,4 +62,14 @@ public record Query(Map<String, Object> filter, List<Sorting> sort, @Nullable Pa
         other.getSortList().stream().map(Sorting::fromProto).toList(),
         Pagination.fromProto(other.getPagination()));
   }
+
+  /**
+   * Parses and compiles the filter and sorting of this query, unless the same ones were compiled recently.
+   *
+   * @return the plan to match and order JSON documents by.
+   * @throws io.dapr.components.domain.state.query.InvalidQueryException if the filter or sorting are not valid.
+   */
+  public QueryPlan plan() {
+    return QueryPlan.of(this);
+  }
 }
@@ -29,6 +29,8 @@ public record QueryResponseItem(String key, ByteString data, String etag, String
   /**
    * Alternative constructor.
    *
+   * <p>The array is copied; use {@link io.dapr.components.domain.Payloads#wrap(byte[])} to hand it over instead.</p>
+   *
    * @param key The returned item Key.
    * @param data The returned item Data.
    * @param etag The returned item ETag.
@@ -14,6 +14,7 @@
 package io.dapr.components.domain.state;
 
 import com.google.protobuf.ByteString;
+import io.dapr.components.domain.ProtoMaps;
 
 import java.util.Map;
 import java.util.Objects;
@@ -53,7 +54,7 @@ public record SetRequest(
     this.value = Objects.requireNonNull(value);
     this.etag = Objects.requireNonNull(etag);
     // All this constructor just so we can make this Map unmodifiable and this class immutable ;)
-    this.metadata = Map.copyOf(Objects.requireNonNull(metadata));
+    this.metadata = ProtoMaps.immutableCopyOf(Objects.requireNonNull(metadata));
     this.options = Objects.requireNonNull(options);
     this.contentType = Objects.requireNonNull(contentType);
   }
@@ -61,6 +62,8 @@ public record SetRequest(
   /**
    * Constructor.
    *
+   * <p>The array is copied; use {@link io.dapr.components.domain.Payloads#wrap(byte[])} to hand it over instead.</p>
+   *
    * @param key The key that should be set.
    * @param value Value is the desired content of the given key.
    * @param etag The etag is used as a If-Match header, to allow certain levels of consistency.
@@ -89,8 +92,8 @@ public record SetRequest(
     return new SetRequest(other.getKey(),
         other.getValue(),
         other.getEtag().getValue(),
-        other.getMetadataMap(),
-        new StateOptions(other.getOptions()),
+        ProtoMaps.view(other.getMetadataMap()),
+        StateOptions.fromProto(other.getOptions()),
         other.getContentType());
   }
 }
\ No newline at end of file
@@ -21,6 +21,9 @@ import java.util.Objects;
 
 public record StateOptions(StateConcurrency concurrency, StateConsistency consistency) {
 
+  // There are only a handful of combinations, so every request can share them.
+  private static final StateOptions[][] ALL = allOptions();
+
   public StateOptions {
     Objects.requireNonNull(concurrency);
     Objects.requireNonNull(consistency);
@@ -30,4 +33,25 @@ public record StateOptions(StateConcurrency concurrency, StateConsistency consis
     this(StateConcurrency.fromProto(other.getConcurrency()),
         StateConsistency.fromProto(other.getConsistency()));
   }
+
+  /**
+   * Conversion from protocol buffers, sharing instances across requests.
+   *
+   * @param other The Protocol Buffer representation of StateOptions.
+   * @return The equivalent StateOptions.
+   */
+  public static StateOptions fromProto(State.StateOptions other) {
+    return ALL[StateConcurrency.fromProto(other.getConcurrency()).ordinal()]
+        [StateConsistency.fromProto(other.getConsistency()).ordinal()];
+  }
+
+  private static StateOptions[][] allOptions() {
+    final StateOptions[][] all = new StateOptions[StateConcurrency.values().length][StateConsistency.values().length];
+    for (StateConcurrency concurrency : StateConcurrency.values()) {
+      for (StateConsistency consistency : StateConsistency.values()) {
+        all[concurrency.ordinal()][consistency.ordinal()] = new StateOptions(concurrency, consistency);
+      }
+    }
+    return all;
+  }
 }
@@ -16,6 +16,7 @@ package io.dapr.components.domain.state;
 import io.dapr.components.aspects.AdvertisesFeatures;
 import io.dapr.components.aspects.InitializableWithProperties;
 import io.dapr.components.aspects.Pingable;
+import io.dapr.components.aspects.Shutdownable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -28,7 +29,7 @@ import java.util.List;
  * single-item variants and can be made more efficient if your underlying state store
  * provides native support for bulk operations.</p>
  */
-public interface StateStore extends InitializableWithProperties, AdvertisesFeatures, Pingable {
+public interface StateStore extends InitializableWithProperties, AdvertisesFeatures, Pingable, Shutdownable {
   /**
    * Get data from the given key.
    *
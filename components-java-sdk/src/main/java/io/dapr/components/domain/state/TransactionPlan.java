@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.domain.state;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The operations of a {@link TransactionalStateRequest}, stripped of the superseded ones and grouped into batches.
+ *
+ * <p>When all operations on a key but the first are unconditional, only the last one matters: it is kept, with
+ * the etag of the first one, so the transaction still fails if the state was changed in the meantime. Otherwise,
+ * when a later operation on a key expects an etag set by the transaction itself, all operations on that key are
+ * kept, in order.</p>
+ *
+ * <p>The surviving operations are then grouped into {@link Step steps}: the n-th surviving operation of every key
+ * goes into the n-th step, so steps must run in order but the operations within a step touch distinct keys and may
+ * run in any order, such as a single bulk delete and a single bulk upsert. Keys are sorted within each step, so
+ * concurrent transactions lock rows of SQL backends in the same order.</p>
+ *
+ * @param steps The batches of operations, to run in order.
+ * @param collapsedOperations The number of operations of the transaction found superseded and left out.
+ */
+public record TransactionPlan(List<Step> steps, int collapsedOperations) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if collapsedOperations is negative.
+   */
+  public TransactionPlan {
+    steps = List.copyOf(Objects.requireNonNull(steps));
+    if (collapsedOperations < 0) {
+      throw new IllegalArgumentException("collapsedOperations must not be negative but was " + collapsedOperations);
+    }
+  }
+
+  /**
+   * Plans the operations of a transaction.
+   *
+   * @param request the transaction.
+   * @return the plan of that transaction.
+   */
+  public static TransactionPlan of(final TransactionalStateRequest request) {
+    final Map<String, List<TransactionableOperation>> operationsByKey = new LinkedHashMap<>();
+    request.forEachOperation(
+        delete -> operationsByKey.computeIfAbsent(delete.key(), key -> new ArrayList<>()).add(delete),
+        set -> operationsByKey.computeIfAbsent(set.key(), key -> new ArrayList<>()).add(set));
+
+    final List<String> keys = new ArrayList<>(operationsByKey.keySet());
+    keys.sort(Comparator.naturalOrder());
+    final List<List<TransactionableOperation>> survivorsByKey = new ArrayList<>(keys.size());
+    int collapsed = 0;
+    int stepCount = 0;
+    for (String key : keys) {
+      final List<TransactionableOperation> operations = operationsByKey.get(key);
+      final List<TransactionableOperation> survivors = collapse(operations);
+      survivorsByKey.add(survivors);
+      collapsed += operations.size() - survivors.size();
+      stepCount = Math.max(stepCount, survivors.size());
+    }
+
+    final List<Step> steps = new ArrayList<>(stepCount);
+    for (int step = 0; step < stepCount; step++) {
+      final List<DeleteRequest> deletes = new ArrayList<>();
+      final List<SetRequest> sets = new ArrayList<>();
+      for (List<TransactionableOperation> survivors : survivorsByKey) {
+        if (step < survivors.size()) {
+          final TransactionableOperation operation = survivors.get(step);
+          if (operation instanceof DeleteRequest delete) {
+            deletes.add(delete);
+          } else {
+            sets.add((SetRequest) operation);
+          }
+        }
+      }
+      steps.add(new Step(deletes, sets));
+    }
+    return new TransactionPlan(steps, collapsed);
+  }
+
+  private static List<TransactionableOperation> collapse(final List<TransactionableOperation> operations) {
+    if (operations.size() == 1) {
+      return operations;
+    }
+    final TransactionableOperation first = operations.get(0);
+    final TransactionableOperation last = operations.get(operations.size() - 1);
+    final String etag = etagOf(first);
+    for (TransactionableOperation operation : operations.subList(1, operations.size())) {
+      // Expects an etag only known once the operations before it ran.
+      if (!etagOf(operation).isEmpty()) {
+        return operations;
+      }
+      // The etag of the first operation goes with its options, which the last one must then share.
+      if (!etag.isEmpty() && !optionsOf(operation).equals(optionsOf(first))) {
+        return operations;
+      }
+    }
+    return List.of(withEtag(last, etag));
+  }
+
+  private static String etagOf(final TransactionableOperation operation) {
+    return operation instanceof DeleteRequest delete ? delete.etag() : ((SetRequest) operation).etag();
+  }
+
+  private static StateOptions optionsOf(final TransactionableOperation operation) {
+    return operation instanceof DeleteRequest delete ? delete.options() : ((SetRequest) operation).options();
+  }
+
+  private static TransactionableOperation withEtag(final TransactionableOperation operation, final String etag) {
+    if (etag.equals(etagOf(operation))) {
+      return operation;
+    }
+    if (operation instanceof DeleteRequest delete) {
+      return new DeleteRequest(delete.key(), etag, delete.metadata(), delete.options());
+    }
+    final SetRequest set = (SetRequest) operation;
+    return new SetRequest(set.key(), set.value(), etag, set.metadata(), set.options(), set.contentType());
+  }
+
+  /**
+   * The total number of operations left to run.
+   *
+   * @return the number of operations across all steps.
+   */
+  public int operationCount() {
+    int count = 0;
+    for (Step step : steps) {
+      count += step.deletes().size() + step.sets().size();
+    }
+    return count;
+  }
+
+  /**
+   * Operations on distinct keys, which may run in any order.
+   *
+   * @param deletes The deletes of this step, sorted by key.
+   * @param sets The sets of this step, sorted by key.
+   */
+  public record Step(List<DeleteRequest> deletes, List<SetRequest> sets) {
+
+    /**
+     * Canonical constructor.
+     */
+    public Step {
+      deletes = List.copyOf(Objects.requireNonNull(deletes));
+      sets = List.copyOf(Objects.requireNonNull(sets));
+    }
+  }
+}
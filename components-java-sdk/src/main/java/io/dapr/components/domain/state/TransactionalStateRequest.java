@@ -14,6 +14,7 @@
 package io.dapr.components.domain.state;
 
 import dapr.proto.components.v1.State;
+import io.dapr.components.domain.ProtoMaps;
 
 import java.util.List;
 import java.util.Map;
@@ -25,7 +26,7 @@ public record TransactionalStateRequest(List<TransactionableOperation> operation
   public TransactionalStateRequest(final List<TransactionableOperation> operations,
                                    final Map<String, String> metadata) {
     this.operations = List.copyOf(Objects.requireNonNull(operations));
-    this.metadata = Map.copyOf(Objects.requireNonNull(metadata));
+    this.metadata = ProtoMaps.immutableCopyOf(Objects.requireNonNull(metadata));
   }
 
   /**
@@ -50,6 +51,17 @@ public record TransactionalStateRequest(List<TransactionableOperation> operation
     }
   }
 
+  /**
+   * Plans the operations of this transaction, leaving out the superseded ones and grouping the others into
+   * batches.
+   *
+   * @return the plan of this transaction.
+   * @see TransactionPlan
+   */
+  public TransactionPlan plan() {
+    return TransactionPlan.of(this);
+  }
+
   static TransactionableOperation operationFromProto(final State.TransactionalStateOperation op) {
     Objects.requireNonNull(op);
     if (op.hasSet()) {
@@ -74,6 +86,6 @@ public record TransactionalStateRequest(List<TransactionableOperation> operation
         .map(TransactionalStateRequest::operationFromProto)
         .toList();
 
-    return new TransactionalStateRequest(operations, other.getMetadataMap());
+    return new TransactionalStateRequest(operations, ProtoMaps.view(other.getMetadataMap()));
   }
 }
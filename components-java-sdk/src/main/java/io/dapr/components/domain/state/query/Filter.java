@@ -0,0 +1,343 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.domain.state.query;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.Any;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A filter of Dapr's state query language, parsed and validated.
+ *
+ * <p>Filters are trees of {@link Comparison comparisons} and {@link In memberships} of the values found at dotted
+ * keys of JSON documents, combined with {@link And} and {@link Or}. They {@link #compile() compile} to predicates
+ * over those documents.</p>
+ */
+public interface Filter {
+
+  /**
+   * Compiles this filter.
+   *
+   * @return a predicate telling whether a JSON document matches this filter.
+   */
+  Predicate<JsonNode> compile();
+
+  /**
+   * The keys this filter looks at.
+   *
+   * @return the dotted keys of the values this filter compares.
+   */
+  Set<String> keys();
+
+  /**
+   * Parses the filter of a query.
+   *
+   * @param filter the filter of a query: either empty, or a single operation whose operand is JSON bytes, as sent by
+   *               Dapr, or any object Jackson can convert to JSON.
+   * @return the filter.
+   * @throws InvalidQueryException if the filter is not valid.
+   */
+  static Filter parse(final Map<String, ?> filter) {
+    if (filter.isEmpty()) {
+      return new All();
+    }
+    if (filter.size() > 1) {
+      throw new InvalidQueryException("A filter must have a single operation but had " + filter.keySet());
+    }
+    final Map.Entry<String, ?> operation = filter.entrySet().iterator().next();
+    return parse(operation.getKey(), toJson(operation.getKey(), operation.getValue()));
+  }
+
+  private static Filter parse(final JsonNode filter) {
+    if (!filter.isObject() || filter.size() != 1) {
+      throw new InvalidQueryException("A filter must be an object with a single operation but was " + filter);
+    }
+    final Map.Entry<String, JsonNode> operation = filter.fields().next();
+    return parse(operation.getKey(), operation.getValue());
+  }
+
+  private static Filter parse(final String operation, final JsonNode operand) {
+    return switch (operation) {
+      case "AND" -> new And(parseAll(operation, operand));
+      case "OR" -> new Or(parseAll(operation, operand));
+      case "IN" -> {
+        final Map.Entry<String, JsonNode> field = fieldOf(operation, operand);
+        if (!field.getValue().isArray() || field.getValue().isEmpty()) {
+          throw new InvalidQueryException("IN expects a non-empty array of values for " + field.getKey());
+        }
+        final List<JsonNode> values = new ArrayList<>(field.getValue().size());
+        field.getValue().forEach(values::add);
+        yield new In(field.getKey(), values);
+      }
+      default -> {
+        final Comparison.Operator operator;
+        try {
+          operator = Comparison.Operator.valueOf(operation);
+        } catch (IllegalArgumentException e) {
+          throw new InvalidQueryException("Unsupported filter operation " + operation, e);
+        }
+        final Map.Entry<String, JsonNode> field = fieldOf(operation, operand);
+        yield new Comparison(operator, field.getKey(), field.getValue());
+      }
+    };
+  }
+
+  private static JsonNode toJson(final String operation, final Object operand) {
+    try {
+      if (operand instanceof Any any) {
+        return JsonValues.MAPPER.readTree(any.getValue().newInput());
+      }
+      return operand instanceof JsonNode node ? node : JsonValues.MAPPER.valueToTree(operand);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new InvalidQueryException("Invalid operand of " + operation, e);
+    }
+  }
+
+  private static List<Filter> parseAll(final String operation, final JsonNode operand) {
+    if (!operand.isArray() || operand.isEmpty()) {
+      throw new InvalidQueryException(operation + " expects a non-empty array of filters but got " + operand);
+    }
+    final List<Filter> filters = new ArrayList<>(operand.size());
+    operand.forEach(filter -> filters.add(parse(filter)));
+    return filters;
+  }
+
+  private static Map.Entry<String, JsonNode> fieldOf(final String operation, final JsonNode operand) {
+    if (!operand.isObject() || operand.size() != 1) {
+      throw new InvalidQueryException(operation + " expects an object with a single key but got " + operand);
+    }
+    return operand.fields().next();
+  }
+
+  private static Set<String> keysOf(final List<Filter> filters) {
+    final Set<String> keys = new LinkedHashSet<>();
+    filters.forEach(filter -> keys.addAll(filter.keys()));
+    return Collections.unmodifiableSet(keys);
+  }
+
+  private static void requireScalar(final String key, final JsonNode value) {
+    if (!value.isValueNode() || value.isNull()) {
+      throw new InvalidQueryException("Expected a string, number or boolean to compare " + key + " to, but got "
+          + value);
+    }
+  }
+
+  /**
+   * The filter of queries with no filter, matching every document.
+   */
+  record All() implements Filter {
+
+    @Override
+    public Predicate<JsonNode> compile() {
+      return document -> true;
+    }
+
+    @Override
+    public Set<String> keys() {
+      return Set.of();
+    }
+  }
+
+  /**
+   * Compares the value of a key to a given value.
+   *
+   * <p>Documents without the key, or where it is null, match no comparison. Ranges only match values of the same
+   * type as the one they are compared to.</p>
+   *
+   * @param operator how to compare.
+   * @param key the dotted key of the value to compare.
+   * @param value the string, number or boolean to compare to.
+   */
+  record Comparison(Operator operator, String key, JsonNode value) implements Filter {
+
+    /**
+     * Canonical constructor.
+     *
+     * @throws InvalidQueryException if the key is not valid or the value is not a string, number or boolean.
+     */
+    public Comparison {
+      Objects.requireNonNull(operator);
+      JsonValues.pointerOf(Objects.requireNonNull(key));
+      requireScalar(key, Objects.requireNonNull(value));
+    }
+
+    /**
+     * The comparison operators.
+     */
+    public enum Operator {
+      EQ, NEQ, GT, GTE, LT, LTE
+    }
+
+    @Override
+    public Predicate<JsonNode> compile() {
+      final JsonPointer pointer = JsonValues.pointerOf(key);
+      final Object canonical = JsonValues.canonical(value);
+      return switch (operator) {
+        case EQ -> document -> {
+          final JsonNode actual = document.at(pointer);
+          return JsonValues.isPresent(actual) && canonical.equals(JsonValues.canonical(actual));
+        };
+        case NEQ -> document -> {
+          final JsonNode actual = document.at(pointer);
+          return JsonValues.isPresent(actual) && !canonical.equals(JsonValues.canonical(actual));
+        };
+        case GT -> range(pointer, value, comparison -> comparison > 0);
+        case GTE -> range(pointer, value, comparison -> comparison >= 0);
+        case LT -> range(pointer, value, comparison -> comparison < 0);
+        case LTE -> range(pointer, value, comparison -> comparison <= 0);
+      };
+    }
+
+    @Override
+    public Set<String> keys() {
+      return Set.of(key);
+    }
+
+    private static Predicate<JsonNode> range(final JsonPointer pointer, final JsonNode expected,
+                                             final IntPredicate accepts) {
+      return document -> {
+        final JsonNode actual = document.at(pointer);
+        return JsonValues.comparable(actual, expected) && accepts.test(JsonValues.compare(actual, expected));
+      };
+    }
+  }
+
+  /**
+   * Matches documents where the value of a key is one of some given values.
+   *
+   * @param key the dotted key of the value to look for.
+   * @param values the strings, numbers or booleans to look for.
+   */
+  record In(String key, List<JsonNode> values) implements Filter {
+
+    /**
+     * Canonical constructor.
+     *
+     * @throws InvalidQueryException if the key is not valid, there are no values or some are not strings, numbers
+     *                               or booleans.
+     */
+    public In {
+      JsonValues.pointerOf(Objects.requireNonNull(key));
+      values = List.copyOf(values);
+      if (values.isEmpty()) {
+        throw new InvalidQueryException("IN expects at least one value for " + key);
+      }
+      values.forEach(value -> requireScalar(key, value));
+    }
+
+    @Override
+    public Predicate<JsonNode> compile() {
+      final JsonPointer pointer = JsonValues.pointerOf(key);
+      final Set<Object> canonical = new HashSet<>(values.size() * 2);
+      values.forEach(value -> canonical.add(JsonValues.canonical(value)));
+      return document -> {
+        final JsonNode actual = document.at(pointer);
+        return JsonValues.isPresent(actual) && canonical.contains(JsonValues.canonical(actual));
+      };
+    }
+
+    @Override
+    public Set<String> keys() {
+      return Set.of(key);
+    }
+  }
+
+  /**
+   * Matches documents matching all of some filters.
+   *
+   * @param filters the filters to match.
+   */
+  record And(List<Filter> filters) implements Filter {
+
+    /**
+     * Canonical constructor.
+     *
+     * @throws InvalidQueryException if there are no filters.
+     */
+    public And {
+      filters = List.copyOf(filters);
+      if (filters.isEmpty()) {
+        throw new InvalidQueryException("AND expects at least one filter");
+      }
+    }
+
+    @Override
+    public Predicate<JsonNode> compile() {
+      final List<Predicate<JsonNode>> predicates = filters.stream().map(Filter::compile).toList();
+      return document -> {
+        for (Predicate<JsonNode> predicate : predicates) {
+          if (!predicate.test(document)) {
+            return false;
+          }
+        }
+        return true;
+      };
+    }
+
+    @Override
+    public Set<String> keys() {
+      return keysOf(filters);
+    }
+  }
+
+  /**
+   * Matches documents matching any of some filters.
+   *
+   * @param filters the filters to match.
+   */
+  record Or(List<Filter> filters) implements Filter {
+
+    /**
+     * Canonical constructor.
+     *
+     * @throws InvalidQueryException if there are no filters.
+     */
+    public Or {
+      filters = List.copyOf(filters);
+      if (filters.isEmpty()) {
+        throw new InvalidQueryException("OR expects at least one filter");
+      }
+    }
+
+    @Override
+    public Predicate<JsonNode> compile() {
+      final List<Predicate<JsonNode>> predicates = filters.stream().map(Filter::compile).toList();
+      return document -> {
+        for (Predicate<JsonNode> predicate : predicates) {
+          if (predicate.test(document)) {
+            return true;
+          }
+        }
+        return false;
+      };
+    }
+
+    @Override
+    public Set<String> keys() {
+      return keysOf(filters);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.domain.state.query;
+
+/**
+ * Signals that the filter or sorting of a {@link io.dapr.components.domain.state.Query} is not valid in Dapr's query
+ * language.
+ */
+public class InvalidQueryException extends IllegalArgumentException {
+
+  /**
+   * Constructor.
+   *
+   * @param message what is wrong with the query.
+   */
+  public InvalidQueryException(final String message) {
+    super(message);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param message what is wrong with the query.
+   * @param cause why the query could not be read.
+   */
+  public InvalidQueryException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.domain.state.query;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the values of some dotted keys out of JSON documents, such as state values, without parsing the rest.
+ *
+ * <p>Documents are read in a single forward pass. Fields no key goes through are skipped rather than parsed into
+ * trees, and reading stops as soon as every key has been found. The values found are returned as a document holding
+ * only them, so {@link QueryPlan} or {@link JsonNode#at(String)} find them where they were in the whole one.</p>
+ *
+ * <p>Extractors are immutable and thread-safe.</p>
+ */
+public final class JsonFieldExtractor {
+
+  private final List<String> keys;
+  private final Step root = new Step();
+
+  private JsonFieldExtractor(final Collection<String> keys) {
+    this.keys = List.copyOf(keys);
+    for (String key : this.keys) {
+      // The same segments as the pointers of JsonValues#pointerOf, so both find the same values.
+      final String pointer = JsonValues.pointerOf(key).toString();
+      Step step = root;
+      for (String segment : pointer.substring(1).split("/", -1)) {
+        step.wanted++;
+        step = step.next.computeIfAbsent(segment.replace("~1", "/").replace("~0", "~"), s -> new Step());
+      }
+      step.wanted++;
+      step.terminal = true;
+    }
+  }
+
+  /**
+   * An extractor of some keys.
+   *
+   * @param keys the dotted keys to extract, such as {@code person.org}.
+   * @return the extractor.
+   * @throws InvalidQueryException if a key is not valid.
+   */
+  public static JsonFieldExtractor of(final Collection<String> keys) {
+    return new JsonFieldExtractor(keys);
+  }
+
+  /**
+   * The keys this extracts.
+   *
+   * @return the dotted keys.
+   */
+  public List<String> keys() {
+    return keys;
+  }
+
+  /**
+   * Extracts the values of the keys out of a JSON document.
+   *
+   * @param json the JSON document.
+   * @return a document with the values found, and nothing else; empty unless the document is a JSON object.
+   * @throws IOException if the document is not valid JSON, up to where its last key was found.
+   */
+  public JsonNode extract(final ByteString json) throws IOException {
+    final ObjectNode document = JsonNodeFactory.instance.objectNode();
+    try (JsonParser parser = JsonValues.MAPPER.createParser(json.newInput())) {
+      if (parser.nextToken() == JsonToken.START_OBJECT) {
+        readObject(new Extraction(parser, root.wanted), root, document);
+      }
+    }
+    return document;
+  }
+
+  /**
+   * Reads the fields of an object, skipping those no key goes through, until its end or until all keys are found.
+   */
+  private static void readObject(final Extraction extraction, final Step step, final ObjectNode values)
+      throws IOException {
+    final JsonParser parser = extraction.parser;
+    final int allFound = extraction.found + step.wanted;
+    while (!extraction.isDone() && parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      final JsonToken token = parser.nextToken();
+      final Step next = extraction.found < allFound ? step.next.get(name) : null;
+      if (next == null) {
+        parser.skipChildren();
+        continue;
+      }
+      final JsonNode value = read(extraction, token, next);
+      if (value != null) {
+        values.set(name, value);
+      }
+    }
+  }
+
+  /**
+   * Reads the items of an array, like {@link #readObject(Extraction, Step, ObjectNode)} does fields.
+   */
+  private static void readArray(final Extraction extraction, final Step step, final ArrayNode values)
+      throws IOException {
+    final JsonParser parser = extraction.parser;
+    final int allFound = extraction.found + step.wanted;
+    for (int index = 0; !extraction.isDone() && parser.nextToken() != JsonToken.END_ARRAY; index++) {
+      final Step next = extraction.found < allFound ? step.next.get(Integer.toString(index)) : null;
+      if (next == null) {
+        parser.skipChildren();
+        continue;
+      }
+      final JsonNode value = read(extraction, parser.currentToken(), next);
+      if (value != null) {
+        while (values.size() < index) {
+          values.addNull();
+        }
+        values.add(value);
+      }
+    }
+  }
+
+  /**
+   * Reads the value a step leads to.
+   *
+   * @return the value if a key ends there, what was found in it if keys go through it, null if nothing was.
+   */
+  private static JsonNode read(final Extraction extraction, final JsonToken token, final Step step)
+      throws IOException {
+    if (step.terminal) {
+      // Whatever else is wanted within this value is found along with it.
+      extraction.found += step.wanted;
+      return extraction.parser.readValueAsTree();
+    }
+    if (token == JsonToken.START_OBJECT) {
+      final ObjectNode values = JsonNodeFactory.instance.objectNode();
+      readObject(extraction, step, values);
+      return values.isEmpty() ? null : values;
+    }
+    if (token == JsonToken.START_ARRAY) {
+      final ArrayNode values = JsonNodeFactory.instance.arrayNode();
+      readArray(extraction, step, values);
+      return values.isEmpty() ? null : values;
+    }
+    return null;
+  }
+
+  /**
+   * The state of a single extraction.
+   */
+  private static final class Extraction {
+    private final JsonParser parser;
+    private final int wanted;
+    private int found;
+
+    private Extraction(final JsonParser parser, final int wanted) {
+      this.parser = parser;
+      this.wanted = wanted;
+    }
+
+    private boolean isDone() {
+      return found == wanted;
+    }
+  }
+
+  /**
+   * A segment of some keys, and the segments they continue with.
+   */
+  private static final class Step {
+    private final Map<String, Step> next = new HashMap<>();
+    private int wanted;
+    private boolean terminal;
+  }
+}
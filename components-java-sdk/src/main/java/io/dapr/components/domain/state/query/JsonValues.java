@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.domain.state.query;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * How queries read, compare and order JSON values.
+ *
+ * <p>Numbers are compared by value whatever their representation, so {@code 1} equals {@code 1.0}. Values of
+ * different types are never equal; they are ordered booleans first, then numbers, strings, and anything else.</p>
+ */
+final class JsonValues {
+
+  static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final int BOOLEAN = 0;
+  private static final int NUMBER = 1;
+  private static final int STRING = 2;
+  private static final int OTHER = 3;
+  private static final int ABSENT = 4;
+
+  private JsonValues() {
+  }
+
+  /**
+   * Where a dotted key, such as {@code person.org}, points in a document.
+   *
+   * @param key the dotted key.
+   * @return the pointer to the value of that key.
+   * @throws InvalidQueryException if the key is empty or has an empty segment.
+   */
+  static JsonPointer pointerOf(final String key) {
+    if (key.isEmpty() || key.startsWith(".") || key.endsWith(".") || key.contains("..")) {
+      throw new InvalidQueryException("Invalid key '" + key + "'");
+    }
+    final StringBuilder pointer = new StringBuilder(key.length() + 1).append('/');
+    for (int i = 0; i < key.length(); i++) {
+      final char c = key.charAt(i);
+      switch (c) {
+        case '.' -> pointer.append('/');
+        case '~' -> pointer.append("~0");
+        case '/' -> pointer.append("~1");
+        default -> pointer.append(c);
+      }
+    }
+    return JsonPointer.compile(pointer.toString());
+  }
+
+  /**
+   * Whether a value was found at all.
+   *
+   * @param node the value found, if any.
+   * @return true unless the value is missing or null.
+   */
+  static boolean isPresent(final JsonNode node) {
+    return !node.isMissingNode() && !node.isNull();
+  }
+
+  /**
+   * A representation of a scalar value that equals the one of any equal value, to match against with
+   * {@link Object#equals(Object)}.
+   *
+   * @param node a present value.
+   * @return that representation.
+   */
+  static Object canonical(final JsonNode node) {
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isNumber()) {
+      return node.decimalValue().stripTrailingZeros();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    return node;
+  }
+
+  /**
+   * Whether two values are of the same type and can therefore be ranged against each other.
+   *
+   * @param left a present value.
+   * @param right another present value.
+   * @return true if both are numbers, strings or booleans.
+   */
+  static boolean comparable(final JsonNode left, final JsonNode right) {
+    return rank(left) == rank(right) && rank(left) < OTHER;
+  }
+
+  private static int rank(final JsonNode node) {
+    if (!isPresent(node)) {
+      return ABSENT;
+    }
+    if (node.isBoolean()) {
+      return BOOLEAN;
+    }
+    if (node.isNumber()) {
+      return NUMBER;
+    }
+    return node.isTextual() ? STRING : OTHER;
+  }
+
+  /**
+   * Orders values as described above, with missing values (or nulls) after all others.
+   *
+   * @param left a value, which may be missing.
+   * @param right another value, which may be missing.
+   * @return how the left value compares to the right one.
+   */
+  static int compare(final JsonNode left, final JsonNode right) {
+    final int rank = rank(left);
+    if (rank != rank(right)) {
+      return Integer.compare(rank, rank(right));
+    }
+    return switch (rank) {
+      case BOOLEAN -> Boolean.compare(left.booleanValue(), right.booleanValue());
+      case NUMBER -> left.isIntegralNumber() && right.isIntegralNumber() && left.canConvertToLong()
+          && right.canConvertToLong()
+          ? Long.compare(left.longValue(), right.longValue())
+          : left.decimalValue().compareTo(right.decimalValue());
+      case STRING -> left.textValue().compareTo(right.textValue());
+      default -> 0;
+    };
+  }
+}
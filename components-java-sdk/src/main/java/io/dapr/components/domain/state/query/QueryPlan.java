@@ -0,0 +1,202 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.domain.state.query;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.ByteString;
+import io.dapr.components.domain.state.Query;
+import io.dapr.components.domain.state.Sorting;
+import io.dapr.components.domain.state.options.Order;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The filter and sorting of a query, compiled to match and order JSON documents.
+ *
+ * <p>{@link #of(Query)} caches plans by the filter and sorting they were compiled from, as sent by Dapr, so the
+ * same query asked over and over again, like the one behind a dashboard, is only ever parsed once. Pagination is
+ * left to components, as the meaning of its tokens is theirs.</p>
+ *
+ * <p>Documents to match and order can be JSON trees, or the few {@link #keys()} of them the plan looks at, taken
+ * straight out of state values with {@link #documentOf(ByteString)}.</p>
+ *
+ * <p>Plans are immutable and thread-safe.</p>
+ */
+public final class QueryPlan {
+
+  /**
+   * How many plans are kept, the least recently used ones being evicted first.
+   */
+  static final int MAXIMUM_CACHED_PLANS = 256;
+
+  private static final LinkedHashMap<Key, QueryPlan> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Filter filter;
+  private final List<Sorting> sort;
+  private final Predicate<JsonNode> predicate;
+  private final Comparator<JsonNode> order;
+  private final JsonFieldExtractor extractor;
+
+  private QueryPlan(final Filter filter, final List<Sorting> sort) {
+    this.filter = filter;
+    this.sort = List.copyOf(sort);
+    this.predicate = filter.compile();
+    this.order = orderOf(sort);
+    final Set<String> keys = new LinkedHashSet<>(filter.keys());
+    sort.forEach(sorting -> keys.add(sorting.key()));
+    this.extractor = JsonFieldExtractor.of(keys);
+  }
+
+  /**
+   * The plan of a query, compiled once and then cached.
+   *
+   * @param query the query.
+   * @return the plan of its filter and sorting.
+   * @throws InvalidQueryException if the query is not valid.
+   */
+  public static QueryPlan of(final Query query) {
+    final Key key = new Key(query.filter(), query.sort());
+    synchronized (CACHE) {
+      final QueryPlan cached = CACHE.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    // Compiled outside the lock, at the cost of compiling twice when two threads miss the same query at once.
+    final QueryPlan plan = compile(Filter.parse(query.filter()), query.sort());
+    synchronized (CACHE) {
+      CACHE.put(key, plan);
+      if (CACHE.size() > MAXIMUM_CACHED_PLANS) {
+        final Iterator<QueryPlan> eldest = CACHE.values().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Compiles a plan, without caching it.
+   *
+   * @param filter the filter of the query.
+   * @param sort the sorting of the query, from the most significant key to the least.
+   * @return the plan of that filter and sorting.
+   * @throws InvalidQueryException if the sorting is not valid.
+   */
+  public static QueryPlan compile(final Filter filter, final List<Sorting> sort) {
+    return new QueryPlan(Objects.requireNonNull(filter), sort);
+  }
+
+  /**
+   * The filter this plan was compiled from.
+   *
+   * @return the filter.
+   */
+  public Filter filter() {
+    return filter;
+  }
+
+  /**
+   * The sorting this plan was compiled from.
+   *
+   * @return the sorting, from the most significant key to the least.
+   */
+  public List<Sorting> sort() {
+    return sort;
+  }
+
+  /**
+   * The keys this plan looks at in documents.
+   *
+   * @return the dotted keys of the filter, then of the sorting.
+   */
+  public List<String> keys() {
+    return extractor.keys();
+  }
+
+  /**
+   * Reads what this plan looks at in a JSON document, without parsing the rest.
+   *
+   * @param json the JSON document, such as a state value.
+   * @return a document to match and order in place of the whole one.
+   * @throws IOException if the document is not valid JSON.
+   * @see JsonFieldExtractor
+   */
+  public JsonNode documentOf(final ByteString json) throws IOException {
+    return extractor.extract(json);
+  }
+
+  /**
+   * Whether a document matches the filter of the query.
+   *
+   * @param document the JSON document, such as a state value.
+   * @return true if it matches.
+   */
+  public boolean matches(final JsonNode document) {
+    return predicate.test(document);
+  }
+
+  /**
+   * The sort order of the query.
+   *
+   * <p>Documents lacking a key sort after those having it, whatever the order. Documents the sorting does not tell
+   * apart compare as equal, so stable sorts keep them in their original order.</p>
+   *
+   * @return a comparator of JSON documents.
+   */
+  public Comparator<JsonNode> order() {
+    return order;
+  }
+
+  private static Comparator<JsonNode> orderOf(final List<Sorting> sort) {
+    Comparator<JsonNode> order = (left, right) -> 0;
+    for (Sorting sorting : sort) {
+      order = order.thenComparing(orderOf(sorting));
+    }
+    return order;
+  }
+
+  private static Comparator<JsonNode> orderOf(final Sorting sorting) {
+    final JsonPointer pointer = JsonValues.pointerOf(Objects.requireNonNull(sorting.key()));
+    if (Objects.requireNonNull(sorting.order()) == Order.UNRECOGNIZED) {
+      throw new InvalidQueryException("Unrecognized order to sort " + sorting.key());
+    }
+    final boolean descending = sorting.order() == Order.DESC;
+    return (left, right) -> {
+      final JsonNode leftValue = left.at(pointer);
+      final JsonNode rightValue = right.at(pointer);
+      if (descending && JsonValues.isPresent(leftValue) && JsonValues.isPresent(rightValue)) {
+        return JsonValues.compare(rightValue, leftValue);
+      }
+      return JsonValues.compare(leftValue, rightValue);
+    };
+  }
+
+  /**
+   * What plans are cached by: the filter and sorting of queries as sent by Dapr, whose operands are compared by
+   * their bytes without being parsed.
+   */
+  private record Key(Map<String, Object> filter, List<Sorting> sort) {
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.server;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.ServerBuilder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The executor running the gRPC handlers of a single pluggable component, as described by an {@link ExecutorPolicy}.
+ *
+ * <p>Executors created here are owned by this class and must be released with
+ * {@link #shutdown(long, TimeUnit)} once the server using them has terminated.</p>
+ */
+final class ApplicationExecutor {
+  private static final Logger log = Logger.getLogger(ApplicationExecutor.class.getName());
+
+  private final ExecutorPolicy policy;
+
+  // Null for policies that do not require us to create (and later release) an executor.
+  private final ExecutorService executorService;
+
+  /**
+   * Constructor.
+   *
+   * @param componentName name of the component whose handlers will run on this executor.
+   * @param policy the policy describing which executor to use.
+   * @param boundedThreads number of threads used by {@link ExecutorPolicy#BOUNDED}.
+   */
+  ApplicationExecutor(final String componentName, final ExecutorPolicy policy, final int boundedThreads) {
+    ExecutorPolicy effectivePolicy = policy;
+    ExecutorService effectiveExecutor = null;
+    if (policy == ExecutorPolicy.VIRTUAL_THREADS) {
+      effectiveExecutor = newVirtualThreadPerTaskExecutor();
+      if (effectiveExecutor == null) {
+        log.warning("Virtual threads are not supported by this Java runtime. Falling back to "
+            + ExecutorPolicy.BOUNDED);
+        effectivePolicy = ExecutorPolicy.BOUNDED;
+      }
+    }
+    if (effectivePolicy == ExecutorPolicy.BOUNDED) {
+      effectiveExecutor = newBoundedExecutor(componentName, boundedThreads);
+    }
+    this.policy = effectivePolicy;
+    this.executorService = effectiveExecutor;
+    log.info("Component " + componentName + " handles calls using executor policy " + this.policy
+        + (this.policy == ExecutorPolicy.BOUNDED ? " with " + boundedThreads + " thread(s)" : ""));
+  }
+
+  /**
+   * Makes a server being built run its data handlers on this executor, and its control-plane ones on a reserved
+   * executor.
+   *
+   * @param serverBuilder the builder of the server for a single pluggable component.
+   * @param controlPlaneExecutor the executor reserved to {@link CallLane#CONTROL_PLANE} calls.
+   * @param <T> the type of the server builder.
+   * @return the very same serverBuilder, so calls can be chained.
+   */
+  <T extends ServerBuilder<T>> T configure(final T serverBuilder, final Executor controlPlaneExecutor) {
+    /*
+     * gRPC only picks the executor of a call once it has looked up its method, which happens on the executor of the
+     * server. That lookup must not queue up behind the calls of a saturated bounded pool, so the server keeps gRPC's
+     * own unbounded executor, unless told to run everything on the event loops.
+     */
+    final T laneAgnosticBuilder = policy == ExecutorPolicy.DIRECT ? serverBuilder.directExecutor() : serverBuilder;
+    return laneAgnosticBuilder.callExecutor(new CallLaneExecutorSupplier(controlPlaneExecutor, executor()));
+  }
+
+  /**
+   * The executor running the handlers of this component, for servers picking executors per call.
+   *
+   * @return the executor, or {@code null} to use the default executor of the server.
+   */
+  Executor executor() {
+    return switch (policy) {
+      case GRPC_DEFAULT -> null;
+      case DIRECT -> MoreExecutors.directExecutor();
+      case BOUNDED, VIRTUAL_THREADS -> executorService;
+    };
+  }
+
+  /**
+   * Releases the executor created by this class, if any.
+   *
+   * @param timeout maximum time to wait for running tasks to finish.
+   * @param unit the time unit of the timeout argument.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  void shutdown(final long timeout, final TimeUnit unit) throws InterruptedException {
+    if (executorService != null) {
+      executorService.shutdown();
+      executorService.awaitTermination(timeout, unit);
+    }
+  }
+
+  private static ExecutorService newBoundedExecutor(final String componentName, final int threads) {
+    final ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("dapr-components-" + componentName + "-" + thread.getPoolIndex());
+      return thread;
+    };
+    // asyncMode: handlers are independent tasks, so FIFO scheduling suits them better than LIFO.
+    return new ForkJoinPool(threads, threadFactory, null, true);
+  }
+
+  // We compile against Java 17, so virtual threads can only be reached by reflection. Null if not supported.
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      return null;
+    }
+  }
+}
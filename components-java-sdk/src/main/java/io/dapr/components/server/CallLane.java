@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import io.grpc.MethodDescriptor;
+
+import java.util.Set;
+
+/**
+ * The lanes calls to a pluggable component are split into, so that data traffic cannot starve control traffic.
+ *
+ * <p>daprd relies on control-plane calls to decide whether a component is healthy: if these queue up behind data
+ * calls when the component is overloaded, the sidecar marks the component unhealthy and overload turns into an
+ * outage. Control-plane calls are therefore handled on a small, reserved executor and are never shed by the
+ * concurrency limit.</p>
+ */
+public enum CallLane {
+  /**
+   * {@code Init}, {@code Features} and {@code Ping} of every component API, plus server reflection.
+   */
+  CONTROL_PLANE,
+
+  /**
+   * Every other call, i.e. the actual work of the component.
+   */
+  DATA;
+
+  private static final Set<String> CONTROL_PLANE_METHODS = Set.of("Init", "Features", "Ping");
+  private static final String REFLECTION_SERVICE_PREFIX = "grpc.reflection.";
+
+  /**
+   * The lane of a gRPC method.
+   *
+   * @param fullMethodName the full name of the method, such as {@code dapr.proto.components.v1.StateStore/Ping}.
+   * @return the lane calls to this method belong to.
+   */
+  static CallLane of(final String fullMethodName) {
+    final String serviceName = MethodDescriptor.extractFullServiceName(fullMethodName);
+    return CONTROL_PLANE_METHODS.contains(MethodDescriptor.extractBareMethodName(fullMethodName))
+        || (serviceName != null && serviceName.startsWith(REFLECTION_SERVICE_PREFIX))
+        ? CONTROL_PLANE
+        : DATA;
+  }
+
+  /**
+   * The lane of a gRPC method.
+   *
+   * @param method the method.
+   * @return the lane calls to this method belong to.
+   */
+  static CallLane of(final MethodDescriptor<?, ?> method) {
+    return of(method.getFullMethodName());
+  }
+}
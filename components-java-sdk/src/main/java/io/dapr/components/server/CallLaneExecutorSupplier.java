@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Picks, per call, the executor of its {@link CallLane}.
+ */
+final class CallLaneExecutorSupplier implements ServerCallExecutorSupplier {
+  private final Executor controlPlaneExecutor;
+  private final Executor dataExecutor;
+
+  /**
+   * Constructor.
+   *
+   * @param controlPlaneExecutor the executor reserved to control-plane calls.
+   * @param dataExecutor the executor of data calls, or null for the server default.
+   */
+  CallLaneExecutorSupplier(final Executor controlPlaneExecutor, final Executor dataExecutor) {
+    this.controlPlaneExecutor = controlPlaneExecutor;
+    this.dataExecutor = dataExecutor;
+  }
+
+  @Override
+  public <ReqT, RespT> Executor getExecutor(final ServerCall<ReqT, RespT> call, final Metadata headers) {
+    return CallLane.of(call.getMethodDescriptor()) == CallLane.CONTROL_PLANE ? controlPlaneExecutor : dataExecutor;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the latency of unary calls, per {@link CallLane}.
+ *
+ * <p>This is a stream tracer rather than an interceptor: tracers are created as soon as a call reaches the
+ * transport, before it is handed to an executor, so the time a call spends queueing is measured as well. That is
+ * exactly the time that grows when control-plane calls get starved by data calls.</p>
+ *
+ * <p>It also counts the calls, streaming ones included, that daprd cancelled or let expire before they ended.</p>
+ */
+final class CallLaneMetrics extends ServerStreamTracer.Factory {
+  private final Map<CallLane, LatencyHistogram> histograms = new EnumMap<>(CallLane.class);
+  private final Map<CallLane, LongAdder> cancelled = new EnumMap<>(CallLane.class);
+
+  /**
+   * Constructor.
+   */
+  CallLaneMetrics() {
+    for (CallLane lane : CallLane.values()) {
+      histograms.put(lane, new LatencyHistogram());
+      cancelled.put(lane, new LongAdder());
+    }
+  }
+
+  @Override
+  public ServerStreamTracer newServerStreamTracer(final String fullMethodName, final Metadata headers) {
+    final long startedAt = System.nanoTime();
+    return new ServerStreamTracer() {
+      // Only known once the method is found, which may never happen.
+      private volatile boolean unary;
+
+      @Override
+      public void serverCallStarted(final ServerCallInfo<?, ?> callInfo) {
+        unary = callInfo.getMethodDescriptor().getType() == MethodDescriptor.MethodType.UNARY;
+      }
+
+      @Override
+      public void streamClosed(final Status status) {
+        final Status.Code code = status.getCode();
+        if (code == Status.Code.CANCELLED || code == Status.Code.DEADLINE_EXCEEDED) {
+          cancelled.get(CallLane.of(fullMethodName)).increment();
+        }
+        // Streaming calls last as long as the client wants them to, their duration says nothing about latency.
+        if (unary) {
+          histograms.get(CallLane.of(fullMethodName)).record(System.nanoTime() - startedAt);
+        }
+      }
+    };
+  }
+
+  /**
+   * A snapshot of the latency of each lane.
+   *
+   * @return the stats of each lane, in the order of {@link CallLane#values()}.
+   */
+  List<CallLaneStats> stats() {
+    return Arrays.stream(CallLane.values())
+        .map(lane -> {
+          final LatencyHistogram histogram = histograms.get(lane);
+          return new CallLaneStats(lane,
+              histogram.count(),
+              Duration.ofNanos(histogram.percentileMicros(50) * 1_000),
+              Duration.ofNanos(histogram.percentileMicros(99) * 1_000),
+              Duration.ofNanos(histogram.maxMicros() * 1_000),
+              cancelled.get(lane).sum());
+        })
+        .toList();
+  }
+}
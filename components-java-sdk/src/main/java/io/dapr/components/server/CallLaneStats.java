@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of the latency of the unary calls of a {@link CallLane}, across all components.
+ *
+ * <p>Latency is measured from the moment a call reaches the server, so time spent waiting for an executor thread
+ * is accounted for. Percentiles are accurate to within about 12%.</p>
+ *
+ * @param lane The lane.
+ * @param calls Calls completed so far.
+ * @param median Median latency.
+ * @param p99 99th percentile latency.
+ * @param max Maximum latency.
+ * @param cancelled Calls, streaming ones included, cancelled by daprd or past their deadline before they ended.
+ */
+public record CallLaneStats(CallLane lane, long calls, Duration median, Duration p99, Duration max, long cancelled) {
+}
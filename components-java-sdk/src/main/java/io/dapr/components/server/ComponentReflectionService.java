@@ -0,0 +1,230 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.server;
+
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.Descriptors.MethodDescriptor;
+import com.google.protobuf.Descriptors.ServiceDescriptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoFileDescriptorSupplier;
+import io.grpc.reflection.v1alpha.ErrorResponse;
+import io.grpc.reflection.v1alpha.ExtensionNumberResponse;
+import io.grpc.reflection.v1alpha.ExtensionRequest;
+import io.grpc.reflection.v1alpha.FileDescriptorResponse;
+import io.grpc.reflection.v1alpha.ListServiceResponse;
+import io.grpc.reflection.v1alpha.ServerReflectionGrpc;
+import io.grpc.reflection.v1alpha.ServerReflectionRequest;
+import io.grpc.reflection.v1alpha.ServerReflectionResponse;
+import io.grpc.reflection.v1alpha.ServiceResponse;
+import io.grpc.stub.StreamObserver;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The gRPC reflection service of a single component, when many components share a server.
+ *
+ * <p>daprd relies on reflection to discover which APIs a component implements, so each component must only list
+ * its own services. gRPC's own reflection service lists those of the whole server, which it finds in the call
+ * context; this one lists those it looks up, and otherwise answers the same.</p>
+ */
+final class ComponentReflectionService extends ServerReflectionGrpc.ServerReflectionImplBase {
+
+  /**
+   * Looks up the services to reflect.
+   */
+  @FunctionalInterface
+  interface ServiceLookup {
+    /**
+     * The services of the component.
+     *
+     * @return the services, including this reflection service.
+     */
+    List<ServerServiceDefinition> services();
+  }
+
+  private final ServiceLookup serviceLookup;
+  private volatile Index index;
+
+  /**
+   * Constructor.
+   *
+   * @param serviceLookup looks up the services of the component, which must not change once calls are served.
+   */
+  ComponentReflectionService(final ServiceLookup serviceLookup) {
+    this.serviceLookup = serviceLookup;
+  }
+
+  @Override
+  public StreamObserver<ServerReflectionRequest> serverReflectionInfo(
+      final StreamObserver<ServerReflectionResponse> responseObserver) {
+    return new StreamObserver<>() {
+      @Override
+      public void onNext(final ServerReflectionRequest request) {
+        responseObserver.onNext(respond(request));
+      }
+
+      @Override
+      public void onError(final Throwable t) {
+        // The client went away, nothing to answer.
+      }
+
+      @Override
+      public void onCompleted() {
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
+  private ServerReflectionResponse respond(final ServerReflectionRequest request) {
+    final Index index = index();
+    final ServerReflectionResponse.Builder response = ServerReflectionResponse.newBuilder()
+        .setValidHost(request.getHost())
+        .setOriginalRequest(request);
+    switch (request.getMessageRequestCase()) {
+      case LIST_SERVICES -> {
+        final ListServiceResponse.Builder services = ListServiceResponse.newBuilder();
+        index.serviceNames.forEach(name -> services.addService(ServiceResponse.newBuilder().setName(name)));
+        response.setListServicesResponse(services);
+      }
+      case FILE_BY_FILENAME -> respondWithFile(response, index.filesByName.get(request.getFileByFilename()),
+          "File not found.");
+      case FILE_CONTAINING_SYMBOL -> respondWithFile(response,
+          index.filesBySymbol.get(request.getFileContainingSymbol()), "Symbol not found.");
+      case FILE_CONTAINING_EXTENSION -> {
+        final ExtensionRequest extension = request.getFileContainingExtension();
+        final Map<Integer, FileDescriptor> extensions = index.extensionsByType.get(extension.getContainingType());
+        respondWithFile(response, extensions == null ? null : extensions.get(extension.getExtensionNumber()),
+            "Extension not found.");
+      }
+      case ALL_EXTENSION_NUMBERS_OF_TYPE -> {
+        final String type = request.getAllExtensionNumbersOfType();
+        if (!index.filesBySymbol.containsKey(type)) {
+          respondWithError(response, Status.Code.NOT_FOUND, "Type not found.");
+        } else {
+          response.setAllExtensionNumbersResponse(ExtensionNumberResponse.newBuilder()
+              .setBaseTypeName(type)
+              .addAllExtensionNumber(index.extensionsByType.getOrDefault(type, Map.of()).keySet()));
+        }
+      }
+      default -> respondWithError(response, Status.Code.UNIMPLEMENTED, "not implemented "
+          + request.getMessageRequestCase());
+    }
+    return response.build();
+  }
+
+  private static void respondWithFile(final ServerReflectionResponse.Builder response, final FileDescriptor file,
+                                      final String notFound) {
+    if (file == null) {
+      respondWithError(response, Status.Code.NOT_FOUND, notFound);
+      return;
+    }
+    // The file along with everything it depends on, like gRPC's reflection service does.
+    final FileDescriptorResponse.Builder files = FileDescriptorResponse.newBuilder();
+    final Set<String> seen = new LinkedHashSet<>();
+    final Queue<FileDescriptor> pending = new ArrayDeque<>(List.of(file));
+    while (!pending.isEmpty()) {
+      final FileDescriptor next = pending.remove();
+      if (seen.add(next.getName())) {
+        files.addFileDescriptorProto(next.toProto().toByteString());
+        pending.addAll(next.getDependencies());
+      }
+    }
+    response.setFileDescriptorResponse(files);
+  }
+
+  private static void respondWithError(final ServerReflectionResponse.Builder response, final Status.Code code,
+                                       final String message) {
+    response.setErrorResponse(ErrorResponse.newBuilder().setErrorCode(code.value()).setErrorMessage(message));
+  }
+
+  private Index index() {
+    Index current = index;
+    if (current == null) {
+      // Racing threads would build equal indexes, so the first one to be set does not matter.
+      current = new Index(serviceLookup.services());
+      index = current;
+    }
+    return current;
+  }
+
+  /**
+   * What reflection answers with, indexed out of the services of the component.
+   */
+  private static final class Index {
+    private final Set<String> serviceNames = new LinkedHashSet<>();
+    private final Map<String, FileDescriptor> filesByName = new HashMap<>();
+    private final Map<String, FileDescriptor> filesBySymbol = new HashMap<>();
+    private final Map<String, Map<Integer, FileDescriptor>> extensionsByType = new HashMap<>();
+
+    private Index(final List<ServerServiceDefinition> services) {
+      final Map<String, FileDescriptor> serviceFiles = new LinkedHashMap<>();
+      for (ServerServiceDefinition service : services) {
+        final Object schema = service.getServiceDescriptor().getSchemaDescriptor();
+        if (schema instanceof ProtoFileDescriptorSupplier supplier) {
+          final String name = service.getServiceDescriptor().getName();
+          serviceNames.add(name);
+          serviceFiles.put(name, supplier.getFileDescriptor());
+        }
+      }
+      final Queue<FileDescriptor> pending = new ArrayDeque<>(serviceFiles.values());
+      while (!pending.isEmpty()) {
+        final FileDescriptor file = pending.remove();
+        if (filesByName.putIfAbsent(file.getName(), file) == null) {
+          indexSymbolsOf(file);
+          pending.addAll(file.getDependencies());
+        }
+      }
+    }
+
+    private void indexSymbolsOf(final FileDescriptor file) {
+      for (ServiceDescriptor service : file.getServices()) {
+        filesBySymbol.put(service.getFullName(), file);
+        for (MethodDescriptor method : service.getMethods()) {
+          filesBySymbol.put(method.getFullName(), file);
+        }
+      }
+      file.getMessageTypes().forEach(message -> indexMessage(file, message));
+      for (EnumDescriptor enumType : file.getEnumTypes()) {
+        filesBySymbol.put(enumType.getFullName(), file);
+      }
+      file.getExtensions().forEach(extension -> indexExtension(file, extension));
+    }
+
+    private void indexMessage(final FileDescriptor file, final Descriptor message) {
+      filesBySymbol.put(message.getFullName(), file);
+      message.getNestedTypes().forEach(nested -> indexMessage(file, nested));
+      for (EnumDescriptor enumType : message.getEnumTypes()) {
+        filesBySymbol.put(enumType.getFullName(), file);
+      }
+      message.getExtensions().forEach(extension -> indexExtension(file, extension));
+    }
+
+    private void indexExtension(final FileDescriptor file, final FieldDescriptor extension) {
+      extensionsByType.computeIfAbsent(extension.getContainingType().getFullName(), type -> new TreeMap<>())
+          .put(extension.getNumber(), file);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import io.grpc.Grpc;
+import io.grpc.HandlerRegistry;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.netty.channel.unix.DomainSocketAddress;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Routes the calls received by a single server listening on the sockets of many components.
+ *
+ * <p>Each call is dispatched to the services of the component owning the socket the call arrived on, as reported by
+ * {@link Grpc#TRANSPORT_ATTR_LOCAL_ADDR} (see {@link ListenAddressReporting}). This allows different components
+ * to expose the same service, say two state stores, from the same server. It also picks, per call, the executor of
+ * that component (or the one reserved to the {@link CallLane#CONTROL_PLANE}) and gives each component a reflection
+ * service only listing its own services, as daprd relies on reflection to discover which APIs a component
+ * implements.</p>
+ *
+ * <p>All components must be added before the server using this router is started.</p>
+ */
+final class ComponentRouter extends HandlerRegistry implements ServerCallExecutorSupplier {
+
+  private record Route(String componentName, Map<String, ServerMethodDefinition<?, ?>> methods, Executor executor) {
+  }
+
+  private final Map<String, Route> routesByListenAddress = new HashMap<>();
+  private final Map<String, ServerMethodDefinition<?, ?>> routingMethods = new HashMap<>();
+  private final Executor controlPlaneExecutor;
+
+  /**
+   * Constructor.
+   *
+   * @param controlPlaneExecutor the executor reserved to control-plane calls of all components.
+   */
+  ComponentRouter(final Executor controlPlaneExecutor) {
+    this.controlPlaneExecutor = controlPlaneExecutor;
+  }
+
+  /**
+   * Makes calls received on a socket go to the services of a component.
+   *
+   * @param componentName name of the component, used for diagnostics.
+   * @param listenAddress the socket of this component.
+   * @param services the services exposed by this component.
+   * @param executor the executor to run this component's handlers on, or null for the server default.
+   */
+  void addComponent(final String componentName,
+                    final SocketAddress listenAddress,
+                    final List<ServerServiceDefinition> services,
+                    final Executor executor) {
+    final List<ServerServiceDefinition> componentServices = new ArrayList<>(services);
+    componentServices.add(newReflectionService(Collections.unmodifiableList(componentServices)));
+
+    final Map<String, ServerMethodDefinition<?, ?>> methods = new HashMap<>();
+    for (ServerServiceDefinition service : componentServices) {
+      for (ServerMethodDefinition<?, ?> method : service.getMethods()) {
+        final String methodName = method.getMethodDescriptor().getFullMethodName();
+        methods.put(methodName, method);
+        routingMethods.computeIfAbsent(methodName, name -> newRoutingMethod(method.getMethodDescriptor()));
+      }
+    }
+    routesByListenAddress.put(routingKey(listenAddress), new Route(componentName, Map.copyOf(methods), executor));
+  }
+
+  @Override
+  public ServerMethodDefinition<?, ?> lookupMethod(final String methodName, final String authority) {
+    return routingMethods.get(methodName);
+  }
+
+  @Override
+  public <ReqT, RespT> Executor getExecutor(final ServerCall<ReqT, RespT> call, final Metadata headers) {
+    if (CallLane.of(call.getMethodDescriptor()) == CallLane.CONTROL_PLANE) {
+      return controlPlaneExecutor;
+    }
+    final Route route = routeOf(call);
+    return route == null ? null : route.executor();
+  }
+
+  private <ReqT, RespT> ServerMethodDefinition<ReqT, RespT> newRoutingMethod(
+      final MethodDescriptor<ReqT, RespT> methodDescriptor) {
+    return ServerMethodDefinition.create(methodDescriptor, this::startRoutedCall);
+  }
+
+  private <ReqT, RespT> ServerCall.Listener<ReqT> startRoutedCall(final ServerCall<ReqT, RespT> call,
+                                                                  final Metadata headers) {
+    final String methodName = call.getMethodDescriptor().getFullMethodName();
+    final Route route = routeOf(call);
+    final ServerMethodDefinition<?, ?> method = route == null ? null : route.methods().get(methodName);
+    if (method == null) {
+      // Same outcome as calling a method a dedicated server for this component would not know about.
+      call.close(Status.UNIMPLEMENTED.withDescription("Method not found: " + methodName
+          + (route == null ? "" : " in component " + route.componentName())), new Metadata());
+      return new ServerCall.Listener<>() {
+      };
+    }
+    // Both definitions come from the same generated service descriptor, hence share request and response types.
+    @SuppressWarnings("unchecked")
+    final ServerCallHandler<ReqT, RespT> handler = (ServerCallHandler<ReqT, RespT>) method.getServerCallHandler();
+    return handler.startCall(call, headers);
+  }
+
+  private Route routeOf(final ServerCall<?, ?> call) {
+    return routesByListenAddress.get(routingKey(call.getAttributes().get(Grpc.TRANSPORT_ATTR_LOCAL_ADDR)));
+  }
+
+  private static String routingKey(final SocketAddress address) {
+    // Netty does not implement equals() for domain socket addresses.
+    return address instanceof DomainSocketAddress domainSocketAddress
+        ? domainSocketAddress.path()
+        : String.valueOf(address);
+  }
+
+  private static ServerServiceDefinition newReflectionService(final List<ServerServiceDefinition> services) {
+    return new ComponentReflectionService(() -> services).bindService();
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sheds load once a component gets slower, instead of letting requests queue up without bounds.
+ *
+ * <p>Each unary method of a component gets its own {@link GradientLimit}. Calls beyond that limit fail right away
+ * with {@code RESOURCE_EXHAUSTED}, which daprd resiliency policies treat as a signal to back off and retry.
+ * Streaming calls are long-lived by nature, so their duration tells nothing about the load: they are not limited.
+ * Neither are {@link CallLane#CONTROL_PLANE} calls, as shedding health checks would make daprd give up on an
+ * overloaded component altogether.</p>
+ */
+final class ConcurrencyLimitInterceptor implements ServerInterceptor {
+  private final String componentName;
+  private final ConcurrencyLimitOptions options;
+  private final Map<String, MethodLimiter> limiters = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param componentName name of the component whose calls are limited.
+   * @param options bounds of the limit of each method.
+   */
+  ConcurrencyLimitInterceptor(final String componentName, final ConcurrencyLimitOptions options) {
+    this.componentName = componentName;
+    this.options = options;
+  }
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(final ServerCall<ReqT, RespT> call,
+                                                               final Metadata headers,
+                                                               final ServerCallHandler<ReqT, RespT> next) {
+    final MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+    if (method.getType() != MethodDescriptor.MethodType.UNARY || CallLane.of(method) == CallLane.CONTROL_PLANE) {
+      return next.startCall(call, headers);
+    }
+    final MethodLimiter limiter = limiters.computeIfAbsent(method.getFullMethodName(),
+        methodName -> new MethodLimiter(new GradientLimit(options)));
+    final int inFlight = limiter.tryAcquire();
+    if (inFlight == 0) {
+      limiter.rejected.increment();
+      call.close(Status.RESOURCE_EXHAUSTED.withDescription("Concurrency limit of " + limiter.limit.limit()
+          + " reached for " + method.getFullMethodName() + " of component " + componentName), new Metadata());
+      return new ServerCall.Listener<>() {
+      };
+    }
+
+    final long startedAt = System.nanoTime();
+    // A call is either closed by its handler or cancelled by the client, possibly both.
+    final AtomicBoolean released = new AtomicBoolean(false);
+    final ServerCall<ReqT, RespT> limitedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+      @Override
+      public void close(final Status status, final Metadata trailers) {
+        if (released.compareAndSet(false, true)) {
+          limiter.release(System.nanoTime() - startedAt, inFlight, status);
+        }
+        super.close(status, trailers);
+      }
+    };
+    final ServerCall.Listener<ReqT> listener;
+    try {
+      listener = next.startCall(limitedCall, headers);
+    } catch (RuntimeException e) {
+      if (released.compareAndSet(false, true)) {
+        limiter.release(0, inFlight, Status.INTERNAL);
+      }
+      throw e;
+    }
+    return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+      @Override
+      public void onCancel() {
+        try {
+          super.onCancel();
+        } finally {
+          if (released.compareAndSet(false, true)) {
+            limiter.release(System.nanoTime() - startedAt, inFlight, Status.CANCELLED);
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * A snapshot of the limits of every method called so far.
+   *
+   * @return the stats of each method, sorted by method name.
+   */
+  List<ConcurrencyLimitStats> stats() {
+    return limiters.entrySet().stream()
+        .map(methodAndLimiter -> new ConcurrencyLimitStats(componentName,
+            methodAndLimiter.getKey(),
+            methodAndLimiter.getValue().limit.limit(),
+            methodAndLimiter.getValue().inFlight.get(),
+            methodAndLimiter.getValue().rejected.sum()))
+        .sorted(Comparator.comparing(ConcurrencyLimitStats::methodName))
+        .toList();
+  }
+
+  private static final class MethodLimiter {
+    private final GradientLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private MethodLimiter(final GradientLimit limit) {
+      this.limit = limit;
+    }
+
+    // The number of calls in flight including the new one, or 0 if the limit is reached.
+    private int tryAcquire() {
+      while (true) {
+        final int current = inFlight.get();
+        if (current >= limit.limit()) {
+          return 0;
+        }
+        if (inFlight.compareAndSet(current, current + 1)) {
+          return current + 1;
+        }
+      }
+    }
+
+    private void release(final long rttNanos, final int inFlightAtStart, final Status status) {
+      inFlight.decrementAndGet();
+      // Cancelled calls did not run to completion, so their duration says nothing about the component.
+      if (status.getCode() != Status.Code.CANCELLED) {
+        limit.onSample(rttNanos, inFlightAtStart);
+      }
+    }
+  }
+}
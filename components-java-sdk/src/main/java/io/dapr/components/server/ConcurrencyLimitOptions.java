@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+/**
+ * Bounds of the adaptive concurrency limit applied to each method of a component.
+ *
+ * @param initialLimit Limit until enough calls have been observed to adapt it.
+ * @param minLimit The limit never goes below this value, however slow calls get.
+ * @param maxLimit The limit never goes above this value, however fast calls are.
+ * @see PluggableComponentServer#withConcurrencyLimit(ConcurrencyLimitOptions)
+ */
+public record ConcurrencyLimitOptions(int initialLimit, int minLimit, int maxLimit) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if the limits are not positive or the initial one is out of bounds.
+   */
+  public ConcurrencyLimitOptions {
+    if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Concurrency limits must satisfy 0 < minLimit <= initialLimit <= maxLimit"
+          + " but were minLimit=" + minLimit + ", initialLimit=" + initialLimit + ", maxLimit=" + maxLimit);
+    }
+  }
+
+  /**
+   * The default concurrency limit options: start at 20 concurrent calls per method and adapt between 1 and 1000.
+   *
+   * @return the default concurrency limit options.
+   */
+  public static ConcurrencyLimitOptions defaults() {
+    return new ConcurrencyLimitOptions(20, 1, 1000);
+  }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+/**
+ * A snapshot of the adaptive concurrency limit of a single method of a component.
+ *
+ * @param componentName Name of the component.
+ * @param methodName Full name of the gRPC method.
+ * @param limit Current maximum number of concurrent calls.
+ * @param inFlight Calls currently in flight.
+ * @param rejected Calls rejected with {@code RESOURCE_EXHAUSTED} so far.
+ */
+public record ConcurrencyLimitStats(String componentName, String methodName, int limit, int inFlight, long rejected) {
+}
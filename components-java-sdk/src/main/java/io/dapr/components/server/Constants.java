@@ -13,6 +13,9 @@
 
 package io.dapr.components.server;
 
+import io.dapr.components.wrappers.StateStoreGrpcComponentWrapper;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Constant definitions.
  */
@@ -31,7 +34,214 @@ public final class Constants {
      */
     public static final String DAPR_COMPONENTS_SOCKET_EXTENSION = "sock";
 
+    /**
+     * Default number of threads in the event loop group accepting connections on component sockets.
+     *
+     * <p>This group is shared by all components registered in a {@link PluggableComponentServer}.
+     * Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_BOSS_THREADS}.
+     */
+    public static final int DAPR_COMPONENTS_BOSS_THREADS = 1;
+
+    /**
+     * Default number of threads in the event loop group handling I/O for component sockets.
+     *
+     * <p>This group is shared by all components registered in a {@link PluggableComponentServer}.
+     * Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_WORKER_THREADS}.
+     */
+    public static final int DAPR_COMPONENTS_WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Default {@link ExecutorPolicy} for components that do not set one explicitly.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_EXECUTOR_POLICY}.
+     */
+    public static final ExecutorPolicy DAPR_COMPONENTS_EXECUTOR_POLICY = ExecutorPolicy.GRPC_DEFAULT;
+
+    /**
+     * Default number of threads of each component executor using {@link ExecutorPolicy#BOUNDED}.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_EXECUTOR_THREADS}.
+     */
+    public static final int DAPR_COMPONENTS_EXECUTOR_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Default value for {@link TransportOptions#maxInboundMessageSize()}, in bytes.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE}.
+     */
+    public static final int DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Default value for {@link TransportOptions#maxInboundMetadataSize()}, in bytes.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE}.
+     */
+    public static final int DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE = 8 * 1024;
+
+    /**
+     * Default value for {@link TransportOptions#flowControlWindow()}, in bytes.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_FLOW_CONTROL_WINDOW}.
+     */
+    public static final int DAPR_COMPONENTS_FLOW_CONTROL_WINDOW = 1024 * 1024;
+
+    /**
+     * Default value for {@link TransportOptions#maxConcurrentCallsPerConnection()}: unlimited.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION}.
+     */
+    public static final int DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION = Integer.MAX_VALUE;
+
+    /**
+     * Default value for {@link TransportOptions#keepAliveTime()}, in seconds.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS}.
+     */
+    public static final int DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS = 60;
+
+    /**
+     * Default value for {@link TransportOptions#keepAliveTimeout()}, in seconds.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS}.
+     */
+    public static final int DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS = 20;
+
+    /**
+     * Default value for {@link TransportOptions#permitKeepAliveTime()}, in seconds.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS}.
+     */
+    public static final int DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS = 5 * 60;
+
+    /**
+     * Default value for {@link TransportOptions#permitKeepAliveWithoutCalls()}.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS}.
+     */
+    public static final boolean DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS = false;
+
+    /**
+     * Default value for {@link TransportOptions#socketSendBufferSize()}: the operating system default.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE}.
+     */
+    public static final int DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE = 0;
+
+    /**
+     * Default value for {@link TransportOptions#socketReceiveBufferSize()}: the operating system default.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE}.
+     */
+    public static final int DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE = 0;
+
+    /**
+     * Default deadline, in seconds, for draining in-flight calls and running component shutdown hooks
+     * once the server is asked to stop.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS}.
+     */
+    public static final int DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    /**
+     * By default, each component is served by its own gRPC server.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_SHARED_SERVER}.
+     */
+    public static final boolean DAPR_COMPONENTS_SHARED_SERVER = false;
+
+    /**
+     * Default native transport: KQueue where available, Epoll otherwise.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_TRANSPORT}.
+     */
+    public static final TransportType DAPR_COMPONENTS_TRANSPORT = TransportType.AUTO;
+
+    /**
+     * By default, component calls are not subject to an adaptive concurrency limit.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_CONCURRENCY_LIMIT}.
+     */
+    public static final boolean DAPR_COMPONENTS_CONCURRENCY_LIMIT = false;
+
+    /**
+     * By default, two threads handle the control-plane calls (init, features, ping) of all components.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_CONTROL_PLANE_THREADS}.
+     */
+    public static final int DAPR_COMPONENTS_CONTROL_PLANE_THREADS = 2;
+
+    /**
+     * By default, pings go straight to components instead of being answered from background health probes.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_HEALTH_PROBE}.
+     */
+    public static final boolean DAPR_COMPONENTS_HEALTH_PROBE = false;
 
+    /**
+     * By default, components are not warmed up before their sockets are created.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_WARMUP}.
+     */
+    public static final boolean DAPR_COMPONENTS_WARMUP = false;
+
+    /**
+     * By default, warming up components takes at most 10 seconds.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS}.
+     */
+    public static final int DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS = 10;
+
+    /**
+     * By default, streaming calls keep up to 64 messages in flight in each direction.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_STREAM_HIGH_WATERMARK}.
+     */
+    public static final int DAPR_COMPONENTS_STREAM_HIGH_WATERMARK = 64;
+
+    /**
+     * By default, streaming calls ask for more messages once 16 or fewer are in flight.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_STREAM_LOW_WATERMARK}.
+     */
+    public static final int DAPR_COMPONENTS_STREAM_LOW_WATERMARK = 16;
+
+    /**
+     * Default {@link StreamSchedulerPolicy} for components that do not set one explicitly.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_STREAM_SCHEDULER}.
+     */
+    public static final StreamSchedulerPolicy DAPR_COMPONENTS_STREAM_SCHEDULER = StreamSchedulerPolicy.SHARED_ELASTIC;
+
+    /**
+     * Default number of threads of each component scheduler using {@link StreamSchedulerPolicy#BOUNDED}.
+     *
+     * <p>Matches Reactor's shared bounded elastic scheduler, but per component.
+     * Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS}.
+     */
+    public static final int DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+
+    /**
+     * Whether identical concurrent state store gets share a single call, for components that do not say.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_GET_COALESCING}.
+     */
+    public static final boolean DAPR_COMPONENTS_GET_COALESCING = false;
+
+    /**
+     * Default number of keys of a bulk get read from the state store at the same time, for components that do not
+     * set their own.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_BULK_GET_CONCURRENCY}.
+     */
+    public static final int DAPR_COMPONENTS_BULK_GET_CONCURRENCY =
+        StateStoreGrpcComponentWrapper.DEFAULT_BULK_GET_CONCURRENCY;
+
+    /**
+     * By default, the payloads of requests are copied out of the buffers they were received in.
+     *
+     * <p>Can be overridden by {@link EnvironmentVariable#DAPR_COMPONENTS_ZERO_COPY_PARSING}.
+     */
+    public static final boolean DAPR_COMPONENTS_ZERO_COPY_PARSING = false;
   }
 
   public static final class EnvironmentVariable {
@@ -52,6 +262,178 @@ public final class Constants {
      * a single "." character and the contents of this variable.
      */
     public static final String DAPR_COMPONENTS_SOCKET_EXTENSION = "DAPR_COMPONENTS_SOCKETS_EXTENSION";
+
+    /**
+     * The environment variable name that defines how many threads accept connections on component sockets.
+     *
+     * <p>If unset, the value from {@link Defaults#DAPR_COMPONENTS_BOSS_THREADS} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_BOSS_THREADS = "DAPR_COMPONENTS_BOSS_THREADS";
+
+    /**
+     * The environment variable name that defines how many threads handle I/O for component sockets.
+     *
+     * <p>If unset, the value from {@link Defaults#DAPR_COMPONENTS_WORKER_THREADS} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_WORKER_THREADS = "DAPR_COMPONENTS_WORKER_THREADS";
+
+    /**
+     * The environment variable name that defines the {@link ExecutorPolicy} of components not setting one.
+     *
+     * <p>Must be the name of one of the {@link ExecutorPolicy} constants.
+     * If unset, the value from {@link Defaults#DAPR_COMPONENTS_EXECUTOR_POLICY} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_EXECUTOR_POLICY = "DAPR_COMPONENTS_EXECUTOR_POLICY";
+
+    /**
+     * The environment variable name that defines the number of threads of {@link ExecutorPolicy#BOUNDED} executors.
+     *
+     * <p>If unset, the value from {@link Defaults#DAPR_COMPONENTS_EXECUTOR_THREADS} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_EXECUTOR_THREADS = "DAPR_COMPONENTS_EXECUTOR_THREADS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE}.
+     */
+    public static final String DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE = "DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE}.
+     */
+    public static final String DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE = "DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_FLOW_CONTROL_WINDOW}.
+     */
+    public static final String DAPR_COMPONENTS_FLOW_CONTROL_WINDOW = "DAPR_COMPONENTS_FLOW_CONTROL_WINDOW";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION}.
+     */
+    public static final String DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION =
+        "DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS}.
+     */
+    public static final String DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS = "DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS}.
+     */
+    public static final String DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS = "DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS}.
+     */
+    public static final String DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS =
+        "DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS}.
+     *
+     * <p>Either "true" or "false".
+     */
+    public static final String DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS =
+        "DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE}.
+     */
+    public static final String DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE = "DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE}.
+     */
+    public static final String DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE =
+        "DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS}.
+     */
+    public static final String DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS = "DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_SHARED_SERVER}: either "true" or "false".
+     */
+    public static final String DAPR_COMPONENTS_SHARED_SERVER = "DAPR_COMPONENTS_SHARED_SERVER";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_TRANSPORT}.
+     * One of {@code AUTO}, {@code EPOLL}, {@code KQUEUE} or {@code IO_URING}.
+     */
+    public static final String DAPR_COMPONENTS_TRANSPORT = "DAPR_COMPONENTS_TRANSPORT";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_CONCURRENCY_LIMIT}: either "true" or "false".
+     */
+    public static final String DAPR_COMPONENTS_CONCURRENCY_LIMIT = "DAPR_COMPONENTS_CONCURRENCY_LIMIT";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_CONTROL_PLANE_THREADS}.
+     */
+    public static final String DAPR_COMPONENTS_CONTROL_PLANE_THREADS = "DAPR_COMPONENTS_CONTROL_PLANE_THREADS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_HEALTH_PROBE}: either "true" or "false".
+     */
+    public static final String DAPR_COMPONENTS_HEALTH_PROBE = "DAPR_COMPONENTS_HEALTH_PROBE";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_WARMUP}: either "true" or "false".
+     */
+    public static final String DAPR_COMPONENTS_WARMUP = "DAPR_COMPONENTS_WARMUP";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS}.
+     */
+    public static final String DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS = "DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_STREAM_HIGH_WATERMARK}.
+     */
+    public static final String DAPR_COMPONENTS_STREAM_HIGH_WATERMARK = "DAPR_COMPONENTS_STREAM_HIGH_WATERMARK";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_STREAM_LOW_WATERMARK}.
+     */
+    public static final String DAPR_COMPONENTS_STREAM_LOW_WATERMARK = "DAPR_COMPONENTS_STREAM_LOW_WATERMARK";
+
+    /**
+     * The environment variable name that defines the {@link StreamSchedulerPolicy} of components not setting one.
+     *
+     * <p>Must be the name of one of the {@link StreamSchedulerPolicy} constants.
+     * If unset, the value from {@link Defaults#DAPR_COMPONENTS_STREAM_SCHEDULER} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_STREAM_SCHEDULER = "DAPR_COMPONENTS_STREAM_SCHEDULER";
+
+    /**
+     * The environment variable name that defines the number of threads of {@link StreamSchedulerPolicy#BOUNDED}
+     * schedulers.
+     *
+     * <p>If unset, the value from {@link Defaults#DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS = "DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS";
+
+    /**
+     * The environment variable name that defines whether identical concurrent state store gets share a single call.
+     *
+     * <p>Must be either true or false.
+     * If unset, the value from {@link Defaults#DAPR_COMPONENTS_GET_COALESCING} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_GET_COALESCING = "DAPR_COMPONENTS_GET_COALESCING";
+
+    /**
+     * The environment variable name that defines how many keys of a bulk get are read at the same time.
+     *
+     * <p>If unset, the value from {@link Defaults#DAPR_COMPONENTS_BULK_GET_CONCURRENCY} is used instead.
+     */
+    public static final String DAPR_COMPONENTS_BULK_GET_CONCURRENCY = "DAPR_COMPONENTS_BULK_GET_CONCURRENCY";
+
+    /**
+     * Environment variable overriding {@link Defaults#DAPR_COMPONENTS_ZERO_COPY_PARSING}: either "true" or "false".
+     */
+    public static final String DAPR_COMPONENTS_ZERO_COPY_PARSING = "DAPR_COMPONENTS_ZERO_COPY_PARSING";
   }
 
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.server;
+
+/**
+ * Describes which executor runs the gRPC handlers of a pluggable component.
+ *
+ * <p>Handlers in this SDK do little more than converting requests and subscribing to the {@code Mono}
+ * or {@code Flux} returned by a component, so the right choice depends on how the component itself
+ * is implemented.</p>
+ */
+public enum ExecutorPolicy {
+  /**
+   * gRPC's own default: an unbounded, cached thread pool shared by all servers.
+   */
+  GRPC_DEFAULT,
+
+  /**
+   * Runs handlers directly on the transport (event loop) threads, avoiding a thread hop per call.
+   *
+   * <p>Only suitable for fully non-blocking components. Blocking in a handler stalls the I/O of every
+   * component sharing the same event loops.</p>
+   */
+  DIRECT,
+
+  /**
+   * Runs handlers on a work-stealing pool with a fixed number of threads.
+   *
+   * <p>Keeps the thread count bounded under request bursts.
+   * See {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_EXECUTOR_THREADS}.</p>
+   */
+  BOUNDED,
+
+  /**
+   * Runs every call on its own virtual thread. Meant for components talking to blocking backends.
+   *
+   * <p>Requires a Java runtime with virtual threads. On older runtimes this falls back to {@link #BOUNDED}.</p>
+   */
+  VIRTUAL_THREADS
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.server;
+
+/**
+ * An adaptive concurrency limit, driven by the latency of the calls it lets through.
+ *
+ * <p>This is a gradient algorithm, close to Netflix's {@code Gradient2Limit}: the limit is multiplied by the ratio
+ * between the long-term average latency and the latest one, so it shrinks as soon as calls get slower than usual
+ * (a queue is building up somewhere) and grows by about its square root while latency stays flat. Samples taken
+ * while less than half of the limit is in use are ignored, as they tell nothing about how far we can go.</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+final class GradientLimit {
+  // How much slower than the long-term average calls may get before the limit shrinks.
+  private static final double TOLERANCE = 1.5;
+  // Weight of each new estimation in the limit, to avoid overreacting to a single slow call.
+  private static final double SMOOTHING = 0.2;
+  // Number of samples the long-term latency average is computed over.
+  private static final int LONG_WINDOW = 600;
+
+  private final int minLimit;
+  private final int maxLimit;
+
+  // Guarded by this.
+  private double estimatedLimit;
+  private double longRttNanos;
+  private long samples;
+  // The estimated limit as published to every call, read without locking.
+  private volatile int limit;
+
+  /**
+   * Constructor.
+   *
+   * @param options the initial limit and the bounds the limit stays within.
+   */
+  GradientLimit(final ConcurrencyLimitOptions options) {
+    this.minLimit = options.minLimit();
+    this.maxLimit = options.maxLimit();
+    this.estimatedLimit = options.initialLimit();
+    this.limit = options.initialLimit();
+  }
+
+  /**
+   * Updates the limit with the latency of a call that just completed.
+   *
+   * @param rttNanos how long the call took, in nanoseconds.
+   * @param inFlight number of calls in flight when the call started, including itself.
+   */
+  synchronized void onSample(final long rttNanos, final int inFlight) {
+    if (rttNanos <= 0) {
+      return;
+    }
+    final double shortRttNanos = rttNanos;
+    samples++;
+    longRttNanos = longRttNanos == 0
+        ? shortRttNanos
+        : longRttNanos + (shortRttNanos - longRttNanos) / Math.min(samples, LONG_WINDOW);
+    // After a long period of high latency the average needs help to come back down once things get better.
+    if (longRttNanos / shortRttNanos > 2) {
+      longRttNanos *= 0.95;
+    }
+    if (inFlight < estimatedLimit / 2) {
+      return;
+    }
+
+    final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+    final double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    final double smoothedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit, smoothedLimit));
+    limit = (int) estimatedLimit;
+  }
+
+  /**
+   * The current limit.
+   *
+   * @return the maximum number of calls that should be in flight.
+   */
+  int limit() {
+    return limit;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps count of the calls a component is still serving.
+ *
+ * <p>A call is in flight from the moment its handler is started until gRPC reports it as completed or cancelled.
+ * Used on shutdown to report how many calls had to be aborted when the drain deadline expired.</p>
+ */
+final class InFlightCallsInterceptor implements ServerInterceptor {
+  private final AtomicInteger inFlightCalls = new AtomicInteger();
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(final ServerCall<ReqT, RespT> call,
+                                                               final Metadata headers,
+                                                               final ServerCallHandler<ReqT, RespT> next) {
+    inFlightCalls.incrementAndGet();
+    // Both onComplete and onCancel may be reported for the same call, but it must only be counted out once.
+    final AtomicBoolean done = new AtomicBoolean(false);
+    final Runnable markDone = () -> {
+      if (done.compareAndSet(false, true)) {
+        inFlightCalls.decrementAndGet();
+      }
+    };
+
+    final ServerCall.Listener<ReqT> listener;
+    try {
+      listener = next.startCall(call, headers);
+    } catch (RuntimeException e) {
+      markDone.run();
+      throw e;
+    }
+    return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+      @Override
+      public void onComplete() {
+        try {
+          super.onComplete();
+        } finally {
+          markDone.run();
+        }
+      }
+
+      @Override
+      public void onCancel() {
+        try {
+          super.onCancel();
+        } finally {
+          markDone.run();
+        }
+      }
+    };
+  }
+
+  /**
+   * The number of calls started and not yet completed or cancelled.
+   *
+   * @return the number of calls in flight.
+   */
+  int inFlightCalls() {
+    return inFlightCalls.get();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with microsecond resolution.
+ *
+ * <p>Buckets are log-linear: each power of two is split into {@value #SUB_BUCKETS} equally sized buckets, so the
+ * value reported for a percentile is at most 12.5% above the actual one, whatever the magnitude.</p>
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // Latencies above 2^40 microseconds, about 12 days, are recorded as such.
+  private static final int MAX_MAGNITUDE = 40;
+  private static final long MAX_MICROS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(bucketOf(MAX_MICROS) + 1);
+  private final LongAdder count = new LongAdder();
+  private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos the latency, in nanoseconds.
+   */
+  void record(final long nanos) {
+    final long micros = Math.min(MAX_MICROS, Math.max(0, nanos / 1_000));
+    buckets.incrementAndGet(bucketOf(micros));
+    count.increment();
+    maxMicros.accumulate(micros);
+  }
+
+  /**
+   * The number of latencies recorded so far.
+   *
+   * @return the count.
+   */
+  long count() {
+    return count.sum();
+  }
+
+  /**
+   * The maximum latency recorded so far.
+   *
+   * @return the maximum, in microseconds.
+   */
+  long maxMicros() {
+    return maxMicros.get();
+  }
+
+  /**
+   * Estimates a percentile of the latencies recorded so far.
+   *
+   * @param percentile the percentile, between 0 (excluded) and 100 (included).
+   * @return the upper bound of the bucket the percentile falls into, in microseconds, or 0 if nothing was recorded.
+   */
+  long percentileMicros(final double percentile) {
+    long total = 0;
+    for (int i = 0; i < buckets.length(); i++) {
+      total += buckets.get(i);
+    }
+    final long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < buckets.length(); i++) {
+      seen += buckets.get(i);
+      if (seen >= rank && seen > 0) {
+        return Math.min(upperBoundOf(i), maxMicros());
+      }
+    }
+    return 0;
+  }
+
+  // Values below SUB_BUCKETS get a bucket each, larger ones share one with the values of the same leading bits.
+  private static int bucketOf(final long micros) {
+    if (micros < SUB_BUCKETS) {
+      return (int) micros;
+    }
+    final int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+    final int subBucket = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long upperBoundOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    final int subBucket = bucket % SUB_BUCKETS;
+    return ((SUB_BUCKETS + subBucket + 1L) << (magnitude - SUB_BUCKET_BITS)) - 1;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.server;
+
+import io.grpc.Attributes;
+import io.grpc.Grpc;
+import io.grpc.ServerTransportFilter;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ReflectiveChannelFactory;
+import io.netty.channel.ServerChannel;
+
+import java.net.SocketAddress;
+import java.util.logging.Logger;
+
+/**
+ * Reports, for each connection, the Unix Domain Socket it was accepted on.
+ *
+ * <p>Netty does not know the local address of connections accepted on a Unix Domain Socket, so gRPC reports
+ * {@link Grpc#TRANSPORT_ATTR_LOCAL_ADDR} as {@code null} for them. When one server listens on the sockets of many
+ * components we need that address to tell components apart, so we fill it in with the address of the listening
+ * socket, using public extension points of gRPC and Netty only:</p>
+ * <ul>
+ *   <li>the {@link #channelFactory(Class) server channels} tag the connections they accept with their own address,
+ *   which the connection makes current while it reads from the network;</li>
+ *   <li>gRPC reports a transport ready upon reading the first HTTP/2 settings of the client, therefore while the
+ *   connection reads from the network, which is when the {@link #transportFilter() transport filter} adds the
+ *   current address to the transport attributes.</li>
+ * </ul>
+ *
+ * <p>That last point is an implementation detail of gRPC's Netty transport rather than a documented contract: the
+ * server handler reports the transport ready from its handling of the client's settings frame, which Netty runs
+ * within the read of that frame. Should a gRPC upgrade ever report transports ready out of that read, the address
+ * would be missing: the filter then logs it, and {@link ComponentRouter} rejects the calls of the connection as
+ * unimplemented rather than routing them to the wrong component. {@code ComponentRouterTest} checks that every
+ * connection of a shared server gets the address of its socket, so such an upgrade fails the build first.</p>
+ */
+final class ListenAddressReporting {
+
+  private static final Logger log = Logger.getLogger(ListenAddressReporting.class.getName());
+
+  private static final ThreadLocal<SocketAddress> READING_FROM = new ThreadLocal<>();
+
+  private ListenAddressReporting() {
+  }
+
+  /**
+   * Creates server channels tagging the connections they accept with their listen address.
+   *
+   * @param serverChannelClass the class of server channels of the transport in use.
+   * @return a factory for {@code NettyServerBuilder#channelFactory}.
+   */
+  static ChannelFactory<ServerChannel> channelFactory(final Class<? extends ServerChannel> serverChannelClass) {
+    final ChannelFactory<? extends ServerChannel> serverChannels = new ReflectiveChannelFactory<>(serverChannelClass);
+    return () -> {
+      final ServerChannel serverChannel = serverChannels.newChannel();
+      // Ahead of the handler the server bootstrap adds to hand accepted connections over to gRPC.
+      serverChannel.pipeline().addLast(new AcceptedConnectionTagger());
+      return serverChannel;
+    };
+  }
+
+  /**
+   * Adds the listen address of connections to their transport attributes.
+   *
+   * @return a filter for {@code ServerBuilder#addTransportFilter}.
+   */
+  static ServerTransportFilter transportFilter() {
+    return new ServerTransportFilter() {
+      @Override
+      public Attributes transportReady(final Attributes transportAttrs) {
+        if (transportAttrs.get(Grpc.TRANSPORT_ATTR_LOCAL_ADDR) != null) {
+          return transportAttrs;
+        }
+        final SocketAddress listenAddress = READING_FROM.get();
+        if (listenAddress == null) {
+          log.severe(() -> "Transport of " + transportAttrs.get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR)
+              + " got ready outside of a network read, its calls cannot be routed to a component");
+          return transportAttrs;
+        }
+        return transportAttrs.toBuilder().set(Grpc.TRANSPORT_ATTR_LOCAL_ADDR, listenAddress).build();
+      }
+    };
+  }
+
+  private static final class AcceptedConnectionTagger extends ChannelInboundHandlerAdapter {
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+      if (msg instanceof Channel connection) {
+        connection.pipeline().addFirst(new ListenAddressScope(ctx.channel().localAddress()));
+      }
+      ctx.fireChannelRead(msg);
+    }
+  }
+
+  private static final class ListenAddressScope extends ChannelInboundHandlerAdapter {
+    private final SocketAddress listenAddress;
+
+    private ListenAddressScope(final SocketAddress listenAddress) {
+      this.listenAddress = listenAddress;
+    }
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+      final SocketAddress previous = READING_FROM.get();
+      READING_FROM.set(listenAddress);
+      try {
+        ctx.fireChannelRead(msg);
+      } finally {
+        READING_FROM.set(previous);
+      }
+    }
+  }
+}
@@ -14,23 +14,45 @@
 package io.dapr.components.server;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.dapr.components.aspects.Pingable;
+import io.dapr.components.aspects.Shutdownable;
 import io.dapr.components.domain.bindings.InputBinding;
 import io.dapr.components.domain.bindings.OutputBinding;
 import io.dapr.components.domain.pubsub.PubSub;
+import io.dapr.components.domain.state.MultiGetStateStore;
 import io.dapr.components.domain.state.QueriableStateStore;
 import io.dapr.components.domain.state.StateStore;
 import io.dapr.components.domain.state.TransactionalStateStore;
+import io.dapr.components.wrappers.BulkGetConcurrencyLimited;
+import io.dapr.components.wrappers.Drainable;
+import io.dapr.components.wrappers.GetCoalescer;
+import io.dapr.components.wrappers.HealthProbe;
+import io.dapr.components.wrappers.HealthProbeOptions;
 import io.dapr.components.wrappers.InputBindingGrpcComponentWrapper;
+import io.dapr.components.wrappers.NearCache;
+import io.dapr.components.wrappers.NearCacheOptions;
 import io.dapr.components.wrappers.OutputBindingGrpcComponentWrapper;
 import io.dapr.components.wrappers.PubSubGrpcComponentWrapper;
 import io.dapr.components.wrappers.QueriableStateStoreComponentWrapper;
 import io.dapr.components.wrappers.StateStoreGrpcComponentWrapper;
+import io.dapr.components.wrappers.StreamFlowControl;
+import io.dapr.components.wrappers.StreamFlowControlled;
+import io.dapr.components.wrappers.StreamScheduled;
 import io.dapr.components.wrappers.TransactionalStateStoreComponentWrapper;
+import io.dapr.components.wrappers.WriteBatcher;
+import io.dapr.components.wrappers.WriteBatchingOptions;
 import io.grpc.BindableService;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Represents a single pluggable component.
@@ -56,12 +78,51 @@ public final class PluggableComponent {
 
   private final List<BindableService> exposedServices = new ArrayList<>();
 
+  // The very same object may implement more than one component API, but it only needs to be shut down once.
+  private final Set<Shutdownable> shutdownables = new LinkedHashSet<>();
+
+  // Likewise, such an object only needs to be probed once to answer the pings of all its component APIs.
+  private final Map<Pingable, HealthProbe> healthProbes = new LinkedHashMap<>();
+
   // A given component API (state store, pubusb, binding etc) can be registered only once.
   private boolean alreadyAddedStateStore = false;
   private boolean alreadyAddedPubSub = false;
   private boolean alreadyAddedInputBinding = false;
   private boolean alreadyAddedOutputBinding = false;
 
+  // If unset, the server-wide default executor policy is used.
+  private ExecutorPolicy executorPolicy;
+
+  // If unset, the server-wide default transport options are used.
+  private TransportOptions transportOptions;
+
+  // If unset, the server-wide default health probe options are used.
+  private HealthProbeOptions healthProbeOptions;
+
+  // If unset, the server-wide default stream flow control is used.
+  private StreamFlowControl streamFlowControl;
+
+  // If unset, the server-wide default stream scheduler policy is used.
+  private StreamSchedulerPolicy streamSchedulerPolicy;
+
+  // If unset, the server-wide default is used.
+  private Boolean getCoalescing;
+
+  // If unset, the server-wide default is used.
+  private Integer bulkGetConcurrency;
+
+  // Shared by all the facets of the state store, if any.
+  private GetCoalescer getCoalescer;
+
+  // Likewise, if the state store has a cache.
+  private NearCache nearCache;
+
+  // Sends the sets and deletes of the state store, if any.
+  private WriteBatcher writeBatcher;
+
+  // Null unless writes are batched.
+  private WriteBatchingOptions writeBatchingOptions;
+
   /**
    * Creates a new pluggable component.
    *
@@ -90,18 +151,40 @@ public final class PluggableComponent {
    * @return The current {@link PluggableComponent} instance, so calls can be chained.
    */
   public PluggableComponent withStateStore(StateStore stateStore) {
+    return withStateStore(stateStore, null);
+  }
+
+  /**
+   * Register a new {@link StateStore} with this pluggable component, with a cache of the states read from it.
+   *
+   * <p>Eventually consistent gets are served from the cache, see {@link NearCache}.</p>
+   *
+   * @param stateStore The stateStore instance we want to expose through this pluggable component.
+   *                   If this instance implements {@link QueriableStateStore} and/or {@link TransactionalStateStore}
+   *                   these "facets" will also be exposed by this component.
+   * @param nearCacheOptions The size and time to live of the cache. Null for no cache.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withStateStore(StateStore stateStore, NearCacheOptions nearCacheOptions) {
     Objects.requireNonNull(stateStore);
     assert !alreadyAddedStateStore; // No, you cannot add multiple stateStores with the same name.
     alreadyAddedStateStore = true;
 
-    exposedServices.add(new StateStoreGrpcComponentWrapper(stateStore));
+    getCoalescer = new GetCoalescer();
+    nearCache = nearCacheOptions == null ? null : new NearCache(nearCacheOptions);
+    writeBatcher = new WriteBatcher(stateStore);
+    writeBatcher.setOptions(writeBatchingOptions);
+    exposedServices.add(new StateStoreGrpcComponentWrapper(stateStore, healthProbeOf(stateStore), getCoalescer,
+        nearCache, writeBatcher));
+    shutdownables.add(stateStore);
     // Register other facets of a stateStore like QueriableStateStore and TransactionalStateStore
     // IFF the current stateStore object supports those facets.
     if (stateStore instanceof QueriableStateStore queriableStore) {
       exposedServices.add(new QueriableStateStoreComponentWrapper(queriableStore));
     }
     if (stateStore instanceof TransactionalStateStore transactionalStateStore) {
-      exposedServices.add(new TransactionalStateStoreComponentWrapper(transactionalStateStore));
+      exposedServices.add(
+          new TransactionalStateStoreComponentWrapper(transactionalStateStore, getCoalescer, nearCache));
     }
 
     return this;
@@ -119,7 +202,8 @@ public final class PluggableComponent {
     // This will be the only PubSub added to this component.
     alreadyAddedPubSub = true;
 
-    exposedServices.add(new PubSubGrpcComponentWrapper(pubSub));
+    exposedServices.add(new PubSubGrpcComponentWrapper(pubSub, healthProbeOf(pubSub)));
+    shutdownables.add(pubSub);
 
     return this;
   }
@@ -136,7 +220,8 @@ public final class PluggableComponent {
     // This will be the only InputBinding added to this component.
     alreadyAddedInputBinding = true;
 
-    exposedServices.add(new InputBindingGrpcComponentWrapper(inputBinding));
+    exposedServices.add(new InputBindingGrpcComponentWrapper(inputBinding, healthProbeOf(inputBinding)));
+    shutdownables.add(inputBinding);
 
     return this;
   }
@@ -153,11 +238,134 @@ public final class PluggableComponent {
     // This will be the only OutputBinding added to this component.
     alreadyAddedOutputBinding = true;
 
-    exposedServices.add(new OutputBindingGrpcComponentWrapper(inputBinding));
+    exposedServices.add(new OutputBindingGrpcComponentWrapper(inputBinding, healthProbeOf(inputBinding)));
+    shutdownables.add(inputBinding);
+
+    return this;
+  }
+
+  /**
+   * Sets which executor runs the gRPC handlers of this component.
+   *
+   * <p>If not set, the default policy of the {@link PluggableComponentServer} hosting this component is used.</p>
+   *
+   * @param executorPolicy the executor policy for this component.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withExecutorPolicy(ExecutorPolicy executorPolicy) {
+    this.executorPolicy = Objects.requireNonNull(executorPolicy);
+    return this;
+  }
+
+  /**
+   * Tunes the gRPC transport serving this component.
+   *
+   * <p>If not set, the default options of the {@link PluggableComponentServer} hosting this component are used.</p>
+   *
+   * @param transportOptions the transport options for this component.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withTransportOptions(TransportOptions transportOptions) {
+    this.transportOptions = Objects.requireNonNull(transportOptions);
+    return this;
+  }
+
+  /**
+   * Answers the pings of daprd from health probes run in the background, instead of pinging this component on
+   * every call.
+   *
+   * <p>If not set, the default options of the {@link PluggableComponentServer} hosting this component are used,
+   * if any.</p>
+   *
+   * @param healthProbeOptions the probing schedule and the staleness bound of probe results.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   * @see HealthProbe
+   */
+  public PluggableComponent withHealthProbe(HealthProbeOptions healthProbeOptions) {
+    this.healthProbeOptions = Objects.requireNonNull(healthProbeOptions);
+    return this;
+  }
+
+  /**
+   * Bounds the number of messages held in memory by the streaming calls of this component.
+   *
+   * <p>If not set, the default flow control of the {@link PluggableComponentServer} hosting this component is
+   * used.</p>
+   *
+   * @param streamFlowControl the stream flow control for this component.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withStreamFlowControl(StreamFlowControl streamFlowControl) {
+    this.streamFlowControl = Objects.requireNonNull(streamFlowControl);
+    return this;
+  }
+
+  /**
+   * Sets where the streaming calls of this component subscribe to it.
+   *
+   * <p>If not set, the default policy of the {@link PluggableComponentServer} hosting this component is used.</p>
+   *
+   * @param streamSchedulerPolicy the stream scheduler policy for this component.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withStreamSchedulerPolicy(StreamSchedulerPolicy streamSchedulerPolicy) {
+    this.streamSchedulerPolicy = Objects.requireNonNull(streamSchedulerPolicy);
+    return this;
+  }
+
+  /**
+   * Sets whether identical concurrent gets of the state store of this component share a single call to it.
+   *
+   * <p>Worth it for state stores with hot keys and slow reads. Gets never share a call across a write of the same
+   * key. If not set, the default of the {@link PluggableComponentServer} hosting this component is used.</p>
+   *
+   * @param getCoalescing whether to coalesce identical concurrent gets.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withGetCoalescing(boolean getCoalescing) {
+    this.getCoalescing = getCoalescing;
+    return this;
+  }
 
+  /**
+   * Sets how many keys of a bulk get are read from the state store of this component at the same time.
+   *
+   * <p>Results are sent in the order of the request whatever this concurrency. State stores implementing
+   * {@link MultiGetStateStore} read all keys in one go anyway. If not set, the default of the
+   * {@link PluggableComponentServer} hosting this component is used.</p>
+   *
+   * @param bulkGetConcurrency the most keys read concurrently per bulk get. Must be positive.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withBulkGetConcurrency(int bulkGetConcurrency) {
+    if (bulkGetConcurrency <= 0) {
+      throw new IllegalArgumentException("bulkGetConcurrency must be positive but was " + bulkGetConcurrency);
+    }
+    this.bulkGetConcurrency = bulkGetConcurrency;
+    return this;
+  }
+
+  /**
+   * Groups the concurrent sets and deletes sent to the state store of this component into bulk calls.
+   *
+   * <p>Worth it for state stores whose backend charges a round trip per write. Only writes without an etag are
+   * batched, see {@link WriteBatcher}.</p>
+   *
+   * @param writeBatchingOptions the size and delay of batches.
+   * @return The current {@link PluggableComponent} instance, so calls can be chained.
+   */
+  public PluggableComponent withWriteBatching(WriteBatchingOptions writeBatchingOptions) {
+    this.writeBatchingOptions = Objects.requireNonNull(writeBatchingOptions);
+    if (writeBatcher != null) {
+      writeBatcher.setOptions(writeBatchingOptions);
+    }
     return this;
   }
 
+  private HealthProbe healthProbeOf(Pingable pingable) {
+    return healthProbes.computeIfAbsent(pingable, HealthProbe::new);
+  }
+
   //
   // Getters are package private
   //
@@ -169,4 +377,98 @@ public final class PluggableComponent {
   List<BindableService> getExposedServices() {
     return ImmutableList.copyOf(exposedServices);
   }
+
+  Set<Shutdownable> getShutdownables() {
+    return ImmutableSet.copyOf(shutdownables);
+  }
+
+  /**
+   * Asks the streaming calls of all services exposed by this component to complete.
+   */
+  void drainStreamingCalls() {
+    exposedServices.stream()
+        .filter(Drainable.class::isInstance)
+        .map(Drainable.class::cast)
+        .forEach(Drainable::drain);
+  }
+
+  /**
+   * Sets the flow control of the streaming calls of all services exposed by this component.
+   *
+   * @param streamFlowControl the flow control to apply.
+   */
+  void applyStreamFlowControl(StreamFlowControl streamFlowControl) {
+    exposedServices.stream()
+        .filter(StreamFlowControlled.class::isInstance)
+        .map(StreamFlowControlled.class::cast)
+        .forEach(service -> service.setStreamFlowControl(streamFlowControl));
+  }
+
+  /**
+   * Sets the scheduler the streaming calls of all services exposed by this component subscribe on.
+   *
+   * @param scheduler the scheduler to use.
+   */
+  void applyStreamScheduler(Scheduler scheduler) {
+    exposedServices.stream()
+        .filter(StreamScheduled.class::isInstance)
+        .map(StreamScheduled.class::cast)
+        .forEach(service -> service.setStreamScheduler(scheduler));
+  }
+
+  /**
+   * Sets how many keys of a bulk get the services exposed by this component read at the same time.
+   *
+   * @param bulkGetConcurrency the most keys read concurrently per bulk get.
+   */
+  void applyBulkGetConcurrency(int bulkGetConcurrency) {
+    exposedServices.stream()
+        .filter(BulkGetConcurrencyLimited.class::isInstance)
+        .map(BulkGetConcurrencyLimited.class::cast)
+        .forEach(service -> service.setBulkGetConcurrency(bulkGetConcurrency));
+  }
+
+  Optional<ExecutorPolicy> getExecutorPolicy() {
+    return Optional.ofNullable(executorPolicy);
+  }
+
+  Optional<TransportOptions> getTransportOptions() {
+    return Optional.ofNullable(transportOptions);
+  }
+
+  Optional<HealthProbeOptions> getHealthProbeOptions() {
+    return Optional.ofNullable(healthProbeOptions);
+  }
+
+  Optional<StreamFlowControl> getStreamFlowControl() {
+    return Optional.ofNullable(streamFlowControl);
+  }
+
+  Optional<StreamSchedulerPolicy> getStreamSchedulerPolicy() {
+    return Optional.ofNullable(streamSchedulerPolicy);
+  }
+
+  Optional<Boolean> getGetCoalescing() {
+    return Optional.ofNullable(getCoalescing);
+  }
+
+  Optional<GetCoalescer> getGetCoalescer() {
+    return Optional.ofNullable(getCoalescer);
+  }
+
+  Optional<Integer> getBulkGetConcurrency() {
+    return Optional.ofNullable(bulkGetConcurrency);
+  }
+
+  Optional<WriteBatcher> getWriteBatcher() {
+    return Optional.ofNullable(writeBatcher);
+  }
+
+  Optional<NearCache> getNearCache() {
+    return Optional.ofNullable(nearCache);
+  }
+
+  List<HealthProbe> getHealthProbes() {
+    return ImmutableList.copyOf(healthProbes.values());
+  }
 }
@@ -13,28 +13,56 @@
 
 package io.dapr.components.server;
 
+import io.dapr.components.aspects.Shutdownable;
+import io.dapr.components.wrappers.DirectlyMarshalledService;
+import io.dapr.components.wrappers.GetCoalescer;
+import io.dapr.components.wrappers.GetCoalescingStats;
+import io.dapr.components.wrappers.HealthProbe;
+import io.dapr.components.wrappers.HealthProbeOptions;
+import io.dapr.components.wrappers.HealthProbeResult;
+import io.dapr.components.wrappers.NearCacheOptions;
+import io.dapr.components.wrappers.NearCacheStats;
+import io.dapr.components.wrappers.StreamFlowControl;
+import io.dapr.components.wrappers.WriteBatcher;
+import io.dapr.components.wrappers.WriteBatchingOptions;
+import io.dapr.components.wrappers.WriteBatchingStats;
 import io.grpc.BindableService;
 import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.netty.NettyServerBuilder;
 import io.grpc.protobuf.services.ProtoReflectionService;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.ServerChannel;
-import io.netty.channel.epoll.EpollEventLoopGroup;
-import io.netty.channel.epoll.EpollServerDomainSocketChannel;
-import io.netty.channel.kqueue.KQueue;
-import io.netty.channel.kqueue.KQueueEventLoopGroup;
-import io.netty.channel.kqueue.KQueueServerDomainSocketChannel;
 import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 /**
@@ -59,8 +87,66 @@ public class PluggableComponentServer {
 
   private final String unixDomainSocketSuffix;
 
+  // Native transport and sizing of the event loop groups shared by all registered components.
+  private TransportType transportType;
+  private int bossEventLoopThreads;
+  private int workerEventLoopThreads;
+
+  // Executor settings for components that do not set their own policy.
+  private ExecutorPolicy defaultExecutorPolicy;
+  private int boundedExecutorThreads;
+
+  // Transport settings for components that do not set their own.
+  private TransportOptions defaultTransportOptions;
+
+  // Deadline for draining in-flight calls and running component shutdown hooks.
+  private Duration shutdownTimeout;
+
+  // Whether a single server listens on the sockets of all components.
+  private boolean sharedServer;
+
+  // Null if calls are not subject to an adaptive concurrency limit.
+  private ConcurrencyLimitOptions concurrencyLimitOptions;
+
+  // Size of the executor reserved to the control-plane calls of all components.
+  private int controlPlaneThreads;
+
+  // Health probe settings for components that do not set their own. Null if pings go straight to components.
+  private HealthProbeOptions defaultHealthProbeOptions;
+
+  // Stream flow control for components that do not set their own.
+  private StreamFlowControl defaultStreamFlowControl;
+
+  private StreamSchedulerPolicy defaultStreamSchedulerPolicy;
+  private int boundedStreamSchedulerThreads;
+
+  // Whether state store gets are coalesced, for components that do not say.
+  private boolean defaultGetCoalescing;
+
+  private int defaultBulkGetConcurrency;
+
+  // Null if the payloads of requests are copied out of the transport buffers.
+  private ZeroCopyParsingOptions zeroCopyParsingOptions;
+
+  // Maximum time spent warming up components before creating their sockets. Null if not warming up.
+  private Duration warmUpBudget;
+
   // Our "list" or registered components. We use a Map to avoid duplicated registrations.
-  private final Map<String, Server> servers = new HashMap<>();
+  private final Map<String, PluggableComponent> components = new LinkedHashMap<>();
+
+  // Servers are only built when we start, so the settings above can be changed until then.
+  private final List<Server> servers = new ArrayList<>();
+  private final Map<String, ApplicationExecutor> executors = new HashMap<>();
+  private final Map<String, StreamScheduler> streamSchedulers = new HashMap<>();
+  private final Map<String, InFlightCallsInterceptor> callTrackers = new HashMap<>();
+  private final Map<String, ConcurrencyLimitInterceptor> concurrencyLimiters = new LinkedHashMap<>();
+  private final CallLaneMetrics callLaneMetrics = new CallLaneMetrics();
+
+  private TransportResources transportResources;
+  private ExecutorService controlPlaneExecutor;
+
+  private final AtomicBoolean shutdownStarted = new AtomicBoolean(false);
+  private final CountDownLatch shutdownCompleted = new CountDownLatch(1);
 
   /**
    * Default Constructor.
@@ -70,6 +156,335 @@ public class PluggableComponentServer {
     this.unixDomainSocketSuffix = getEnvVarOrDefault(
         Constants.EnvironmentVariable.DAPR_COMPONENTS_SOCKET_EXTENSION,
         Constants.Defaults.DAPR_COMPONENTS_SOCKET_EXTENSION);
+    this.transportType = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_TRANSPORT,
+        Constants.Defaults.DAPR_COMPONENTS_TRANSPORT);
+    this.bossEventLoopThreads = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_BOSS_THREADS,
+        Constants.Defaults.DAPR_COMPONENTS_BOSS_THREADS);
+    this.workerEventLoopThreads = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_WORKER_THREADS,
+        Constants.Defaults.DAPR_COMPONENTS_WORKER_THREADS);
+    this.defaultExecutorPolicy = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_EXECUTOR_POLICY,
+        Constants.Defaults.DAPR_COMPONENTS_EXECUTOR_POLICY);
+    this.boundedExecutorThreads = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_EXECUTOR_THREADS,
+        Constants.Defaults.DAPR_COMPONENTS_EXECUTOR_THREADS);
+    this.defaultTransportOptions = getTransportOptionsFromEnvironmentOrAbort();
+    this.shutdownTimeout = Duration.ofSeconds(getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS,
+        Constants.Defaults.DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS));
+    this.sharedServer = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_SHARED_SERVER,
+        Constants.Defaults.DAPR_COMPONENTS_SHARED_SERVER);
+    this.concurrencyLimitOptions = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_CONCURRENCY_LIMIT,
+        Constants.Defaults.DAPR_COMPONENTS_CONCURRENCY_LIMIT) ? ConcurrencyLimitOptions.defaults() : null;
+    this.controlPlaneThreads = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_CONTROL_PLANE_THREADS,
+        Constants.Defaults.DAPR_COMPONENTS_CONTROL_PLANE_THREADS);
+    this.defaultHealthProbeOptions = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_HEALTH_PROBE,
+        Constants.Defaults.DAPR_COMPONENTS_HEALTH_PROBE) ? HealthProbeOptions.defaults() : null;
+    final boolean warmUp = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_WARMUP,
+        Constants.Defaults.DAPR_COMPONENTS_WARMUP);
+    final int warmUpBudgetSeconds = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS,
+        Constants.Defaults.DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS);
+    this.warmUpBudget = warmUp ? Duration.ofSeconds(warmUpBudgetSeconds) : null;
+    this.defaultStreamFlowControl = getStreamFlowControlFromEnvironmentOrAbort();
+    this.defaultStreamSchedulerPolicy = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_STREAM_SCHEDULER,
+        Constants.Defaults.DAPR_COMPONENTS_STREAM_SCHEDULER);
+    this.boundedStreamSchedulerThreads = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS,
+        Constants.Defaults.DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS);
+    this.defaultGetCoalescing = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_GET_COALESCING,
+        Constants.Defaults.DAPR_COMPONENTS_GET_COALESCING);
+    this.defaultBulkGetConcurrency = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_BULK_GET_CONCURRENCY,
+        Constants.Defaults.DAPR_COMPONENTS_BULK_GET_CONCURRENCY);
+    this.zeroCopyParsingOptions = getEnvVarOrDefault(
+        Constants.EnvironmentVariable.DAPR_COMPONENTS_ZERO_COPY_PARSING,
+        Constants.Defaults.DAPR_COMPONENTS_ZERO_COPY_PARSING) ? ZeroCopyParsingOptions.defaults() : null;
+  }
+
+  /**
+   * Sets the native transport serving the sockets of all registered components.
+   *
+   * <p>Transports not available on this host fall back to another one, see {@link TransportType}.
+   * Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_TRANSPORT}.</p>
+   *
+   * @param transportType the requested transport.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withTransport(final TransportType transportType) {
+    this.transportType = Objects.requireNonNull(transportType);
+    return this;
+  }
+
+  /**
+   * Sets how many threads accept connections for the sockets of all registered components.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_BOSS_THREADS}.</p>
+   *
+   * @param threads number of threads in the shared boss event loop group. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withBossEventLoopThreads(final int threads) {
+    this.bossEventLoopThreads = requirePositive(threads, "boss event loop threads");
+    return this;
+  }
+
+  /**
+   * Sets how many threads handle I/O for the sockets of all registered components.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_WORKER_THREADS}.</p>
+   *
+   * @param threads number of threads in the shared worker event loop group. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withWorkerEventLoopThreads(final int threads) {
+    this.workerEventLoopThreads = requirePositive(threads, "worker event loop threads");
+    return this;
+  }
+
+  /**
+   * Sets which executor runs the gRPC handlers of components that do not set their own policy.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_EXECUTOR_POLICY}.</p>
+   *
+   * @param executorPolicy the default executor policy.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see PluggableComponent#withExecutorPolicy(ExecutorPolicy)
+   */
+  public PluggableComponentServer withDefaultExecutorPolicy(final ExecutorPolicy executorPolicy) {
+    this.defaultExecutorPolicy = Objects.requireNonNull(executorPolicy);
+    return this;
+  }
+
+  /**
+   * Sets the number of threads of each component executor using {@link ExecutorPolicy#BOUNDED}.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_EXECUTOR_THREADS}.</p>
+   *
+   * @param threads number of threads per bounded executor. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withBoundedExecutorThreads(final int threads) {
+    this.boundedExecutorThreads = requirePositive(threads, "bounded executor threads");
+    return this;
+  }
+
+  /**
+   * Sets how long a shutdown may take to drain in-flight calls and run component shutdown hooks.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_SHUTDOWN_TIMEOUT_SECONDS}.</p>
+   *
+   * @param timeout the shutdown deadline. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see #shutdown()
+   */
+  public PluggableComponentServer withShutdownTimeout(final Duration timeout) {
+    if (Objects.requireNonNull(timeout).isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("Shutdown timeout must be positive but was " + timeout);
+    }
+    this.shutdownTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Sets whether a single gRPC server listens on the sockets of all registered components.
+   *
+   * <p>Each call is routed to the component owning the socket it arrived on, so components may expose the same
+   * services. This saves the fixed cost of a server per component (handler registries, buffers, executors) when
+   * hosting many components in one process. Executor policies still apply per component, but transport options
+   * can then only be set server-wide, see {@link #withDefaultTransportOptions(TransportOptions)}.</p>
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_SHARED_SERVER}.</p>
+   *
+   * @param sharedServer true for a single server shared by all components, false for a server per component.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withSharedServer(final boolean sharedServer) {
+    this.sharedServer = sharedServer;
+    return this;
+  }
+
+  /**
+   * Applies an adaptive concurrency limit to each unary method of every component.
+   *
+   * <p>The limit follows the latency of calls: it shrinks as soon as a component gets slower and grows back while
+   * latency stays flat. Calls beyond the limit fail right away with {@code RESOURCE_EXHAUSTED}, instead of queueing
+   * up until memory runs out. See {@link #getConcurrencyLimitStats()} for the current limits.</p>
+   *
+   * <p>Overrides {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_CONCURRENCY_LIMIT}, which enables the limit
+   * with {@link ConcurrencyLimitOptions#defaults()}.</p>
+   *
+   * @param options the bounds of the limit of each method.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withConcurrencyLimit(final ConcurrencyLimitOptions options) {
+    this.concurrencyLimitOptions = Objects.requireNonNull(options);
+    return this;
+  }
+
+  /**
+   * Sets how many threads handle the control-plane calls (init, features, ping) of all registered components.
+   *
+   * <p>These threads are reserved to control-plane calls, so health checks from daprd keep being answered in time
+   * while data calls saturate the executors of components. See {@link #getCallLaneStats()}.</p>
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_CONTROL_PLANE_THREADS}.</p>
+   *
+   * @param threads number of threads reserved to control-plane calls. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withControlPlaneThreads(final int threads) {
+    this.controlPlaneThreads = requirePositive(threads, "control plane threads");
+    return this;
+  }
+
+  /**
+   * Answers the pings of components that do not set their own health probe from probes run in the background.
+   *
+   * <p>Overrides {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_HEALTH_PROBE}, which enables health probes
+   * with {@link HealthProbeOptions#defaults()}.</p>
+   *
+   * @param healthProbeOptions the probing schedule and the staleness bound of probe results.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see PluggableComponent#withHealthProbe(HealthProbeOptions)
+   */
+  public PluggableComponentServer withDefaultHealthProbe(final HealthProbeOptions healthProbeOptions) {
+    this.defaultHealthProbeOptions = Objects.requireNonNull(healthProbeOptions);
+    return this;
+  }
+
+  /**
+   * Sets the stream flow control of components that do not set their own.
+   *
+   * <p>Overrides {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_STREAM_HIGH_WATERMARK} and
+   * {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_STREAM_LOW_WATERMARK}.</p>
+   *
+   * @param streamFlowControl the default stream flow control.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see PluggableComponent#withStreamFlowControl(StreamFlowControl)
+   */
+  public PluggableComponentServer withDefaultStreamFlowControl(final StreamFlowControl streamFlowControl) {
+    this.defaultStreamFlowControl = Objects.requireNonNull(streamFlowControl);
+    return this;
+  }
+
+  /**
+   * Sets where the streaming calls of components that do not set their own policy subscribe to them.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_STREAM_SCHEDULER}.</p>
+   *
+   * @param streamSchedulerPolicy the default stream scheduler policy.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see PluggableComponent#withStreamSchedulerPolicy(StreamSchedulerPolicy)
+   */
+  public PluggableComponentServer withDefaultStreamSchedulerPolicy(final StreamSchedulerPolicy streamSchedulerPolicy) {
+    this.defaultStreamSchedulerPolicy = Objects.requireNonNull(streamSchedulerPolicy);
+    return this;
+  }
+
+  /**
+   * Sets the number of threads of each component scheduler using {@link StreamSchedulerPolicy#BOUNDED}.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS}.</p>
+   *
+   * @param threads number of threads per bounded scheduler. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withBoundedStreamSchedulerThreads(final int threads) {
+    this.boundedStreamSchedulerThreads = requirePositive(threads, "bounded stream scheduler threads");
+    return this;
+  }
+
+  /**
+   * Sets whether identical concurrent gets share a single state store call, for components that do not say.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_GET_COALESCING}.</p>
+   *
+   * @param getCoalescing whether to coalesce identical concurrent gets by default.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see PluggableComponent#withGetCoalescing(boolean)
+   */
+  public PluggableComponentServer withDefaultGetCoalescing(final boolean getCoalescing) {
+    this.defaultGetCoalescing = getCoalescing;
+    return this;
+  }
+
+  /**
+   * Sets how many keys of a bulk get are read at the same time, for components that do not set their own.
+   *
+   * <p>Overrides the value from {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_BULK_GET_CONCURRENCY}.</p>
+   *
+   * @param bulkGetConcurrency the most keys read concurrently per bulk get. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see PluggableComponent#withBulkGetConcurrency(int)
+   */
+  public PluggableComponentServer withDefaultBulkGetConcurrency(final int bulkGetConcurrency) {
+    this.defaultBulkGetConcurrency = requirePositive(bulkGetConcurrency, "keys read concurrently per bulk get");
+    return this;
+  }
+
+  /**
+   * Parses the state sets, publishes and output binding invocations of every component without copying their
+   * payloads out of the transport buffers, for requests of at least {@link ZeroCopyParsingOptions#minimumMessageSize()}
+   * bytes.
+   *
+   * <p>Payloads are only valid until their call is over, be it answered or cancelled: see
+   * {@link ZeroCopyParsingOptions} for what this implies for components. Compressed requests are always copied.</p>
+   *
+   * <p>Overrides {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_ZERO_COPY_PARSING}, which enables zero-copy
+   * parsing with {@link ZeroCopyParsingOptions#defaults()}.</p>
+   *
+   * @param options the settings of zero-copy parsing.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withZeroCopyParsing(final ZeroCopyParsingOptions options) {
+    this.zeroCopyParsingOptions = Objects.requireNonNull(options);
+    return this;
+  }
+
+  /**
+   * Warms up components before creating their sockets, so daprd never sees them run cold.
+   *
+   * <p>Synthetic calls go through the services and transport of every component, backed by stubs so components
+   * themselves are never called, until JIT compilation settles or the time budget runs out. Only then are the
+   * sockets of components created. See {@link WarmUp}.</p>
+   *
+   * <p>Overrides {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_WARMUP} and
+   * {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_WARMUP_BUDGET_SECONDS}.</p>
+   *
+   * @param budget the maximum time to spend warming up. Must be positive.
+   * @return A reference to this {@link PluggableComponentServer}.
+   */
+  public PluggableComponentServer withWarmUp(final Duration budget) {
+    if (Objects.requireNonNull(budget).isNegative() || budget.isZero()) {
+      throw new IllegalArgumentException("Warm-up budget must be positive but was " + budget);
+    }
+    this.warmUpBudget = budget;
+    return this;
+  }
+
+  /**
+   * Sets the transport tuning of components that do not set their own.
+   *
+   * <p>Overrides the values from the environment variables in {@link Constants.EnvironmentVariable}.</p>
+   *
+   * @param transportOptions the default transport options.
+   * @return A reference to this {@link PluggableComponentServer}.
+   * @see PluggableComponent#withTransportOptions(TransportOptions)
+   */
+  public PluggableComponentServer withDefaultTransportOptions(final TransportOptions transportOptions) {
+    this.defaultTransportOptions = Objects.requireNonNull(transportOptions);
+    return this;
   }
 
   /**
@@ -81,13 +496,17 @@ public class PluggableComponentServer {
    */
   public PluggableComponentServer registerComponent(final PluggableComponent component) throws IOException {
     final String componentName = component.getName();
-    if (servers.containsKey(componentName)) {
+    if (components.containsKey(componentName)) {
       logFatalAndAbort("A pluggable component named '" + componentName
           + "' was already registered. Aborting.");
     }
-    final Server componentServer = buildServerForComponent(component);
+    // Sanity check: we can't do anything with a pluggable component if it isn't exposing any service.
+    if (component.getExposedServices().isEmpty()) {
+      logFatalAndAbort("Pluggable component " + componentName
+          + " is not exposing any service or Dapr API. Aborting.");
+    }
 
-    this.servers.put(componentName, componentServer);
+    this.components.put(componentName, component);
 
     return this;
   }
@@ -102,6 +521,119 @@ public class PluggableComponentServer {
     blockUntilShutdown();
   }
 
+  /**
+   * A snapshot of the adaptive concurrency limits of every component method called so far.
+   *
+   * @return the limits and rejection counts, grouped by component. Empty if no concurrency limit applies.
+   * @see #withConcurrencyLimit(ConcurrencyLimitOptions)
+   */
+  public List<ConcurrencyLimitStats> getConcurrencyLimitStats() {
+    return concurrencyLimiters.values().stream()
+        .flatMap(concurrencyLimiter -> concurrencyLimiter.stats().stream())
+        .toList();
+  }
+
+  /**
+   * A snapshot of the latency of unary calls, per lane.
+   *
+   * <p>Comparing both lanes shows whether control-plane calls are kept apart from data calls: the latency of the
+   * former should stay flat whatever the load on the latter.</p>
+   *
+   * @return the latency of the control-plane and data lanes, across all components.
+   */
+  public List<CallLaneStats> getCallLaneStats() {
+    return callLaneMetrics.stats();
+  }
+
+  /**
+   * The latest health probe results of every component answering pings from health probes.
+   *
+   * @return the results of each component, by component name, oldest first.
+   * @see #withDefaultHealthProbe(HealthProbeOptions)
+   */
+  public Map<String, List<HealthProbeResult>> getHealthProbeHistory() {
+    final Map<String, List<HealthProbeResult>> history = new LinkedHashMap<>();
+    for (PluggableComponent component : components.values()) {
+      if (healthProbeOptionsOf(component).isPresent()) {
+        history.put(component.getName(), component.getHealthProbes().stream()
+            .flatMap(healthProbe -> healthProbe.history().stream())
+            .sorted(Comparator.comparing(HealthProbeResult::probedAt))
+            .toList());
+      }
+    }
+    return history;
+  }
+
+  /**
+   * How well identical concurrent state store gets were coalesced.
+   *
+   * @return the coalescing stats of each state store component coalescing its gets, by component name.
+   * @see #withDefaultGetCoalescing(boolean)
+   */
+  public Map<String, GetCoalescingStats> getGetCoalescingStats() {
+    final Map<String, GetCoalescingStats> stats = new LinkedHashMap<>();
+    for (PluggableComponent component : components.values()) {
+      component.getGetCoalescer()
+          .filter(GetCoalescer::isEnabled)
+          .ifPresent(getCoalescer -> stats.put(component.getName(), getCoalescer.stats()));
+    }
+    return stats;
+  }
+
+  /**
+   * A snapshot of the activity of the near caches of state store components.
+   *
+   * @return the stats of each state store component with a near cache, by component name.
+   * @see PluggableComponent#withStateStore(io.dapr.components.domain.state.StateStore, NearCacheOptions)
+   */
+  public Map<String, NearCacheStats> getNearCacheStats() {
+    final Map<String, NearCacheStats> stats = new LinkedHashMap<>();
+    for (PluggableComponent component : components.values()) {
+      component.getNearCache().ifPresent(nearCache -> stats.put(component.getName(), nearCache.stats()));
+    }
+    return stats;
+  }
+
+  /**
+   * How many sets and deletes of state store components were batched together.
+   *
+   * @return the batching stats of each state store component batching its writes, by component name.
+   * @see PluggableComponent#withWriteBatching(WriteBatchingOptions)
+   */
+  public Map<String, WriteBatchingStats> getWriteBatchingStats() {
+    final Map<String, WriteBatchingStats> stats = new LinkedHashMap<>();
+    for (PluggableComponent component : components.values()) {
+      component.getWriteBatcher()
+          .filter(WriteBatcher::isEnabled)
+          .ifPresent(writeBatcher -> stats.put(component.getName(), writeBatcher.stats()));
+    }
+    return stats;
+  }
+
+  /**
+   * Gracefully stops all pluggable component servers. Invoked automatically when the JVM shuts down.
+   *
+   * <p>New calls are refused right away. Unary calls in progress are allowed to finish and streaming calls
+   * (such as {@code pullMessages} or {@code read}) are asked to complete. Calls still running when the shutdown
+   * deadline expires are aborted. Then the shutdown hooks of all components run in parallel, within what is left
+   * of that same deadline. Finally, the drain duration and the number of aborted calls are reported.</p>
+   *
+   * <p>Only the first invocation performs the shutdown. Later ones just wait for it to complete.</p>
+   *
+   * @see #withShutdownTimeout(Duration)
+   */
+  public void shutdown() {
+    if (!shutdownStarted.compareAndSet(false, true)) {
+      blockUntilShutdown();
+      return;
+    }
+    try {
+      drainAndStop();
+    } finally {
+      shutdownCompleted.countDown();
+    }
+  }
+
   //
   // Component Registration
   //
@@ -110,14 +642,56 @@ public class PluggableComponentServer {
     final String componentName = component.getName();
     log.info("Creating server for component " + componentName);
 
-    // Sanity check: we can't do anything with a pluggable component if it isn't exposing any service.
-    final List<BindableService> exposedServices = component.getExposedServices();
-    if (exposedServices.isEmpty()) {
-      logFatalAndAbort("Pluggable component " + componentName
-          + " is not exposing any service or Dapr API. Aborting.");
+    // Setup the server for handling requests on the UDS, multiplexed onto the shared event loops
+    final DomainSocketAddress unixSocket = prepareUnixDomainSocket(componentName);
+    final NettyServerBuilder serverBuilder = transportResources.configure(NettyServerBuilder.forAddress(unixSocket))
+        .addService(ProtoReflectionService.newInstance())
+        .addStreamTracerFactory(callLaneMetrics);
+
+    // Tune the transport for this component
+    final TransportOptions transportOptions = component.getTransportOptions().orElse(defaultTransportOptions);
+    log.info("Component " + componentName + " uses " + transportOptions);
+    transportOptions.configure(serverBuilder);
+
+    // Run this component's handlers on the executor described by its policy, except for control-plane ones
+    newExecutorForComponent(component).configure(serverBuilder, controlPlaneExecutor);
+
+    // Add the services exposed by this pluggable component
+    interceptedServicesOf(component).forEach(serverBuilder::addService);
+
+    return serverBuilder.build();
+  }
+
+  private Server buildSharedServer() throws IOException {
+    log.info("Creating a single server for components " + components.keySet());
+    final ComponentRouter router = new ComponentRouter(controlPlaneExecutor);
+    NettyServerBuilder serverBuilder = null;
+    for (PluggableComponent component : components.values()) {
+      final String componentName = component.getName();
+      final DomainSocketAddress unixSocket = prepareUnixDomainSocket(componentName);
+      serverBuilder = serverBuilder == null
+          ? NettyServerBuilder.forAddress(unixSocket)
+          : serverBuilder.addListenAddress(unixSocket);
+      if (component.getTransportOptions().isPresent()) {
+        log.warning("Component " + componentName + " sets its own transport options, but these are ignored when"
+            + " all components share a single server");
+      }
+      router.addComponent(componentName, unixSocket, interceptedServicesOf(component),
+          newExecutorForComponent(component).executor());
     }
+    Objects.requireNonNull(serverBuilder, "no components to serve");
 
-    // Unix Domain Socket setup
+    log.info("Shared server uses " + defaultTransportOptions);
+    defaultTransportOptions.configure(serverBuilder);
+    // The router knows which component each call is for, once told on which socket it arrived.
+    return transportResources.configureReportingListenAddresses(serverBuilder)
+        .fallbackHandlerRegistry(router)
+        .callExecutor(router)
+        .addStreamTracerFactory(callLaneMetrics)
+        .build();
+  }
+
+  private DomainSocketAddress prepareUnixDomainSocket(final String componentName) throws IOException {
     final Path componentUdsPath = buildPathForComponentUnixDomainSocket(componentName);
     log.info("Configuring server to listen to unix socket domain on file " + componentUdsPath.toAbsolutePath());
     // If file exists, remove it.
@@ -127,31 +701,62 @@ public class PluggableComponentServer {
     }
     // Regardless, delete this file on exist. Just good hygiene ;)
     componentUdsFile.deleteOnExit();
+    return new DomainSocketAddress(componentUdsFile);
+  }
 
-    // Setup the server for handling requests on the UDS
-    final DomainSocketAddress unixSocket = new DomainSocketAddress(componentUdsFile);
-    final EventLoopGroup eventLoopGroup;
-    final Class<? extends ServerChannel> serverChannelClass;
-    if (KQueue.isAvailable()) {
-      log.info("Using KQueue");
-      eventLoopGroup = new KQueueEventLoopGroup();
-      serverChannelClass = KQueueServerDomainSocketChannel.class;
-    } else {
-      log.info("Using Epoll");
-      eventLoopGroup = new EpollEventLoopGroup();
-      serverChannelClass = EpollServerDomainSocketChannel.class;
-    }
-    final NettyServerBuilder serverBuilder = NettyServerBuilder.forAddress(unixSocket)
-        .channelType(serverChannelClass)
-        .workerEventLoopGroup(eventLoopGroup)
-        .bossEventLoopGroup(eventLoopGroup)
-        .addService(ProtoReflectionService.newInstance())
-        .keepAliveTime(1, TimeUnit.MINUTES);
+  private ApplicationExecutor newExecutorForComponent(final PluggableComponent component) {
+    final ApplicationExecutor executor = new ApplicationExecutor(component.getName(),
+        component.getExecutorPolicy().orElse(defaultExecutorPolicy),
+        boundedExecutorThreads);
+    executors.put(component.getName(), executor);
+    return executor;
+  }
 
-    // Add the services exposed by this pluggable component
-    exposedServices.forEach(serverBuilder::addService);
+  /*
+   * Services of a component, keeping count of their calls in flight so we can report them on shutdown and, if
+   * asked to, shedding the calls beyond their concurrency limit.
+   */
+  private List<ServerServiceDefinition> interceptedServicesOf(final PluggableComponent component) {
+    final String componentName = component.getName();
+    final List<ServerInterceptor> interceptors = new ArrayList<>();
+    if (concurrencyLimitOptions != null) {
+      final ConcurrencyLimitInterceptor concurrencyLimiter =
+          new ConcurrencyLimitInterceptor(componentName, concurrencyLimitOptions);
+      concurrencyLimiters.put(componentName, concurrencyLimiter);
+      interceptors.add(concurrencyLimiter);
+    }
+    // Last to be added, first to see each call: rejected calls are counted as well.
+    final InFlightCallsInterceptor callTracker = new InFlightCallsInterceptor();
+    callTrackers.put(componentName, callTracker);
+    interceptors.add(callTracker);
 
-    return serverBuilder.build();
+    return intercept(component.getExposedServices(), interceptors);
+  }
+
+  /*
+   * Stand-ins for the services of a component during warm-up, intercepted just like the services of the component
+   * but by interceptors of their own: warm-up calls are neither reported nor taken into account by the concurrency
+   * limits of the component.
+   */
+  private List<ServerServiceDefinition> warmUpServicesOf(final String componentName,
+                                                         final List<BindableService> services) {
+    final List<ServerInterceptor> interceptors = new ArrayList<>();
+    if (concurrencyLimitOptions != null) {
+      interceptors.add(new ConcurrencyLimitInterceptor(componentName, concurrencyLimitOptions));
+    }
+    interceptors.add(new InFlightCallsInterceptor());
+    return intercept(services, interceptors);
+  }
+
+  private List<ServerServiceDefinition> intercept(final List<BindableService> services,
+                                                  final List<ServerInterceptor> interceptors) {
+    return services.stream()
+        .map(DirectlyMarshalledService::bind)
+        .map(service -> zeroCopyParsingOptions == null
+            ? service
+            : ZeroCopyParsing.apply(service, zeroCopyParsingOptions))
+        .map(service -> ServerInterceptors.intercept(service, interceptors))
+        .toList();
   }
 
   //
@@ -197,6 +802,103 @@ public class PluggableComponentServer {
     return value;
   }
 
+  private static int getEnvVarOrDefault(final String envVarName, final int defaultValue) {
+    final String value = getEnvVarOrDefault(envVarName, Integer.toString(defaultValue));
+    try {
+      final int parsedValue = Integer.parseInt(value.trim());
+      if (parsedValue > 0) {
+        return parsedValue;
+      }
+    } catch (NumberFormatException e) {
+      // Handled below, along with non-positive values.
+    }
+    logFatalAndAbort("ERROR: environment variable " + envVarName + " must be a positive integer but was '"
+        + value + "'. Aborting");
+    return defaultValue; // Unreachable, as we abort above.
+  }
+
+  private static <E extends Enum<E>> E getEnvVarOrDefault(final String envVarName, final E defaultValue) {
+    final String value = getEnvVarOrDefault(envVarName, defaultValue.name());
+    try {
+      return Enum.valueOf(defaultValue.getDeclaringClass(), value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      logFatalAndAbort("ERROR: environment variable " + envVarName + " must be one of "
+          + Arrays.toString(defaultValue.getDeclaringClass().getEnumConstants()) + " but was '"
+          + value + "'. Aborting");
+      return defaultValue; // Unreachable, as we abort above.
+    }
+  }
+
+  private static boolean getEnvVarOrDefault(final String envVarName, final boolean defaultValue) {
+    final String value = getEnvVarOrDefault(envVarName, Boolean.toString(defaultValue)).trim();
+    if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+      logFatalAndAbort("ERROR: environment variable " + envVarName + " must be either true or false but was '"
+          + value + "'. Aborting");
+    }
+    return Boolean.parseBoolean(value);
+  }
+
+  private static TransportOptions getTransportOptionsFromEnvironmentOrAbort() {
+    try {
+      return new TransportOptions(
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE,
+              Constants.Defaults.DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE),
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE,
+              Constants.Defaults.DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE),
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_FLOW_CONTROL_WINDOW,
+              Constants.Defaults.DAPR_COMPONENTS_FLOW_CONTROL_WINDOW),
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION,
+              Constants.Defaults.DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION),
+          Duration.ofSeconds(getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS,
+              Constants.Defaults.DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS)),
+          Duration.ofSeconds(getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS,
+              Constants.Defaults.DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS)),
+          Duration.ofSeconds(getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS,
+              Constants.Defaults.DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS)),
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS,
+              Constants.Defaults.DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS),
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE,
+              Constants.Defaults.DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE),
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE,
+              Constants.Defaults.DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE));
+    } catch (IllegalArgumentException e) {
+      logFatalAndAbort("ERROR: invalid transport options. " + e.getMessage() + ". Aborting");
+      return TransportOptions.defaults(); // Unreachable, as we abort above.
+    }
+  }
+
+  private static StreamFlowControl getStreamFlowControlFromEnvironmentOrAbort() {
+    try {
+      return new StreamFlowControl(
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_STREAM_HIGH_WATERMARK,
+              Constants.Defaults.DAPR_COMPONENTS_STREAM_HIGH_WATERMARK),
+          getEnvVarOrDefault(
+              Constants.EnvironmentVariable.DAPR_COMPONENTS_STREAM_LOW_WATERMARK,
+              Constants.Defaults.DAPR_COMPONENTS_STREAM_LOW_WATERMARK));
+    } catch (IllegalArgumentException e) {
+      logFatalAndAbort("ERROR: invalid stream flow control. " + e.getMessage() + ". Aborting");
+      return StreamFlowControl.defaults(); // Unreachable, as we abort above.
+    }
+  }
+
+  private static int requirePositive(final int value, final String description) {
+    if (value <= 0) {
+      throw new IllegalArgumentException("Number of " + description + " must be positive but was " + value);
+    }
+    return value;
+  }
+
   private Path buildPathForComponentUnixDomainSocket(final String componentName) {
     final String udsFilename = componentName + '.' + unixDomainSocketSuffix;
     final Path targetFolder = Paths.get(unixDomainSocketFolder);
@@ -210,31 +912,144 @@ public class PluggableComponentServer {
 
 
   private void startServers() throws IOException {
-    // For each registered server, start it and set up add it to a compound shutdown hook.
-    for (var componentNameAndServer : servers.entrySet()) {
-      final String componentName = componentNameAndServer.getKey();
-      final Server server = componentNameAndServer.getValue();
+    // All components share the same event loops, which are only created now that their sizing is final.
+    transportResources = new TransportResources(transportType, bossEventLoopThreads, workerEventLoopThreads);
+    controlPlaneExecutor = Executors.newFixedThreadPool(controlPlaneThreads,
+        new DefaultThreadFactory("dapr-components-control-plane", true));
+    // Before any socket exists, daprd cannot reach components while they are still cold.
+    if (warmUpBudget != null) {
+      new WarmUp(transportResources, warmUpBudget, this::warmUpServicesOf).run(components.values());
+    }
+    if (sharedServer && !components.isEmpty()) {
+      servers.add(buildSharedServer());
+    } else {
+      for (PluggableComponent component : components.values()) {
+        servers.add(buildServerForComponent(component));
+      }
+    }
 
+    for (PluggableComponent component : components.values()) {
+      component.applyStreamFlowControl(component.getStreamFlowControl().orElse(defaultStreamFlowControl));
+      final StreamScheduler streamScheduler = new StreamScheduler(component.getName(),
+          component.getStreamSchedulerPolicy().orElse(defaultStreamSchedulerPolicy),
+          boundedStreamSchedulerThreads);
+      streamSchedulers.put(component.getName(), streamScheduler);
+      component.applyStreamScheduler(streamScheduler.scheduler());
+      component.getGetCoalescer().ifPresent(getCoalescer ->
+          getCoalescer.setEnabled(component.getGetCoalescing().orElse(defaultGetCoalescing)));
+      component.applyBulkGetConcurrency(component.getBulkGetConcurrency().orElse(defaultBulkGetConcurrency));
+    }
+    // Probing before accepting calls, so the very first pings from daprd can already be answered from a result.
+    startHealthProbes();
+    for (Server server : servers) {
       server.start();
+    }
+    for (String componentName : components.keySet()) {
       fixUnixDomainSocketFilePermissions(componentName);
       log.info("Started server for " + componentName);
     }
 
-    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-      // Use stderr here since the logger may have been reset by its JVM shutdown hook.
-      System.err.println("*** shutting down gRPC server since JVM is shutting down");
-      servers.keySet().parallelStream().forEach(componentName -> {
-        try {
-          final Server server = servers.get(componentName);
-          System.err.println("    *** shutting down server for component " + componentName
-              + " with instance " + server.toString());
-          server.shutdown().awaitTermination(30, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-          e.printStackTrace(System.err);
+    Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+  }
+
+  // Uses stderr since, when invoked from a JVM shutdown hook, the logger may have been reset by its own hook.
+  private void drainAndStop() {
+    System.err.println("*** shutting down gRPC servers, draining in-flight calls for at most " + shutdownTimeout);
+    final long startedAt = System.nanoTime();
+    final long deadline = startedAt + shutdownTimeout.toNanos();
+
+    // Refuse new calls, but let the ones in progress carry on.
+    servers.forEach(Server::shutdown);
+    // Long-lived streams would otherwise only end at the deadline: ask them to complete cleanly.
+    components.values().forEach(PluggableComponent::drainStreamingCalls);
+
+    final List<Server> unterminatedServers = servers.stream()
+        .filter(server -> !awaitTermination(server, deadline))
+        .toList();
+    int abortedCalls = 0;
+    if (!unterminatedServers.isEmpty()) {
+      for (var componentNameAndCallTracker : callTrackers.entrySet()) {
+        final int inFlightCalls = componentNameAndCallTracker.getValue().inFlightCalls();
+        if (inFlightCalls > 0) {
+          System.err.println("    *** aborting " + inFlightCalls + " call(s) still in flight for component "
+              + componentNameAndCallTracker.getKey());
+          abortedCalls += inFlightCalls;
         }
-      });
-      System.err.println("*** server shut down");
-    }));
+      }
+      unterminatedServers.forEach(Server::shutdownNow);
+      unterminatedServers.forEach(server -> awaitTermination(server, System.nanoTime() + TimeUnit.SECONDS.toNanos(5)));
+    }
+    final Duration drainDuration = Duration.ofNanos(System.nanoTime() - startedAt);
+
+    // Components are only closed once nothing can call them anymore, not even health probes.
+    components.values().forEach(component -> component.getHealthProbes().forEach(HealthProbe::stop));
+    runComponentShutdownHooks(deadline);
+    streamSchedulers.values().forEach(StreamScheduler::dispose);
+
+    try {
+      for (ApplicationExecutor executor : executors.values()) {
+        executor.shutdown(5, TimeUnit.SECONDS);
+      }
+      if (controlPlaneExecutor != null) {
+        controlPlaneExecutor.shutdown();
+        controlPlaneExecutor.awaitTermination(5, TimeUnit.SECONDS);
+      }
+      // Only release the shared event loops once every server using them is gone.
+      if (transportResources != null) {
+        transportResources.shutdownGracefully(5, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      e.printStackTrace(System.err);
+    }
+    System.err.println("*** server shut down: drained calls in " + drainDuration.toMillis() + " ms, "
+        + abortedCalls + " call(s) aborted, total shutdown took "
+        + Duration.ofNanos(System.nanoTime() - startedAt).toMillis() + " ms");
+  }
+
+  private void startHealthProbes() {
+    for (PluggableComponent component : components.values()) {
+      final Optional<HealthProbeOptions> healthProbeOptions = healthProbeOptionsOf(component);
+      if (healthProbeOptions.isPresent()) {
+        log.info("Component " + component.getName() + " answers pings from health probes: "
+            + healthProbeOptions.get());
+        component.getHealthProbes().forEach(healthProbe -> healthProbe.start(healthProbeOptions.get()));
+      }
+    }
+  }
+
+  private Optional<HealthProbeOptions> healthProbeOptionsOf(final PluggableComponent component) {
+    return component.getHealthProbeOptions().or(() -> Optional.ofNullable(defaultHealthProbeOptions));
+  }
+
+  private void runComponentShutdownHooks(final long deadline) {
+    final Set<Shutdownable> shutdownables = new LinkedHashSet<>();
+    components.values().forEach(component -> shutdownables.addAll(component.getShutdownables()));
+
+    Flux.fromIterable(shutdownables)
+        // Hooks may block, so each one gets a thread of its own for them to actually run in parallel.
+        .flatMap(shutdownable -> Mono.defer(shutdownable::shutdown)
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(e -> {
+              System.err.println("    *** shutdown hook of " + shutdownable + " failed: " + e);
+              return Mono.empty();
+            }))
+        .then()
+        .timeout(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())))
+        .onErrorResume(TimeoutException.class, e -> {
+          System.err.println("    *** component shutdown hooks did not complete before the shutdown deadline");
+          return Mono.empty();
+        })
+        .block();
+  }
+
+  private static boolean awaitTermination(final Server server, final long deadline) {
+    try {
+      return server.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   /*
@@ -262,16 +1077,10 @@ public class PluggableComponentServer {
    * Await termination on the main thread since the grpc library uses daemon threads.
    */
   private void blockUntilShutdown() {
-    // There probably is a more elegant way of doing this but, for the time being, this should do.
-    servers.values()
-        .parallelStream()
-        .map(server -> {
-          try {
-            server.awaitTermination();
-            return true;
-          } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-          }
-        });
-  }
-}
\ No newline at end of file
+    try {
+      shutdownCompleted.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
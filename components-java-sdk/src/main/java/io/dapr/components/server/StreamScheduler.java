@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+/**
+ * The scheduler the streaming calls of a single pluggable component subscribe on, as described by a
+ * {@link StreamSchedulerPolicy}.
+ *
+ * <p>Schedulers created here are owned by this class and must be released with {@link #dispose()} once the
+ * streams using them are done.</p>
+ */
+final class StreamScheduler {
+  private static final Logger log = Logger.getLogger(StreamScheduler.class.getName());
+
+  // Keeps idle threads of bounded schedulers around for as long as Reactor's shared one does.
+  private static final int BOUNDED_TTL_SECONDS = 60;
+
+  private final StreamSchedulerPolicy policy;
+  private final Scheduler scheduler;
+
+  /**
+   * Constructor.
+   *
+   * @param componentName name of the component whose streams will subscribe on this scheduler.
+   * @param policy the policy describing which scheduler to use.
+   * @param boundedThreads number of threads used by {@link StreamSchedulerPolicy#BOUNDED}.
+   */
+  StreamScheduler(final String componentName, final StreamSchedulerPolicy policy, final int boundedThreads) {
+    StreamSchedulerPolicy effectivePolicy = policy;
+    Scheduler effectiveScheduler = null;
+    if (policy == StreamSchedulerPolicy.VIRTUAL_THREADS) {
+      final ExecutorService executorService = ApplicationExecutor.newVirtualThreadPerTaskExecutor();
+      if (executorService == null) {
+        log.warning("Virtual threads are not supported by this Java runtime. Falling back to "
+            + StreamSchedulerPolicy.BOUNDED);
+        effectivePolicy = StreamSchedulerPolicy.BOUNDED;
+      } else {
+        effectiveScheduler = Schedulers.fromExecutorService(executorService,
+            "dapr-components-" + componentName + "-streams");
+      }
+    }
+    this.policy = effectivePolicy;
+    this.scheduler = switch (effectivePolicy) {
+      case SHARED_ELASTIC -> Schedulers.boundedElastic();
+      case IMMEDIATE -> Schedulers.immediate();
+      case BOUNDED -> Schedulers.newBoundedElastic(boundedThreads, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+          "dapr-components-" + componentName + "-streams", BOUNDED_TTL_SECONDS, true);
+      case VIRTUAL_THREADS -> effectiveScheduler;
+      default -> throw new IllegalStateException("Unknown stream scheduler policy " + effectivePolicy);
+    };
+    log.info("Component " + componentName + " serves streams using scheduler policy " + this.policy
+        + (this.policy == StreamSchedulerPolicy.BOUNDED ? " with " + boundedThreads + " thread(s)" : ""));
+  }
+
+  /**
+   * The scheduler streams of this component subscribe on.
+   *
+   * @return the scheduler.
+   */
+  Scheduler scheduler() {
+    return scheduler;
+  }
+
+  /**
+   * Releases the scheduler created by this class, if any.
+   */
+  void dispose() {
+    if (policy == StreamSchedulerPolicy.BOUNDED || policy == StreamSchedulerPolicy.VIRTUAL_THREADS) {
+      scheduler.dispose();
+    }
+  }
+}
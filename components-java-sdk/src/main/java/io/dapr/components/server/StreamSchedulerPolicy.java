@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+/**
+ * Describes where the streaming calls of a pluggable component, such as pulling pubsub messages or reading from an
+ * input binding, subscribe to the {@code Flux} returned by the component.
+ *
+ * <p>Streams last as long as daprd keeps them open, so a component that blocks while producing messages pins a
+ * thread per stream. The right choice depends on how many streams a component serves and whether it blocks.</p>
+ */
+public enum StreamSchedulerPolicy {
+  /**
+   * Reactor's shared bounded elastic scheduler, capped at 10 threads per core for the whole process.
+   *
+   * <p>Fine for a few streams, but streams of every component compete for the same threads and queue up once
+   * they are all pinned.</p>
+   */
+  SHARED_ELASTIC,
+
+  /**
+   * Subscribes right on the thread handling the call, with no thread hop nor pinned thread per stream.
+   *
+   * <p>Only suitable for fully non-blocking components. Combined with {@link ExecutorPolicy#DIRECT}, every stream
+   * stays on the event loop of its connection.</p>
+   */
+  IMMEDIATE,
+
+  /**
+   * Subscribes on a bounded elastic scheduler dedicated to the component, so its streams cannot starve the ones of
+   * other components.
+   *
+   * <p>See {@link Constants.EnvironmentVariable#DAPR_COMPONENTS_STREAM_SCHEDULER_THREADS}.</p>
+   */
+  BOUNDED,
+
+  /**
+   * Subscribes every stream on its own virtual thread. Meant for components blocking while producing messages.
+   *
+   * <p>Requires a Java runtime with virtual threads. On older runtimes this falls back to {@link #BOUNDED}.</p>
+   */
+  VIRTUAL_THREADS
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.server;
+
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.ChannelOption;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tuning of the gRPC transport serving a pluggable component over its Unix Domain Socket.
+ *
+ * <p>Instances are immutable and validated on construction. Start from {@link #defaults()} and
+ * change only what you need with the {@code with*} methods.</p>
+ *
+ * @param maxInboundMessageSize Largest request message accepted, in bytes.
+ * @param maxInboundMetadataSize Largest request metadata (headers) accepted, in bytes.
+ * @param flowControlWindow Initial HTTP/2 flow control window, in bytes.
+ * @param maxConcurrentCallsPerConnection Maximum number of concurrent calls daprd may open per connection.
+ * @param keepAliveTime Idle time after which the server pings daprd to check the connection is still alive.
+ * @param keepAliveTimeout Time to wait for the keepalive ping acknowledgement before closing the connection.
+ * @param permitKeepAliveTime Most aggressive keepalive interval daprd is allowed to use.
+ * @param permitKeepAliveWithoutCalls Whether daprd may send keepalive pings when there are no active calls.
+ * @param socketSendBufferSize Socket send buffer size in bytes, or 0 to use the operating system default.
+ * @param socketReceiveBufferSize Socket receive buffer size in bytes, or 0 to use the operating system default.
+ */
+public record TransportOptions(
+    int maxInboundMessageSize,
+    int maxInboundMetadataSize,
+    int flowControlWindow,
+    int maxConcurrentCallsPerConnection,
+    Duration keepAliveTime,
+    Duration keepAliveTimeout,
+    Duration permitKeepAliveTime,
+    boolean permitKeepAliveWithoutCalls,
+    int socketSendBufferSize,
+    int socketReceiveBufferSize) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if any of the values is out of range.
+   */
+  public TransportOptions {
+    requirePositive(maxInboundMessageSize, "maxInboundMessageSize");
+    requirePositive(maxInboundMetadataSize, "maxInboundMetadataSize");
+    requirePositive(flowControlWindow, "flowControlWindow");
+    requirePositive(maxConcurrentCallsPerConnection, "maxConcurrentCallsPerConnection");
+    requirePositive(keepAliveTime, "keepAliveTime");
+    requirePositive(keepAliveTimeout, "keepAliveTimeout");
+    if (Objects.requireNonNull(permitKeepAliveTime).isNegative()) {
+      throw new IllegalArgumentException("permitKeepAliveTime must not be negative but was " + permitKeepAliveTime);
+    }
+    requireNonNegative(socketSendBufferSize, "socketSendBufferSize");
+    requireNonNegative(socketReceiveBufferSize, "socketReceiveBufferSize");
+  }
+
+  /**
+   * The default transport options.
+   *
+   * <p>These match gRPC's own defaults, except for the keepalive time that we lower to one minute.</p>
+   *
+   * @return the default transport options.
+   */
+  public static TransportOptions defaults() {
+    return new TransportOptions(
+        Constants.Defaults.DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE,
+        Constants.Defaults.DAPR_COMPONENTS_MAX_INBOUND_METADATA_SIZE,
+        Constants.Defaults.DAPR_COMPONENTS_FLOW_CONTROL_WINDOW,
+        Constants.Defaults.DAPR_COMPONENTS_MAX_CONCURRENT_CALLS_PER_CONNECTION,
+        Duration.ofSeconds(Constants.Defaults.DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS),
+        Duration.ofSeconds(Constants.Defaults.DAPR_COMPONENTS_KEEPALIVE_TIMEOUT_SECONDS),
+        Duration.ofSeconds(Constants.Defaults.DAPR_COMPONENTS_PERMIT_KEEPALIVE_TIME_SECONDS),
+        Constants.Defaults.DAPR_COMPONENTS_PERMIT_KEEPALIVE_WITHOUT_CALLS,
+        Constants.Defaults.DAPR_COMPONENTS_SOCKET_SEND_BUFFER_SIZE,
+        Constants.Defaults.DAPR_COMPONENTS_SOCKET_RECEIVE_BUFFER_SIZE);
+  }
+
+  /**
+   * Returns a copy of these options with a different maximum request message size.
+   *
+   * @param bytes Largest request message accepted, in bytes.
+   * @return the new transport options.
+   */
+  public TransportOptions withMaxInboundMessageSize(final int bytes) {
+    return new TransportOptions(bytes, maxInboundMetadataSize, flowControlWindow, maxConcurrentCallsPerConnection,
+        keepAliveTime, keepAliveTimeout, permitKeepAliveTime, permitKeepAliveWithoutCalls,
+        socketSendBufferSize, socketReceiveBufferSize);
+  }
+
+  /**
+   * Returns a copy of these options with a different maximum request metadata size.
+   *
+   * @param bytes Largest request metadata (headers) accepted, in bytes.
+   * @return the new transport options.
+   */
+  public TransportOptions withMaxInboundMetadataSize(final int bytes) {
+    return new TransportOptions(maxInboundMessageSize, bytes, flowControlWindow, maxConcurrentCallsPerConnection,
+        keepAliveTime, keepAliveTimeout, permitKeepAliveTime, permitKeepAliveWithoutCalls,
+        socketSendBufferSize, socketReceiveBufferSize);
+  }
+
+  /**
+   * Returns a copy of these options with a different initial HTTP/2 flow control window.
+   *
+   * @param bytes Initial flow control window, in bytes.
+   * @return the new transport options.
+   */
+  public TransportOptions withFlowControlWindow(final int bytes) {
+    return new TransportOptions(maxInboundMessageSize, maxInboundMetadataSize, bytes, maxConcurrentCallsPerConnection,
+        keepAliveTime, keepAliveTimeout, permitKeepAliveTime, permitKeepAliveWithoutCalls,
+        socketSendBufferSize, socketReceiveBufferSize);
+  }
+
+  /**
+   * Returns a copy of these options with a different limit of concurrent calls per connection.
+   *
+   * @param calls Maximum number of concurrent calls daprd may open per connection.
+   * @return the new transport options.
+   */
+  public TransportOptions withMaxConcurrentCallsPerConnection(final int calls) {
+    return new TransportOptions(maxInboundMessageSize, maxInboundMetadataSize, flowControlWindow, calls,
+        keepAliveTime, keepAliveTimeout, permitKeepAliveTime, permitKeepAliveWithoutCalls,
+        socketSendBufferSize, socketReceiveBufferSize);
+  }
+
+  /**
+   * Returns a copy of these options with different keepalive settings.
+   *
+   * @param time Idle time after which the server pings daprd to check the connection is still alive.
+   * @param timeout Time to wait for the keepalive ping acknowledgement before closing the connection.
+   * @return the new transport options.
+   */
+  public TransportOptions withKeepAlive(final Duration time, final Duration timeout) {
+    return new TransportOptions(maxInboundMessageSize, maxInboundMetadataSize, flowControlWindow,
+        maxConcurrentCallsPerConnection, time, timeout, permitKeepAliveTime, permitKeepAliveWithoutCalls,
+        socketSendBufferSize, socketReceiveBufferSize);
+  }
+
+  /**
+   * Returns a copy of these options with different settings for keepalive pings sent by daprd.
+   *
+   * @param time Most aggressive keepalive interval daprd is allowed to use.
+   * @param withoutCalls Whether daprd may send keepalive pings when there are no active calls.
+   * @return the new transport options.
+   */
+  public TransportOptions withPermitKeepAlive(final Duration time, final boolean withoutCalls) {
+    return new TransportOptions(maxInboundMessageSize, maxInboundMetadataSize, flowControlWindow,
+        maxConcurrentCallsPerConnection, keepAliveTime, keepAliveTimeout, time, withoutCalls,
+        socketSendBufferSize, socketReceiveBufferSize);
+  }
+
+  /**
+   * Returns a copy of these options with different socket buffer sizes.
+   *
+   * @param sendBufferSize Socket send buffer size in bytes, or 0 to use the operating system default.
+   * @param receiveBufferSize Socket receive buffer size in bytes, or 0 to use the operating system default.
+   * @return the new transport options.
+   */
+  public TransportOptions withSocketBufferSizes(final int sendBufferSize, final int receiveBufferSize) {
+    return new TransportOptions(maxInboundMessageSize, maxInboundMetadataSize, flowControlWindow,
+        maxConcurrentCallsPerConnection, keepAliveTime, keepAliveTimeout, permitKeepAliveTime,
+        permitKeepAliveWithoutCalls, sendBufferSize, receiveBufferSize);
+  }
+
+  /**
+   * Applies these options to a server being built.
+   *
+   * @param serverBuilder the builder of the server for a single pluggable component.
+   * @return the very same serverBuilder, so calls can be chained.
+   */
+  NettyServerBuilder configure(final NettyServerBuilder serverBuilder) {
+    serverBuilder
+        .maxInboundMessageSize(maxInboundMessageSize)
+        .maxInboundMetadataSize(maxInboundMetadataSize)
+        .flowControlWindow(flowControlWindow)
+        .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+        .keepAliveTime(keepAliveTime.toNanos(), TimeUnit.NANOSECONDS)
+        .keepAliveTimeout(keepAliveTimeout.toNanos(), TimeUnit.NANOSECONDS)
+        .permitKeepAliveTime(permitKeepAliveTime.toNanos(), TimeUnit.NANOSECONDS)
+        .permitKeepAliveWithoutCalls(permitKeepAliveWithoutCalls);
+    // Sockets accepted by the server are its "children".
+    if (socketSendBufferSize > 0) {
+      serverBuilder.withChildOption(ChannelOption.SO_SNDBUF, socketSendBufferSize);
+    }
+    if (socketReceiveBufferSize > 0) {
+      serverBuilder.withChildOption(ChannelOption.SO_RCVBUF, socketReceiveBufferSize);
+    }
+    return serverBuilder;
+  }
+
+  private static void requirePositive(final int value, final String name) {
+    if (value <= 0) {
+      throw new IllegalArgumentException(name + " must be positive but was " + value);
+    }
+  }
+
+  private static void requirePositive(final Duration value, final String name) {
+    if (Objects.requireNonNull(value).isNegative() || value.isZero()) {
+      throw new IllegalArgumentException(name + " must be positive but was " + value);
+    }
+  }
+
+  private static void requireNonNegative(final int value, final String name) {
+    if (value < 0) {
+      throw new IllegalArgumentException(name + " must not be negative but was " + value);
+    }
+  }
+}
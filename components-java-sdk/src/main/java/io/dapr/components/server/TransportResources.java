@@ -0,0 +1,236 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dapr.components.server;
+
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.kqueue.KQueue;
+import io.netty.channel.kqueue.KQueueDomainSocketChannel;
+import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.channel.kqueue.KQueueServerDomainSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Owns the Netty transport resources shared by every component hosted by a {@link PluggableComponentServer}.
+ *
+ * <p>Each pluggable component still listens on its own Unix Domain Socket file, but all those sockets are
+ * multiplexed onto a single, explicitly sized, pair of event loop groups: a boss group accepting connections and a
+ * worker group handling I/O for them. Without this, every component would get its own event loop group sized
+ * after the number of cores, and a process hosting a handful of components would end up with hundreds of
+ * mostly idle event loop threads.</p>
+ *
+ * <p>The native transport is picked among those available on this host, see {@link TransportType}.</p>
+ *
+ * <p>The event loop groups are owned by this class and not by the gRPC servers using them:
+ * call {@link #shutdownGracefully(long, TimeUnit)} once all servers have terminated.</p>
+ */
+final class TransportResources {
+  private static final Logger log = Logger.getLogger(TransportResources.class.getName());
+
+  // Netty's io_uring transport is optional, so we only reach it by reflection.
+  private static final String IO_URING_PACKAGE = "io.netty.incubator.channel.uring.";
+
+  private final TransportType transportType;
+  private final EventLoopGroup bossEventLoopGroup;
+  private final EventLoopGroup workerEventLoopGroup;
+  private final Class<? extends ServerChannel> serverChannelClass;
+  private final Class<? extends Channel> clientChannelClass;
+
+  /**
+   * Constructor.
+   *
+   * @param requestedTransportType the native transport to use, if available on this host.
+   * @param bossThreads number of threads accepting connections for all component sockets.
+   * @param workerThreads number of threads handling I/O for all component sockets.
+   */
+  TransportResources(final TransportType requestedTransportType, final int bossThreads, final int workerThreads) {
+    final ThreadFactory bossThreadFactory = new DefaultThreadFactory("dapr-components-boss");
+    final ThreadFactory workerThreadFactory = new DefaultThreadFactory("dapr-components-worker");
+    this.transportType = resolve(requestedTransportType);
+    switch (transportType) {
+      case IO_URING -> {
+        this.bossEventLoopGroup = newIoUringEventLoopGroup(bossThreads, bossThreadFactory);
+        this.workerEventLoopGroup = newIoUringEventLoopGroup(workerThreads, workerThreadFactory);
+        this.serverChannelClass = ioUringServerDomainSocketChannelClass();
+        this.clientChannelClass = ioUringDomainSocketChannelClass();
+      }
+      case KQUEUE -> {
+        this.bossEventLoopGroup = new KQueueEventLoopGroup(bossThreads, bossThreadFactory);
+        this.workerEventLoopGroup = new KQueueEventLoopGroup(workerThreads, workerThreadFactory);
+        this.serverChannelClass = KQueueServerDomainSocketChannel.class;
+        this.clientChannelClass = KQueueDomainSocketChannel.class;
+      }
+      case EPOLL -> {
+        this.bossEventLoopGroup = new EpollEventLoopGroup(bossThreads, bossThreadFactory);
+        this.workerEventLoopGroup = new EpollEventLoopGroup(workerThreads, workerThreadFactory);
+        this.serverChannelClass = EpollServerDomainSocketChannel.class;
+        this.clientChannelClass = EpollDomainSocketChannel.class;
+      }
+      default -> throw new IllegalStateException("Unresolved transport type " + transportType);
+    }
+    log.info("Using " + transportType + " transport, sharing " + bossThreads + " boss thread(s) and "
+        + workerThreads + " worker thread(s) among all pluggable components");
+  }
+
+  /**
+   * Picks the transport to use on this host.
+   *
+   * @param requested the transport asked for.
+   * @return the requested transport if available, otherwise the one it falls back to. Never {@link TransportType#AUTO}.
+   */
+  static TransportType resolve(final TransportType requested) {
+    return switch (requested) {
+      case AUTO -> KQueue.isAvailable() ? TransportType.KQUEUE : TransportType.EPOLL;
+      case KQUEUE -> KQueue.isAvailable()
+          ? TransportType.KQUEUE
+          : fallback(requested, String.valueOf(KQueue.unavailabilityCause()), resolve(TransportType.AUTO));
+      case EPOLL -> Epoll.isAvailable()
+          ? TransportType.EPOLL
+          : fallback(requested, String.valueOf(Epoll.unavailabilityCause()), resolve(TransportType.AUTO));
+      case IO_URING -> {
+        final String unavailabilityCause = ioUringUnavailabilityCause();
+        yield unavailabilityCause == null
+            ? TransportType.IO_URING
+            : fallback(requested, unavailabilityCause, resolve(TransportType.EPOLL));
+      }
+    };
+  }
+
+  /**
+   * The transport actually in use.
+   *
+   * @return the transport type.
+   */
+  TransportType transportType() {
+    return transportType;
+  }
+
+  /**
+   * Makes a server being built use the shared transport resources.
+   *
+   * @param serverBuilder the builder of the server for a single pluggable component.
+   * @return the very same serverBuilder, so calls can be chained.
+   */
+  NettyServerBuilder configure(final NettyServerBuilder serverBuilder) {
+    return serverBuilder
+        .channelType(serverChannelClass)
+        .bossEventLoopGroup(bossEventLoopGroup)
+        .workerEventLoopGroup(workerEventLoopGroup);
+  }
+
+  /**
+   * Makes a channel being built connect to a component socket using the shared transport resources.
+   *
+   * <p>Only meant for calls the server makes to itself, daprd being the actual client of components.</p>
+   *
+   * @param channelBuilder the builder of a channel to a Unix Domain Socket.
+   * @return the very same channelBuilder, so calls can be chained.
+   */
+  NettyChannelBuilder configure(final NettyChannelBuilder channelBuilder) {
+    return channelBuilder
+        .channelType(clientChannelClass)
+        .eventLoopGroup(workerEventLoopGroup);
+  }
+
+  /**
+   * Like {@link #configure(NettyServerBuilder)}, for a server listening on many sockets that needs to know which one
+   * each connection was accepted on, see {@link ListenAddressReporting}.
+   *
+   * @param serverBuilder the builder of a server listening on the sockets of many components.
+   * @return the very same serverBuilder, so calls can be chained.
+   */
+  NettyServerBuilder configureReportingListenAddresses(final NettyServerBuilder serverBuilder) {
+    return configure(serverBuilder)
+        .channelFactory(ListenAddressReporting.channelFactory(serverChannelClass))
+        .addTransportFilter(ListenAddressReporting.transportFilter());
+  }
+
+  /**
+   * Releases the shared event loop groups.
+   *
+   * <p>Only call this after every server using these resources has terminated.</p>
+   *
+   * @param timeout maximum time to wait for the event loops to terminate.
+   * @param unit the time unit of the timeout argument.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  void shutdownGracefully(final long timeout, final TimeUnit unit) throws InterruptedException {
+    bossEventLoopGroup.shutdownGracefully(0, timeout, unit);
+    workerEventLoopGroup.shutdownGracefully(0, timeout, unit);
+    bossEventLoopGroup.awaitTermination(timeout, unit);
+    workerEventLoopGroup.awaitTermination(timeout, unit);
+  }
+
+  private static TransportType fallback(final TransportType requested,
+                                        final String unavailabilityCause,
+                                        final TransportType fallback) {
+    log.warning("Transport " + requested + " is not available (" + unavailabilityCause + "). Falling back to "
+        + fallback);
+    return fallback;
+  }
+
+  // Null if available, otherwise why not.
+  private static String ioUringUnavailabilityCause() {
+    try {
+      final Class<?> ioUring = Class.forName(IO_URING_PACKAGE + "IOUring");
+      ioUringServerDomainSocketChannelClass();
+      ioUringDomainSocketChannelClass();
+      if (!((Boolean) ioUring.getMethod("isAvailable").invoke(null))) {
+        return String.valueOf(ioUring.getMethod("unavailabilityCause").invoke(null));
+      }
+      return null;
+    } catch (ClassNotFoundException e) {
+      return "io_uring transport with Unix Domain Socket support not found in classpath";
+    } catch (ReflectiveOperationException | LinkageError | IllegalStateException e) {
+      return String.valueOf(e);
+    }
+  }
+
+  private static Class<? extends ServerChannel> ioUringServerDomainSocketChannelClass() {
+    try {
+      return Class.forName(IO_URING_PACKAGE + "IOUringServerDomainSocketChannel").asSubclass(ServerChannel.class);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Class<? extends Channel> ioUringDomainSocketChannelClass() {
+    try {
+      return Class.forName(IO_URING_PACKAGE + "IOUringDomainSocketChannel").asSubclass(Channel.class);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static EventLoopGroup newIoUringEventLoopGroup(final int threads, final ThreadFactory threadFactory) {
+    try {
+      return (EventLoopGroup) Class.forName(IO_URING_PACKAGE + "IOUringEventLoopGroup")
+          .getConstructor(int.class, ThreadFactory.class)
+          .newInstance(threads, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create io_uring event loop group", e);
+    }
+  }
+}
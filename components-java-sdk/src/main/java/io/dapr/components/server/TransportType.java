@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+/**
+ * The native Netty transport serving the Unix Domain Sockets of pluggable components.
+ *
+ * <p>Transports that are not available on the running host fall back to another one, see each value.</p>
+ */
+public enum TransportType {
+  /**
+   * KQueue where available (macOS, BSD), Epoll otherwise.
+   */
+  AUTO,
+
+  /**
+   * Linux epoll. Falls back to {@link #AUTO} if unavailable.
+   */
+  EPOLL,
+
+  /**
+   * BSD kqueue. Falls back to {@link #AUTO} if unavailable.
+   */
+  KQUEUE,
+
+  /**
+   * Linux io_uring, which saves system calls when serving many small calls. Falls back to {@link #EPOLL} if
+   * unavailable.
+   *
+   * <p>Netty's io_uring transport is an optional dependency the SDK does not bring: add a release of
+   * {@code io.netty.incubator:netty-incubator-transport-native-io_uring} with Unix Domain Socket channels to the
+   * classpath, and run on a kernel supporting io_uring. Otherwise the fallback is logged along with its cause.</p>
+   */
+  IO_URING
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.protobuf.ByteString;
+import dapr.proto.components.v1.Bindings;
+import dapr.proto.components.v1.InputBindingGrpc;
+import dapr.proto.components.v1.OutputBindingGrpc;
+import dapr.proto.components.v1.PubSubGrpc;
+import dapr.proto.components.v1.Pubsub;
+import dapr.proto.components.v1.State;
+import dapr.proto.components.v1.StateStoreGrpc;
+import io.dapr.components.domain.bindings.InputBinding;
+import io.dapr.components.domain.bindings.InvokeRequest;
+import io.dapr.components.domain.bindings.InvokeResponse;
+import io.dapr.components.domain.bindings.OutputBinding;
+import io.dapr.components.domain.bindings.ReadRequest;
+import io.dapr.components.domain.bindings.ReadResponse;
+import io.dapr.components.domain.pubsub.PubSub;
+import io.dapr.components.domain.pubsub.PublishRequest;
+import io.dapr.components.domain.pubsub.PullMessageAcknowledgement;
+import io.dapr.components.domain.pubsub.PullMessagesResponse;
+import io.dapr.components.domain.pubsub.Topic;
+import io.dapr.components.domain.state.DeleteRequest;
+import io.dapr.components.domain.state.GetRequest;
+import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.SetRequest;
+import io.dapr.components.domain.state.StateStore;
+import io.dapr.components.wrappers.InputBindingGrpcComponentWrapper;
+import io.dapr.components.wrappers.OutputBindingGrpcComponentWrapper;
+import io.dapr.components.wrappers.PubSubGrpcComponentWrapper;
+import io.dapr.components.wrappers.StateStoreGrpcComponentWrapper;
+import io.dapr.v1.ComponentProtos;
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.unix.DomainSocketAddress;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Drives synthetic traffic through the services of pluggable components before daprd can reach them.
+ *
+ * <p>Right after startup, request conversion, Reactor operators and the Netty pipeline all run in the interpreter,
+ * and the first few thousand calls are many times slower than the following ones. Warming up takes that cost before
+ * the sockets of components exist, so daprd never sees it.</p>
+ *
+ * <p>Components are never called: the traffic goes to the same wrappers, interceptors and transport, on sockets of a
+ * private temporary folder, but the wrappers are backed by stub components answering right away. Warm-up stops as
+ * soon as the JIT compiler has been mostly idle for a few rounds of calls, or when its time budget runs out.</p>
+ *
+ * <p>Warm-up is best-effort: failures are logged and startup carries on.</p>
+ */
+final class WarmUp {
+  private static final Logger log = Logger.getLogger(WarmUp.class.getName());
+
+  // Calls of each kind per round. A round is also the granularity at which we check whether compilation settled.
+  private static final int ROUND_SIZE = 100;
+  // Compilation has settled once the JIT spent less than 1/50th of a round compiling, for that many rounds in a row.
+  private static final int COMPILATION_TIME_RATIO = 50;
+  private static final int SETTLED_ROUNDS = 3;
+
+  private static final ByteString PAYLOAD = ByteString.copyFrom(new byte[1024]);
+  private static final Map<String, String> METADATA = Map.of("warmup", "true");
+  private static final String CONTENT_TYPE = "application/octet-stream";
+  private static final String KEY = "warmup";
+
+  private final TransportResources transportResources;
+  private final Duration budget;
+  private final BiFunction<String, List<BindableService>, List<ServerServiceDefinition>> interceptedServices;
+
+  /**
+   * Constructor.
+   *
+   * @param transportResources the transport that the servers of components will use.
+   * @param budget the maximum time to spend warming up.
+   * @param interceptedServices how the servers of components serve the given services of the named component.
+   */
+  WarmUp(final TransportResources transportResources,
+         final Duration budget,
+         final BiFunction<String, List<BindableService>, List<ServerServiceDefinition>> interceptedServices) {
+    this.transportResources = transportResources;
+    this.budget = budget;
+    this.interceptedServices = interceptedServices;
+  }
+
+  /**
+   * Warms up the services of the given components, within the time budget.
+   *
+   * @param components the components whose services to warm up.
+   */
+  void run(final Collection<PluggableComponent> components) {
+    final long startedAt = System.nanoTime();
+    final long deadline = startedAt + budget.toNanos();
+    final List<Server> servers = new ArrayList<>();
+    final List<ManagedChannel> channels = new ArrayList<>();
+    final List<Supplier<ListenableFuture<?>>> calls = new ArrayList<>();
+    Path socketFolder = null;
+    long callCount = 0;
+    boolean settled = false;
+    try {
+      socketFolder = Files.createTempDirectory("dapr-components-warmup");
+      for (PluggableComponent component : components) {
+        final DomainSocketAddress socket = new DomainSocketAddress(
+            socketFolder.resolve(component.getName() + ".sock").toFile());
+        final NettyServerBuilder serverBuilder = transportResources.configure(NettyServerBuilder.forAddress(socket));
+        final ManagedChannel channel = transportResources.configure(NettyChannelBuilder.forAddress(socket))
+            .usePlaintext()
+            .build();
+        channels.add(channel);
+        final List<BindableService> stubbedServices = new ArrayList<>();
+        for (BindableService service : component.getExposedServices()) {
+          addStubbedService(service, stubbedServices, channel, calls);
+        }
+        interceptedServices.apply(component.getName(), stubbedServices).forEach(serverBuilder::addService);
+        servers.add(serverBuilder.build().start());
+      }
+
+      final CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+      final boolean canTellCompilationTime = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+      long compilationTime = canTellCompilationTime ? compiler.getTotalCompilationTime() : 0;
+      int quietRounds = 0;
+      while (!settled && !calls.isEmpty() && System.nanoTime() < deadline) {
+        final long roundStartedAt = System.nanoTime();
+        callCount += runRound(calls, deadline);
+        if (canTellCompilationTime) {
+          final long roundMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStartedAt);
+          final long roundCompilationTime = compiler.getTotalCompilationTime() - compilationTime;
+          compilationTime += roundCompilationTime;
+          quietRounds = roundCompilationTime * COMPILATION_TIME_RATIO <= roundMillis ? quietRounds + 1 : 0;
+          settled = quietRounds >= SETTLED_ROUNDS;
+        }
+      }
+    } catch (IOException | ExecutionException | RuntimeException e) {
+      log.warning("Warm-up failed, starting without it: " + e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      channels.forEach(ManagedChannel::shutdownNow);
+      servers.forEach(Server::shutdownNow);
+      awaitTermination(servers, deadline);
+      deleteFolder(socketFolder);
+    }
+    log.info("Warm-up completed " + callCount + " call(s) in "
+        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " ms, "
+        + (settled ? "JIT compilation settled" : "stopped at the end of its time budget of " + budget));
+  }
+
+  private static long runRound(final List<Supplier<ListenableFuture<?>>> calls, final long deadline)
+      throws ExecutionException, InterruptedException {
+    final List<ListenableFuture<?>> responses = new ArrayList<>(ROUND_SIZE * calls.size());
+    for (int i = 0; i < ROUND_SIZE && System.nanoTime() < deadline; i++) {
+      for (Supplier<ListenableFuture<?>> call : calls) {
+        responses.add(call.get());
+      }
+    }
+    final ListenableFuture<?> round = Futures.allAsList(responses);
+    try {
+      round.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      return responses.size();
+    } catch (TimeoutException e) {
+      // Out of time budget, which is fine.
+      return responses.stream().filter(Future::isDone).count();
+    } finally {
+      // Calls still in progress are of no use anymore, if the round failed or ran out of time.
+      round.cancel(true);
+    }
+  }
+
+  /*
+   * Adds a copy of a service of a component, backed by a stub of that component, and calls to that copy.
+   * Streaming calls are left out: their cost is in the messages, which unary calls exercise just as well.
+   */
+  private static void addStubbedService(final BindableService service,
+                                        final List<BindableService> stubbedServices,
+                                        final ManagedChannel channel,
+                                        final List<Supplier<ListenableFuture<?>>> calls) {
+    if (service instanceof StateStoreGrpcComponentWrapper) {
+      stubbedServices.add(new StateStoreGrpcComponentWrapper(new StubStateStore()));
+      final StateStoreGrpc.StateStoreFutureStub stateStore = StateStoreGrpc.newFutureStub(channel);
+      final State.GetRequest getRequest = State.GetRequest.newBuilder()
+          .setKey(KEY)
+          .putAllMetadata(METADATA)
+          .build();
+      final State.SetRequest setRequest = State.SetRequest.newBuilder()
+          .setKey(KEY)
+          .setValue(PAYLOAD)
+          .putAllMetadata(METADATA)
+          .setContentType(CONTENT_TYPE)
+          .build();
+      final State.DeleteRequest deleteRequest = State.DeleteRequest.newBuilder()
+          .setKey(KEY)
+          .putAllMetadata(METADATA)
+          .build();
+      final State.BulkGetRequest bulkGetRequest = State.BulkGetRequest.newBuilder()
+          .addItems(getRequest)
+          .addItems(getRequest)
+          .build();
+      calls.add(() -> stateStore.get(getRequest));
+      calls.add(() -> stateStore.set(setRequest));
+      calls.add(() -> stateStore.delete(deleteRequest));
+      calls.add(() -> stateStore.bulkGet(bulkGetRequest));
+      calls.add(() -> stateStore.ping(ComponentProtos.PingRequest.getDefaultInstance()));
+    } else if (service instanceof PubSubGrpcComponentWrapper) {
+      stubbedServices.add(new PubSubGrpcComponentWrapper(new StubPubSub()));
+      final PubSubGrpc.PubSubFutureStub pubSub = PubSubGrpc.newFutureStub(channel);
+      final Pubsub.PublishRequest publishRequest = Pubsub.PublishRequest.newBuilder()
+          .setData(PAYLOAD)
+          .setPubsubName(KEY)
+          .setTopic(KEY)
+          .putAllMetadata(METADATA)
+          .setContentType(CONTENT_TYPE)
+          .build();
+      calls.add(() -> pubSub.publish(publishRequest));
+      calls.add(() -> pubSub.ping(ComponentProtos.PingRequest.getDefaultInstance()));
+    } else if (service instanceof InputBindingGrpcComponentWrapper) {
+      stubbedServices.add(new InputBindingGrpcComponentWrapper(new StubInputBinding()));
+      final InputBindingGrpc.InputBindingFutureStub inputBinding = InputBindingGrpc.newFutureStub(channel);
+      calls.add(() -> inputBinding.ping(ComponentProtos.PingRequest.getDefaultInstance()));
+    } else if (service instanceof OutputBindingGrpcComponentWrapper) {
+      stubbedServices.add(new OutputBindingGrpcComponentWrapper(new StubOutputBinding()));
+      final OutputBindingGrpc.OutputBindingFutureStub outputBinding = OutputBindingGrpc.newFutureStub(channel);
+      final Bindings.InvokeRequest invokeRequest = Bindings.InvokeRequest.newBuilder()
+          .setData(PAYLOAD)
+          .putAllMetadata(METADATA)
+          .setOperation(KEY)
+          .build();
+      calls.add(() -> outputBinding.invoke(invokeRequest));
+      calls.add(() -> outputBinding.ping(ComponentProtos.PingRequest.getDefaultInstance()));
+    }
+  }
+
+  // Servers left behind past the deadline only hold onto sockets nobody knows about, they are not worth waiting for.
+  private static void awaitTermination(final List<Server> servers, final long deadline) {
+    try {
+      for (Server server : servers) {
+        server.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void deleteFolder(final Path folder) {
+    if (folder == null) {
+      return;
+    }
+    final File[] files = folder.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (!file.delete()) {
+          file.deleteOnExit();
+        }
+      }
+    }
+    if (!folder.toFile().delete()) {
+      folder.toFile().deleteOnExit();
+    }
+  }
+
+  private static final class StubStateStore implements StateStore {
+    @Override
+    public Mono<GetResponse> get(final GetRequest getRequest) {
+      return Mono.just(new GetResponse(PAYLOAD, KEY, METADATA, CONTENT_TYPE));
+    }
+
+    @Override
+    public Mono<Void> delete(final DeleteRequest deleteRequest) {
+      return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> set(final SetRequest setRequest) {
+      return Mono.empty();
+    }
+  }
+
+  private static final class StubPubSub implements PubSub {
+    @Override
+    public Mono<Void> publish(final PublishRequest request) {
+      return Mono.empty();
+    }
+
+    @Override
+    public Flux<PullMessagesResponse> pullMessages(final Topic topic, final Flux<PullMessageAcknowledgement> acks) {
+      return Flux.empty();
+    }
+  }
+
+  private static final class StubInputBinding implements InputBinding {
+    @Override
+    public Flux<ReadResponse> read(final Flux<ReadRequest> acks) {
+      return Flux.empty();
+    }
+  }
+
+  private static final class StubOutputBinding implements OutputBinding {
+    @Override
+    public Mono<InvokeResponse> invoke(final InvokeRequest request) {
+      return Mono.just(new InvokeResponse(PAYLOAD, METADATA, CONTENT_TYPE));
+    }
+
+    @Override
+    public Mono<List<String>> listOperations() {
+      return Mono.just(List.of(KEY));
+    }
+  }
+}
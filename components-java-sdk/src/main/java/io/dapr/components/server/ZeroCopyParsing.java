@@ -0,0 +1,368 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import com.google.protobuf.UnsafeByteOperations;
+import dapr.proto.components.v1.OutputBindingGrpc;
+import dapr.proto.components.v1.PubSubGrpc;
+import dapr.proto.components.v1.StateStoreGrpc;
+import dapr.proto.components.v1.TransactionalStateStoreGrpc;
+import io.dapr.components.wrappers.CallResources;
+import io.grpc.Attributes;
+import io.grpc.Detachable;
+import io.grpc.HasByteBuffer;
+import io.grpc.KnownLength;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Parses the requests carrying large payloads straight from the buffers gRPC received them in.
+ *
+ * <p>gRPC hands each request to its marshaller as a stream over the transport buffers. The generated marshallers
+ * copy them into heap byte strings. Here, the marshaller of these methods hands the stream over as is, and the
+ * listener of each call parses it before passing the request on to the generated handler: the stream is detached
+ * from gRPC, which then leaves its buffers alone, and the request is parsed with aliasing enabled so its
+ * {@code bytes} fields are views of these buffers. They are added to the {@link CallResources} of the call, released
+ * once the call is over, that is once it answered or was cancelled. Small or compressed requests are copied.</p>
+ */
+final class ZeroCopyParsing {
+  private static final Logger log = Logger.getLogger(ZeroCopyParsing.class.getName());
+
+  private static final Set<String> PAYLOAD_METHODS = Set.of(
+      StateStoreGrpc.getSetMethod().getFullMethodName(),
+      StateStoreGrpc.getBulkSetMethod().getFullMethodName(),
+      TransactionalStateStoreGrpc.getTransactMethod().getFullMethodName(),
+      PubSubGrpc.getPublishMethod().getFullMethodName(),
+      OutputBindingGrpc.getInvokeMethod().getFullMethodName());
+
+  // Protobuf concatenates byte strings smaller than this together by copying them onto the heap, after which it
+  // copies the whole request when parsing it.
+  private static final int MIN_DIRECT_SIZE = 128;
+
+  // Hands request streams over to the listener of the call, which parses them itself.
+  private static final MethodDescriptor.Marshaller<InputStream> REQUEST_STREAMS = new RequestStreamMarshaller();
+
+  private ZeroCopyParsing() {
+  }
+
+  /**
+   * Makes the methods of a service receiving large payloads parse their requests without copying them.
+   *
+   * @param service the service.
+   * @param options the settings of zero-copy parsing.
+   * @return the service, with the request marshaller of such methods replaced.
+   */
+  static ServerServiceDefinition apply(final ServerServiceDefinition service, final ZeroCopyParsingOptions options) {
+    final ServiceDescriptor serviceDescriptor = service.getServiceDescriptor();
+    if (serviceDescriptor.getMethods().stream().noneMatch(method -> PAYLOAD_METHODS.contains(
+        method.getFullMethodName()))) {
+      return service;
+    }
+    final List<ServerMethodDefinition<?, ?>> methods = new ArrayList<>();
+    final ServiceDescriptor.Builder descriptor = ServiceDescriptor.newBuilder(serviceDescriptor.getName())
+        .setSchemaDescriptor(serviceDescriptor.getSchemaDescriptor());
+    for (final MethodDescriptor<?, ?> method : serviceDescriptor.getMethods()) {
+      ServerMethodDefinition<?, ?> definition = service.getMethod(method.getFullMethodName());
+      if (PAYLOAD_METHODS.contains(method.getFullMethodName())) {
+        definition = withZeroCopyRequests(definition, options);
+      }
+      methods.add(definition);
+      descriptor.addMethod(definition.getMethodDescriptor());
+    }
+    final ServerServiceDefinition.Builder definition = ServerServiceDefinition.builder(descriptor.build());
+    methods.forEach(definition::addMethod);
+    return definition.build();
+  }
+
+  private static <Q, R> ServerMethodDefinition<?, R> withZeroCopyRequests(final ServerMethodDefinition<Q, R> method,
+                                                                          final ZeroCopyParsingOptions options) {
+    final MethodDescriptor<Q, R> descriptor = method.getMethodDescriptor();
+    if (!(descriptor.getRequestMarshaller() instanceof MethodDescriptor.PrototypeMarshaller<Q> generated)
+        || !(generated.getMessagePrototype() instanceof MessageLite)) {
+      return method;
+    }
+    return ServerMethodDefinition.create(
+        descriptor.toBuilder(REQUEST_STREAMS, descriptor.getResponseMarshaller()).build(),
+        new ZeroCopyCallHandler<>(method, new ZeroCopyParser<>(generated, options.minimumMessageSize())));
+  }
+
+  /**
+   * Parses the requests of each call into the resources of that call, and attaches them to the context the
+   * generated listener is called in.
+   *
+   * @param <Q> the type of the requests.
+   * @param <R> the type of the responses.
+   */
+  private static final class ZeroCopyCallHandler<Q, R> implements ServerCallHandler<InputStream, R> {
+    private final ServerMethodDefinition<Q, R> method;
+    private final ZeroCopyParser<Q> parser;
+
+    private ZeroCopyCallHandler(final ServerMethodDefinition<Q, R> method, final ZeroCopyParser<Q> parser) {
+      this.method = method;
+      this.parser = parser;
+    }
+
+    @Override
+    public ServerCall.Listener<InputStream> startCall(final ServerCall<InputStream, R> call, final Metadata headers) {
+      final CallResources resources = new CallResources();
+      final ServerCall.Listener<Q> listener;
+      try {
+        listener = method.getServerCallHandler()
+            .startCall(new ParsedRequestsCall<>(call, method.getMethodDescriptor()), headers);
+      } catch (RuntimeException e) {
+        resources.release();
+        throw e;
+      }
+      return new ServerCall.Listener<>() {
+        @Override
+        public void onMessage(final InputStream message) {
+          final Q request = parser.parse(message, resources);
+          resources.runAttached(() -> listener.onMessage(request));
+        }
+
+        @Override
+        public void onHalfClose() {
+          resources.runAttached(listener::onHalfClose);
+        }
+
+        @Override
+        public void onCancel() {
+          try {
+            listener.onCancel();
+          } finally {
+            resources.release();
+          }
+        }
+
+        @Override
+        public void onComplete() {
+          try {
+            listener.onComplete();
+          } finally {
+            resources.release();
+          }
+        }
+
+        @Override
+        public void onReady() {
+          listener.onReady();
+        }
+      };
+    }
+  }
+
+  /**
+   * The call as seen by the generated handler, which only knows of parsed requests.
+   *
+   * @param <Q> the type of the requests.
+   * @param <R> the type of the responses.
+   */
+  private static final class ParsedRequestsCall<Q, R> extends ServerCall<Q, R> {
+    private final ServerCall<InputStream, R> call;
+    private final MethodDescriptor<Q, R> descriptor;
+
+    private ParsedRequestsCall(final ServerCall<InputStream, R> call, final MethodDescriptor<Q, R> descriptor) {
+      this.call = call;
+      this.descriptor = descriptor;
+    }
+
+    @Override
+    public void request(final int numMessages) {
+      call.request(numMessages);
+    }
+
+    @Override
+    public void sendHeaders(final Metadata headers) {
+      call.sendHeaders(headers);
+    }
+
+    @Override
+    public void sendMessage(final R message) {
+      call.sendMessage(message);
+    }
+
+    @Override
+    public boolean isReady() {
+      return call.isReady();
+    }
+
+    @Override
+    public void close(final Status status, final Metadata trailers) {
+      call.close(status, trailers);
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return call.isCancelled();
+    }
+
+    @Override
+    public void setMessageCompression(final boolean enabled) {
+      call.setMessageCompression(enabled);
+    }
+
+    @Override
+    public void setCompression(final String compressor) {
+      call.setCompression(compressor);
+    }
+
+    @Override
+    public Attributes getAttributes() {
+      return call.getAttributes();
+    }
+
+    @Override
+    public String getAuthority() {
+      return call.getAuthority();
+    }
+
+    @Override
+    public MethodDescriptor<Q, R> getMethodDescriptor() {
+      return descriptor;
+    }
+  }
+
+  /**
+   * Leaves request streams unparsed.
+   */
+  private static final class RequestStreamMarshaller implements MethodDescriptor.Marshaller<InputStream> {
+    @Override
+    public InputStream stream(final InputStream value) {
+      return value;
+    }
+
+    @Override
+    public InputStream parse(final InputStream stream) {
+      return stream;
+    }
+  }
+
+  /**
+   * Parses large requests with aliasing, anything else as generated.
+   *
+   * @param <T> the type of the requests.
+   */
+  private static final class ZeroCopyParser<T> {
+    private final MethodDescriptor.PrototypeMarshaller<T> generated;
+    private final Parser<T> parser;
+    private final int minimumMessageSize;
+
+    @SuppressWarnings("unchecked")
+    private ZeroCopyParser(final MethodDescriptor.PrototypeMarshaller<T> generated, final int minimumMessageSize) {
+      this.generated = generated;
+      this.parser = (Parser<T>) ((MessageLite) generated.getMessagePrototype()).getParserForType();
+      this.minimumMessageSize = minimumMessageSize;
+    }
+
+    T parse(final InputStream stream, final CallResources resources) {
+      if (!(stream instanceof Detachable detachable) || !isLargeBuffered(stream)) {
+        return generated.parse(stream);
+      }
+      final InputStream detached = detachable.detach();
+      if (!resources.add(detached)) {
+        // The call is already over, its buffers would be released right away.
+        try {
+          return generated.parse(detached);
+        } finally {
+          close(detached);
+        }
+      }
+      try {
+        return parseAliasing(detached);
+      } catch (IOException | RuntimeException e) {
+        // The buffers are released along with the call.
+        throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(e).asRuntimeException();
+      }
+    }
+
+    private boolean isLargeBuffered(final InputStream stream) {
+      try {
+        return stream instanceof KnownLength
+            && stream instanceof HasByteBuffer buffered
+            && buffered.byteBufferSupported()
+            // Keeps the buffers already read until the stream is closed, instead of releasing them.
+            && stream.markSupported()
+            && stream.available() >= minimumMessageSize;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    private T parseAliasing(final InputStream detached) throws IOException {
+      detached.mark(Integer.MAX_VALUE);
+      ByteString bytes = ByteString.EMPTY;
+      // Consecutive small buffers, gathered in a direct buffer of ours.
+      ByteBuffer smallBuffers = null;
+      while (detached.available() > 0) {
+        final ByteBuffer buffer = ((HasByteBuffer) detached).getByteBuffer();
+        final int length = buffer.remaining();
+        if (length < MIN_DIRECT_SIZE) {
+          if (smallBuffers == null) {
+            smallBuffers = ByteBuffer.allocateDirect(2 * MIN_DIRECT_SIZE);
+          }
+          smallBuffers.put(buffer);
+        } else {
+          bytes = concat(bytes, smallBuffers);
+          smallBuffers = null;
+          bytes = bytes.concat(UnsafeByteOperations.unsafeWrap(buffer));
+        }
+        if (smallBuffers != null && smallBuffers.position() >= MIN_DIRECT_SIZE) {
+          bytes = concat(bytes, smallBuffers);
+          smallBuffers = null;
+        }
+        if (detached.skip(length) != length) {
+          throw new IOException("Could not move past a buffer of " + length + " bytes");
+        }
+      }
+      bytes = concat(bytes, smallBuffers);
+      // Protobuf aliases the bytes fields of a single buffer or of direct buffers, and copies them otherwise.
+      final CodedInputStream input = bytes.newCodedInput();
+      input.enableAliasing(true);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      return parser.parseFrom(input);
+    }
+
+    private static ByteString concat(final ByteString bytes, final ByteBuffer smallBuffers) {
+      return smallBuffers == null ? bytes : bytes.concat(UnsafeByteOperations.unsafeWrap(smallBuffers.flip()));
+    }
+
+    private static void close(final InputStream detached) {
+      try {
+        detached.close();
+      } catch (IOException e) {
+        log.log(Level.WARNING, "Could not release the buffers of a request", e);
+      }
+    }
+  }
+}
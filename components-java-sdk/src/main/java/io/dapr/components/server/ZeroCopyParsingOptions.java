@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.server;
+
+/**
+ * Settings of the zero-copy parsing of requests carrying large payloads: state sets, publishes and output binding
+ * invocations.
+ *
+ * <p>The payload of those requests then points straight into the buffers the request was received in, instead of
+ * being copied out of them. These buffers are released once the call is over, that is once the {@code Mono} of the
+ * component has completed or failed, or as soon as daprd cancelled the call, along with the subscription to that
+ * {@code Mono}. A component must copy the payload of a request to keep it any longer, say in an in-memory store,
+ * or to keep using it after a cancellation, for instance with {@code ByteString.copyFrom}.</p>
+ *
+ * @param minimumMessageSize Requests smaller than this, in bytes, are copied as usual: for them, tracking buffers
+ *                           costs more than copying them.
+ * @see PluggableComponentServer#withZeroCopyParsing(ZeroCopyParsingOptions)
+ */
+public record ZeroCopyParsingOptions(int minimumMessageSize) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if the minimum message size is not positive.
+   */
+  public ZeroCopyParsingOptions {
+    if (minimumMessageSize <= 0) {
+      throw new IllegalArgumentException("minimumMessageSize must be positive but was " + minimumMessageSize);
+    }
+  }
+
+  /**
+   * The default zero-copy parsing options: requests of 64 KiB and more are not copied.
+   *
+   * @return the default zero-copy parsing options.
+   */
+  public static ZeroCopyParsingOptions defaults() {
+    return new ZeroCopyParsingOptions(64 * 1024);
+  }
+}
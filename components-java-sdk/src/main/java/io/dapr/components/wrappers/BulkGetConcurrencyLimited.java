@@ -0,0 +1,27 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+/**
+ * A gRPC service with bulk gets whose concurrency can be tuned.
+ */
+public interface BulkGetConcurrencyLimited {
+  /**
+   * Sets how many keys of a bulk get started from now on may be read from the component at the same time.
+   *
+   * @param bulkGetConcurrency the most keys read concurrently per bulk get.
+   */
+  void setBulkGetConcurrency(int bulkGetConcurrency);
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.grpc.Deadline;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives components access to the deadline daprd set on the call they are serving.
+ *
+ * <p>The wrappers put the gRPC deadline of each call, if any, in the Reactor {@link Context} of the subscription
+ * to the {@code Mono} or {@code Flux} returned by a component. Components can use it to bound the time they spend
+ * on their backend, as there is no point in answering after daprd gave up:</p>
+ *
+ * <pre>{@code
+ * public Mono<GetResponse> get(GetRequest request) {
+ *   return CallDeadline.remaining()
+ *       .flatMap(timeout -> backend.get(request.key(), timeout))
+ *       .switchIfEmpty(Mono.defer(() -> backend.get(request.key(), DEFAULT_TIMEOUT)));
+ * }
+ * }</pre>
+ */
+public final class CallDeadline {
+  private static final String CONTEXT_KEY = CallDeadline.class.getName();
+
+  private CallDeadline() {
+  }
+
+  /**
+   * The time left before the deadline of the call being served expires.
+   *
+   * <p>Evaluated on subscription, so it always reflects the time left at that moment.</p>
+   *
+   * @return the remaining time, possibly zero or negative once expired, or empty if the call has no deadline.
+   */
+  public static Mono<Duration> remaining() {
+    return Mono.deferContextual(context -> Mono.justOrEmpty(remaining(context)));
+  }
+
+  /**
+   * The time left before the deadline of the call being served expires.
+   *
+   * @param context the Reactor context of a subscription made by the wrappers.
+   * @return the remaining time, possibly zero or negative once expired, or empty if the call has no deadline.
+   */
+  public static Optional<Duration> remaining(final ContextView context) {
+    return context.<Deadline>getOrEmpty(CONTEXT_KEY)
+        .map(deadline -> Duration.ofNanos(deadline.timeRemaining(TimeUnit.NANOSECONDS)));
+  }
+
+  /**
+   * A Reactor context carrying the deadline of the gRPC call being handled by the current thread.
+   *
+   * @return the context, empty if the call has no deadline.
+   */
+  static Context ofCurrentCall() {
+    final Deadline deadline = io.grpc.Context.current().getDeadline();
+    return deadline == null ? Context.empty() : Context.of(CONTEXT_KEY, deadline);
+  }
+}
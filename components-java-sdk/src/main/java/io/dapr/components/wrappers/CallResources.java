@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resources a gRPC call holds on to while it is served, such as the transport buffers its request points into.
+ *
+ * <p>The server creates them along with the call and releases them once the call is over: once it answered, or
+ * as soon as it is cancelled, along with the subscription to the {@code Mono} returned by the component. A
+ * component holding on to its request any longer must copy what it keeps, for instance with
+ * {@code ByteString.copyFrom}.</p>
+ *
+ * <p>The wrappers themselves retain them for writes they carry on with past the end of the call, such as batched
+ * writes waiting to be sent: the wrappers put them in the Reactor {@link Context} of the subscription to the
+ * component, and the resources are only released once the last of their holders let go of them.</p>
+ */
+public final class CallResources {
+  private static final Logger log = Logger.getLogger(CallResources.class.getName());
+
+  private static final io.grpc.Context.Key<CallResources> GRPC_CONTEXT_KEY =
+      io.grpc.Context.key(CallResources.class.getName());
+  private static final String CONTEXT_KEY = CallResources.class.getName();
+
+  // All guarded by this.
+  private final List<Closeable> resources = new ArrayList<>(1);
+  // The call itself holds a reference until it is over.
+  private int references = 1;
+
+  /**
+   * Adds a resource, released along with the others.
+   *
+   * @param resource the resource.
+   * @return false if the resources were released already, in which case the resource was not added.
+   */
+  public synchronized boolean add(final Closeable resource) {
+    if (references == 0) {
+      return false;
+    }
+    resources.add(resource);
+    return true;
+  }
+
+  /**
+   * Runs a task with these resources attached to the current gRPC context, so wrappers can find them.
+   *
+   * @param task the task, typically a callback of the call listener.
+   */
+  public void runAttached(final Runnable task) {
+    io.grpc.Context.current().withValue(GRPC_CONTEXT_KEY, this).run(task);
+  }
+
+  /**
+   * Lets go of these resources, which are released once every holder did.
+   */
+  public void release() {
+    final List<Closeable> toClose;
+    synchronized (this) {
+      if (references == 0 || --references > 0) {
+        return;
+      }
+      toClose = List.copyOf(resources);
+      resources.clear();
+    }
+    for (Closeable resource : toClose) {
+      try {
+        resource.close();
+      } catch (IOException e) {
+        log.log(Level.WARNING, "Could not release a resource of a call", e);
+      }
+    }
+  }
+
+  /**
+   * Adds the resources of the gRPC call handled by the current thread, if any, to a Reactor context.
+   *
+   * @param context the Reactor context of the subscription to the component serving the call.
+   * @return the context, with the resources of the call.
+   */
+  static Context addOfCurrentCall(final Context context) {
+    final CallResources callResources = GRPC_CONTEXT_KEY.get();
+    return callResources == null ? context : context.put(CONTEXT_KEY, callResources);
+  }
+
+  /**
+   * Holds on to the resources of the call a subscription was made for, until {@link #release() released}.
+   *
+   * @param context the Reactor context of a subscription made by the wrappers.
+   * @return the resources, or null if the call has none or they were released already.
+   */
+  static CallResources retain(final ContextView context) {
+    final CallResources callResources = context.getOrDefault(CONTEXT_KEY, null);
+    if (callResources == null) {
+      return null;
+    }
+    synchronized (callResources) {
+      if (callResources.references == 0) {
+        return null;
+      }
+      callResources.references++;
+    }
+    return callResources;
+  }
+}
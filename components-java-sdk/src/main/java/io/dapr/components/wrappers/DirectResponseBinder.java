@@ -0,0 +1,250 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.stub.ServerCalls;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rebinds the hot methods of a generated service so their handlers can answer with domain objects, written straight
+ * to the wire by a {@link WireEncoders.Encoder} instead of being converted to protobuf messages first.
+ *
+ * <p>Every rebound method gets a response marshaller that still accepts protobuf messages: when several components
+ * expose the same service, calls are routed through the descriptor of whichever registered first. For the same
+ * reason a method is rebound even when a subclass of the wrapper overrides its handler, which is then kept.</p>
+ */
+final class DirectResponseBinder {
+  private final Object service;
+  private final Class<?> wrapperClass;
+  private final ServerServiceDefinition generated;
+  private final Map<String, ServerMethodDefinition<?, ?>> rebound = new HashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param service the wrapper being bound.
+   * @param wrapperClass the wrapper class defining the direct handlers.
+   * @param generated the service definition of the generated base class.
+   */
+  DirectResponseBinder(final Object service, final Class<?> wrapperClass, final ServerServiceDefinition generated) {
+    this.service = Objects.requireNonNull(service);
+    this.wrapperClass = Objects.requireNonNull(wrapperClass);
+    this.generated = Objects.requireNonNull(generated);
+  }
+
+  /**
+   * Rebinds a unary method.
+   *
+   * @param method the generated method.
+   * @param encoder writes the domain responses.
+   * @param handler answers with domain responses, or protobuf messages.
+   * @param <Q> the type of the requests.
+   * @return this.
+   */
+  <Q> DirectResponseBinder unary(final MethodDescriptor<Q, ?> method, final WireEncoders.Encoder<?> encoder,
+                                 final ServerCalls.UnaryMethod<Q, Object> handler) {
+    return rebind(method, encoder, ServerCalls.asyncUnaryCall(handler));
+  }
+
+  /**
+   * Rebinds a bidirectional streaming method.
+   *
+   * @param method the generated method.
+   * @param encoder writes the domain responses.
+   * @param handler answers with domain responses, or protobuf messages.
+   * @param <Q> the type of the requests.
+   * @return this.
+   */
+  <Q> DirectResponseBinder bidiStreaming(final MethodDescriptor<Q, ?> method, final WireEncoders.Encoder<?> encoder,
+                                         final ServerCalls.BidiStreamingMethod<Q, Object> handler) {
+    return rebind(method, encoder, ServerCalls.asyncBidiStreamingCall(handler));
+  }
+
+  /**
+   * Builds the service definition, keeping the methods that were not rebound as generated.
+   *
+   * @return the service definition.
+   */
+  ServerServiceDefinition build() {
+    final ServiceDescriptor generatedDescriptor = generated.getServiceDescriptor();
+    final List<ServerMethodDefinition<?, ?>> methods = new ArrayList<>();
+    final ServiceDescriptor.Builder descriptor = ServiceDescriptor.newBuilder(generatedDescriptor.getName())
+        .setSchemaDescriptor(generatedDescriptor.getSchemaDescriptor());
+    for (final MethodDescriptor<?, ?> method : generatedDescriptor.getMethods()) {
+      final ServerMethodDefinition<?, ?> definition = rebound.getOrDefault(method.getFullMethodName(),
+          generated.getMethod(method.getFullMethodName()));
+      methods.add(definition);
+      descriptor.addMethod(definition.getMethodDescriptor());
+    }
+    final ServerServiceDefinition.Builder definition = ServerServiceDefinition.builder(descriptor.build());
+    for (final ServerMethodDefinition<?, ?> method : methods) {
+      definition.addMethod(method);
+    }
+    return definition.build();
+  }
+
+  private <Q> DirectResponseBinder rebind(final MethodDescriptor<Q, ?> method,
+                                          final WireEncoders.Encoder<?> encoder,
+                                          final ServerCallHandler<Q, Object> directHandler) {
+    final MethodDescriptor<Q, Object> descriptor = method
+        .toBuilder(method.getRequestMarshaller(), new DirectMarshaller<>(method.getResponseMarshaller(), encoder))
+        .build();
+    final ServerCallHandler<Q, Object> handler = isOverridden(method)
+        ? generatedHandler(method)
+        : directHandler;
+    rebound.put(method.getFullMethodName(), ServerMethodDefinition.create(descriptor, handler));
+    return this;
+  }
+
+  // The handler of the generated definition calls the overridable method, which answers with protobuf messages.
+  @SuppressWarnings("unchecked")
+  private <Q> ServerCallHandler<Q, Object> generatedHandler(final MethodDescriptor<Q, ?> method) {
+    return (ServerCallHandler<Q, Object>) generated.getMethod(method.getFullMethodName()).getServerCallHandler();
+  }
+
+  private boolean isOverridden(final MethodDescriptor<?, ?> method) {
+    final String bareName = method.getBareMethodName();
+    final String javaName = Character.toLowerCase(bareName.charAt(0)) + bareName.substring(1);
+    for (Class<?> type = service.getClass(); type != wrapperClass; type = type.getSuperclass()) {
+      for (final Method declared : type.getDeclaredMethods()) {
+        if (declared.getName().equals(javaName) && !declared.isSynthetic()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Marshals protobuf messages as generated, anything else with an encoder.
+   *
+   * @param <T> the type of the domain responses.
+   */
+  private static final class DirectMarshaller<T> implements MethodDescriptor.Marshaller<Object> {
+    private final MethodDescriptor.Marshaller<?> protoMarshaller;
+    private final WireEncoders.Encoder<T> encoder;
+
+    private DirectMarshaller(final MethodDescriptor.Marshaller<?> protoMarshaller,
+                             final WireEncoders.Encoder<T> encoder) {
+      this.protoMarshaller = Objects.requireNonNull(protoMarshaller);
+      this.encoder = Objects.requireNonNull(encoder);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public InputStream stream(final Object value) {
+      if (value instanceof MessageLite) {
+        return streamProto(protoMarshaller, value);
+      }
+      return new EncodedStream<>((T) value, encoder);
+    }
+
+    @Override
+    public Object parse(final InputStream stream) {
+      return protoMarshaller.parse(stream);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P> InputStream streamProto(final MethodDescriptor.Marshaller<P> marshaller, final Object value) {
+      return marshaller.stream((P) value);
+    }
+  }
+
+  /**
+   * A serialized response, encoded straight into the transport buffers when gRPC drains it.
+   *
+   * <p>Only read byte by byte, say by a compressing framer, through a buffer holding the whole message.</p>
+   *
+   * @param <T> the type of the encoded value.
+   */
+  private static final class EncodedStream<T> extends InputStream implements io.grpc.Drainable, KnownLength {
+    // Same cap as protobuf applies when writing a message to a stream.
+    private static final int MAX_BUFFER_SIZE = 4096;
+
+    private final WireEncoders.Encoder<T> encoder;
+    private final int size;
+
+    // Null once drained or buffered.
+    private T value;
+
+    private ByteArrayInputStream buffered;
+
+    private EncodedStream(final T value, final WireEncoders.Encoder<T> encoder) {
+      this.value = value;
+      this.encoder = encoder;
+      this.size = encoder.serializedSize(value);
+    }
+
+    @Override
+    public int drainTo(final OutputStream target) throws IOException {
+      if (value == null) {
+        return buffered == null ? 0 : (int) buffered.transferTo(target);
+      }
+      final CodedOutputStream output = CodedOutputStream.newInstance(target, Math.min(size, MAX_BUFFER_SIZE));
+      encoder.writeTo(value, output);
+      output.flush();
+      value = null;
+      return size;
+    }
+
+    @Override
+    public int available() {
+      if (value != null) {
+        return size;
+      }
+      return buffered == null ? 0 : buffered.available();
+    }
+
+    @Override
+    public int read() throws IOException {
+      return buffered().read();
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+      return buffered().read(bytes, offset, length);
+    }
+
+    private InputStream buffered() throws IOException {
+      if (value != null) {
+        final byte[] bytes = new byte[size];
+        final CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        encoder.writeTo(value, output);
+        output.checkNoSpaceLeft();
+        buffered = new ByteArrayInputStream(bytes);
+        value = null;
+      }
+      return buffered == null ? InputStream.nullInputStream() : buffered;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.grpc.BindableService;
+import io.grpc.ServerServiceDefinition;
+
+/**
+ * A gRPC service whose hot methods can write the responses of the component straight to the wire format,
+ * instead of converting them to protobuf messages that gRPC serializes in turn.
+ *
+ * <p>Generated services bind their methods once and for all in a final {@link BindableService#bindService()},
+ * hence this second way of binding them, preferred by the server hosting the component.</p>
+ */
+public interface DirectlyMarshalledService {
+  /**
+   * Binds this service, its hot methods answering with responses written straight to the wire format.
+   *
+   * <p>The responses are the same bytes as those of the generated binding, so clients cannot tell them apart.</p>
+   *
+   * @return the definition to register instead of the one of {@link BindableService#bindService()}.
+   */
+  ServerServiceDefinition bindDirectService();
+
+  /**
+   * Binds a service, writing its responses straight to the wire format if it can.
+   *
+   * @param service the service to bind.
+   * @return the definition of that service.
+   */
+  static ServerServiceDefinition bind(final BindableService service) {
+    return service instanceof DirectlyMarshalledService directService
+        ? directService.bindDirectService()
+        : service.bindService();
+  }
+}
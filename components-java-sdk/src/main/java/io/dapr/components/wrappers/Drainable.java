@@ -0,0 +1,31 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+/**
+ * A gRPC service with long-lived streaming calls that can be asked to complete.
+ *
+ * <p>Used by the server hosting a component to shut down gracefully: instead of having daprd see its streams
+ * being reset, they are completed with an OK status and daprd can reconnect elsewhere.</p>
+ */
+public interface Drainable {
+  /**
+   * Asks every streaming call in progress to stop pulling data from the component and complete.
+   *
+   * <p>Streaming calls started afterwards complete right away. Unary calls are not affected.
+   * Calling this more than once has no further effect.</p>
+   */
+  void drain();
+}
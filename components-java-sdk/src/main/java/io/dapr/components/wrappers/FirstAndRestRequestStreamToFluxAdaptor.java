@@ -14,6 +14,7 @@
 package io.dapr.components.wrappers;
 
 import io.dapr.components.domain.pubsub.Topic;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
@@ -55,7 +56,31 @@ public final class FirstAndRestRequestStreamToFluxAdaptor<StreamT> {
    */
   public FirstAndRestRequestStreamToFluxAdaptor(BiConsumer<StreamT, Flux<StreamT>> onFirstCallback) {
     final Sinks.Many<StreamT> sink = Sinks.many().unicast().onBackpressureBuffer();
-    requestStreamObserver = adaptRequestStreamToSink(sink, onFirstCallback);
+    requestStreamObserver = adaptRequestStreamToSink(sink, sink.asFlux(), onFirstCallback);
+  }
+
+  /**
+   * Constructor for flow controlled request streams.
+   *
+   * <p>Must be called by the gRPC handler itself, before it returns. The very first request is read right away,
+   * the remaining ones as their flux is asked for them.</p>
+   *
+   * @param responseObserver the response observer given to the gRPC handler, which also controls its requests.
+   * @param flowControl bounds the number of requests read ahead of the subscriber of the remaining requests.
+   * @param onFirstCallback the callback we invoke upon receiving the very first request.
+   *                       Its first argument is the very first request received and the second
+   *                       the remaining requests as a flux.
+   */
+  public FirstAndRestRequestStreamToFluxAdaptor(StreamObserver<?> responseObserver,
+                                                StreamFlowControl flowControl,
+                                                BiConsumer<StreamT, Flux<StreamT>> onFirstCallback) {
+    final Sinks.Many<StreamT> sink = Sinks.many().unicast().onBackpressureBuffer();
+    final Flux<StreamT> rest = RequestStreamToFluxAdaptor.flowControlled(sink.asFlux(), responseObserver,
+        flowControl);
+    requestStreamObserver = adaptRequestStreamToSink(sink, rest, onFirstCallback);
+    if (responseObserver instanceof ServerCallStreamObserver<?> serverCallObserver) {
+      serverCallObserver.request(1);
+    }
   }
 
   // TODO(tmacam) perhaps this whole thing could be replaced by a single static method that receives the bi-func
@@ -70,9 +95,11 @@ public final class FirstAndRestRequestStreamToFluxAdaptor<StreamT> {
    * Creates a {@link StreamObserver} that forwards all its received events to a {@link Sinks.Many}.
    *
    * @param sink the sink we will forward events (onNext, onError and onComplete) to.
+   * @param rest the requests following the first one, as emitted to sink.
    * @return the adaptor {@link StreamObserver} that forwards all its received events to sink.
    */
   private StreamObserver<StreamT> adaptRequestStreamToSink(final Sinks.Many<StreamT> sink,
+                                                           final Flux<StreamT> rest,
                                                            final BiConsumer<StreamT, Flux<StreamT>> onFirstCallback) {
     return new StreamObserver<StreamT>() {
       @Override
@@ -80,7 +107,7 @@ public final class FirstAndRestRequestStreamToFluxAdaptor<StreamT> {
         if (isThisTheFirstItem) {
           isThisTheFirstItem = false; // We have seen the first item :)
           try {
-            onFirstCallback.accept(request, sink.asFlux());
+            onFirstCallback.accept(request, rest);
           } catch (Exception e) {
             // TODO(tmacam) add logging
             sink.emitError(e, FAIL_FAST);
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+/**
+ * Estimates how often keys were seen lately, for the admission policy of the {@link NearCache}.
+ *
+ * <p>A count-min sketch of 4 rows of 4 bits counters. Once as many keys were seen as 10 times the width of a row,
+ * all counters are halved, so keys that used to be hot eventually make way for the ones that are hot now. That is
+ * the TinyLFU scheme, minus the doorkeeper.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+final class FrequencySketch {
+  private static final int ROWS = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x97cb3127, 0xb2dbd1f3, 0x85ebca6b, 0xc2b2ae35};
+
+  private final byte[][] counters;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * Constructor.
+   *
+   * @param width number of counters per row, rounded up to a power of two.
+   */
+  FrequencySketch(final int width) {
+    final int size = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+    this.counters = new byte[ROWS][size];
+    this.mask = size - 1;
+    this.sampleSize = 10 * size;
+  }
+
+  void increment(final Object key) {
+    final int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int row = 0; row < ROWS; row++) {
+      final int index = indexOf(hash, row);
+      if (counters[row][index] < MAX_COUNT) {
+        counters[row][index]++;
+        added = true;
+      }
+    }
+    if (added && ++additions == sampleSize) {
+      reset();
+    }
+  }
+
+  int frequency(final Object key) {
+    final int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < ROWS; row++) {
+      frequency = Math.min(frequency, counters[row][indexOf(hash, row)]);
+    }
+    return frequency;
+  }
+
+  private void reset() {
+    for (byte[] row : counters) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] >>= 1;
+      }
+    }
+    additions /= 2;
+  }
+
+  private int indexOf(final int hash, final int row) {
+    final int h = hash * SEEDS[row];
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private static int spread(final int hash) {
+    final int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 15);
+  }
+}
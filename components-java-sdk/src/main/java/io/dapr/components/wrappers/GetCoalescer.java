@@ -0,0 +1,205 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.dapr.components.domain.state.GetRequest;
+import io.dapr.components.domain.state.GetResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shares a single in-flight {@code StateStore.get} among identical concurrent get requests of a state store.
+ *
+ * <p>Hot keys may get dozens of concurrent reads, each of them reaching the backend. When enabled, a get request
+ * equal to one already in flight, same key, consistency and metadata, waits for the result of the latter instead
+ * of calling the component again. The component call is only cancelled once every caller waiting for it is gone.</p>
+ *
+ * <p>Reads never coalesce across a write: while a set, delete or transaction touching a key is in flight, gets of
+ * that key go straight to the component, and a get already in flight when the write started is not shared with
+ * any get started afterwards. As a cancelled write may still land, the component is never told about the
+ * cancellation of a write: it carries on, and so does the write in flight, until the component is done with it.</p>
+ *
+ * <p>Disabled by default, in which case it just calls the component.</p>
+ */
+public final class GetCoalescer {
+  // Per state key, the gets in flight and the writes in flight.
+  private final Map<String, KeyFlights> flightsByKey = new ConcurrentHashMap<>();
+
+  private final LongAdder gets = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  private volatile boolean enabled;
+
+  /**
+   * Turns coalescing on or off, for calls made from now on.
+   *
+   * @param enabled whether identical concurrent gets share a single component call.
+   */
+  public void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Whether identical concurrent gets share a single component call.
+   *
+   * @return true if coalescing is enabled.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * How many gets went through this coalescer and how many of them shared the component call of another one.
+   *
+   * @return the stats since this coalescer was created.
+   */
+  public GetCoalescingStats stats() {
+    return new GetCoalescingStats(gets.sum(), coalesced.sum());
+  }
+
+  /**
+   * Gets a state, sharing the component call of an identical get in flight, if any.
+   *
+   * @param request the get request.
+   * @param get calls the component.
+   * @return the result of the get.
+   */
+  Mono<GetResponse> get(final GetRequest request, final Function<GetRequest, Mono<GetResponse>> get) {
+    if (!enabled) {
+      return get.apply(request);
+    }
+    gets.increment();
+    final KeyFlights keyFlights = acquire(request.key());
+    synchronized (keyFlights) {
+      if (keyFlights.writes > 0) {
+        release(request.key(), keyFlights);
+        return get.apply(request);
+      }
+      final Mono<GetResponse> inFlight = keyFlights.gets.get(request);
+      if (inFlight != null) {
+        coalesced.increment();
+        release(request.key(), keyFlights);
+        return inFlight;
+      }
+      // Deferred, so the component is not called with the lock held.
+      final AtomicReference<Mono<GetResponse>> flight = new AtomicReference<>();
+      flight.set(Mono.defer(() -> get.apply(request))
+          .doFinally(signal -> land(request, keyFlights, flight.get()))
+          .share());
+      keyFlights.gets.put(request, flight.get());
+      return flight.get();
+    }
+  }
+
+  /**
+   * Writes states, keeping gets of the written keys from being coalesced while the write is in flight.
+   *
+   * <p>Cancelling the returned Mono does not cancel the write, see the class documentation.</p>
+   *
+   * @param keys the keys written.
+   * @param write calls the component.
+   * @param <T> the type of the result of the write.
+   * @return the result of the write.
+   */
+  <T> Mono<T> write(final Collection<String> keys, final Supplier<Mono<T>> write) {
+    if (!enabled) {
+      return write.get();
+    }
+    return Mono.deferContextual(context -> {
+      keys.forEach(this::startWrite);
+      // The request may point into the resources of the call, which may well be over before the write is.
+      final CallResources resources = CallResources.retain(context);
+      final Sinks.One<T> outcome = Sinks.one();
+      Mono.defer(write)
+          .doFinally(signal -> {
+            keys.forEach(this::endWrite);
+            if (resources != null) {
+              resources.release();
+            }
+          })
+          .contextWrite(context)
+          .subscribe(outcome::tryEmitValue, outcome::tryEmitError, outcome::tryEmitEmpty);
+      return outcome.asMono();
+    });
+  }
+
+  private void startWrite(final String key) {
+    final KeyFlights keyFlights = acquire(key);
+    synchronized (keyFlights) {
+      keyFlights.writes++;
+      // Gets started from now on must see this write, so none of them may join a get started before it.
+      keyFlights.users -= keyFlights.gets.size();
+      keyFlights.gets.clear();
+    }
+  }
+
+  private void endWrite(final String key) {
+    final KeyFlights keyFlights = flightsByKey.get(key);
+    synchronized (keyFlights) {
+      keyFlights.writes--;
+      release(key, keyFlights);
+    }
+  }
+
+  private KeyFlights acquire(final String key) {
+    while (true) {
+      final KeyFlights keyFlights = flightsByKey.computeIfAbsent(key, k -> new KeyFlights());
+      synchronized (keyFlights) {
+        // It may have been dropped since it was looked up.
+        if (!keyFlights.dropped) {
+          keyFlights.users++;
+          return keyFlights;
+        }
+      }
+    }
+  }
+
+  private void land(final GetRequest request, final KeyFlights keyFlights, final Mono<GetResponse> flight) {
+    synchronized (keyFlights) {
+      // Unless a write already grounded it.
+      if (keyFlights.gets.remove(request, flight)) {
+        release(request.key(), keyFlights);
+      }
+    }
+  }
+
+  // Must hold the lock of keyFlights.
+  private void release(final String key, final KeyFlights keyFlights) {
+    if (--keyFlights.users == 0) {
+      keyFlights.dropped = true;
+      flightsByKey.remove(key, keyFlights);
+    }
+  }
+
+  private static final class KeyFlights {
+    private final Map<GetRequest, Mono<GetResponse>> gets = new HashMap<>();
+
+    // Gets and writes of this key, in flight or about to be. The entry of a key is dropped once none is left.
+    private int users;
+
+    private int writes;
+
+    private boolean dropped;
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+/**
+ * How well identical concurrent gets of a state store were coalesced.
+ *
+ * @param gets the gets that went through the coalescer.
+ * @param coalesced the gets that shared the component call of another one.
+ */
+public record GetCoalescingStats(long gets, long coalesced) {
+  /**
+   * Constructor.
+   */
+  public GetCoalescingStats {
+    if (gets < 0 || coalesced < 0 || coalesced > gets) {
+      throw new IllegalArgumentException("Invalid coalescing stats: " + coalesced + " out of " + gets);
+    }
+  }
+
+  /**
+   * The share of gets that did not reach the component.
+   *
+   * @return the coalesced gets over all the gets, 0 if there were none.
+   */
+  public double ratio() {
+    return gets == 0 ? 0 : (double) coalesced / gets;
+  }
+}
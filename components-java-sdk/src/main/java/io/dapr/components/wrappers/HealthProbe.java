@@ -0,0 +1,165 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.dapr.components.aspects.Pingable;
+import io.grpc.Status;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers {@code ping} calls on behalf of a component, from the result of probes run in the background.
+ *
+ * <p>For most components a ping means a round trip to their backend, and daprd pings every component on a
+ * schedule of its own. Once {@link #start(HealthProbeOptions) started}, this probe pings the component on a
+ * background schedule instead and serves the latest result as long as it is not older than the configured
+ * staleness bound. When no fresh result is at hand, concurrent pings share a single probe of the component.</p>
+ *
+ * <p>Until started, and once stopped, pings go straight to the component.</p>
+ */
+public final class HealthProbe implements Pingable {
+
+  // The error of the component, if any, is what pings fail with.
+  private record CachedResult(HealthProbeResult result, Throwable error, long completedAtNanos) {
+  }
+
+  private final Pingable component;
+
+  // Null while not started: pings then go straight to the component.
+  private volatile HealthProbeOptions options;
+  private volatile CachedResult latest;
+  private final AtomicReference<Mono<CachedResult>> probeInProgress = new AtomicReference<>();
+  private final Deque<HealthProbeResult> history = new ArrayDeque<>();
+  private Disposable backgroundProbes;
+
+  /**
+   * Constructor.
+   *
+   * @param component the component to probe.
+   */
+  public HealthProbe(final Pingable component) {
+    this.component = Objects.requireNonNull(component);
+  }
+
+  /**
+   * Starts probing the component in the background and serving pings from the results.
+   *
+   * @param options the probing schedule and the staleness bound of results.
+   */
+  public synchronized void start(final HealthProbeOptions options) {
+    Objects.requireNonNull(options);
+    stop();
+    this.options = options;
+    // Components may well block when pinged, so background probes get a thread they can block.
+    this.backgroundProbes = Flux.interval(Duration.ZERO, options.interval(), Schedulers.boundedElastic())
+        .onBackpressureDrop()
+        .concatMap(tick -> probe(options), 1)
+        .subscribe();
+  }
+
+  /**
+   * Stops probing the component. Pings go straight to the component again.
+   */
+  public synchronized void stop() {
+    if (backgroundProbes != null) {
+      backgroundProbes.dispose();
+      backgroundProbes = null;
+    }
+    this.options = null;
+    this.latest = null;
+  }
+
+  @Override
+  public Mono<Void> ping() {
+    final HealthProbeOptions currentOptions = options;
+    if (currentOptions == null) {
+      return component.ping();
+    }
+    final CachedResult cached = latest;
+    if (cached != null && System.nanoTime() - cached.completedAtNanos() <= currentOptions.maxStaleness().toNanos()) {
+      return toPingOutcome(cached);
+    }
+    return probe(currentOptions).flatMap(HealthProbe::toPingOutcome);
+  }
+
+  /**
+   * The results of the latest probes, including their latency.
+   *
+   * @return the results, oldest first.
+   */
+  public List<HealthProbeResult> history() {
+    synchronized (history) {
+      return List.copyOf(history);
+    }
+  }
+
+  // Joins the probe in progress, if any, or starts a new one.
+  private Mono<CachedResult> probe(final HealthProbeOptions probeOptions) {
+    final Sinks.One<CachedResult> outcome = Sinks.one();
+    final Mono<CachedResult> newProbe = outcome.asMono();
+    final Mono<CachedResult> probeToJoin = probeInProgress.compareAndExchange(null, newProbe);
+    if (probeToJoin != null) {
+      return probeToJoin;
+    }
+
+    final long startedAt = System.nanoTime();
+    Mono.defer(component::ping)
+        .timeout(probeOptions.timeout())
+        .then(Mono.fromSupplier(() -> completed(startedAt, null)))
+        .onErrorResume(error -> Mono.just(completed(startedAt, error)))
+        .subscribe(completed -> {
+          record(completed, probeOptions);
+          probeInProgress.set(null);
+          outcome.tryEmitValue(completed);
+        });
+    return newProbe;
+  }
+
+  private void record(final CachedResult completed, final HealthProbeOptions probeOptions) {
+    // Results of probes started before being stopped (or restarted) are of no use anymore.
+    if (options != probeOptions) {
+      return;
+    }
+    this.latest = completed;
+    synchronized (history) {
+      history.addLast(completed.result());
+      while (history.size() > probeOptions.historySize()) {
+        history.removeFirst();
+      }
+    }
+  }
+
+  private static CachedResult completed(final long startedAt, final Throwable error) {
+    final long completedAt = System.nanoTime();
+    final Status status = error == null ? Status.OK : Status.fromThrowable(error);
+    return new CachedResult(new HealthProbeResult(Instant.now(), Duration.ofNanos(completedAt - startedAt), status),
+        error, completedAt);
+  }
+
+  private static Mono<Void> toPingOutcome(final CachedResult completed) {
+    return completed.error() == null ? Mono.empty() : Mono.error(completed.error());
+  }
+}
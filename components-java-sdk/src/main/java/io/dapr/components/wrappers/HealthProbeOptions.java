@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings of a {@link HealthProbe}.
+ *
+ * @param interval Time between two background probes.
+ * @param maxStaleness Age beyond which a cached probe result is not served anymore and a new probe is run instead.
+ * @param timeout Time after which a probe that did not complete is considered failed.
+ * @param historySize Number of probe results kept in the latency history.
+ */
+public record HealthProbeOptions(Duration interval, Duration maxStaleness, Duration timeout, int historySize) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if any of the values is not positive.
+   */
+  public HealthProbeOptions {
+    requirePositive(interval, "interval");
+    requirePositive(maxStaleness, "maxStaleness");
+    requirePositive(timeout, "timeout");
+    if (historySize <= 0) {
+      throw new IllegalArgumentException("historySize must be positive but was " + historySize);
+    }
+  }
+
+  /**
+   * The default health probe options.
+   *
+   * <p>Probes every 5 seconds, serves results up to 15 seconds old, so a couple of slow probes do not make daprd
+   * wait, gives up on a probe after 5 seconds and keeps the last 100 results.</p>
+   *
+   * @return the default options.
+   */
+  public static HealthProbeOptions defaults() {
+    return new HealthProbeOptions(Duration.ofSeconds(5), Duration.ofSeconds(15), Duration.ofSeconds(5), 100);
+  }
+
+  private static void requirePositive(final Duration value, final String name) {
+    if (Objects.requireNonNull(value).isNegative() || value.isZero()) {
+      throw new IllegalArgumentException(name + " must be positive but was " + value);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The outcome of a single probe run by a {@link HealthProbe}.
+ *
+ * @param probedAt When the probe completed.
+ * @param latency How long the probe took.
+ * @param status {@link Status#OK} if the probe succeeded, otherwise why it failed.
+ */
+public record HealthProbeResult(Instant probedAt, Duration latency, Status status) {
+
+  /**
+   * Whether the component was found healthy.
+   *
+   * @return true if the probe succeeded.
+   */
+  public boolean healthy() {
+    return status.isOk();
+  }
+}
@@ -15,53 +15,97 @@ package io.dapr.components.wrappers;
 
 import dapr.proto.components.v1.Bindings;
 import dapr.proto.components.v1.InputBindingGrpc;
+import io.dapr.components.aspects.Pingable;
 import io.dapr.components.domain.bindings.InputBinding;
 import io.dapr.components.domain.bindings.ReadRequest;
 import io.dapr.components.domain.bindings.ReadResponse;
 import io.dapr.v1.ComponentProtos;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.stub.StreamObserver;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import java.util.Objects;
+import java.util.function.Function;
 
-public class InputBindingGrpcComponentWrapper extends InputBindingGrpc.InputBindingImplBase {
+public class InputBindingGrpcComponentWrapper extends InputBindingGrpc.InputBindingImplBase
+    implements DirectlyMarshalledService, Drainable, StreamFlowControlled, StreamScheduled {
 
   private final InputBinding inputBinding;
 
-  private final Scheduler scheduler = Schedulers.boundedElastic();
+  // Answers ping calls, the component itself unless told otherwise.
+  private final Pingable pinger;
 
+  // Streams subscribe to the component on this scheduler.
+  private volatile Scheduler scheduler = Schedulers.boundedElastic();
+
+  // Completes (once) when streaming calls are asked to finish.
+  private final Sinks.Empty<Void> drained = Sinks.empty();
+
+  private volatile StreamFlowControl streamFlowControl = StreamFlowControl.defaults();
+
+  /**
+   * Constructor.
+   *
+   * @param inputBinding the input binding that this component will expose as a service.
+   */
   public InputBindingGrpcComponentWrapper(InputBinding inputBinding) {
+    this(inputBinding, inputBinding);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param inputBinding the input binding that this component will expose as a service.
+   * @param pinger answers ping calls on behalf of the component, such as a {@link HealthProbe}.
+   */
+  public InputBindingGrpcComponentWrapper(InputBinding inputBinding, Pingable pinger) {
     this.inputBinding = Objects.requireNonNull(inputBinding);
+    this.pinger = Objects.requireNonNull(pinger);
   }
 
   @Override
   public void init(Bindings.InputBindingInitRequest request,
                    StreamObserver<Bindings.InputBindingInitResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> inputBinding.init(req.getMetadata().getPropertiesMap()))
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> inputBinding.init(req.getMetadata().getPropertiesMap()),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(Bindings.InputBindingInitResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        Bindings.InputBindingInitResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void ping(ComponentProtos.PingRequest request, StreamObserver<ComponentProtos.PingResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> inputBinding.ping())
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> pinger.ping(),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(ComponentProtos.PingResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        ComponentProtos.PingResponse.getDefaultInstance(),
+        responseObserver);
   }
 
 
+  @Override
+  public ServerServiceDefinition bindDirectService() {
+    return new DirectResponseBinder(this, InputBindingGrpcComponentWrapper.class, bindService())
+        .bidiStreaming(InputBindingGrpc.getReadMethod(), WireEncoders.READ_RESPONSE,
+            responseObserver -> streamReads(responseObserver, response -> response))
+        .build();
+  }
+
   @Override
   public StreamObserver<Bindings.ReadRequest> read(StreamObserver<Bindings.ReadResponse> responseObserver) {
+    return streamReads(responseObserver, ReadResponse::toProto);
+  }
+
+  private <R> StreamObserver<Bindings.ReadRequest> streamReads(StreamObserver<R> responseObserver,
+                                                               Function<ReadResponse, R> toResponse) {
     // First, convert the input requests to first request and acknowledgments Flux,
     // so we can feed it to our component
-    final RequestStreamToFluxAdaptor<Bindings.ReadRequest> requestAdaptor = new RequestStreamToFluxAdaptor<>();
+    final StreamFlowControl flowControl = streamFlowControl;
+    final RequestStreamToFluxAdaptor<Bindings.ReadRequest> requestAdaptor =
+        new RequestStreamToFluxAdaptor<>(responseObserver, flowControl);
     // Alright... what to do when we start receiving requests?
     // First, let's convert those requests to the local domain.
     final Flux<ReadRequest> acksFlux = requestAdaptor.flux().map(ReadRequest::fromProto);
@@ -75,11 +119,30 @@ public class InputBindingGrpcComponentWrapper extends InputBindingGrpc.InputBind
         // and this method would not return. See
         // https://projectreactor.io/docs/core/release/reference/#producing.create
         .subscribeOn(scheduler, false)
+        // Stop pulling from the component and complete the stream once we are asked to drain.
+        .takeUntilOther(drained.asMono())
         // Connect its response flux to the output stream from this RPC
-        .map(ReadResponse::toProto)
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        .map(toResponse)
+        // Only pull from the component as daprd reads, and stop once it cancels the call.
+        .subscribe(new ResponseStreamSubscriber<>(responseObserver, flowControl));
 
     // Finally, return the StreamObserver
     return requestAdaptor.requestStreamObserver();
   }
+
+  @Override
+  public void setStreamFlowControl(StreamFlowControl streamFlowControl) {
+    this.streamFlowControl = Objects.requireNonNull(streamFlowControl);
+  }
+
+  @Override
+  public void setStreamScheduler(Scheduler scheduler) {
+    this.scheduler = Objects.requireNonNull(scheduler);
+  }
+
+  @Override
+  public void drain() {
+    // Only the first call has any effect, later ones just fail to emit.
+    drained.tryEmitEmpty();
+  }
 }
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.dapr.components.domain.state.BulkGetStateItem;
+import io.dapr.components.domain.state.GetRequest;
+import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.options.StateConsistency;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A bounded in-process cache of the states read from a state store.
+ *
+ * <p>Only gets asking for {@link StateConsistency#EVENTUAL} consistency are served from the cache, all others go
+ * to the state store. Cached states keep their etag, so a client reading from the cache and writing back with that
+ * etag is only rejected by the state store if someone else wrote the state in the meantime.</p>
+ *
+ * <p>Sets, deletes and transactions going through the component evict the states they write, and a state read
+ * while a write of its key was in flight is never cached. Writes from elsewhere are only noticed once entries
+ * expire, see {@link NearCacheOptions#timeToLive()}.</p>
+ *
+ * <p>The cache is bounded by the bytes it holds: the state data, the key and a fixed overhead per entry. Once full,
+ * a state is only admitted if it was read more often lately than each of the least recently used states it would
+ * replace, as estimated by a {@link FrequencySketch}: a burst of states read once cannot flush the hot ones out.</p>
+ *
+ * <p>Hits take no lock: reads are recorded in a small lossy buffer, which is applied to the recency order and the
+ * frequency sketch in batches, by whichever thread gets the eviction lock first. Under heavy contention some reads
+ * are dropped from the buffer, which only makes the estimates of recency and frequency a little rougher.</p>
+ */
+public final class NearCache {
+  // Writes are tracked per stripe of keys rather than per key, so tracking costs no memory per key.
+  private static final int STRIPES = 64;
+  // Rough footprint of an entry besides its data and key: the map nodes, the request, the response and its etag.
+  static final int ENTRY_OVERHEAD = 64;
+  // Reads recorded until applied to the recency order and the sketch, and how many at a time are applied.
+  private static final int READ_BUFFER_SIZE = 64;
+  private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+
+  private final NearCacheOptions options;
+  private final LongSupplier nanoTime;
+
+  // Read without locking, only written while holding the eviction lock.
+  private final Map<GetRequest, Entry> entries = new ConcurrentHashMap<>();
+
+  // All guarded by the eviction lock. In access order, so the eldest entry is the least recently used one.
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final LinkedHashMap<GetRequest, Entry> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Set<GetRequest>> requestsByKey = new HashMap<>();
+  private final FrequencySketch sketch;
+  private long weightedSize;
+  private long readsDrained;
+
+  // A ring of the latest reads, overwritten if not drained in time.
+  private final AtomicReferenceArray<GetRequest> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+  private final AtomicLong readsRecorded = new AtomicLong();
+
+  // Bumped when a write of a key of the stripe starts and when it ends: reads that saw a change are not cached.
+  private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+  private final AtomicIntegerArray writesInFlight = new AtomicIntegerArray(STRIPES);
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param options the size and time to live of the cache.
+   */
+  public NearCache(final NearCacheOptions options) {
+    this(Objects.requireNonNull(options), System::nanoTime);
+  }
+
+  NearCache(final NearCacheOptions options, final LongSupplier nanoTime) {
+    this.options = options;
+    this.nanoTime = nanoTime;
+    // Roughly one counter per cached state, assuming states of about 256 bytes.
+    this.sketch = new FrequencySketch((int) Math.min(1 << 16, Math.max(256, options.maximumBytes() / 256)));
+  }
+
+  /**
+   * The size and time to live of this cache.
+   *
+   * @return the options of this cache.
+   */
+  public NearCacheOptions options() {
+    return options;
+  }
+
+  /**
+   * A snapshot of the activity of this cache.
+   *
+   * @return the hits, misses and evictions so far, and the current size of this cache.
+   */
+  public NearCacheStats stats() {
+    final long currentSize;
+    evictionLock.lock();
+    try {
+      currentSize = weightedSize;
+    } finally {
+      evictionLock.unlock();
+    }
+    return new NearCacheStats(hits.sum(), misses.sum(), evictions.sum(), currentSize);
+  }
+
+  /**
+   * Gets a state from the cache if there, from the state store otherwise.
+   *
+   * @param request the get request.
+   * @param get calls the state store.
+   * @return the state.
+   */
+  Mono<GetResponse> get(final GetRequest request, final Function<GetRequest, Mono<GetResponse>> get) {
+    if (!isCacheable(request)) {
+      return get.apply(request);
+    }
+    final GetResponse cached = lookup(request);
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+    final long generation = generations.get(stripeOf(request.key()));
+    return get.apply(request)
+        .doOnNext(response -> admit(request, response, generation));
+  }
+
+  /**
+   * Gets many states, only asking the state store for the ones not in the cache.
+   *
+   * @param requests the get requests.
+   * @param bulkGet calls the state store.
+   * @return the states.
+   */
+  Flux<BulkGetStateItem> bulkGet(final List<GetRequest> requests,
+                                 final Function<List<GetRequest>, Flux<BulkGetStateItem>> bulkGet) {
+    final GetResponse[] cached = new GetResponse[requests.size()];
+    final List<GetRequest> missed = new ArrayList<>(requests.size());
+    for (int i = 0; i < cached.length; i++) {
+      final GetRequest request = requests.get(i);
+      cached[i] = isCacheable(request) ? lookup(request) : null;
+      if (cached[i] == null) {
+        missed.add(request);
+      }
+    }
+    if (missed.isEmpty()) {
+      return Flux.range(0, cached.length)
+          .map(i -> new BulkGetStateItem(requests.get(i).key(), Mono.just(cached[i])));
+    }
+    // Results of the state store only carry keys: a key asked twice, say with different metadata, is not cached.
+    final Map<String, GetRequest> cacheableByKey = new HashMap<>();
+    final Set<String> missedKeys = new HashSet<>();
+    for (GetRequest request : missed) {
+      if (!missedKeys.add(request.key())) {
+        cacheableByKey.remove(request.key());
+      } else if (isCacheable(request)) {
+        cacheableByKey.put(request.key(), request);
+      }
+    }
+    final Map<String, Long> generationsByKey = new HashMap<>();
+    cacheableByKey.keySet().forEach(key -> generationsByKey.put(key, generations.get(stripeOf(key))));
+    // The state store may answer in any order, so each missed item picks its own response once it did.
+    final Mono<Map<String, Mono<GetResponse>>> loaded = bulkGet.apply(missed)
+        .collectMap(BulkGetStateItem::key, item -> {
+          final GetRequest request = cacheableByKey.get(item.key());
+          if (request == null) {
+            return item.response();
+          }
+          final long generation = generationsByKey.get(item.key());
+          return item.response().doOnNext(response -> admit(request, response, generation));
+        })
+        .cache();
+    return Flux.range(0, cached.length)
+        .map(i -> new BulkGetStateItem(requests.get(i).key(), cached[i] != null
+            ? Mono.just(cached[i])
+            : loaded.flatMap(responses -> responses.getOrDefault(requests.get(i).key(), Mono.empty()))));
+  }
+
+  /**
+   * Writes states, evicting them from the cache and keeping them from being cached until the write is done.
+   *
+   * @param keys the keys written.
+   * @param write calls the state store.
+   * @param <T> the type of the result of the write.
+   * @return the result of the write.
+   */
+  <T> Mono<T> write(final Collection<String> keys, final Supplier<Mono<T>> write) {
+    return Mono.defer(() -> {
+      keys.forEach(this::startWrite);
+      return write.get();
+    }).doFinally(signal -> keys.forEach(this::endWrite));
+  }
+
+  private static boolean isCacheable(final GetRequest request) {
+    return request.consistency() == StateConsistency.EVENTUAL;
+  }
+
+  private GetResponse lookup(final GetRequest request) {
+    recordRead(request);
+    final Entry entry = entries.get(request);
+    if (entry != null && nanoTime.getAsLong() - entry.cachedAt < options.timeToLive().toNanos()) {
+      hits.increment();
+      return entry.response;
+    }
+    if (entry != null) {
+      evictionLock.lock();
+      try {
+        // Unless it was replaced in the meantime.
+        if (entries.get(request) == entry) {
+          remove(request);
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  private void recordRead(final GetRequest request) {
+    final long index = readsRecorded.getAndIncrement();
+    readBuffer.set((int) (index & (READ_BUFFER_SIZE - 1)), request);
+    if ((index + 1) % READ_BUFFER_DRAIN_THRESHOLD == 0 && evictionLock.tryLock()) {
+      try {
+        drainReadBuffer();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  // Must hold the eviction lock.
+  private void drainReadBuffer() {
+    final long recorded = readsRecorded.get();
+    for (long index = Math.max(readsDrained, recorded - READ_BUFFER_SIZE); index < recorded; index++) {
+      final GetRequest request = readBuffer.getAndSet((int) (index & (READ_BUFFER_SIZE - 1)), null);
+      if (request != null) {
+        sketch.increment(request);
+        accessOrder.get(request);
+      }
+    }
+    readsDrained = recorded;
+  }
+
+  private void admit(final GetRequest request, final GetResponse response, final long generation) {
+    final int stripe = stripeOf(request.key());
+    final long weight = weightOf(request, response);
+    if (weight > options.maximumBytes()) {
+      return;
+    }
+    evictionLock.lock();
+    try {
+      // Writes start by bumping the generation and then evict under this lock, so checking under it is enough.
+      if (writesInFlight.get(stripe) > 0 || generations.get(stripe) != generation) {
+        return;
+      }
+      drainReadBuffer();
+      remove(request);
+      // Picks all the victims first: evicting some of them and then rejecting the state would only lose entries.
+      final int frequency = sketch.frequency(request);
+      final List<GetRequest> victims = new ArrayList<>();
+      long freed = 0;
+      final Iterator<Map.Entry<GetRequest, Entry>> eldest = accessOrder.entrySet().iterator();
+      while (weightedSize - freed + weight > options.maximumBytes()) {
+        final Map.Entry<GetRequest, Entry> victim = eldest.next();
+        if (frequency <= sketch.frequency(victim.getKey())) {
+          return;
+        }
+        victims.add(victim.getKey());
+        freed += victim.getValue().weight;
+      }
+      victims.forEach(this::remove);
+      evictions.add(victims.size());
+      final Entry entry = new Entry(response, weight, nanoTime.getAsLong());
+      accessOrder.put(request, entry);
+      entries.put(request, entry);
+      requestsByKey.computeIfAbsent(request.key(), key -> new HashSet<>()).add(request);
+      weightedSize += weight;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private static long weightOf(final GetRequest request, final GetResponse response) {
+    return ENTRY_OVERHEAD + request.key().length() + response.data().size();
+  }
+
+  private void startWrite(final String key) {
+    final int stripe = stripeOf(key);
+    writesInFlight.incrementAndGet(stripe);
+    generations.incrementAndGet(stripe);
+    evictionLock.lock();
+    try {
+      final Set<GetRequest> requests = requestsByKey.get(key);
+      if (requests != null) {
+        List.copyOf(requests).forEach(this::remove);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void endWrite(final String key) {
+    final int stripe = stripeOf(key);
+    generations.incrementAndGet(stripe);
+    writesInFlight.decrementAndGet(stripe);
+  }
+
+  // Must hold the eviction lock.
+  private void remove(final GetRequest request) {
+    final Entry entry = accessOrder.remove(request);
+    if (entry != null) {
+      entries.remove(request);
+      unindex(request, entry);
+    }
+  }
+
+  // Must hold the eviction lock.
+  private void unindex(final GetRequest request, final Entry entry) {
+    weightedSize -= entry.weight;
+    final Set<GetRequest> requests = requestsByKey.get(request.key());
+    requests.remove(request);
+    if (requests.isEmpty()) {
+      requestsByKey.remove(request.key());
+    }
+  }
+
+  private static int stripeOf(final String key) {
+    final int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+  }
+
+  private record Entry(GetResponse response, long weight, long cachedAt) {
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings of a {@link NearCache}.
+ *
+ * @param maximumBytes Most bytes held by the cache across all entries, counting their state data, their key and a
+ *                     fixed overhead per entry.
+ * @param timeToLive Age beyond which a cached state is not served anymore. Bounds how long writes that do not go
+ *                   through this component, such as those of other replicas, may go unnoticed.
+ */
+public record NearCacheOptions(long maximumBytes, Duration timeToLive) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if any of the values is not positive.
+   */
+  public NearCacheOptions {
+    if (maximumBytes <= 0) {
+      throw new IllegalArgumentException("maximumBytes must be positive but was " + maximumBytes);
+    }
+    if (Objects.requireNonNull(timeToLive).isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("timeToLive must be positive but was " + timeToLive);
+    }
+  }
+
+  /**
+   * Options for a cache of the given size, whose entries live 30 seconds.
+   *
+   * @param maximumBytes Most bytes held by the cache.
+   * @return the options.
+   */
+  public static NearCacheOptions ofMaximumBytes(final long maximumBytes) {
+    return new NearCacheOptions(maximumBytes, Duration.ofSeconds(30));
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+/**
+ * A snapshot of the activity of a {@link NearCache}.
+ *
+ * @param hits Gets served from the cache.
+ * @param misses Cacheable gets that had to call the state store.
+ * @param evictions Entries dropped to make room for others.
+ * @param weightedSize Bytes currently cached, counting state data, keys and the overhead of entries.
+ */
+public record NearCacheStats(long hits, long misses, long evictions, long weightedSize) {
+
+  /**
+   * The share of cacheable gets served from the cache.
+   *
+   * @return hits over hits and misses, 0 if there were none.
+   */
+  public double hitRatio() {
+    final long requests = hits + misses;
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+}
@@ -15,12 +15,12 @@ package io.dapr.components.wrappers;
 
 import dapr.proto.components.v1.Bindings;
 import dapr.proto.components.v1.OutputBindingGrpc;
+import io.dapr.components.aspects.Pingable;
 import io.dapr.components.domain.bindings.InvokeRequest;
 import io.dapr.components.domain.bindings.InvokeResponse;
 import io.dapr.components.domain.bindings.OutputBinding;
 import io.dapr.v1.ComponentProtos;
 import io.grpc.stub.StreamObserver;
-import reactor.core.publisher.Mono;
 
 import java.util.Objects;
 
@@ -28,47 +28,67 @@ public class OutputBindingGrpcComponentWrapper extends OutputBindingGrpc.OutputB
 
   private final OutputBinding outputBinding;
 
+  // Answers ping calls, the component itself unless told otherwise.
+  private final Pingable pinger;
+
+  /**
+   * Constructor.
+   *
+   * @param outputBinding the output binding that this component will expose as a service.
+   */
   public OutputBindingGrpcComponentWrapper(OutputBinding outputBinding) {
+    this(outputBinding, outputBinding);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param outputBinding the output binding that this component will expose as a service.
+   * @param pinger answers ping calls on behalf of the component, such as a {@link HealthProbe}.
+   */
+  public OutputBindingGrpcComponentWrapper(OutputBinding outputBinding, Pingable pinger) {
     this.outputBinding = Objects.requireNonNull(outputBinding);
+    this.pinger = Objects.requireNonNull(pinger);
   }
 
   @Override
   public void init(Bindings.OutputBindingInitRequest request,
                    StreamObserver<Bindings.OutputBindingInitResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> outputBinding.init(req.getMetadata().getPropertiesMap()))
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> outputBinding.init(req.getMetadata().getPropertiesMap()),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(Bindings.OutputBindingInitResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        Bindings.OutputBindingInitResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void ping(ComponentProtos.PingRequest request, StreamObserver<ComponentProtos.PingResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> outputBinding.ping())
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> pinger.ping(),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(ComponentProtos.PingResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        ComponentProtos.PingResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void invoke(Bindings.InvokeRequest request, StreamObserver<Bindings.InvokeResponse> responseObserver) {
-    Mono.just(request)
-        .map(InvokeRequest::fromProto) // Convert to local domain/model
-        .flatMap(outputBinding::invoke)
-        .map(InvokeResponse::toProto) // convert back to gRPC model
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+    UnaryCallSubscriber.respond(request,
+        req -> outputBinding.invoke(InvokeRequest.fromProto(req)), // Convert to local domain/model
+        InvokeResponse::toProto, // convert back to gRPC model
+        null,
+        responseObserver);
   }
 
   @Override
   public void listOperations(Bindings.ListOperationsRequest request,
                              StreamObserver<Bindings.ListOperationsResponse> responseObserver) {
-    Mono.just(request)
+    UnaryCallSubscriber.respond(request,
         // ListOperations is an empty message, just like PingRequest. Nothing to read from it.
-        .flatMap(req -> outputBinding.listOperations())
-        .map(operations -> Bindings.ListOperationsResponse.newBuilder()
+        req -> outputBinding.listOperations(),
+        operations -> Bindings.ListOperationsResponse.newBuilder()
             .addAllOperations(operations)
-            .build())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+            .build(),
+        null,
+        responseObserver);
   }
 }
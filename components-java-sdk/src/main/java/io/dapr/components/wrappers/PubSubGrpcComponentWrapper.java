@@ -15,25 +15,38 @@ package io.dapr.components.wrappers;
 
 import dapr.proto.components.v1.PubSubGrpc;
 import dapr.proto.components.v1.Pubsub;
+import io.dapr.components.aspects.Pingable;
 import io.dapr.components.domain.pubsub.PubSub;
 import io.dapr.components.domain.pubsub.PublishRequest;
 import io.dapr.components.domain.pubsub.PullMessageAcknowledgement;
 import io.dapr.components.domain.pubsub.PullMessagesResponse;
 import io.dapr.components.domain.pubsub.Topic;
 import io.dapr.v1.ComponentProtos;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.stub.StreamObserver;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import java.util.Objects;
+import java.util.function.Function;
 
-public class PubSubGrpcComponentWrapper extends PubSubGrpc.PubSubImplBase {
+public class PubSubGrpcComponentWrapper extends PubSubGrpc.PubSubImplBase
+    implements DirectlyMarshalledService, Drainable, StreamFlowControlled, StreamScheduled {
 
   private final PubSub pubSub;
 
-  private final Scheduler scheduler = Schedulers.boundedElastic();
+  // Answers ping calls, the component itself unless told otherwise.
+  private final Pingable pinger;
+
+  // Streams subscribe to the component on this scheduler.
+  private volatile Scheduler scheduler = Schedulers.boundedElastic();
+
+  // Completes (once) when streaming calls are asked to finish.
+  private final Sinks.Empty<Void> drained = Sinks.empty();
+
+  private volatile StreamFlowControl streamFlowControl = StreamFlowControl.defaults();
 
   /**
    * Constructor.
@@ -41,77 +54,124 @@ public class PubSubGrpcComponentWrapper extends PubSubGrpc.PubSubImplBase {
    * @param pubSub the pubsub that this component will expose as a service.
    */
   public PubSubGrpcComponentWrapper(PubSub pubSub) {
+    this(pubSub, pubSub);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pubSub the pubsub that this component will expose as a service.
+   * @param pinger answers ping calls on behalf of the component, such as a {@link HealthProbe}.
+   */
+  public PubSubGrpcComponentWrapper(PubSub pubSub, Pingable pinger) {
     this.pubSub = Objects.requireNonNull(pubSub);
+    this.pinger = Objects.requireNonNull(pinger);
   }
 
   @Override
   public void init(Pubsub.PubSubInitRequest request, StreamObserver<Pubsub.PubSubInitResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> pubSub.init(req.getMetadata().getPropertiesMap()))
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> pubSub.init(req.getMetadata().getPropertiesMap()),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(Pubsub.PubSubInitResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        Pubsub.PubSubInitResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void features(ComponentProtos.FeaturesRequest request,
                        StreamObserver<ComponentProtos.FeaturesResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> pubSub.getFeatures())
-        .map(features -> ComponentProtos.FeaturesResponse.newBuilder()
+    UnaryCallSubscriber.respond(request,
+        req -> pubSub.getFeatures(),
+        features -> ComponentProtos.FeaturesResponse.newBuilder()
             .addAllFeatures(features)
-            .build()
-        )
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+            .build(),
+        null,
+        responseObserver);
   }
 
   @Override
   public void ping(ComponentProtos.PingRequest request, StreamObserver<ComponentProtos.PingResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> pubSub.ping())
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> pinger.ping(),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(ComponentProtos.PingResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        ComponentProtos.PingResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void publish(Pubsub.PublishRequest request, StreamObserver<Pubsub.PublishResponse> responseObserver) {
-    Mono.just(request)
-        .map(PublishRequest::fromProto)
-        .flatMap(pubSub::publish)
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> pubSub.publish(PublishRequest.fromProto(req)),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(Pubsub.PublishResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        Pubsub.PublishResponse.getDefaultInstance(),
+        responseObserver);
+  }
+
+  @Override
+  public ServerServiceDefinition bindDirectService() {
+    return new DirectResponseBinder(this, PubSubGrpcComponentWrapper.class, bindService())
+        .bidiStreaming(PubSubGrpc.getPullMessagesMethod(), WireEncoders.PULL_MESSAGES_RESPONSE,
+            responseObserver -> streamMessages(responseObserver, message -> message))
+        .build();
   }
 
   @Override
   public StreamObserver<Pubsub.PullMessagesRequest> pullMessages(
       StreamObserver<Pubsub.PullMessagesResponse> responseObserver) {
+    return streamMessages(responseObserver, PullMessagesResponse::toProto);
+  }
+
+  private <R> StreamObserver<Pubsub.PullMessagesRequest> streamMessages(
+      StreamObserver<R> responseObserver, Function<PullMessagesResponse, R> toResponse) {
+    final StreamFlowControl flowControl = streamFlowControl;
+    // Messages are only pulled from the component as daprd reads them. The subscription only starts once the
+    // first request arrives, but gRPC requires its readiness and cancel handlers to be set right now.
+    final ResponseStreamSubscriber<R> responseSubscriber =
+        new ResponseStreamSubscriber<>(responseObserver, flowControl);
+
     // First, convert the input requests to first request and acknowledgments Flux,
     // so we can feed it to our component
     final FirstAndRestRequestStreamToFluxAdaptor<Pubsub.PullMessagesRequest> requestAdaptor;
-    requestAdaptor = new FirstAndRestRequestStreamToFluxAdaptor<>((firstProto, acksProtoFlux) -> {
-      // Alright... what to do when we start receiving requests?
-      // First, let's convert those requests to the local domain.
-      final Topic topic = Topic.fromProto(firstProto);
-      final Flux<PullMessageAcknowledgement> acksFlux = acksProtoFlux.map(PullMessageAcknowledgement::fromProto);
-
-      // Wrap everything in a Flux. This will keep uniformity with other handlers and will allow for
-      // delegating multithreading processing of requests to another thread by means of subscribeOn(scheduler)
-      Flux.just(acksFlux)
-          // Push these requests to the component.
-          .flatMap(acks -> pubSub.pullMessages(topic, acks))
-          // Move processing to a different thread -- otherwise we would get stuck in the line above
-          // and this method would not return. See
-          // https://projectreactor.io/docs/core/release/reference/#producing.create
-          .subscribeOn(scheduler, false)
-          // ... connect its response flux to the output stream from this RPC
-          .map(PullMessagesResponse::toProto)
-          .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
-    });
+    requestAdaptor = new FirstAndRestRequestStreamToFluxAdaptor<>(responseObserver, flowControl,
+        (firstProto, acksProtoFlux) -> {
+          // Alright... what to do when we start receiving requests?
+          // First, let's convert those requests to the local domain.
+          final Topic topic = Topic.fromProto(firstProto);
+          final Flux<PullMessageAcknowledgement> acksFlux = acksProtoFlux.map(PullMessageAcknowledgement::fromProto);
+
+          // Wrap everything in a Flux. This will keep uniformity with other handlers and will allow for
+          // delegating multithreading processing of requests to another thread by means of subscribeOn(scheduler)
+          Flux.just(acksFlux)
+              // Push these requests to the component.
+              .flatMap(acks -> pubSub.pullMessages(topic, acks))
+              // Move processing to a different thread -- otherwise we would get stuck in the line above
+              // and this method would not return. See
+              // https://projectreactor.io/docs/core/release/reference/#producing.create
+              .subscribeOn(scheduler, false)
+              // Stop pulling from the component and complete the stream once we are asked to drain.
+              .takeUntilOther(drained.asMono())
+              // ... connect its response flux to the output stream from this RPC
+              .map(toResponse)
+              .subscribe(responseSubscriber);
+        });
 
     // Finally, return the StreamObserver
     return requestAdaptor.requestStreamObserver();
   }
 
+  @Override
+  public void setStreamFlowControl(StreamFlowControl streamFlowControl) {
+    this.streamFlowControl = Objects.requireNonNull(streamFlowControl);
+  }
+
+  @Override
+  public void setStreamScheduler(Scheduler scheduler) {
+    this.scheduler = Objects.requireNonNull(scheduler);
+  }
+
+  @Override
+  public void drain() {
+    // Only the first call has any effect, later ones just fail to emit.
+    drained.tryEmitEmpty();
+  }
 }
@@ -18,10 +18,13 @@ import dapr.proto.components.v1.State;
 import io.dapr.components.domain.state.QueriableStateStore;
 import io.dapr.components.domain.state.QueryRequest;
 import io.dapr.components.domain.state.QueryResponse;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.stub.StreamObserver;
-import reactor.core.publisher.Mono;
 
-public class QueriableStateStoreComponentWrapper extends QueriableStateStoreGrpc.QueriableStateStoreImplBase {
+import java.util.function.Function;
+
+public class QueriableStateStoreComponentWrapper extends QueriableStateStoreGrpc.QueriableStateStoreImplBase
+    implements DirectlyMarshalledService {
 
   private final QueriableStateStore queriableStateStore;
 
@@ -29,12 +32,25 @@ public class QueriableStateStoreComponentWrapper extends QueriableStateStoreGrpc
     this.queriableStateStore = queriableStateStore;
   }
 
+  @Override
+  public ServerServiceDefinition bindDirectService() {
+    return new DirectResponseBinder(this, QueriableStateStoreComponentWrapper.class, bindService())
+        .unary(QueriableStateStoreGrpc.getQueryMethod(), WireEncoders.QUERY_RESPONSE,
+            (request, responseObserver) -> respondQuery(request, response -> response, responseObserver))
+        .build();
+  }
+
   @Override
   public void query(State.QueryRequest request, StreamObserver<State.QueryResponse> responseObserver) {
-    Mono.just(request)
-        .map(QueryRequest::fromProto)
-        .flatMap(queriableStateStore::query)
-        .map(QueryResponse::toProto)
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+    respondQuery(request, QueryResponse::toProto, responseObserver);
+  }
+
+  private <R> void respondQuery(State.QueryRequest request, Function<QueryResponse, R> toResponse,
+                                StreamObserver<R> responseObserver) {
+    UnaryCallSubscriber.respond(request,
+        req -> queriableStateStore.query(QueryRequest.fromProto(req)),
+        toResponse,
+        null,
+        responseObserver);
   }
 }
@@ -13,6 +13,7 @@
 
 package io.dapr.components.wrappers;
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
@@ -31,6 +32,10 @@ import static reactor.core.publisher.Sinks.EmitFailureHandler.FAIL_FAST;
  * will turn into an input {@link Flux} by means of an intermediary {@link Sinks.Many} is
  * quite repetitive. This adaptor class simplifies this process. Rejoice.</p>
  *
+ * <p>Given the response observer of the call, requests are only read from the transport as the {@link Flux} is
+ * asked for them, as described by a {@link StreamFlowControl}. Otherwise gRPC reads them as fast as they arrive
+ * and they pile up in memory until the component gets to them.</p>
+ *
  * @param <StreamT> The input stream type as per the gRPC interface.
  */
 public final class RequestStreamToFluxAdaptor<StreamT> {
@@ -47,6 +52,20 @@ public final class RequestStreamToFluxAdaptor<StreamT> {
     flux = sink.asFlux();
   }
 
+  /**
+   * Constructor for flow controlled request streams.
+   *
+   * <p>Must be called by the gRPC handler itself, before it returns.</p>
+   *
+   * @param responseObserver the response observer given to the gRPC handler, which also controls its requests.
+   * @param flowControl bounds the number of requests read ahead of the {@link Flux} subscriber.
+   */
+  public RequestStreamToFluxAdaptor(final StreamObserver<?> responseObserver, final StreamFlowControl flowControl) {
+    final Sinks.Many<StreamT> sink = Sinks.many().unicast().onBackpressureBuffer();
+    requestStreamObserver = adaptRequestStreamToSink(sink);
+    flux = flowControlled(sink.asFlux(), responseObserver, flowControl);
+  }
+
   public StreamObserver<StreamT> requestStreamObserver() {
     return requestStreamObserver;
   }
@@ -55,6 +74,31 @@ public final class RequestStreamToFluxAdaptor<StreamT> {
     return flux;
   }
 
+  /**
+   * Makes gRPC read requests only as a {@link Flux} of them is asked for more.
+   *
+   * <p>gRPC buffers incoming requests until they are read, so the {@link Sinks.Many} those requests are emitted to
+   * never holds more than {@link StreamFlowControl#highWatermark()} of them, whatever its subscriber asks for.</p>
+   *
+   * @param requests the requests of the call, as emitted by the request observer.
+   * @param responseObserver the response observer given to the gRPC handler.
+   * @param flowControl bounds the number of requests read ahead.
+   * @param <T> the type of the requests.
+   * @return the flow controlled requests, or the very same ones if the call does not support manual flow control.
+   */
+  static <T> Flux<T> flowControlled(final Flux<T> requests,
+                                    final StreamObserver<?> responseObserver,
+                                    final StreamFlowControl flowControl) {
+    if (!(responseObserver instanceof ServerCallStreamObserver<?> serverCallObserver)) {
+      return requests;
+    }
+    serverCallObserver.disableAutoRequest();
+    return requests
+        .doOnRequest(n -> serverCallObserver.request((int) Math.min(n, Integer.MAX_VALUE)))
+        // Reactor replenishes by a fixed amount: from lowWatermark outstanding back to highWatermark.
+        .limitRate(flowControl.highWatermark(), flowControl.highWatermark() - flowControl.lowWatermark());
+  }
+
   /**
    * Creates a {@link StreamObserver} that forwards all its received events to a {@link Sinks.Many}.
    *
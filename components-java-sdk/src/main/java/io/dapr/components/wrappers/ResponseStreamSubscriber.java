@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Feeds the {@link reactor.core.publisher.Flux} returned by a component to the response stream of a gRPC call,
+ * only asking the component for more messages while the transport is ready to send them.
+ *
+ * <p>Writing every message as soon as the component emits it would have gRPC buffer them, without bounds, whenever
+ * daprd reads them slower than the component produces them. Instead, demand is driven by
+ * {@link ServerCallStreamObserver#isReady()}: at most {@link StreamFlowControl#highWatermark()} messages are
+ * requested ahead, and more are only requested once the transport drains.</p>
+ *
+ * <p>Must be created by the gRPC handler itself, before it returns, as that is the only time gRPC accepts the
+ * readiness and cancel handlers. It can be subscribed later on. Like {@link UnaryCallSubscriber}, cancelling the
+ * call cancels the subscription and the deadline of the call, if any, is available through {@link CallDeadline}.</p>
+ *
+ * @param <T> the type of the response messages.
+ */
+final class ResponseStreamSubscriber<T> implements CoreSubscriber<T> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<ResponseStreamSubscriber, Subscription> SUBSCRIPTION =
+      AtomicReferenceFieldUpdater.newUpdater(ResponseStreamSubscriber.class, Subscription.class, "subscription");
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<ResponseStreamSubscriber> OUTSTANDING =
+      AtomicLongFieldUpdater.newUpdater(ResponseStreamSubscriber.class, "outstanding");
+
+  private final StreamObserver<T> responseObserver;
+
+  // Null when the observer tells nothing about readiness, then we just take whatever the component emits.
+  private final ServerCallStreamObserver<T> serverCallObserver;
+
+  private final StreamFlowControl flowControl;
+
+  private final Context context;
+
+  private volatile Subscription subscription;
+
+  // Messages requested from the component but not received yet.
+  private volatile long outstanding;
+
+  private volatile boolean done;
+
+  /**
+   * Constructor.
+   *
+   * @param responseObserver the response observer given to the gRPC handler.
+   * @param flowControl bounds the number of messages requested ahead.
+   */
+  ResponseStreamSubscriber(final StreamObserver<T> responseObserver, final StreamFlowControl flowControl) {
+    this.responseObserver = Objects.requireNonNull(responseObserver);
+    this.flowControl = Objects.requireNonNull(flowControl);
+    this.context = CallDeadline.ofCurrentCall();
+    if (responseObserver instanceof ServerCallStreamObserver<T> callObserver) {
+      this.serverCallObserver = callObserver;
+      callObserver.setOnReadyHandler(this::requestMore);
+      callObserver.setOnCancelHandler(this::cancel);
+    } else {
+      this.serverCallObserver = null;
+    }
+  }
+
+  @Override
+  public Context currentContext() {
+    return context;
+  }
+
+  @Override
+  public void onSubscribe(final Subscription subscription) {
+    // Fails, and cancels the subscription, if the call was cancelled in the meantime.
+    if (Operators.setOnce(SUBSCRIPTION, this, subscription)) {
+      if (serverCallObserver == null) {
+        subscription.request(Long.MAX_VALUE);
+      } else {
+        requestMore();
+      }
+    }
+  }
+
+  @Override
+  public void onNext(final T value) {
+    if (done) {
+      return;
+    }
+    OUTSTANDING.decrementAndGet(this);
+    responseObserver.onNext(value);
+    if (serverCallObserver != null) {
+      requestMore();
+    }
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    if (done) {
+      return;
+    }
+    done = true;
+    responseObserver.onError(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    if (done) {
+      return;
+    }
+    done = true;
+    responseObserver.onCompleted();
+  }
+
+  // Called both by the transport, when it becomes ready, and by the component, when it emits.
+  private void requestMore() {
+    final Subscription current = subscription;
+    if (current == null || done || !serverCallObserver.isReady()) {
+      return;
+    }
+    while (true) {
+      final long requested = outstanding;
+      if (requested > flowControl.lowWatermark()) {
+        return;
+      }
+      if (OUTSTANDING.compareAndSet(this, requested, flowControl.highWatermark())) {
+        current.request(flowControl.highWatermark() - requested);
+        return;
+      }
+    }
+  }
+
+  // Nobody is reading the stream anymore.
+  private void cancel() {
+    done = true;
+    Operators.terminate(SUBSCRIPTION, this);
+  }
+}
@@ -24,159 +24,318 @@ import dapr.proto.components.v1.State.DeleteRequest;
 import dapr.proto.components.v1.State.Etag;
 import dapr.proto.components.v1.State.GetRequest;
 import dapr.proto.components.v1.StateStoreGrpc;
+import io.dapr.components.aspects.Pingable;
 import io.dapr.components.domain.state.BulkGetError;
+import io.dapr.components.domain.state.BulkGetStateItem;
 import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.MultiGetStateStore;
 import io.dapr.components.domain.state.SetRequest;
 import io.dapr.components.domain.state.StateStore;
+import io.dapr.components.wrappers.WireEncoders.BulkGetItem;
 import io.dapr.v1.ComponentProtos;
 import io.dapr.v1.ComponentProtos.FeaturesResponse;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 
 /**
  * A translation layer between a (local) StateStore implementation and Dapr's gRPC StateStore model.
  */
-public class StateStoreGrpcComponentWrapper extends StateStoreGrpc.StateStoreImplBase {
+public class StateStoreGrpcComponentWrapper extends StateStoreGrpc.StateStoreImplBase
+    implements BulkGetConcurrencyLimited, DirectlyMarshalledService {
+
+  /**
+   * Default number of keys of a bulk get read from the component at the same time.
+   */
+  public static final int DEFAULT_BULK_GET_CONCURRENCY = 32;
+
   private static final Etag EMPTY_ETAG = Etag.newBuilder().setValue("").build();
   private static final State.GetResponse EMPTY_GET_RESPONSE = State.GetResponse.newBuilder()
       .setData(ByteString.EMPTY)
       .setEtag(EMPTY_ETAG)
       .build();
+  private static final Collector<BulkGetItem, BulkGetResponse.Builder, BulkGetResponse> TO_BULK_GET_RESPONSE =
+      Collector.of(BulkGetResponse::newBuilder,
+          (response, item) -> response.addItems(toBulkStateItem(item)),
+          (response, other) -> response.addAllItems(other.getItemsList()),
+          BulkGetResponse.Builder::build);
 
   private final StateStore stateStore;
 
+  // Answers ping calls, the component itself unless told otherwise.
+  private final Pingable pinger;
+
+  // Shares in-flight gets among identical ones, when enabled.
+  private final GetCoalescer getCoalescer;
+
+  // Serves eventually consistent gets from memory. Null if gets always go to the state store.
+  private final NearCache nearCache;
+
+  // Groups concurrent sets and deletes into bulk calls, when enabled.
+  private final WriteBatcher writeBatcher;
+
+  private volatile int bulkGetConcurrency = DEFAULT_BULK_GET_CONCURRENCY;
+
   /**
    * Constructor.
    *
    * @param stateStore the state store that this component will expose as a service.
    */
   public StateStoreGrpcComponentWrapper(final StateStore stateStore) {
+    this(stateStore, stateStore);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param stateStore the state store that this component will expose as a service.
+   * @param pinger answers ping calls on behalf of the component, such as a {@link HealthProbe}.
+   */
+  public StateStoreGrpcComponentWrapper(final StateStore stateStore, final Pingable pinger) {
+    this(stateStore, pinger, new GetCoalescer());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param stateStore the state store that this component will expose as a service.
+   * @param pinger answers ping calls on behalf of the component, such as a {@link HealthProbe}.
+   * @param getCoalescer coalesces the gets of this state store, shared with the other facets writing to it.
+   */
+  public StateStoreGrpcComponentWrapper(final StateStore stateStore, final Pingable pinger,
+                                        final GetCoalescer getCoalescer) {
+    this(stateStore, pinger, getCoalescer, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param stateStore the state store that this component will expose as a service.
+   * @param pinger answers ping calls on behalf of the component, such as a {@link HealthProbe}.
+   * @param getCoalescer coalesces the gets of this state store, shared with the other facets writing to it.
+   * @param nearCache caches the states read from this state store, shared with the other facets writing to it.
+   *                  Null for no cache.
+   */
+  public StateStoreGrpcComponentWrapper(final StateStore stateStore, final Pingable pinger,
+                                        final GetCoalescer getCoalescer, final NearCache nearCache) {
+    this(stateStore, pinger, getCoalescer, nearCache, new WriteBatcher(stateStore));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param stateStore the state store that this component will expose as a service.
+   * @param pinger answers ping calls on behalf of the component, such as a {@link HealthProbe}.
+   * @param getCoalescer coalesces the gets of this state store, shared with the other facets writing to it.
+   * @param nearCache caches the states read from this state store, shared with the other facets writing to it.
+   *                  Null for no cache.
+   * @param writeBatcher groups the sets and deletes sent to this state store.
+   */
+  public StateStoreGrpcComponentWrapper(final StateStore stateStore, final Pingable pinger,
+                                        final GetCoalescer getCoalescer, final NearCache nearCache,
+                                        final WriteBatcher writeBatcher) {
     this.stateStore = Objects.requireNonNull(stateStore);
+    this.pinger = Objects.requireNonNull(pinger);
+    this.getCoalescer = Objects.requireNonNull(getCoalescer);
+    this.nearCache = nearCache;
+    this.writeBatcher = Objects.requireNonNull(writeBatcher);
+  }
+
+  @Override
+  public void setBulkGetConcurrency(final int bulkGetConcurrency) {
+    if (bulkGetConcurrency <= 0) {
+      throw new IllegalArgumentException("bulkGetConcurrency must be positive but was " + bulkGetConcurrency);
+    }
+    this.bulkGetConcurrency = bulkGetConcurrency;
   }
 
   @Override
   public void init(final State.InitRequest request, final StreamObserver<State.InitResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> stateStore.init(req.getMetadata().getPropertiesMap()))
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> stateStore.init(req.getMetadata().getPropertiesMap()),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(State.InitResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        State.InitResponse.getDefaultInstance(),
+        responseObserver);
   }
 
-
   @Override
   public void features(final ComponentProtos.FeaturesRequest request,
                        final StreamObserver<FeaturesResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> stateStore.getFeatures())
-        .map(features -> FeaturesResponse.newBuilder()
+    UnaryCallSubscriber.respond(request,
+        req -> stateStore.getFeatures(),
+        features -> FeaturesResponse.newBuilder()
             .addAllFeatures(features)
-            .build()
-        )
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+            .build(),
+        null,
+        responseObserver);
   }
 
   @Override
   public void ping(final ComponentProtos.PingRequest request,
                    final StreamObserver<ComponentProtos.PingResponse> responseObserver) {
-    Mono.just(request)
-        .flatMap(req -> stateStore.ping())
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> pinger.ping(),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(ComponentProtos.PingResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        ComponentProtos.PingResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void delete(final DeleteRequest request, final StreamObserver<State.DeleteResponse> responseObserver) {
-    Mono.just(request)
-        .map(io.dapr.components.domain.state.DeleteRequest::fromProto) //Convert to local domain
-        .flatMap(stateStore::delete)
+    UnaryCallSubscriber.respondWhenDone(request,
+        // Convert to local domain/model
+        req -> write(List.of(req.getKey()),
+            () -> writeBatcher.delete(io.dapr.components.domain.state.DeleteRequest.fromProto(req))),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(State.DeleteResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        State.DeleteResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void bulkDelete(final BulkDeleteRequest request,
                          final StreamObserver<State.BulkDeleteResponse> responseObserver) {
-    Mono.just(request)
-        // Convert to local domain/model
-        .flatMapIterable(BulkDeleteRequest::getItemsList)
-        .map(io.dapr.components.domain.state.DeleteRequest::fromProto)
-        .collectList()
-        // Perform the bulk operation
-        .flatMap(this.stateStore::bulkDelete)
-        .thenReturn(State.BulkDeleteResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+    UnaryCallSubscriber.respondWhenDone(request,
+        // Convert to local domain/model and perform the bulk operation
+        req -> write(toList(req.getItemsList(), DeleteRequest::getKey),
+            () -> stateStore.bulkDelete(
+                toList(req.getItemsList(), io.dapr.components.domain.state.DeleteRequest::fromProto))),
+        State.BulkDeleteResponse.getDefaultInstance(),
+        responseObserver);
+  }
+
+  @Override
+  public ServerServiceDefinition bindDirectService() {
+    return new DirectResponseBinder(this, StateStoreGrpcComponentWrapper.class, bindService())
+        .unary(StateStoreGrpc.getGetMethod(), WireEncoders.GET_RESPONSE,
+            (request, responseObserver) ->
+                respondGet(request, response -> response, EMPTY_GET_RESPONSE, responseObserver))
+        .unary(StateStoreGrpc.getBulkGetMethod(), WireEncoders.BULK_GET_RESPONSE,
+            (request, responseObserver) -> respondBulkGet(request, WireEncoders.toBulkGetItems(), responseObserver))
+        .build();
   }
 
   @Override
   public void get(final GetRequest request, final StreamObserver<State.GetResponse> responseObserver) {
-    Mono.just(request)
-        .map(io.dapr.components.domain.state.GetRequest::fromProto) // Convert to local domain/model
-        .flatMap(stateStore::get)
-        // If value is present, map it to an appropriate GetResponse object
-        .map(GetResponse::toProto)
-        // otherwise return an empty response
-        .defaultIfEmpty(EMPTY_GET_RESPONSE)
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+    respondGet(request, GetResponse::toProto, EMPTY_GET_RESPONSE, responseObserver);
   }
 
   @Override
   public void bulkGet(final BulkGetRequest request,
                       final StreamObserver<BulkGetResponse> responseObserver) {
-    Mono.just(request)
+    respondBulkGet(request, TO_BULK_GET_RESPONSE, responseObserver);
+  }
+
+  private <R> void respondGet(final GetRequest request, final Function<GetResponse, R> toResponse,
+                              final R responseIfEmpty, final StreamObserver<R> responseObserver) {
+    UnaryCallSubscriber.respond(request,
         // Convert to local domain/model
-        .flatMapIterable(BulkGetRequest::getItemsList)
-        .map(io.dapr.components.domain.state.GetRequest::fromProto)
-        .collectList()
-        // Perform the bulk operation
-        .flatMapMany(this.stateStore::bulkGet)
-        // Let's convert all requested items into BulkStateItems objects.
-        .flatMap(requestedItem -> requestedItem.response()
-            // If value is present, convert it to an appropriate BulkStateItem object
-            .map(value -> value.toBulkGetItemProto(requestedItem.key()))
-            // otherwise return an empty BulkStateItem with corresponding error codes
-            .defaultIfEmpty(
-                BulkStateItem.newBuilder()
-                    .setKey(requestedItem.key())
-                    .setError(BulkGetError.KEY_DOES_NOT_EXIST)
-                    .setData(ByteString.EMPTY)
-                    .setEtag(EMPTY_ETAG)
-                    .build()
-            )
-        )
-        // Wrap them into a BulkGetResponse and send it away
-        .collectList()
-        .map(items -> BulkGetResponse.newBuilder()
-            .addAllItems(items)
-            .build())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        req -> getState(io.dapr.components.domain.state.GetRequest.fromProto(req)),
+        // If value is present, map it to an appropriate response
+        toResponse,
+        // otherwise return an empty response
+        responseIfEmpty,
+        responseObserver);
+  }
+
+  private <R> void respondBulkGet(final BulkGetRequest request, final Collector<BulkGetItem, ?, ? extends R> toResponse,
+                                  final StreamObserver<R> responseObserver) {
+    UnaryCallSubscriber.respond(request,
+        // Convert to local domain/model and perform the bulk operation
+        req -> bulkGetResponse(toList(req.getItemsList(), io.dapr.components.domain.state.GetRequest::fromProto),
+            toResponse),
+        Function.identity(),
+        null,
+        responseObserver);
+  }
+
+  private Mono<GetResponse> getState(final io.dapr.components.domain.state.GetRequest request) {
+    if (nearCache == null) {
+      return getCoalescer.get(request, stateStore::get);
+    }
+    return nearCache.get(request, req -> getCoalescer.get(req, stateStore::get));
+  }
+
+  private <R> Mono<R> bulkGetResponse(final List<io.dapr.components.domain.state.GetRequest> requests,
+                                      final Collector<BulkGetItem, ?, R> toResponse) {
+    final Flux<BulkGetStateItem> items = nearCache == null
+        ? bulkGetStates(requests)
+        : nearCache.bulkGet(requests, this::bulkGetStates);
+    return items
+        // Pair each requested key with its state, if any, keeping the order of requests.
+        .flatMapSequential(requestedItem -> requestedItem.response()
+            .map(value -> new BulkGetItem(requestedItem.key(), value))
+            .defaultIfEmpty(new BulkGetItem(requestedItem.key(), null)), bulkGetConcurrency)
+        // Straight into the response, as they come.
+        .collect(toResponse);
+  }
+
+  private static BulkStateItem toBulkStateItem(final BulkGetItem item) {
+    return item.response() != null
+        // If value is present, convert it to an appropriate BulkStateItem object
+        ? item.response().toBulkGetItemProto(item.key())
+        // otherwise return an empty BulkStateItem with corresponding error codes
+        : BulkStateItem.newBuilder()
+            .setKey(item.key())
+            .setError(BulkGetError.KEY_DOES_NOT_EXIST)
+            .setData(ByteString.EMPTY)
+            .setEtag(EMPTY_ETAG)
+            .build();
+  }
+
+  private Flux<BulkGetStateItem> bulkGetStates(final List<io.dapr.components.domain.state.GetRequest> requests) {
+    if (!(stateStore instanceof MultiGetStateStore multiGetStateStore)) {
+      return stateStore.bulkGet(requests);
+    }
+    // A single round trip, whose result each item picks its own response from.
+    final Mono<Map<io.dapr.components.domain.state.GetRequest, GetResponse>> responses =
+        multiGetStateStore.multiGet(requests).cache();
+    return Flux.fromIterable(requests)
+        .map(getRequest -> new BulkGetStateItem(getRequest.key(),
+            responses.flatMap(responsesByRequest -> Mono.justOrEmpty(responsesByRequest.get(getRequest)))));
   }
 
   @Override
   public void set(final State.SetRequest request, final StreamObserver<State.SetResponse> responseObserver) {
-    Mono.just(request)
-        .map(SetRequest::fromProto)  // Convert to local domain/model
-        .flatMap(stateStore::set)
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> write(List.of(req.getKey()),
+            () -> writeBatcher.set(SetRequest.fromProto(req))),  // Convert to local domain/model
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(State.SetResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        State.SetResponse.getDefaultInstance(),
+        responseObserver);
   }
 
   @Override
   public void bulkSet(final BulkSetRequest request, final StreamObserver<State.BulkSetResponse> responseObserver) {
-    Mono.just(request)
-        // Convert to local domain/model
-        .flatMapIterable(BulkSetRequest::getItemsList)
-        .map(SetRequest::fromProto)
-        .collectList()
-        // Perform the bulk operation
-        .flatMap(this.stateStore::bulkSet)
+    UnaryCallSubscriber.respondWhenDone(request,
+        // Convert to local domain/model and perform the bulk operation
+        req -> write(toList(req.getItemsList(), State.SetRequest::getKey),
+            () -> stateStore.bulkSet(toList(req.getItemsList(), SetRequest::fromProto))),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(State.BulkSetResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        State.BulkSetResponse.getDefaultInstance(),
+        responseObserver);
+  }
+
+  private <T> Mono<T> write(final List<String> keys, final Supplier<Mono<T>> write) {
+    if (nearCache == null) {
+      return getCoalescer.write(keys, write);
+    }
+    return nearCache.write(keys, () -> getCoalescer.write(keys, write));
+  }
+
+  private static <P, T> List<T> toList(final List<P> protos, final Function<P, T> fromProto) {
+    final List<T> items = new ArrayList<>(protos.size());
+    for (final P proto : protos) {
+      items.add(fromProto.apply(proto));
+    }
+    return items;
   }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+/**
+ * Bounds the number of messages of a streaming call held in memory, in each direction.
+ *
+ * <p>Messages are asked for in batches: once no more than {@code lowWatermark} messages are outstanding, enough
+ * are requested to get back to {@code highWatermark}. Requests sent by daprd are only read from the transport as
+ * fast as the component consumes them, and messages are only pulled from the component while the transport is
+ * ready to send them to daprd.</p>
+ *
+ * @param highWatermark Most messages requested but not handled yet.
+ * @param lowWatermark Number of outstanding messages at or below which more are requested.
+ */
+public record StreamFlowControl(int highWatermark, int lowWatermark) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if highWatermark is not positive, or lowWatermark not in [0, highWatermark).
+   */
+  public StreamFlowControl {
+    if (highWatermark <= 0) {
+      throw new IllegalArgumentException("highWatermark must be positive but was " + highWatermark);
+    }
+    if (lowWatermark < 0 || lowWatermark >= highWatermark) {
+      throw new IllegalArgumentException("lowWatermark must be in [0, " + highWatermark + ") but was "
+          + lowWatermark);
+    }
+  }
+
+  /**
+   * The default stream flow control.
+   *
+   * <p>Keeps up to 64 messages in flight and tops up once a quarter of them are left.</p>
+   *
+   * @return the default flow control.
+   */
+  public static StreamFlowControl defaults() {
+    return new StreamFlowControl(64, 16);
+  }
+}
@@ -20,23 +20,61 @@ import io.dapr.components.domain.state.TransactionalStateStore;
 import io.grpc.stub.StreamObserver;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 public class TransactionalStateStoreComponentWrapper
     extends TransactionalStateStoreGrpc.TransactionalStateStoreImplBase {
 
   private final TransactionalStateStore transactionalStateStore;
 
+  // Shared with the StateStore facet, so gets do not coalesce across transactions.
+  private final GetCoalescer getCoalescer;
+
+  // Likewise, so transactions evict the states they write. Null if there is no cache.
+  private final NearCache nearCache;
+
   public TransactionalStateStoreComponentWrapper(TransactionalStateStore transactionalStateStore) {
+    this(transactionalStateStore, new GetCoalescer());
+  }
+
+  public TransactionalStateStoreComponentWrapper(TransactionalStateStore transactionalStateStore,
+                                                 GetCoalescer getCoalescer) {
+    this(transactionalStateStore, getCoalescer, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param transactionalStateStore the state store that this component will expose as a service.
+   * @param getCoalescer coalesces the gets of this state store, shared with its StateStore facet.
+   * @param nearCache caches the states read from this state store, shared with its StateStore facet. Null for no
+   *                  cache.
+   */
+  public TransactionalStateStoreComponentWrapper(TransactionalStateStore transactionalStateStore,
+                                                 GetCoalescer getCoalescer, NearCache nearCache) {
     this.transactionalStateStore = transactionalStateStore;
+    this.getCoalescer = Objects.requireNonNull(getCoalescer);
+    this.nearCache = nearCache;
   }
 
   @Override
   public void transact(State.TransactionalStateRequest request,
                        StreamObserver<State.TransactionalStateResponse> responseObserver) {
-    Mono.just(request)
-        .map(TransactionalStateRequest::fromProto)
-        .flatMap(transactionalStateStore::transact)
+    UnaryCallSubscriber.respondWhenDone(request,
+        req -> transact(TransactionalStateRequest.fromProto(req)),
         // Response is functionally and structurally equivalent to Empty, nothing to fill.
-        .thenReturn(State.TransactionalStateResponse.getDefaultInstance())
-        .subscribe(responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+        State.TransactionalStateResponse.getDefaultInstance(),
+        responseObserver);
+  }
+
+  private Mono<Void> transact(final TransactionalStateRequest request) {
+    final List<String> keys = new ArrayList<>(request.operations().size());
+    request.forEachOperation(delete -> keys.add(delete.key()), set -> keys.add(set.key()));
+    if (nearCache == null) {
+      return getCoalescer.write(keys, () -> transactionalStateStore.transact(request));
+    }
+    return nearCache.write(keys, () -> getCoalescer.write(keys, () -> transactionalStateStore.transact(request)));
   }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * Bridges the {@link Mono} returned by a component to the {@link StreamObserver} of a unary gRPC call.
+ *
+ * <p>Unary handlers used to wrap each request in {@code Mono.just(request).map(...).flatMap(...)} and subscribe
+ * with three method references. That assembles a handful of operators and lambdas for every single call just to
+ * convert a request, call the component and convert its result back. Instead, handlers call the component right
+ * away and subscribe a single instance of this class to what it returns.</p>
+ *
+ * <p>The error semantics of the former chain are kept: anything thrown while converting the request or calling
+ * the component, as well as a {@code null} {@link Mono}, is reported to the caller through
+ * {@link StreamObserver#onError(Throwable)}.</p>
+ *
+ * <p>When daprd cancels the call, or its deadline expires, the subscription is cancelled so the component can stop
+ * working on a result nobody will read. The deadline itself is available to components through
+ * {@link CallDeadline}.</p>
+ *
+ * <p>The {@link CallResources} of the call, if any, go along with the deadline in the Reactor context of the
+ * subscription, for the wrappers to retain them for as long as they carry on with the request after the call is
+ * over.</p>
+ *
+ * @param <T> the type of the value emitted by the component.
+ * @param <R> the type of the gRPC response.
+ */
+final class UnaryCallSubscriber<T, R> implements CoreSubscriber<T> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<UnaryCallSubscriber, Subscription> SUBSCRIPTION =
+      AtomicReferenceFieldUpdater.newUpdater(UnaryCallSubscriber.class, Subscription.class, "subscription");
+
+  private final StreamObserver<R> responseObserver;
+
+  private final Context context;
+
+  // Null when values are ignored and the call always answers responseIfEmpty, like Mono#thenReturn.
+  private final Function<? super T, ? extends R> toResponse;
+
+  // Null when an empty result must complete the call without a response.
+  private final R responseIfEmpty;
+
+  private volatile Subscription subscription;
+
+  private boolean responded;
+
+  // Also set by the cancel handler, which gRPC runs on another thread than the component may emit on.
+  private volatile boolean done;
+
+  private UnaryCallSubscriber(final StreamObserver<R> responseObserver,
+                              final Function<? super T, ? extends R> toResponse,
+                              final R responseIfEmpty) {
+    this.responseObserver = Objects.requireNonNull(responseObserver);
+    this.toResponse = toResponse;
+    this.responseIfEmpty = responseIfEmpty;
+    this.context = CallResources.addOfCurrentCall(CallDeadline.ofCurrentCall());
+    // gRPC only accepts a cancel handler while the handler method has not returned yet.
+    if (responseObserver instanceof ServerCallStreamObserver<R> serverCallObserver) {
+      serverCallObserver.setOnCancelHandler(this::cancel);
+    }
+  }
+
+  /**
+   * Calls a component and answers a unary call with whatever value it emits.
+   *
+   * @param request the gRPC request.
+   * @param call converts the request and calls the component with it.
+   * @param toResponse converts the value emitted by the component into the gRPC response.
+   * @param responseIfEmpty the response when the component completes without a value, or {@code null} for none.
+   * @param responseObserver the observer of the unary call.
+   * @param <Q> the type of the gRPC request.
+   * @param <T> the type of the value emitted by the component.
+   * @param <R> the type of the gRPC response.
+   */
+  static <Q, T, R> void respond(final Q request,
+                                final Function<? super Q, ? extends Mono<T>> call,
+                                final Function<? super T, ? extends R> toResponse,
+                                final R responseIfEmpty,
+                                final StreamObserver<R> responseObserver) {
+    subscribe(request, call, new UnaryCallSubscriber<>(responseObserver, Objects.requireNonNull(toResponse),
+        responseIfEmpty));
+  }
+
+  /**
+   * Calls a component and answers a unary call with a fixed response once it completes, ignoring any value.
+   *
+   * @param request the gRPC request.
+   * @param call converts the request and calls the component with it.
+   * @param response the response sent once the component completes.
+   * @param responseObserver the observer of the unary call.
+   * @param <Q> the type of the gRPC request.
+   * @param <R> the type of the gRPC response.
+   */
+  static <Q, R> void respondWhenDone(final Q request,
+                                     final Function<? super Q, ? extends Mono<?>> call,
+                                     final R response,
+                                     final StreamObserver<R> responseObserver) {
+    subscribe(request, call, new UnaryCallSubscriber<Object, R>(responseObserver, null,
+        Objects.requireNonNull(response)));
+  }
+
+  private static <Q, T> void subscribe(final Q request,
+                                       final Function<? super Q, ? extends Mono<? extends T>> call,
+                                       final UnaryCallSubscriber<T, ?> subscriber) {
+    final Mono<? extends T> result;
+    try {
+      result = Objects.requireNonNull(call.apply(request), "The component returned a null Mono");
+    } catch (RuntimeException e) {
+      subscriber.done = true;
+      subscriber.responseObserver.onError(e);
+      return;
+    }
+    result.subscribe(subscriber);
+  }
+
+  @Override
+  public Context currentContext() {
+    return context;
+  }
+
+  @Override
+  public void onSubscribe(final Subscription subscription) {
+    // Fails, and cancels the subscription, if the call was cancelled in the meantime.
+    if (Operators.setOnce(SUBSCRIPTION, this, subscription)) {
+      subscription.request(Long.MAX_VALUE);
+    }
+  }
+
+  @Override
+  public void onNext(final T value) {
+    if (done || toResponse == null) {
+      return;
+    }
+    final R response;
+    try {
+      response = Objects.requireNonNull(toResponse.apply(value), "The response converter returned null");
+    } catch (RuntimeException e) {
+      Operators.terminate(SUBSCRIPTION, this);
+      onError(e);
+      return;
+    }
+    responded = true;
+    responseObserver.onNext(response);
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    if (done) {
+      return;
+    }
+    done = true;
+    responseObserver.onError(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    if (done) {
+      return;
+    }
+    done = true;
+    if (!responded && responseIfEmpty != null) {
+      responseObserver.onNext(responseIfEmpty);
+    }
+    responseObserver.onCompleted();
+  }
+
+  // Nobody is waiting for a response anymore.
+  private void cancel() {
+    done = true;
+    Operators.terminate(SUBSCRIPTION, this);
+  }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import dapr.proto.components.v1.Bindings;
+import dapr.proto.components.v1.Pubsub;
+import dapr.proto.components.v1.State;
+import io.dapr.components.domain.bindings.ReadResponse;
+import io.dapr.components.domain.pubsub.PullMessagesResponse;
+import io.dapr.components.domain.state.BulkGetError;
+import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.QueryResponse;
+import io.dapr.components.domain.state.QueryResponseItem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Writes domain responses in the wire format of the protobuf messages they convert to, without building them.
+ *
+ * <p>The bytes written are the ones {@code toProto().toByteArray()} would produce: fields in ascending order,
+ * proto3 defaults left out, except for the always set {@code Etag} messages, and map entries in the iteration order
+ * of the metadata.</p>
+ */
+final class WireEncoders {
+
+  /**
+   * Computes the serialized size of a value and writes it.
+   *
+   * @param sizer computes the number of bytes the value takes once serialized.
+   * @param writer writes the value, exactly as many bytes as computed by the sizer.
+   * @param <T> the type of the encoded values.
+   */
+  record Encoder<T>(ToIntFunction<T> sizer, Writer<T> writer) {
+    int serializedSize(final T value) {
+      return sizer.applyAsInt(value);
+    }
+
+    void writeTo(final T value, final CodedOutputStream output) throws IOException {
+      writer.writeTo(value, output);
+    }
+  }
+
+  /**
+   * Writes the fields of a value.
+   *
+   * @param <T> the type of the written values.
+   */
+  @FunctionalInterface
+  interface Writer<T> {
+    void writeTo(T value, CodedOutputStream output) throws IOException;
+  }
+
+  /**
+   * An item of a bulk get, as the key requested and the state found, if any.
+   *
+   * @param key the requested key.
+   * @param response the state found, or null if the key does not exist.
+   */
+  record BulkGetItem(String key, GetResponse response) {
+  }
+
+  /**
+   * The items of a bulk get response, added as their states are read. Each item is sized once, when added.
+   */
+  static final class BulkGetItems {
+    private final List<BulkGetItem> items = new ArrayList<>();
+    private int[] itemSizes = new int[16];
+    private int serializedSize;
+
+    void add(final BulkGetItem item) {
+      if (items.size() == itemSizes.length) {
+        itemSizes = Arrays.copyOf(itemSizes, itemSizes.length * 2);
+      }
+      final int itemSize = bulkStateItemSize(item);
+      itemSizes[items.size()] = itemSize;
+      items.add(item);
+      serializedSize += messageSize(State.BulkGetResponse.ITEMS_FIELD_NUMBER, itemSize);
+    }
+
+    BulkGetItems addAll(final BulkGetItems other) {
+      other.items.forEach(this::add);
+      return this;
+    }
+  }
+
+  /**
+   * Gathers the items of a bulk get into a response {@link #BULK_GET_RESPONSE} writes.
+   *
+   * @return a collector of bulk get items, in the order of the response.
+   */
+  static Collector<BulkGetItem, BulkGetItems, BulkGetItems> toBulkGetItems() {
+    return Collector.of(BulkGetItems::new, BulkGetItems::add, BulkGetItems::addAll,
+        Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  static final Encoder<GetResponse> GET_RESPONSE =
+      new Encoder<>(WireEncoders::getResponseSize, WireEncoders::writeGetResponse);
+
+  static final Encoder<BulkGetItems> BULK_GET_RESPONSE =
+      new Encoder<>(items -> items.serializedSize, WireEncoders::writeBulkGetResponse);
+
+  static final Encoder<QueryResponse> QUERY_RESPONSE =
+      new Encoder<>(WireEncoders::queryResponseSize, WireEncoders::writeQueryResponse);
+
+  static final Encoder<PullMessagesResponse> PULL_MESSAGES_RESPONSE =
+      new Encoder<>(WireEncoders::pullMessagesResponseSize, WireEncoders::writePullMessagesResponse);
+
+  static final Encoder<ReadResponse> READ_RESPONSE =
+      new Encoder<>(WireEncoders::readResponseSize, WireEncoders::writeReadResponse);
+
+  private WireEncoders() {
+  }
+
+  private static int getResponseSize(final GetResponse response) {
+    return bytesSize(State.GetResponse.DATA_FIELD_NUMBER, response.data())
+        + etagSize(State.GetResponse.ETAG_FIELD_NUMBER, response.etag())
+        + mapSize(State.GetResponse.METADATA_FIELD_NUMBER, response.metadata())
+        + stringSize(State.GetResponse.CONTENT_TYPE_FIELD_NUMBER, response.contentType());
+  }
+
+  private static void writeGetResponse(final GetResponse response, final CodedOutputStream output)
+      throws IOException {
+    writeBytes(output, State.GetResponse.DATA_FIELD_NUMBER, response.data());
+    writeEtag(output, State.GetResponse.ETAG_FIELD_NUMBER, response.etag());
+    writeMap(output, State.GetResponse.METADATA_FIELD_NUMBER, response.metadata());
+    writeString(output, State.GetResponse.CONTENT_TYPE_FIELD_NUMBER, response.contentType());
+  }
+
+  private static void writeBulkGetResponse(final BulkGetItems items, final CodedOutputStream output)
+      throws IOException {
+    for (int i = 0; i < items.items.size(); i++) {
+      writeMessageHeader(output, State.BulkGetResponse.ITEMS_FIELD_NUMBER, items.itemSizes[i]);
+      writeBulkStateItem(items.items.get(i), output);
+    }
+  }
+
+  private static int bulkStateItemSize(final BulkGetItem item) {
+    final GetResponse response = item.response();
+    final int keySize = stringSize(State.BulkStateItem.KEY_FIELD_NUMBER, item.key());
+    if (response == null) {
+      return keySize
+          + etagSize(State.BulkStateItem.ETAG_FIELD_NUMBER, "")
+          + stringSize(State.BulkStateItem.ERROR_FIELD_NUMBER, BulkGetError.KEY_DOES_NOT_EXIST);
+    }
+    return keySize
+        + bytesSize(State.BulkStateItem.DATA_FIELD_NUMBER, response.data())
+        + etagSize(State.BulkStateItem.ETAG_FIELD_NUMBER, response.etag())
+        + stringSize(State.BulkStateItem.ERROR_FIELD_NUMBER, BulkGetError.NONE)
+        + mapSize(State.BulkStateItem.METADATA_FIELD_NUMBER, response.metadata())
+        + stringSize(State.BulkStateItem.CONTENT_TYPE_FIELD_NUMBER, response.contentType());
+  }
+
+  private static void writeBulkStateItem(final BulkGetItem item, final CodedOutputStream output) throws IOException {
+    final GetResponse response = item.response();
+    writeString(output, State.BulkStateItem.KEY_FIELD_NUMBER, item.key());
+    if (response == null) {
+      writeEtag(output, State.BulkStateItem.ETAG_FIELD_NUMBER, "");
+      writeString(output, State.BulkStateItem.ERROR_FIELD_NUMBER, BulkGetError.KEY_DOES_NOT_EXIST);
+      return;
+    }
+    writeBytes(output, State.BulkStateItem.DATA_FIELD_NUMBER, response.data());
+    writeEtag(output, State.BulkStateItem.ETAG_FIELD_NUMBER, response.etag());
+    writeString(output, State.BulkStateItem.ERROR_FIELD_NUMBER, BulkGetError.NONE);
+    writeMap(output, State.BulkStateItem.METADATA_FIELD_NUMBER, response.metadata());
+    writeString(output, State.BulkStateItem.CONTENT_TYPE_FIELD_NUMBER, response.contentType());
+  }
+
+  private static int queryResponseSize(final QueryResponse response) {
+    int size = 0;
+    for (final QueryResponseItem item : response.items()) {
+      size += messageSize(State.QueryResponse.ITEMS_FIELD_NUMBER, queryItemSize(item));
+    }
+    return size
+        + stringSize(State.QueryResponse.TOKEN_FIELD_NUMBER, response.token())
+        + mapSize(State.QueryResponse.METADATA_FIELD_NUMBER, response.metadata());
+  }
+
+  private static void writeQueryResponse(final QueryResponse response, final CodedOutputStream output)
+      throws IOException {
+    for (final QueryResponseItem item : response.items()) {
+      writeMessageHeader(output, State.QueryResponse.ITEMS_FIELD_NUMBER, queryItemSize(item));
+      writeString(output, State.QueryItem.KEY_FIELD_NUMBER, item.key());
+      writeBytes(output, State.QueryItem.DATA_FIELD_NUMBER, item.data());
+      writeEtag(output, State.QueryItem.ETAG_FIELD_NUMBER, item.etag());
+      writeString(output, State.QueryItem.ERROR_FIELD_NUMBER, item.error());
+      writeString(output, State.QueryItem.CONTENT_TYPE_FIELD_NUMBER, item.contentType());
+    }
+    writeString(output, State.QueryResponse.TOKEN_FIELD_NUMBER, response.token());
+    writeMap(output, State.QueryResponse.METADATA_FIELD_NUMBER, response.metadata());
+  }
+
+  private static int queryItemSize(final QueryResponseItem item) {
+    return stringSize(State.QueryItem.KEY_FIELD_NUMBER, item.key())
+        + bytesSize(State.QueryItem.DATA_FIELD_NUMBER, item.data())
+        + etagSize(State.QueryItem.ETAG_FIELD_NUMBER, item.etag())
+        + stringSize(State.QueryItem.ERROR_FIELD_NUMBER, item.error())
+        + stringSize(State.QueryItem.CONTENT_TYPE_FIELD_NUMBER, item.contentType());
+  }
+
+  private static int pullMessagesResponseSize(final PullMessagesResponse response) {
+    return bytesSize(Pubsub.PullMessagesResponse.DATA_FIELD_NUMBER, response.data())
+        + stringSize(Pubsub.PullMessagesResponse.TOPIC_NAME_FIELD_NUMBER, response.topicName())
+        + mapSize(Pubsub.PullMessagesResponse.METADATA_FIELD_NUMBER, response.metadata())
+        + stringSize(Pubsub.PullMessagesResponse.CONTENT_TYPE_FIELD_NUMBER, response.contentType())
+        + stringSize(Pubsub.PullMessagesResponse.ID_FIELD_NUMBER, response.id());
+  }
+
+  private static void writePullMessagesResponse(final PullMessagesResponse response,
+                                                final CodedOutputStream output) throws IOException {
+    writeBytes(output, Pubsub.PullMessagesResponse.DATA_FIELD_NUMBER, response.data());
+    writeString(output, Pubsub.PullMessagesResponse.TOPIC_NAME_FIELD_NUMBER, response.topicName());
+    writeMap(output, Pubsub.PullMessagesResponse.METADATA_FIELD_NUMBER, response.metadata());
+    writeString(output, Pubsub.PullMessagesResponse.CONTENT_TYPE_FIELD_NUMBER, response.contentType());
+    writeString(output, Pubsub.PullMessagesResponse.ID_FIELD_NUMBER, response.id());
+  }
+
+  private static int readResponseSize(final ReadResponse response) {
+    return bytesSize(Bindings.ReadResponse.DATA_FIELD_NUMBER, response.data())
+        + mapSize(Bindings.ReadResponse.METADATA_FIELD_NUMBER, response.metadata())
+        + stringSize(Bindings.ReadResponse.CONTENT_TYPE_FIELD_NUMBER, response.contentType())
+        + stringSize(Bindings.ReadResponse.MESSAGE_ID_FIELD_NUMBER, response.messageId());
+  }
+
+  private static void writeReadResponse(final ReadResponse response, final CodedOutputStream output)
+      throws IOException {
+    writeBytes(output, Bindings.ReadResponse.DATA_FIELD_NUMBER, response.data());
+    writeMap(output, Bindings.ReadResponse.METADATA_FIELD_NUMBER, response.metadata());
+    writeString(output, Bindings.ReadResponse.CONTENT_TYPE_FIELD_NUMBER, response.contentType());
+    writeString(output, Bindings.ReadResponse.MESSAGE_ID_FIELD_NUMBER, response.messageId());
+  }
+
+  // proto3 scalars are only written when they differ from their default.
+  private static int stringSize(final int field, final String value) {
+    return value.isEmpty() ? 0 : CodedOutputStream.computeStringSize(field, value);
+  }
+
+  private static int bytesSize(final int field, final ByteString value) {
+    return value.isEmpty() ? 0 : CodedOutputStream.computeBytesSize(field, value);
+  }
+
+  private static int messageSize(final int field, final int contentSize) {
+    return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(contentSize)
+        + contentSize;
+  }
+
+  // The etag message is always set, hence written even when its value is empty.
+  private static int etagSize(final int field, final String etag) {
+    return messageSize(field, stringSize(State.Etag.VALUE_FIELD_NUMBER, etag));
+  }
+
+  // Map entries are messages whose key and value are always written, empty or not.
+  private static int mapSize(final int field, final Map<String, String> map) {
+    if (map.isEmpty()) {
+      return 0;
+    }
+    int size = 0;
+    for (final Map.Entry<String, String> entry : map.entrySet()) {
+      size += messageSize(field, mapEntrySize(entry));
+    }
+    return size;
+  }
+
+  private static int mapEntrySize(final Map.Entry<String, String> entry) {
+    return CodedOutputStream.computeStringSize(1, entry.getKey())
+        + CodedOutputStream.computeStringSize(2, entry.getValue());
+  }
+
+  private static void writeString(final CodedOutputStream output, final int field, final String value)
+      throws IOException {
+    if (!value.isEmpty()) {
+      output.writeString(field, value);
+    }
+  }
+
+  private static void writeBytes(final CodedOutputStream output, final int field, final ByteString value)
+      throws IOException {
+    if (!value.isEmpty()) {
+      output.writeBytes(field, value);
+    }
+  }
+
+  private static void writeMessageHeader(final CodedOutputStream output, final int field, final int contentSize)
+      throws IOException {
+    output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    output.writeUInt32NoTag(contentSize);
+  }
+
+  private static void writeEtag(final CodedOutputStream output, final int field, final String etag)
+      throws IOException {
+    writeMessageHeader(output, field, stringSize(State.Etag.VALUE_FIELD_NUMBER, etag));
+    writeString(output, State.Etag.VALUE_FIELD_NUMBER, etag);
+  }
+
+  private static void writeMap(final CodedOutputStream output, final int field, final Map<String, String> map)
+      throws IOException {
+    for (final Map.Entry<String, String> entry : map.entrySet()) {
+      writeMessageHeader(output, field, mapEntrySize(entry));
+      output.writeString(1, entry.getKey());
+      output.writeString(2, entry.getValue());
+    }
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import io.dapr.components.domain.state.DeleteRequest;
+import io.dapr.components.domain.state.Exceptions;
+import io.dapr.components.domain.state.SetRequest;
+import io.dapr.components.domain.state.StateStore;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Groups concurrent sets and deletes of a state store into calls to its bulk operations.
+ *
+ * <p>A write is sent right away while no batch is in flight, so writes are not delayed when the state store keeps
+ * up. Otherwise it waits for the writes that follow, until the batch is full, the batch in flight completes or
+ * {@link WriteBatchingOptions#maxDelay()} elapses, whichever comes first: the busier the state store, the larger
+ * the batches.</p>
+ *
+ * <p>A batch never holds two writes of the same key, and a write waits for the batch holding the previous write of
+ * its key to complete before being sent: writes of a key reach the state store in order.</p>
+ *
+ * <p>Only writes without an etag are batched. If the state store reports that a batch was not applied at all, see
+ * {@link Exceptions#getBulkNotAppliedException(String)}, its writes are sent again one by one, so each of them gets
+ * its own outcome. Any other failure of a batch is the outcome of all its writes, as there is no telling which of
+ * them were applied. Writes with an etag are sent on their own, as soon as the previous write of their key is done,
+ * and etag mismatches go straight back to their caller.</p>
+ *
+ * <p>Writes waiting for {@link WriteBatchingOptions#maxDelay()} are sent from {@link Schedulers#boundedElastic()},
+ * as state stores may block the thread they are called from.</p>
+ *
+ * <p>Disabled by default, in which case it just calls the state store.</p>
+ */
+public final class WriteBatcher {
+  private final StateStore stateStore;
+  private final Scheduler timer;
+
+  // Null while disabled.
+  private volatile WriteBatchingOptions options;
+
+  // All guarded by this.
+  private final List<PendingWrite> pending = new ArrayList<>();
+  private final Set<String> pendingKeys = new HashSet<>();
+  private final Set<String> keysInFlight = new HashSet<>();
+  // Writes of keys pending or in flight, in the order they were made.
+  private final Map<String, Deque<PendingWrite>> held = new HashMap<>();
+  private int batchesInFlight;
+  private Disposable flushTimer;
+
+  private final LongAdder writes = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder fallbacks = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param stateStore the state store writes are sent to.
+   */
+  public WriteBatcher(final StateStore stateStore) {
+    this(stateStore, Schedulers.boundedElastic());
+  }
+
+  WriteBatcher(final StateStore stateStore, final Scheduler timer) {
+    this.stateStore = Objects.requireNonNull(stateStore);
+    this.timer = Objects.requireNonNull(timer);
+  }
+
+  /**
+   * Turns batching on, or off, for writes made from now on.
+   *
+   * @param options how writes are batched, null to turn batching off.
+   */
+  public void setOptions(final WriteBatchingOptions options) {
+    this.options = options;
+  }
+
+  /**
+   * Whether sets and deletes are batched.
+   *
+   * @return true if batching is on.
+   */
+  public boolean isEnabled() {
+    return options != null;
+  }
+
+  /**
+   * How many writes were batched together so far.
+   *
+   * @return the batching stats since this batcher was created.
+   */
+  public WriteBatchingStats stats() {
+    return new WriteBatchingStats(writes.sum(), batches.sum(), fallbacks.sum());
+  }
+
+  Mono<Void> set(final SetRequest request) {
+    if (options == null) {
+      return stateStore.set(request);
+    }
+    return submit(request.key(), request, null);
+  }
+
+  Mono<Void> delete(final DeleteRequest request) {
+    if (options == null) {
+      return stateStore.delete(request);
+    }
+    return submit(request.key(), null, request);
+  }
+
+  private Mono<Void> submit(final String key, final SetRequest set, final DeleteRequest delete) {
+    return Mono.deferContextual(context -> {
+      // The request may point into the resources of the call, which may well be over before the write is sent.
+      final PendingWrite write = new PendingWrite(key, set, delete, Sinks.empty(), CallResources.retain(context));
+      enqueue(write);
+      return write.done().asMono();
+    });
+  }
+
+  private void enqueue(final PendingWrite write) {
+    final WriteBatchingOptions batching = batchingOptions();
+    final List<List<PendingWrite>> ready = new ArrayList<>(2);
+    final List<PendingWrite> readyAlone = new ArrayList<>(1);
+    synchronized (this) {
+      if (pendingKeys.contains(write.key())) {
+        // Sends the previous write of the key now rather than have this one wait for the flush as well.
+        ready.add(takePending(batching));
+      }
+      if (pendingKeys.contains(write.key()) || keysInFlight.contains(write.key())) {
+        held.computeIfAbsent(write.key(), key -> new ArrayDeque<>()).add(write);
+      } else if (write.hasEtag()) {
+        keysInFlight.add(write.key());
+        readyAlone.add(write);
+      } else {
+        pending.add(write);
+        pendingKeys.add(write.key());
+      }
+      dispatch(batching, ready);
+    }
+    // Calls the state store outside of the lock, it may well answer right away.
+    ready.forEach(this::send);
+    readyAlone.forEach(this::sendOnItsOwn);
+  }
+
+  private void flushPending() {
+    final WriteBatchingOptions batching = batchingOptions();
+    final List<List<PendingWrite>> ready = new ArrayList<>(1);
+    synchronized (this) {
+      flushTimer = null;
+      if (!pending.isEmpty()) {
+        ready.add(takePending(batching));
+      }
+      dispatch(batching, ready);
+    }
+    ready.forEach(this::send);
+  }
+
+  // Releases the next write of each key written, if any. Writes sent on their own are not part of a batch.
+  private void writesDone(final List<PendingWrite> done, final boolean batch) {
+    final WriteBatchingOptions batching = batchingOptions();
+    final List<List<PendingWrite>> ready = new ArrayList<>(1);
+    final List<PendingWrite> readyAlone = new ArrayList<>(1);
+    synchronized (this) {
+      if (batch) {
+        batchesInFlight--;
+      }
+      for (PendingWrite write : done) {
+        keysInFlight.remove(write.key());
+        final Deque<PendingWrite> next = held.get(write.key());
+        if (next != null) {
+          final PendingWrite released = next.poll();
+          if (released.hasEtag()) {
+            keysInFlight.add(released.key());
+            readyAlone.add(released);
+          } else {
+            pending.add(released);
+            pendingKeys.add(released.key());
+          }
+          if (next.isEmpty()) {
+            held.remove(write.key());
+          }
+        }
+      }
+      dispatch(batching, ready);
+    }
+    ready.forEach(this::send);
+    readyAlone.forEach(this::sendOnItsOwn);
+  }
+
+  private WriteBatchingOptions batchingOptions() {
+    final WriteBatchingOptions batching = options;
+    return batching == null ? WriteBatchingOptions.defaults() : batching;
+  }
+
+  // Must hold the lock of this.
+  private void dispatch(final WriteBatchingOptions batching, final List<List<PendingWrite>> ready) {
+    while (pending.size() >= batching.maxBatchSize() || !pending.isEmpty() && batchesInFlight == 0) {
+      ready.add(takePending(batching));
+    }
+    if (!pending.isEmpty() && flushTimer == null) {
+      flushTimer = timer.schedule(this::flushPending, batching.maxDelay().toNanos(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // Must hold the lock of this.
+  private List<PendingWrite> takePending(final WriteBatchingOptions batching) {
+    if (flushTimer != null) {
+      flushTimer.dispose();
+      flushTimer = null;
+    }
+    final List<PendingWrite> taken = pending.subList(0, Math.min(pending.size(), batching.maxBatchSize()));
+    final List<PendingWrite> batch = new ArrayList<>(taken);
+    taken.clear();
+    for (PendingWrite write : batch) {
+      pendingKeys.remove(write.key());
+      keysInFlight.add(write.key());
+    }
+    batchesInFlight++;
+    return batch;
+  }
+
+  private void send(final List<PendingWrite> batch) {
+    writes.add(batch.size());
+    batches.increment();
+    if (batch.size() == 1) {
+      sendAlone(batch.get(0)).subscribe(null, null, () -> writesDone(batch, true));
+      return;
+    }
+    final List<PendingWrite> sets = new ArrayList<>(batch.size());
+    final List<PendingWrite> deletes = new ArrayList<>(batch.size());
+    for (PendingWrite write : batch) {
+      (write.set() != null ? sets : deletes).add(write);
+    }
+    // Keys are distinct within a batch, so its sets and deletes can go in parallel, each with their own outcome.
+    Mono.when(
+        sendBulk(sets, () -> stateStore.bulkSet(sets.stream().map(PendingWrite::set).toList())),
+        sendBulk(deletes, () -> stateStore.bulkDelete(deletes.stream().map(PendingWrite::delete).toList()))
+    ).subscribe(null, null, () -> writesDone(batch, true));
+  }
+
+  private void sendOnItsOwn(final PendingWrite write) {
+    sendAlone(write).subscribe(null, null, () -> writesDone(List.of(write), false));
+  }
+
+  // Never fails, the outcome of each write goes to its caller.
+  private Mono<Void> sendBulk(final List<PendingWrite> group, final Supplier<Mono<Void>> bulkWrite) {
+    if (group.isEmpty()) {
+      return Mono.empty();
+    }
+    return Mono.defer(bulkWrite)
+        .doOnSuccess(done -> group.forEach(PendingWrite::succeed))
+        .onErrorResume(error -> {
+          if (!Exceptions.isBulkNotApplied(error)) {
+            group.forEach(write -> write.fail(error));
+            return Mono.empty();
+          }
+          // Nothing was written: each write gets its own outcome from the state store instead.
+          fallbacks.increment();
+          return Flux.fromIterable(group).flatMap(this::sendAlone).then();
+        });
+  }
+
+  // Never fails, the outcome of the write goes to its caller.
+  private Mono<Void> sendAlone(final PendingWrite write) {
+    return Mono.defer(() -> write.set() != null ? stateStore.set(write.set()) : stateStore.delete(write.delete()))
+        .doOnSuccess(done -> write.succeed())
+        .onErrorResume(error -> {
+          write.fail(error);
+          return Mono.empty();
+        });
+  }
+
+  private record PendingWrite(String key, SetRequest set, DeleteRequest delete, Sinks.Empty<Void> done,
+                              CallResources resources) {
+    boolean hasEtag() {
+      return !(set != null ? set.etag() : delete.etag()).isEmpty();
+    }
+
+    void succeed() {
+      if (done.tryEmitEmpty().isSuccess()) {
+        release();
+      }
+    }
+
+    void fail(final Throwable error) {
+      if (done.tryEmitError(error).isSuccess()) {
+        release();
+      }
+    }
+
+    private void release() {
+      if (resources != null) {
+        resources.release();
+      }
+    }
+  }
+}
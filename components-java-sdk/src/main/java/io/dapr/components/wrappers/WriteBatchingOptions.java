@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings of a {@link WriteBatcher}.
+ *
+ * @param maxBatchSize Most sets and deletes sent in a single batch.
+ * @param maxDelay Longest a set or delete waits for others to join its batch while a batch is in flight.
+ */
+public record WriteBatchingOptions(int maxBatchSize, Duration maxDelay) {
+
+  /**
+   * Canonical constructor.
+   *
+   * @throws IllegalArgumentException if maxBatchSize is below 2 or maxDelay is negative.
+   */
+  public WriteBatchingOptions {
+    if (maxBatchSize < 2) {
+      throw new IllegalArgumentException("maxBatchSize must be at least 2 but was " + maxBatchSize);
+    }
+    if (Objects.requireNonNull(maxDelay).isNegative()) {
+      throw new IllegalArgumentException("maxDelay must not be negative but was " + maxDelay);
+    }
+  }
+
+  /**
+   * The default write batching options.
+   *
+   * <p>Up to 64 writes per batch, waiting no more than 2 milliseconds for a batch to fill.</p>
+   *
+   * @return the default options.
+   */
+  public static WriteBatchingOptions defaults() {
+    return new WriteBatchingOptions(64, Duration.ofMillis(2));
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2023 The Dapr Authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.dapr.components.wrappers;
+
+/**
+ * How many sets and deletes were batched together by a {@link WriteBatcher}.
+ *
+ * @param writes Sets and deletes sent in batches, alone or not.
+ * @param batches Calls made to the state store to send them.
+ * @param fallbacks Batches the state store did not apply at all, and whose writes were sent again one by one.
+ */
+public record WriteBatchingStats(long writes, long batches, long fallbacks) {
+
+  /**
+   * The average number of writes per call to the state store.
+   *
+   * @return writes over batches, 0 if there were none.
+   */
+  public double averageBatchSize() {
+    return batches == 0 ? 0 : (double) writes / batches;
+  }
+}
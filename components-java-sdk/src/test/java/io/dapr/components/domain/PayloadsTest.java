@@ -0,0 +1,102 @@
+package io.dapr.components.domain;
+
+import com.google.protobuf.ByteString;
+import io.dapr.components.domain.bindings.InvokeResponse;
+import io.dapr.components.domain.state.GetResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayloadsTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void wrappedArraysAreNotCopied() {
+    final byte[] bytes = "value".getBytes(StandardCharsets.UTF_8);
+
+    final GetResponse response = new GetResponse(Payloads.wrap(bytes), "etag", Map.of(), "");
+    bytes[0] = 'V';
+
+    assertThat(response.data().toStringUtf8()).isEqualTo("Value");
+  }
+
+  @Test
+  void copyingConstructorsStillCopy() {
+    final byte[] bytes = "value".getBytes(StandardCharsets.UTF_8);
+
+    final GetResponse response = new GetResponse(bytes, "etag");
+    bytes[0] = 'V';
+
+    assertThat(response.data().toStringUtf8()).isEqualTo("value");
+  }
+
+  @Test
+  void wrappedBuffersKeepTheirRemainingBytesAndStayDirect() {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+    buffer.put("--value--".getBytes(StandardCharsets.UTF_8)).flip().position(2).limit(7);
+
+    final ByteString payload = Payloads.wrap(buffer);
+
+    assertThat(payload.toStringUtf8()).isEqualTo("value");
+    assertThat(buffer.position()).isEqualTo(2);
+    assertThat(buffer.limit()).isEqualTo(7);
+    assertThat(payload.asReadOnlyByteBuffer().isDirect()).isTrue();
+  }
+
+  @Test
+  void composedPayloadsShareTheirParts() {
+    final ByteBuffer head = ByteBuffer.allocateDirect(256);
+    final ByteBuffer tail = ByteBuffer.allocateDirect(256);
+
+    final ByteString payload = Payloads.compose(head, tail);
+    head.put(0, (byte) 1);
+    tail.put(255, (byte) 2);
+
+    assertThat(payload.size()).isEqualTo(512);
+    assertThat(payload.byteAt(0)).isEqualTo((byte) 1);
+    assertThat(payload.byteAt(511)).isEqualTo((byte) 2);
+    assertThat(payload.asReadOnlyByteBufferList()).hasSize(2).allMatch(ByteBuffer::isDirect);
+    assertThat(Payloads.compose(List.of())).isSameAs(ByteString.EMPTY);
+  }
+
+  @Test
+  void fileRegionsAreMappedRatherThanLoaded() throws IOException {
+    final Path file = Files.writeString(directory.resolve("values"), "header|value|trailer");
+
+    final ByteString region;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      region = Payloads.map(channel, 7, 5);
+    }
+    final InvokeResponse response = new InvokeResponse(region, Map.of(), "text/plain");
+
+    assertThat(response.data().asReadOnlyByteBuffer().isDirect()).isTrue();
+    assertThat(response.toProto().getData().toStringUtf8()).isEqualTo("value");
+    assertThat(Payloads.map(file).toStringUtf8()).isEqualTo("header|value|trailer");
+    assertThat(Payloads.map(Files.createFile(directory.resolve("empty")))).isSameAs(ByteString.EMPTY);
+  }
+
+  @Test
+  void invalidFileRegionsAreRejected() throws IOException {
+    final Path file = Files.writeString(directory.resolve("values"), "value");
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      assertThatThrownBy(() -> Payloads.map(channel, -1, 1)).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> Payloads.map(channel, 0, Integer.MAX_VALUE + 1L))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package io.dapr.components.domain;
+
+import dapr.proto.components.v1.State;
+import io.dapr.components.domain.state.GetRequest;
+import io.dapr.components.domain.state.SetRequest;
+import io.dapr.components.domain.state.options.StateConsistency;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProtoMapsTest {
+
+  @Test
+  void protoMetadataIsSharedRatherThanCopied() {
+    final State.GetRequest proto = State.GetRequest.newBuilder()
+        .setKey("key")
+        .putMetadata("a", "b")
+        .build();
+
+    final GetRequest request = GetRequest.fromProto(proto);
+
+    assertThat(request.metadata()).isEqualTo(Map.of("a", "b"));
+    assertThat(ProtoMaps.immutableCopyOf(request.metadata())).isSameAs(request.metadata());
+    assertThatThrownBy(() -> request.metadata().put("c", "d")).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void otherMapsAreStillCopied() {
+    final Map<String, String> metadata = new HashMap<>(Map.of("a", "b"));
+
+    final GetRequest request = new GetRequest("key", metadata, StateConsistency.EVENTUAL);
+    metadata.put("c", "d");
+
+    assertThat(request.metadata()).isEqualTo(Map.of("a", "b"));
+  }
+
+  @Test
+  void requestsFromProtoEqualRequestsBuiltByHand() {
+    final GetRequest fromProto = GetRequest.fromProto(State.GetRequest.newBuilder()
+        .setKey("key")
+        .putMetadata("a", "b")
+        .setConsistency(State.StateOptions.StateConsistency.CONSISTENCY_EVENTUAL)
+        .build());
+    final GetRequest byHand = new GetRequest("key", Map.of("a", "b"), StateConsistency.EVENTUAL);
+
+    assertThat(fromProto).isEqualTo(byHand).hasSameHashCodeAs(byHand);
+    assertThat(byHand).isEqualTo(fromProto);
+  }
+
+  @Test
+  void stateOptionsAreSharedAcrossRequests() {
+    final State.SetRequest proto = State.SetRequest.newBuilder()
+        .setKey("key")
+        .setOptions(State.StateOptions.newBuilder()
+            .setConsistency(State.StateOptions.StateConsistency.CONSISTENCY_STRONG))
+        .build();
+
+    assertThat(SetRequest.fromProto(proto).options()).isSameAs(SetRequest.fromProto(proto).options());
+    assertThat(SetRequest.fromProto(proto).options().consistency()).isEqualTo(StateConsistency.STRONG);
+  }
+}
@@ -0,0 +1,75 @@
+package io.dapr.components.domain.state;
+
+import io.dapr.components.domain.state.options.StateConcurrency;
+import io.dapr.components.domain.state.options.StateConsistency;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionPlanTest {
+
+  private static final StateOptions OPTIONS =
+      new StateOptions(StateConcurrency.UNSPECIFIED, StateConsistency.UNSPECIFIED);
+  private static final StateOptions FIRST_WRITE =
+      new StateOptions(StateConcurrency.FIRST_WRITE, StateConsistency.UNSPECIFIED);
+
+  @Test
+  void singleOperationsAreGroupedIntoOneStepSortedByKey() {
+    final TransactionPlan plan = plan(set("b", "", 1), delete("c", ""), set("a", "", 2), delete("a2", ""));
+
+    assertThat(plan.steps()).containsExactly(new TransactionPlan.Step(
+        List.of(delete("a2", ""), delete("c", "")),
+        List.of(set("a", "", 2), set("b", "", 1))));
+    assertThat(plan.collapsedOperations()).isZero();
+    assertThat(plan.operationCount()).isEqualTo(4);
+  }
+
+  @Test
+  void onlyTheLastOfSeveralUnconditionalOperationsOnAKeyIsKept() {
+    final TransactionPlan plan = plan(set("a", "", 1), set("a", "", 2), delete("a", ""), set("a", "", 3));
+
+    assertThat(plan.steps()).containsExactly(new TransactionPlan.Step(List.of(), List.of(set("a", "", 3))));
+    assertThat(plan.collapsedOperations()).isEqualTo(3);
+  }
+
+  @Test
+  void theEtagOfTheFirstOperationOnAKeyIsKept() {
+    final TransactionPlan plan = plan(set("a", "etag", 1), delete("a", ""));
+
+    assertThat(plan.steps()).containsExactly(new TransactionPlan.Step(List.of(delete("a", "etag")), List.of()));
+  }
+
+  @Test
+  void operationsExpectingAnEtagSetByTheTransactionAreNotCollapsed() {
+    final TransactionPlan plan = plan(set("a", "", 1), set("a", "etag", 2), set("b", "", 3));
+
+    assertThat(plan.steps()).containsExactly(
+        new TransactionPlan.Step(List.of(), List.of(set("a", "", 1), set("b", "", 3))),
+        new TransactionPlan.Step(List.of(), List.of(set("a", "etag", 2))));
+    assertThat(plan.collapsedOperations()).isZero();
+  }
+
+  @Test
+  void etagsAreNotMovedToOperationsWithOtherOptions() {
+    final SetRequest firstWrite = new SetRequest("a", new byte[] {1}, "etag", Map.of(), FIRST_WRITE, "");
+    final TransactionPlan plan = plan(firstWrite, set("a", "", 2));
+
+    assertThat(plan.steps()).hasSize(2);
+    assertThat(plan.steps().get(0).sets()).containsExactly(firstWrite);
+  }
+
+  private static TransactionPlan plan(final TransactionableOperation... operations) {
+    return new TransactionalStateRequest(List.of(operations), Map.of()).plan();
+  }
+
+  private static SetRequest set(final String key, final String etag, final int value) {
+    return new SetRequest(key, new byte[] {(byte) value}, etag, Map.of(), OPTIONS, "");
+  }
+
+  private static DeleteRequest delete(final String key, final String etag) {
+    return new DeleteRequest(key, etag, Map.of(), OPTIONS);
+  }
+}
@@ -0,0 +1,64 @@
+package io.dapr.components.domain.state.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonFieldExtractorTest {
+
+  private static final String DOCUMENT = "{\"name\": \"alice\", \"skipped\": {\"deep\": [1, {\"er\": [true, null]}]},"
+      + " \"person\": {\"org\": \"Dev Ops\", \"id\": 12.50, \"tags\": [\"a\", \"b\"]},"
+      + " \"items\": [{\"sku\": \"x\"}, {\"sku\": \"y\", \"qty\": 2}], \"a/b\": {\"~c\": false}, \"0\": 0}";
+
+  @Test
+  void extractedValuesAreThoseOfTheWholeDocument() throws IOException {
+    final List<String> keys = List.of("name", "person.org", "person.id", "person.tags", "person.tags.1",
+        "items.1.qty", "items.0.sku", "items.2.sku", "a/b.~c", "0", "person.missing", "name.first", "nothing");
+    final JsonNode whole = JsonValues.MAPPER.readTree(DOCUMENT);
+
+    final JsonNode extracted = JsonFieldExtractor.of(keys).extract(ByteString.copyFromUtf8(DOCUMENT));
+
+    for (String key : keys) {
+      assertThat(extracted.at(JsonValues.pointerOf(key))).as(key).isEqualTo(whole.at(JsonValues.pointerOf(key)));
+    }
+    assertThat(extracted.has("skipped")).isFalse();
+    assertThat(extracted.get("items").get(0).has("qty")).isFalse();
+  }
+
+  @Test
+  void readingStopsOnceEveryKeyIsFound() throws IOException {
+    final ByteString truncated = ByteString.copyFromUtf8("{\"name\": \"alice\", \"person\": {\"org\": \"Dev Ops\"},"
+        + " \"rest\": [1, 2, 3");
+    final JsonFieldExtractor extractor = JsonFieldExtractor.of(List.of("person.org", "name"));
+
+    final JsonNode extracted = extractor.extract(truncated);
+
+    assertThat(extracted)
+        .isEqualTo(JsonValues.MAPPER.readTree("{\"name\": \"alice\", \"person\": {\"org\": \"Dev Ops\"}}"));
+    assertThatThrownBy(() -> JsonValues.MAPPER.readTree(truncated.newInput())).isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> JsonFieldExtractor.of(List.of("name", "other")).extract(truncated))
+        .isInstanceOf(JsonProcessingException.class);
+  }
+
+  @Test
+  void nothingIsExtractedOutOfAnythingButObjects() throws IOException {
+    final JsonFieldExtractor extractor = JsonFieldExtractor.of(List.of("name"));
+
+    assertThat(extractor.extract(ByteString.copyFromUtf8("[{\"name\": \"alice\"}]"))).isEmpty();
+    assertThat(extractor.extract(ByteString.copyFromUtf8("\"alice\""))).isEmpty();
+    assertThat(extractor.extract(ByteString.EMPTY)).isEmpty();
+    assertThat(JsonFieldExtractor.of(List.of()).extract(ByteString.copyFromUtf8(DOCUMENT))).isEmpty();
+  }
+
+  @Test
+  void invalidKeysAreRejected() {
+    assertThatThrownBy(() -> JsonFieldExtractor.of(List.of("person..org"))).isInstanceOf(InvalidQueryException.class);
+  }
+}
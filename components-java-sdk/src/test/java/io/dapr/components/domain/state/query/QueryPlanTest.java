@@ -0,0 +1,140 @@
+package io.dapr.components.domain.state.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import dapr.proto.components.v1.State;
+import io.dapr.components.domain.state.Query;
+import io.dapr.components.domain.state.Sorting;
+import io.dapr.components.domain.state.options.Order;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryPlanTest {
+
+  private static final JsonNode ALICE = json("{\"name\": \"alice\", \"age\": 30, \"person\": {\"org\": \"Dev Ops\"}}");
+  private static final JsonNode BOB = json("{\"name\": \"bob\", \"age\": 25.0, \"person\": {\"org\": \"Finance\"}}");
+  private static final JsonNode CAROL = json("{\"name\": \"carol\", \"person\": {\"org\": \"Dev Ops\"}}");
+
+  @Test
+  void filtersAreParsedIntoTypedTrees() {
+    final Query query = queryOf("AND", "[{\"EQ\": {\"person.org\": \"Dev Ops\"}}, {\"IN\": {\"age\": [25, 30]}}]");
+
+    assertThat(query.plan().filter()).isEqualTo(new Filter.And(List.of(
+        new Filter.Comparison(Filter.Comparison.Operator.EQ, "person.org", TextNode.valueOf("Dev Ops")),
+        new Filter.In("age", List.of(IntNode.valueOf(25), IntNode.valueOf(30))))));
+    assertThat(new Query(Map.of(), List.of(), null).plan().filter()).isEqualTo(new Filter.All());
+  }
+
+  @Test
+  void compiledFiltersMatchDocuments() {
+    final QueryPlan plan = queryOf("OR", "[{\"EQ\": {\"person.org\": \"Finance\"}},"
+        + " {\"AND\": [{\"IN\": {\"age\": [30, 40]}}, {\"NEQ\": {\"name\": \"bob\"}}]}]").plan();
+
+    assertThat(Stream.of(ALICE, BOB, CAROL).filter(plan::matches)).containsExactly(ALICE, BOB);
+  }
+
+  @Test
+  void numbersAreComparedByValueAndMissingKeysMatchNothing() {
+    assertThat(queryOf("EQ", "{\"age\": 25}").plan().matches(BOB)).isTrue();
+    assertThat(queryOf("IN", "{\"age\": [30.00]}").plan().matches(ALICE)).isTrue();
+    assertThat(queryOf("GT", "{\"age\": 26}").plan().matches(ALICE)).isTrue();
+    assertThat(queryOf("LTE", "{\"age\": 25}").plan().matches(BOB)).isTrue();
+    assertThat(queryOf("GTE", "{\"name\": \"bob\"}").plan().matches(CAROL)).isTrue();
+    assertThat(queryOf("LT", "{\"age\": \"31\"}").plan().matches(ALICE)).isFalse();
+    assertThat(queryOf("NEQ", "{\"age\": 30}").plan().matches(CAROL)).isFalse();
+    assertThat(queryOf("EQ", "{\"person\": true}").plan().matches(ALICE)).isFalse();
+  }
+
+  @Test
+  void documentsAreSortedByEveryKeyWithMissingValuesLast() {
+    final Query query = new Query(Map.of(), List.of(
+        new Sorting("person.org", Order.ASC), new Sorting("age", Order.DESC)), null);
+    final List<JsonNode> documents = new ArrayList<>(List.of(CAROL, BOB, ALICE));
+
+    documents.sort(query.plan().order());
+
+    assertThat(documents).containsExactly(ALICE, CAROL, BOB);
+  }
+
+  @Test
+  void plansMatchAndOrderWhatTheyReadStraightOutOfStateValues() throws IOException {
+    final Query query = new Query(Map.of("IN", Map.of("person.org", List.of("Dev Ops", "Finance"))),
+        List.of(new Sorting("age", Order.ASC)), null);
+    final QueryPlan plan = query.plan();
+    final List<JsonNode> documents = new ArrayList<>();
+    for (JsonNode document : List.of(ALICE, BOB, CAROL)) {
+      documents.add(plan.documentOf(ByteString.copyFromUtf8(document.toString())));
+    }
+
+    documents.sort(plan.order());
+
+    assertThat(plan.keys()).containsExactly("person.org", "age");
+    assertThat(documents).allMatch(plan::matches).extracting(document -> document.has("name"))
+        .containsOnly(false);
+    assertThat(documents).extracting(document -> document.path("age").asInt(-1)).containsExactly(25, 30, -1);
+  }
+
+  @Test
+  void plansAreCachedByTheQueriesDaprSends() {
+    final QueryPlan plan = queryOf("EQ", "{\"name\": \"alice\"}").plan();
+
+    assertThat(queryOf("EQ", "{\"name\": \"alice\"}").plan()).isSameAs(plan);
+    assertThat(queryOf("EQ", "{\"name\": \"bob\"}").plan()).isNotSameAs(plan);
+    assertThat(QueryPlan.compile(plan.filter(), plan.sort())).isNotSameAs(plan);
+  }
+
+  @Test
+  void filtersMayBeGivenAsPlainObjects() {
+    final Query query = new Query(Map.of("IN", Map.of("name", List.of("alice", "carol"))), List.of(), null);
+
+    assertThat(Stream.of(ALICE, BOB, CAROL).filter(query.plan()::matches)).containsExactly(ALICE, CAROL);
+    assertThat(new Query(Map.of("EQ", Map.of("flag", true)), List.of(), null).plan().filter())
+        .isEqualTo(new Filter.Comparison(Filter.Comparison.Operator.EQ, "flag", BooleanNode.TRUE));
+  }
+
+  @Test
+  void invalidQueriesAreRejected() {
+    assertThatThrownBy(() -> queryOf("LIKE", "{\"name\": \"a%\"}").plan()).isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> queryOf("EQ", "{\"name\": ").plan()).isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> queryOf("EQ", "{\"name\": \"a\", \"age\": 1}").plan())
+        .isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> queryOf("EQ", "{\"name\": {\"first\": \"a\"}}").plan())
+        .isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> queryOf("EQ", "{\"person..org\": \"a\"}").plan())
+        .isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> queryOf("IN", "{\"name\": []}").plan()).isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> queryOf("AND", "[]").plan()).isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> queryOf("OR", "[{\"EQ\": {\"a\": 1}, \"IN\": {\"b\": [1]}}]").plan())
+        .isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> new Query(Map.of("EQ", "{}", "IN", "{}"), List.of(), null).plan())
+        .isInstanceOf(InvalidQueryException.class);
+    assertThatThrownBy(() -> new Query(Map.of(), List.of(new Sorting("age", Order.UNRECOGNIZED)), null).plan())
+        .isInstanceOf(InvalidQueryException.class);
+  }
+
+  private static Query queryOf(final String operation, final String operand) {
+    return Query.fromProto(State.Query.newBuilder()
+        .putFilter(operation, Any.newBuilder().setValue(ByteString.copyFromUtf8(operand)).build())
+        .build());
+  }
+
+  private static JsonNode json(final String json) {
+    try {
+      return JsonValues.MAPPER.readTree(json);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
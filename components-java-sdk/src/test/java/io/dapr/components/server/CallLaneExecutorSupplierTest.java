@@ -0,0 +1,101 @@
+package io.dapr.components.server;
+
+import dapr.proto.components.v1.State;
+import dapr.proto.components.v1.StateStoreGrpc;
+import io.dapr.components.domain.state.StateStore;
+import io.dapr.components.wrappers.StateStoreGrpcComponentWrapper;
+import io.dapr.v1.ComponentProtos;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CallLaneExecutorSupplierTest {
+
+  private StateStore mockComponent;
+  private ExecutorService dataExecutor;
+  private ExecutorService controlPlaneExecutor;
+  private CallLaneMetrics metrics;
+  private Server server;
+  private ManagedChannel channel;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    mockComponent = mock();
+    dataExecutor = Executors.newSingleThreadExecutor();
+    controlPlaneExecutor = Executors.newSingleThreadExecutor();
+    metrics = new CallLaneMetrics();
+
+    final String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+        .callExecutor(new CallLaneExecutorSupplier(controlPlaneExecutor, dataExecutor))
+        .addStreamTracerFactory(metrics)
+        .addService(new StateStoreGrpcComponentWrapper(mockComponent))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(serverName).build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+    dataExecutor.shutdownNow();
+    controlPlaneExecutor.shutdownNow();
+  }
+
+  @Test
+  void controlPlaneCallsAreServedWhileDataExecutorIsSaturated() throws InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+    when(mockComponent.get(any())).thenAnswer(invocation -> {
+      // A blocking component hogging the only data thread.
+      release.await();
+      return Mono.empty();
+    });
+    when(mockComponent.ping()).thenReturn(Mono.empty());
+    StateStoreGrpc.newStub(channel).get(State.GetRequest.getDefaultInstance(), new NoopObserver<>());
+
+    try {
+      StateStoreGrpc.newBlockingStub(channel)
+          .withDeadlineAfter(5, TimeUnit.SECONDS)
+          .ping(ComponentProtos.PingRequest.getDefaultInstance());
+    } finally {
+      release.countDown();
+    }
+
+    assertThat(metrics.stats()).first().satisfies(stats -> {
+      assertThat(stats.lane()).isEqualTo(CallLane.CONTROL_PLANE);
+      assertThat(stats.calls()).isEqualTo(1);
+    });
+  }
+
+  private static final class NoopObserver<T> implements StreamObserver<T> {
+    @Override
+    public void onNext(T value) {
+    }
+
+    @Override
+    public void onError(Throwable t) {
+    }
+
+    @Override
+    public void onCompleted() {
+    }
+  }
+}
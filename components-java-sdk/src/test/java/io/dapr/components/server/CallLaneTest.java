@@ -0,0 +1,27 @@
+package io.dapr.components.server;
+
+import dapr.proto.components.v1.InputBindingGrpc;
+import dapr.proto.components.v1.PubSubGrpc;
+import dapr.proto.components.v1.StateStoreGrpc;
+import io.grpc.reflection.v1alpha.ServerReflectionGrpc;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CallLaneTest {
+
+  @Test
+  void lifecycleAndHealthMethodsAreControlPlane() {
+    assertThat(CallLane.of(StateStoreGrpc.getInitMethod())).isEqualTo(CallLane.CONTROL_PLANE);
+    assertThat(CallLane.of(PubSubGrpc.getFeaturesMethod())).isEqualTo(CallLane.CONTROL_PLANE);
+    assertThat(CallLane.of(InputBindingGrpc.getPingMethod())).isEqualTo(CallLane.CONTROL_PLANE);
+    assertThat(CallLane.of(ServerReflectionGrpc.getServerReflectionInfoMethod())).isEqualTo(CallLane.CONTROL_PLANE);
+  }
+
+  @Test
+  void everythingElseIsData() {
+    assertThat(CallLane.of(StateStoreGrpc.getGetMethod())).isEqualTo(CallLane.DATA);
+    assertThat(CallLane.of(PubSubGrpc.getPublishMethod())).isEqualTo(CallLane.DATA);
+    assertThat(CallLane.of(InputBindingGrpc.getReadMethod())).isEqualTo(CallLane.DATA);
+  }
+}
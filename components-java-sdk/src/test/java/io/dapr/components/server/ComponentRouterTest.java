@@ -0,0 +1,227 @@
+package io.dapr.components.server;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.ByteString;
+import dapr.proto.components.v1.State;
+import dapr.proto.components.v1.StateStoreGrpc;
+import io.dapr.components.domain.pubsub.PubSub;
+import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.StateStore;
+import io.dapr.components.wrappers.DirectlyMarshalledService;
+import io.dapr.components.wrappers.PubSubGrpcComponentWrapper;
+import io.dapr.components.wrappers.StateStoreGrpcComponentWrapper;
+import io.dapr.v1.ComponentProtos;
+import io.grpc.Attributes;
+import io.grpc.Grpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerTransportFilter;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.grpc.reflection.v1alpha.ServerReflectionGrpc;
+import io.grpc.reflection.v1alpha.ServerReflectionRequest;
+import io.grpc.reflection.v1alpha.ServerReflectionResponse;
+import io.grpc.reflection.v1alpha.ServiceResponse;
+import io.grpc.stub.StreamObserver;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ComponentRouterTest {
+
+  @TempDir
+  Path socketsFolder;
+
+  private StateStore firstStateStore;
+  private StateStore secondStateStore;
+  private PubSub pubSub;
+
+  private TransportResources transportResources;
+  private EventLoopGroup clientEventLoopGroup;
+  private Server server;
+  private final List<ManagedChannel> channels = new ArrayList<>();
+  private final List<SocketAddress> reportedListenAddresses = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    assumeTrue(Epoll.isAvailable(), "Unix Domain Sockets require the epoll transport");
+    firstStateStore = mock();
+    secondStateStore = mock();
+    pubSub = mock();
+
+    final ComponentRouter router = new ComponentRouter(MoreExecutors.directExecutor());
+    router.addComponent("first", socketOf("first"),
+        List.of(DirectlyMarshalledService.bind(new StateStoreGrpcComponentWrapper(firstStateStore))), null);
+    router.addComponent("second", socketOf("second"),
+        List.of(DirectlyMarshalledService.bind(new StateStoreGrpcComponentWrapper(secondStateStore))), null);
+    router.addComponent("pubsub", socketOf("pubsub"),
+        List.of(DirectlyMarshalledService.bind(new PubSubGrpcComponentWrapper(pubSub))), null);
+
+    transportResources = new TransportResources(TransportType.EPOLL, 1, 1);
+    server = transportResources.configureReportingListenAddresses(NettyServerBuilder.forAddress(socketOf("first")))
+        .addListenAddress(socketOf("second"))
+        .addListenAddress(socketOf("pubsub"))
+        .fallbackHandlerRegistry(router)
+        .callExecutor(router)
+        .addTransportFilter(new ServerTransportFilter() {
+          @Override
+          public Attributes transportReady(Attributes transportAttrs) {
+            reportedListenAddresses.add(transportAttrs.get(Grpc.TRANSPORT_ATTR_LOCAL_ADDR));
+            return transportAttrs;
+          }
+        })
+        .build()
+        .start();
+    clientEventLoopGroup = new EpollEventLoopGroup(1);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    channels.forEach(ManagedChannel::shutdownNow);
+    if (server != null) {
+      server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+      clientEventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS).await();
+      transportResources.shutdownGracefully(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void callsAreRoutedToTheComponentOwningTheSocket() {
+    when(secondStateStore.ping()).thenReturn(Mono.empty());
+
+    StateStoreGrpc.newBlockingStub(channelTo("second")).ping(ComponentProtos.PingRequest.getDefaultInstance());
+
+    verify(secondStateStore).ping();
+    verifyNoInteractions(firstStateStore);
+  }
+
+  @Test
+  void connectionsReportTheSocketTheyWereAcceptedOn() {
+    when(firstStateStore.ping()).thenReturn(Mono.empty());
+    when(secondStateStore.ping()).thenReturn(Mono.empty());
+
+    StateStoreGrpc.newBlockingStub(channelTo("second")).ping(ComponentProtos.PingRequest.getDefaultInstance());
+    StateStoreGrpc.newBlockingStub(channelTo("first")).ping(ComponentProtos.PingRequest.getDefaultInstance());
+
+    assertThat(reportedListenAddresses).containsExactly(socketOf("second"), socketOf("first"));
+  }
+
+  @Test
+  void responsesWrittenStraightToTheWireAreReadAsGenerated() {
+    final GetResponse state = new GetResponse(ByteString.copyFromUtf8("value"), "etag", Map.of("ttl", "10"),
+        "text/plain");
+    when(secondStateStore.get(any())).thenReturn(Mono.just(state));
+
+    final State.GetResponse response = StateStoreGrpc.newBlockingStub(channelTo("second"))
+        .get(State.GetRequest.newBuilder().setKey("key").build());
+
+    assertThat(response).isEqualTo(state.toProto());
+  }
+
+  @Test
+  void servicesNotExposedByTheComponentAreUnimplemented() {
+    final StateStoreGrpc.StateStoreBlockingStub client = StateStoreGrpc.newBlockingStub(channelTo("pubsub"));
+
+    assertThatThrownBy(() -> client.ping(ComponentProtos.PingRequest.getDefaultInstance()))
+        .isInstanceOfSatisfying(StatusRuntimeException.class,
+            e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.UNIMPLEMENTED));
+    verifyNoInteractions(firstStateStore, secondStateStore);
+  }
+
+  @Test
+  void reflectionOnlyListsTheServicesOfTheComponent() throws Exception {
+    assertThat(listServices("first")).containsExactlyInAnyOrder(
+        StateStoreGrpc.SERVICE_NAME, ServerReflectionGrpc.SERVICE_NAME);
+    assertThat(listServices("pubsub")).doesNotContain(StateStoreGrpc.SERVICE_NAME);
+  }
+
+  @Test
+  void reflectionDescribesTheServicesOfTheComponent() throws Exception {
+    final String stateProto = State.getDescriptor().getName();
+
+    final ServerReflectionResponse bySymbol = reflect("first", ServerReflectionRequest.newBuilder()
+        .setFileContainingSymbol(StateStoreGrpc.SERVICE_NAME + ".Get").build());
+    final ServerReflectionResponse byName = reflect("second", ServerReflectionRequest.newBuilder()
+        .setFileByFilename(stateProto).build());
+    final ServerReflectionResponse notExposed = reflect("pubsub", ServerReflectionRequest.newBuilder()
+        .setFileContainingSymbol(StateStoreGrpc.SERVICE_NAME).build());
+
+    assertThat(bySymbol.getFileDescriptorResponse().getFileDescriptorProtoList()).hasSizeGreaterThan(1)
+        .first().isEqualTo(State.getDescriptor().toProto().toByteString());
+    assertThat(byName.getFileDescriptorResponse()).isEqualTo(bySymbol.getFileDescriptorResponse());
+    assertThat(notExposed.getErrorResponse().getErrorCode()).isEqualTo(Status.Code.NOT_FOUND.value());
+  }
+
+  private DomainSocketAddress socketOf(final String componentName) {
+    return new DomainSocketAddress(socketsFolder.resolve(componentName + ".sock").toFile());
+  }
+
+  private ManagedChannel channelTo(final String componentName) {
+    final ManagedChannel channel = NettyChannelBuilder.forAddress(socketOf(componentName))
+        .channelType(EpollDomainSocketChannel.class)
+        .eventLoopGroup(clientEventLoopGroup)
+        .usePlaintext()
+        .build();
+    channels.add(channel);
+    return channel;
+  }
+
+  private List<String> listServices(final String componentName) throws Exception {
+    return reflect(componentName, ServerReflectionRequest.newBuilder().setListServices("*").build())
+        .getListServicesResponse().getServiceList().stream()
+        .map(ServiceResponse::getName)
+        .toList();
+  }
+
+  private ServerReflectionResponse reflect(final String componentName, final ServerReflectionRequest request)
+      throws Exception {
+    final CompletableFuture<ServerReflectionResponse> response = new CompletableFuture<>();
+    final StreamObserver<ServerReflectionRequest> requests = ServerReflectionGrpc.newStub(channelTo(componentName))
+        .serverReflectionInfo(new StreamObserver<>() {
+          @Override
+          public void onNext(ServerReflectionResponse reflectionResponse) {
+            response.complete(reflectionResponse);
+          }
+
+          @Override
+          public void onError(Throwable t) {
+            response.completeExceptionally(t);
+          }
+
+          @Override
+          public void onCompleted() {
+          }
+        });
+    requests.onNext(request);
+    requests.onCompleted();
+    return response.get(5, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,108 @@
+package io.dapr.components.server;
+
+import dapr.proto.components.v1.State;
+import dapr.proto.components.v1.StateStoreGrpc;
+import io.dapr.components.domain.state.StateStore;
+import io.dapr.components.wrappers.StateStoreGrpcComponentWrapper;
+import io.dapr.v1.ComponentProtos;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitInterceptorTest {
+
+  private StateStore mockComponent;
+  private ConcurrencyLimitInterceptor interceptor;
+  private Server server;
+  private ManagedChannel channel;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    mockComponent = mock();
+    interceptor = new ConcurrencyLimitInterceptor("test-component", new ConcurrencyLimitOptions(1, 1, 1));
+
+    final String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+        .directExecutor()
+        .addService(ServerInterceptors.intercept(new StateStoreGrpcComponentWrapper(mockComponent), interceptor))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void callsBeyondTheLimitAreRejected() {
+    when(mockComponent.get(any())).thenReturn(Mono.never());
+    StateStoreGrpc.newStub(channel).get(State.GetRequest.getDefaultInstance(), new NoopObserver<>());
+
+    assertThatThrownBy(() -> StateStoreGrpc.newBlockingStub(channel).get(State.GetRequest.getDefaultInstance()))
+        .isInstanceOf(StatusRuntimeException.class)
+        .extracting(e -> ((StatusRuntimeException) e).getStatus().getCode())
+        .isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+
+    assertThat(interceptor.stats()).containsExactly(new ConcurrencyLimitStats("test-component",
+        StateStoreGrpc.getGetMethod().getFullMethodName(), 1, 1, 1));
+  }
+
+  @Test
+  void completedCallsReleaseTheirSlot() {
+    when(mockComponent.get(any())).thenReturn(Mono.empty());
+
+    StateStoreGrpc.newBlockingStub(channel).get(State.GetRequest.getDefaultInstance());
+    StateStoreGrpc.newBlockingStub(channel).get(State.GetRequest.getDefaultInstance());
+
+    assertThat(interceptor.stats()).singleElement().satisfies(stats -> {
+      assertThat(stats.inFlight()).isZero();
+      assertThat(stats.rejected()).isZero();
+    });
+  }
+
+  @Test
+  void controlPlaneCallsAreNeverLimited() {
+    when(mockComponent.get(any())).thenReturn(Mono.never());
+    when(mockComponent.ping()).thenReturn(Mono.empty());
+    StateStoreGrpc.newStub(channel).get(State.GetRequest.getDefaultInstance(), new NoopObserver<>());
+
+    StateStoreGrpc.newBlockingStub(channel).ping(ComponentProtos.PingRequest.getDefaultInstance());
+
+    assertThat(interceptor.stats()).extracting(ConcurrencyLimitStats::methodName)
+        .containsExactly(StateStoreGrpc.getGetMethod().getFullMethodName());
+  }
+
+  private static final class NoopObserver<T> implements StreamObserver<T> {
+    @Override
+    public void onNext(T value) {
+    }
+
+    @Override
+    public void onError(Throwable t) {
+    }
+
+    @Override
+    public void onCompleted() {
+    }
+  }
+}
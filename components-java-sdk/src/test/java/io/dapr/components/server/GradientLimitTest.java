@@ -0,0 +1,74 @@
+package io.dapr.components.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+  private static final long STEADY_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+  @Test
+  void growsWhileLatencyStaysFlat() {
+    final GradientLimit limit = new GradientLimit(new ConcurrencyLimitOptions(10, 1, 1000));
+
+    for (int i = 0; i < 50; i++) {
+      limit.onSample(STEADY_RTT, limit.limit());
+    }
+
+    assertThat(limit.limit()).isGreaterThan(10);
+  }
+
+  @Test
+  void ignoresSamplesWhileMostlyIdle() {
+    final GradientLimit limit = new GradientLimit(new ConcurrencyLimitOptions(10, 1, 1000));
+
+    for (int i = 0; i < 50; i++) {
+      limit.onSample(STEADY_RTT, 1);
+    }
+
+    assertThat(limit.limit()).isEqualTo(10);
+  }
+
+  @Test
+  void shrinksOnceLatencyRises() {
+    final GradientLimit limit = new GradientLimit(new ConcurrencyLimitOptions(100, 1, 1000));
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(STEADY_RTT, limit.limit());
+    }
+    final int steadyLimit = limit.limit();
+
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(STEADY_RTT * 10, limit.limit());
+    }
+
+    assertThat(limit.limit()).isLessThan(steadyLimit);
+  }
+
+  @Test
+  void neverGrowsBeyondTheMaximum() {
+    final GradientLimit limit = new GradientLimit(new ConcurrencyLimitOptions(5, 1, 8));
+
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(STEADY_RTT, limit.limit());
+    }
+
+    assertThat(limit.limit()).isEqualTo(8);
+  }
+
+  @Test
+  void neverShrinksBelowTheMinimum() {
+    final GradientLimit limit = new GradientLimit(new ConcurrencyLimitOptions(20, 20, 40));
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(STEADY_RTT, 1);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(STEADY_RTT * 100, limit.limit());
+    }
+
+    assertThat(limit.limit()).isEqualTo(20);
+  }
+}
@@ -0,0 +1,121 @@
+package io.dapr.components.server;
+
+import dapr.proto.components.v1.Bindings;
+import dapr.proto.components.v1.InputBindingGrpc;
+import io.dapr.components.domain.bindings.InputBinding;
+import io.dapr.components.wrappers.InputBindingGrpcComponentWrapper;
+import io.dapr.v1.ComponentProtos;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InFlightCallsInterceptorTest {
+
+  private InputBinding mockComponent;
+  private InputBindingGrpcComponentWrapper wrapper;
+  private InFlightCallsInterceptor interceptor;
+  private Server server;
+  private ManagedChannel channel;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    mockComponent = mock();
+    wrapper = new InputBindingGrpcComponentWrapper(mockComponent);
+    interceptor = new InFlightCallsInterceptor();
+
+    final String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+        .directExecutor()
+        .addService(ServerInterceptors.intercept(wrapper, interceptor))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void unaryCallsAreCountedOutOnceCompleted() {
+    when(mockComponent.ping()).thenReturn(Mono.empty());
+
+    InputBindingGrpc.newBlockingStub(channel).ping(ComponentProtos.PingRequest.getDefaultInstance());
+
+    assertThat(interceptor.inFlightCalls()).isZero();
+  }
+
+  @Test
+  void streamingCallsStayInFlightUntilDrained() throws InterruptedException {
+    when(mockComponent.read(any())).thenReturn(Flux.never());
+    final CountDownLatch completed = new CountDownLatch(1);
+
+    final StreamObserver<Bindings.ReadRequest> requests = InputBindingGrpc.newStub(channel)
+        .read(new StreamObserver<>() {
+          @Override
+          public void onNext(Bindings.ReadResponse value) {
+          }
+
+          @Override
+          public void onError(Throwable t) {
+          }
+
+          @Override
+          public void onCompleted() {
+            completed.countDown();
+          }
+        });
+    assertThat(interceptor.inFlightCalls()).isEqualTo(1);
+
+    wrapper.drain();
+    assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+    // The call is only over once the client half-closes its side as well.
+    requests.onCompleted();
+
+    assertThat(interceptor.inFlightCalls()).isZero();
+  }
+
+  @Test
+  void cancelledCallsAreCountedOut() {
+    when(mockComponent.read(any())).thenReturn(Flux.never());
+
+    final StreamObserver<Bindings.ReadRequest> requests = InputBindingGrpc.newStub(channel)
+        .read(new StreamObserver<>() {
+          @Override
+          public void onNext(Bindings.ReadResponse value) {
+          }
+
+          @Override
+          public void onError(Throwable t) {
+          }
+
+          @Override
+          public void onCompleted() {
+          }
+        });
+    assertThat(interceptor.inFlightCalls()).isEqualTo(1);
+
+    requests.onError(new RuntimeException("client went away"));
+
+    assertThat(interceptor.inFlightCalls()).isZero();
+  }
+}
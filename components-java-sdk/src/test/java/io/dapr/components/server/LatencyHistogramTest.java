@@ -0,0 +1,51 @@
+package io.dapr.components.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+  @Test
+  void emptyHistogramReportsZero() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    assertThat(histogram.count()).isZero();
+    assertThat(histogram.percentileMicros(99)).isZero();
+    assertThat(histogram.maxMicros()).isZero();
+  }
+
+  @Test
+  void percentilesAreAccurateWithinABucket() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int millis = 1; millis <= 1000; millis++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    assertThat(histogram.count()).isEqualTo(1000);
+    assertThat(histogram.percentileMicros(50)).isCloseTo(500_000, within(500_000 / 8L));
+    assertThat(histogram.percentileMicros(99)).isCloseTo(990_000, within(990_000 / 8L));
+    assertThat(histogram.maxMicros()).isEqualTo(1_000_000);
+  }
+
+  @Test
+  void percentilesNeverExceedTheMaximum() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(1_000_001));
+
+    assertThat(histogram.percentileMicros(99)).isEqualTo(1_000_001);
+  }
+
+  @Test
+  void smallValuesAreExact() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+
+    assertThat(histogram.percentileMicros(50)).isEqualTo(3);
+  }
+}
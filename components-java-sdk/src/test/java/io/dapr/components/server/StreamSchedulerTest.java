@@ -0,0 +1,61 @@
+package io.dapr.components.server;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamSchedulerTest {
+
+  @Test
+  void sharedElasticUsesReactorsSharedScheduler() {
+    final StreamScheduler streamScheduler = new StreamScheduler("test", StreamSchedulerPolicy.SHARED_ELASTIC, 4);
+
+    assertThat(streamScheduler.scheduler()).isSameAs(Schedulers.boundedElastic());
+
+    // Shared with the rest of the process, so never ours to release.
+    streamScheduler.dispose();
+    assertThat(Schedulers.boundedElastic().isDisposed()).isFalse();
+  }
+
+  @Test
+  void immediateSubscribesOnTheCallingThread() {
+    final StreamScheduler streamScheduler = new StreamScheduler("test", StreamSchedulerPolicy.IMMEDIATE, 4);
+
+    final Thread subscribedOn = Mono.fromCallable(Thread::currentThread)
+        .subscribeOn(streamScheduler.scheduler())
+        .block(Duration.ofSeconds(5));
+
+    assertThat(subscribedOn).isSameAs(Thread.currentThread());
+  }
+
+  @Test
+  void boundedUsesDedicatedThreadsReleasedOnDispose() {
+    final StreamScheduler streamScheduler = new StreamScheduler("test", StreamSchedulerPolicy.BOUNDED, 4);
+
+    final String threadName = Mono.fromCallable(() -> Thread.currentThread().getName())
+        .subscribeOn(streamScheduler.scheduler())
+        .block(Duration.ofSeconds(5));
+    assertThat(threadName).startsWith("dapr-components-test-streams");
+
+    streamScheduler.dispose();
+    assertThat(streamScheduler.scheduler().isDisposed()).isTrue();
+  }
+
+  @Test
+  void virtualThreadsRunStreamsEvenWithoutVirtualThreadSupport() {
+    // Falls back to a bounded scheduler on runtimes without virtual threads.
+    final StreamScheduler streamScheduler = new StreamScheduler("test", StreamSchedulerPolicy.VIRTUAL_THREADS, 4);
+
+    final Thread subscribedOn = Mono.fromCallable(Thread::currentThread)
+        .subscribeOn(streamScheduler.scheduler())
+        .block(Duration.ofSeconds(5));
+    assertThat(subscribedOn).isNotSameAs(Thread.currentThread());
+
+    streamScheduler.dispose();
+    assertThat(streamScheduler.scheduler().isDisposed()).isTrue();
+  }
+}
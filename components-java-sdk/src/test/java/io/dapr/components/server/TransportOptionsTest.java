@@ -0,0 +1,57 @@
+package io.dapr.components.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransportOptionsTest {
+
+  @Test
+  void defaultsMatchConstants() {
+    final TransportOptions options = TransportOptions.defaults();
+
+    assertThat(options.maxInboundMessageSize()).isEqualTo(Constants.Defaults.DAPR_COMPONENTS_MAX_INBOUND_MESSAGE_SIZE);
+    assertThat(options.keepAliveTime())
+        .isEqualTo(Duration.ofSeconds(Constants.Defaults.DAPR_COMPONENTS_KEEPALIVE_TIME_SECONDS));
+    assertThat(options.socketSendBufferSize()).isZero();
+    assertThat(options.socketReceiveBufferSize()).isZero();
+  }
+
+  @Test
+  void withersOnlyChangeTheirOwnFields() {
+    final TransportOptions defaults = TransportOptions.defaults();
+
+    final TransportOptions options = defaults
+        .withMaxInboundMessageSize(16 * 1024 * 1024)
+        .withKeepAlive(Duration.ofSeconds(30), Duration.ofSeconds(5))
+        .withSocketBufferSizes(256 * 1024, 512 * 1024);
+
+    assertThat(options.maxInboundMessageSize()).isEqualTo(16 * 1024 * 1024);
+    assertThat(options.keepAliveTime()).isEqualTo(Duration.ofSeconds(30));
+    assertThat(options.keepAliveTimeout()).isEqualTo(Duration.ofSeconds(5));
+    assertThat(options.socketSendBufferSize()).isEqualTo(256 * 1024);
+    assertThat(options.socketReceiveBufferSize()).isEqualTo(512 * 1024);
+    assertThat(options.maxInboundMetadataSize()).isEqualTo(defaults.maxInboundMetadataSize());
+    assertThat(options.flowControlWindow()).isEqualTo(defaults.flowControlWindow());
+    assertThat(options.permitKeepAliveTime()).isEqualTo(defaults.permitKeepAliveTime());
+  }
+
+  @Test
+  void rejectsOutOfRangeValues() {
+    final TransportOptions defaults = TransportOptions.defaults();
+
+    assertThatThrownBy(() -> defaults.withMaxInboundMessageSize(0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("maxInboundMessageSize");
+    assertThatThrownBy(() -> defaults.withFlowControlWindow(-1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> defaults.withKeepAlive(Duration.ZERO, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("keepAliveTime");
+    assertThatThrownBy(() -> defaults.withSocketBufferSizes(-1, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,46 @@
+package io.dapr.components.server;
+
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.kqueue.KQueue;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TransportResourcesTest {
+
+  @Test
+  void autoNeverResolvesToItself() {
+    assertThat(TransportResources.resolve(TransportType.AUTO))
+        .isEqualTo(KQueue.isAvailable() ? TransportType.KQUEUE : TransportType.EPOLL);
+  }
+
+  @Test
+  void ioUringFallsBackToEpollWhenUnavailable() {
+    // Netty's io_uring transport is not a dependency of this project.
+    assumeTrue(Epoll.isAvailable());
+
+    assertThat(TransportResources.resolve(TransportType.IO_URING)).isEqualTo(TransportType.EPOLL);
+  }
+
+  @Test
+  void unavailableTransportsFallBackToAuto() {
+    assumeTrue(Epoll.isAvailable());
+
+    assertThat(TransportResources.resolve(TransportType.KQUEUE)).isEqualTo(TransportType.EPOLL);
+  }
+
+  @Test
+  void eventLoopsUseTheResolvedTransport() throws InterruptedException {
+    assumeTrue(Epoll.isAvailable());
+
+    final TransportResources transportResources = new TransportResources(TransportType.IO_URING, 1, 1);
+    try {
+      assertThat(transportResources.transportType()).isEqualTo(TransportType.EPOLL);
+    } finally {
+      transportResources.shutdownGracefully(1, TimeUnit.SECONDS);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package io.dapr.components.server;
+
+import io.dapr.components.domain.bindings.OutputBinding;
+import io.dapr.components.domain.state.StateStore;
+import io.grpc.BindableService;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.netty.channel.epoll.Epoll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class WarmUpTest {
+
+  private TransportResources transportResources;
+
+  @BeforeEach
+  void setUp() {
+    assumeTrue(Epoll.isAvailable(), "Unix Domain Sockets require the epoll transport");
+    transportResources = new TransportResources(TransportType.EPOLL, 1, 1);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (transportResources != null) {
+      transportResources.shutdownGracefully(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void componentsAreNeverCalled() {
+    final StateStore stateStore = mock();
+    final OutputBinding outputBinding = mock();
+    final PluggableComponent component = PluggableComponent.withName("warm")
+        .withStateStore(stateStore)
+        .withOutputBinding(outputBinding);
+
+    new WarmUp(transportResources, Duration.ofSeconds(3), WarmUpTest::bind).run(List.of(component));
+
+    verifyNoInteractions(stateStore, outputBinding);
+  }
+
+  @Test
+  void trafficGoesThroughTheServicesAsInterceptedForComponents() {
+    final PluggableComponent component = PluggableComponent.withName("warm").withStateStore(mock());
+    final List<String> interceptedComponents = new ArrayList<>();
+    final AtomicInteger interceptedCalls = new AtomicInteger();
+    final ServerInterceptor callCounter = new ServerInterceptor() {
+      @Override
+      public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                   ServerCallHandler<ReqT, RespT> next) {
+        interceptedCalls.incrementAndGet();
+        return next.startCall(call, headers);
+      }
+    };
+
+    new WarmUp(transportResources, Duration.ofSeconds(3), (componentName, services) -> {
+      interceptedComponents.add(componentName);
+      return services.stream()
+          .map(service -> ServerInterceptors.intercept(service, callCounter))
+          .toList();
+    }).run(List.of(component));
+
+    assertThat(interceptedComponents).containsExactly("warm");
+    assertThat(interceptedCalls).hasPositiveValue();
+  }
+
+  @Test
+  void warmUpStaysWithinItsBudget() {
+    final PluggableComponent component = PluggableComponent.withName("warm").withStateStore(mock());
+    final long startedAt = System.nanoTime();
+
+    new WarmUp(transportResources, Duration.ofMillis(500), WarmUpTest::bind).run(List.of(component));
+
+    // Some slack for tearing down the warm-up servers.
+    assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(5));
+  }
+
+  private static List<ServerServiceDefinition> bind(final String componentName, final List<BindableService> services) {
+    return services.stream().map(BindableService::bindService).toList();
+  }
+}
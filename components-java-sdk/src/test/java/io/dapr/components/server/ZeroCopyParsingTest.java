@@ -0,0 +1,314 @@
+package io.dapr.components.server;
+
+import com.google.protobuf.ByteString;
+import dapr.proto.components.v1.State;
+import dapr.proto.components.v1.StateStoreGrpc;
+import io.dapr.components.domain.state.SetRequest;
+import io.dapr.components.domain.state.StateStore;
+import io.dapr.components.wrappers.DirectlyMarshalledService;
+import io.dapr.components.wrappers.GetCoalescer;
+import io.dapr.components.wrappers.StateStoreGrpcComponentWrapper;
+import io.dapr.components.wrappers.WriteBatcher;
+import io.dapr.components.wrappers.WriteBatchingOptions;
+import io.grpc.Detachable;
+import io.grpc.HasByteBuffer;
+import io.grpc.KnownLength;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ZeroCopyParsingTest {
+
+  private static final ZeroCopyParsingOptions OPTIONS = new ZeroCopyParsingOptions(1024);
+
+  private static final State.SetRequest LARGE_REQUEST = State.SetRequest.newBuilder()
+      .setKey("key")
+      .setValue(ByteString.copyFrom(filled(64 * 1024, (byte) 1)))
+      .build();
+
+  @TempDir
+  Path socketsFolder;
+
+  @Test
+  void largeRequestsPointIntoTheReceivedBuffers() {
+    final AtomicReference<SetRequest> received = new AtomicReference<>();
+    final StateStore stateStore = mock();
+    when(stateStore.set(any())).thenAnswer(invocation -> {
+      received.set(invocation.getArgument(0));
+      return Mono.never();
+    });
+    final ByteBuffer buffer = directBufferOf(LARGE_REQUEST);
+    final ServerCall.Listener<InputStream> call = startCall(setMethod(stateStore));
+
+    call.onMessage(new TransportStream(buffer));
+    call.onHalfClose();
+    final int middle = buffer.limit() / 2;
+    for (int i = middle - 100; i < middle + 100; i++) {
+      buffer.put(i, (byte) 2);
+    }
+
+    assertThat(received.get().key()).isEqualTo("key");
+    assertThat(received.get().value().byteAt(received.get().value().size() / 2)).isEqualTo((byte) 2);
+    call.onCancel();
+  }
+
+  @Test
+  void buffersAreReleasedOnceTheCallIsAnswered() {
+    final Sinks.Empty<Void> slowSet = Sinks.empty();
+    final StateStore stateStore = mock();
+    when(stateStore.set(any())).thenReturn(slowSet.asMono());
+    final TransportStream stream = new TransportStream(directBufferOf(LARGE_REQUEST));
+    final ServerCall.Listener<InputStream> call = startCall(setMethod(stateStore));
+
+    call.onMessage(stream);
+    call.onHalfClose();
+    slowSet.tryEmitEmpty();
+
+    assertThat(stream.detached.closed).isFalse();
+    call.onComplete();
+    assertThat(stream.detached.closed).isTrue();
+  }
+
+  @Test
+  void cancellingTheCallCancelsTheComponentAndReleasesTheBuffers() {
+    final Sinks.Empty<Void> slowSet = Sinks.empty();
+    final StateStore stateStore = mock();
+    when(stateStore.set(any())).thenReturn(slowSet.asMono());
+    final TransportStream stream = new TransportStream(directBufferOf(LARGE_REQUEST));
+    final ServerCall.Listener<InputStream> call = startCall(setMethod(stateStore));
+
+    call.onMessage(stream);
+    call.onHalfClose();
+    assertThat(slowSet.currentSubscriberCount()).isOne();
+    call.onCancel();
+
+    assertThat(slowSet.currentSubscriberCount()).isZero();
+    assertThat(stream.detached.closed).isTrue();
+  }
+
+  @Test
+  void buffersOfWritesBatchedPastTheEndOfTheirCallAreReleasedOnceSent() {
+    final Sinks.Empty<Void> slowSet = Sinks.empty();
+    final StateStore stateStore = mock();
+    when(stateStore.set(any())).thenReturn(slowSet.asMono());
+    when(stateStore.bulkSet(any())).thenReturn(Mono.empty());
+    final WriteBatcher writeBatcher = new WriteBatcher(stateStore);
+    writeBatcher.setOptions(new WriteBatchingOptions(10, Duration.ofMinutes(1)));
+    final ServerMethodDefinition<InputStream, State.SetResponse> method = setMethod(
+        new StateStoreGrpcComponentWrapper(stateStore, stateStore, new GetCoalescer(), null, writeBatcher));
+    final ServerCall.Listener<InputStream> firstCall = startCall(method);
+    firstCall.onMessage(new TransportStream(directBufferOf(LARGE_REQUEST)));
+    firstCall.onHalfClose();
+    final TransportStream stream = new TransportStream(directBufferOf(LARGE_REQUEST));
+    final ServerCall.Listener<InputStream> batchedCall = startCall(method);
+
+    batchedCall.onMessage(stream);
+    batchedCall.onHalfClose();
+    batchedCall.onCancel();
+
+    assertThat(stream.detached.closed).isFalse();
+    slowSet.tryEmitEmpty();
+    assertThat(stream.detached.closed).isTrue();
+  }
+
+  @Test
+  void buffersAreReleasedOnceTheCallIsOverIfNoComponentWasCalled() {
+    final TransportStream stream = new TransportStream(directBufferOf(LARGE_REQUEST));
+    final ServerCall.Listener<InputStream> call = startCall(setMethod(mock(StateStore.class)));
+
+    call.onMessage(stream);
+
+    assertThat(stream.detached.closed).isFalse();
+    call.onCancel();
+    assertThat(stream.detached.closed).isTrue();
+  }
+
+  @Test
+  void smallRequestsAreCopied() {
+    final AtomicReference<SetRequest> received = new AtomicReference<>();
+    final StateStore stateStore = mock();
+    when(stateStore.set(any())).thenAnswer(invocation -> {
+      received.set(invocation.getArgument(0));
+      return Mono.empty();
+    });
+    final State.SetRequest small = State.SetRequest.newBuilder().setKey("key").build();
+    final TransportStream stream = new TransportStream(ByteBuffer.wrap(small.toByteArray()));
+    final ServerCall.Listener<InputStream> call = startCall(setMethod(stateStore));
+
+    call.onMessage(stream);
+    call.onHalfClose();
+
+    assertThat(received.get().key()).isEqualTo("key");
+    assertThat(stream.detached).isNull();
+    call.onComplete();
+  }
+
+  @Test
+  void componentsReceivePayloadsStraightFromTheTransport() throws Exception {
+    assumeTrue(Epoll.isAvailable(), "Unix Domain Sockets require the epoll transport");
+    final AtomicReference<SetRequest> received = new AtomicReference<>();
+    final AtomicBoolean directWhileCalled = new AtomicBoolean();
+    final StateStore stateStore = mock();
+    when(stateStore.set(any())).thenAnswer(invocation -> {
+      final SetRequest setRequest = invocation.getArgument(0);
+      received.set(setRequest);
+      directWhileCalled.set(setRequest.value().asReadOnlyByteBufferList().stream().allMatch(ByteBuffer::isDirect));
+      return Mono.empty();
+    });
+    final DomainSocketAddress socket = new DomainSocketAddress(socketsFolder.resolve("state.sock").toFile());
+    final TransportResources transportResources = new TransportResources(TransportType.EPOLL, 1, 1);
+    final EventLoopGroup clientEventLoopGroup = new EpollEventLoopGroup(1);
+    final Server server = transportResources.configure(NettyServerBuilder.forAddress(socket))
+        .addService(ZeroCopyParsing.apply(
+            DirectlyMarshalledService.bind(new StateStoreGrpcComponentWrapper(stateStore)), OPTIONS))
+        .build()
+        .start();
+    final ManagedChannel channel = NettyChannelBuilder.forAddress(socket)
+        .channelType(EpollDomainSocketChannel.class)
+        .eventLoopGroup(clientEventLoopGroup)
+        .usePlaintext()
+        .build();
+    try {
+      StateStoreGrpc.newBlockingStub(channel).set(LARGE_REQUEST);
+
+      assertThat(received.get().key()).isEqualTo("key");
+      assertThat(directWhileCalled).isTrue();
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+      clientEventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS).await();
+      transportResources.shutdownGracefully(5, TimeUnit.SECONDS);
+    }
+  }
+
+  private static ServerCall.Listener<InputStream> startCall(
+      final ServerMethodDefinition<InputStream, State.SetResponse> method) {
+    final ServerCall<InputStream, State.SetResponse> call = mock();
+    when(call.getMethodDescriptor()).thenReturn(method.getMethodDescriptor());
+    return method.getServerCallHandler().startCall(call, new Metadata());
+  }
+
+  private static ByteBuffer directBufferOf(final State.SetRequest request) {
+    final byte[] bytes = request.toByteArray();
+    return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+  }
+
+  private static ServerMethodDefinition<InputStream, State.SetResponse> setMethod(final StateStore stateStore) {
+    return setMethod(new StateStoreGrpcComponentWrapper(stateStore));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ServerMethodDefinition<InputStream, State.SetResponse> setMethod(
+      final StateStoreGrpcComponentWrapper wrapper) {
+    return (ServerMethodDefinition<InputStream, State.SetResponse>) ZeroCopyParsing
+        .apply(wrapper.bindService(), OPTIONS)
+        .getMethod(StateStoreGrpc.getSetMethod().getFullMethodName());
+  }
+
+  private static byte[] filled(final int size, final byte value) {
+    final byte[] bytes = new byte[size];
+    Arrays.fill(bytes, value);
+    return bytes;
+  }
+
+  /**
+   * Like the streams gRPC hands to marshallers: exposes its buffer in chunks and can be detached from.
+   */
+  private static final class TransportStream extends InputStream implements KnownLength, HasByteBuffer, Detachable {
+    private static final int CHUNK_SIZE = 4096;
+
+    private ByteBuffer buffer;
+    private TransportStream detached;
+    private boolean closed;
+
+    private TransportStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      final int read = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, read);
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) {
+      final int skipped = (int) Math.min(n, buffer.remaining());
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public void mark(final int readLimit) {
+    }
+
+    @Override
+    public boolean byteBufferSupported() {
+      return true;
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() {
+      return buffer.slice().limit(Math.min(buffer.remaining(), CHUNK_SIZE));
+    }
+
+    @Override
+    public InputStream detach() {
+      detached = new TransportStream(buffer);
+      buffer = ByteBuffer.allocate(0);
+      return detached;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package io.dapr.components.wrappers;
+
+import io.dapr.components.domain.state.GetRequest;
+import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.options.StateConsistency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GetCoalescerTest {
+
+  private static final GetRequest REQUEST = new GetRequest("key", Map.of(), StateConsistency.STRONG);
+  private static final GetResponse RESPONSE = new GetResponse(new byte[] {42}, "etag");
+
+  private GetCoalescer getCoalescer;
+
+  // The component gets not answered yet.
+  private List<Sinks.One<GetResponse>> pendingGets;
+  private Function<GetRequest, Mono<GetResponse>> componentGet;
+
+  @BeforeEach
+  void setUp() {
+    getCoalescer = new GetCoalescer();
+    getCoalescer.setEnabled(true);
+    pendingGets = new ArrayList<>();
+    componentGet = request -> {
+      final Sinks.One<GetResponse> pendingGet = Sinks.one();
+      pendingGets.add(pendingGet);
+      return pendingGet.asMono();
+    };
+  }
+
+  @Test
+  void identicalConcurrentGetsShareASingleComponentCall() {
+    final AtomicReference<GetResponse> first = new AtomicReference<>();
+    final AtomicReference<GetResponse> second = new AtomicReference<>();
+
+    getCoalescer.get(REQUEST, componentGet).subscribe(first::set);
+    getCoalescer.get(new GetRequest("key", Map.of(), StateConsistency.STRONG), componentGet).subscribe(second::set);
+    pendingGets.get(0).tryEmitValue(RESPONSE);
+
+    assertThat(pendingGets).hasSize(1);
+    assertThat(first.get()).isEqualTo(RESPONSE);
+    assertThat(second.get()).isEqualTo(RESPONSE);
+    assertThat(getCoalescer.stats()).isEqualTo(new GetCoalescingStats(2, 1));
+    assertThat(getCoalescer.stats().ratio()).isEqualTo(0.5);
+  }
+
+  @Test
+  void getsAreNotCoalescedOnceTheComponentAnswered() {
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    pendingGets.get(0).tryEmitValue(RESPONSE);
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+
+    assertThat(pendingGets).hasSize(2);
+    assertThat(getCoalescer.stats().coalesced()).isZero();
+  }
+
+  @Test
+  void getsWithDifferentMetadataOrConsistencyAreNotCoalesced() {
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    getCoalescer.get(new GetRequest("key", Map.of("a", "b"), StateConsistency.STRONG), componentGet).subscribe();
+    getCoalescer.get(new GetRequest("key", Map.of(), StateConsistency.EVENTUAL), componentGet).subscribe();
+
+    assertThat(pendingGets).hasSize(3);
+  }
+
+  @Test
+  void getsAreNotCoalescedWhileAWriteOfTheSameKeyIsInFlight() {
+    final Sinks.Empty<Void> write = Sinks.empty();
+    getCoalescer.write(List.of("key"), write::asMono).subscribe();
+
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    assertThat(pendingGets).hasSize(2);
+
+    write.tryEmitEmpty();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    assertThat(pendingGets).hasSize(3);
+  }
+
+  @Test
+  void getsAreNotCoalescedUntilACancelledWriteIsOver() {
+    final Sinks.Empty<Void> write = Sinks.empty();
+    getCoalescer.write(List.of("key"), write::asMono).subscribe().dispose();
+
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    assertThat(pendingGets).hasSize(2);
+    assertThat(write.currentSubscriberCount()).isOne();
+
+    write.tryEmitEmpty();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    assertThat(pendingGets).hasSize(3);
+  }
+
+  @Test
+  void getsStartedAfterAWriteDoNotJoinGetsStartedBeforeIt() {
+    final AtomicReference<GetResponse> beforeWrite = new AtomicReference<>();
+    final AtomicReference<GetResponse> afterWrite = new AtomicReference<>();
+
+    getCoalescer.get(REQUEST, componentGet).subscribe(beforeWrite::set);
+    getCoalescer.write(List.of("key"), Mono::empty).block();
+    getCoalescer.get(REQUEST, componentGet).subscribe(afterWrite::set);
+
+    assertThat(pendingGets).hasSize(2);
+    pendingGets.get(0).tryEmitValue(RESPONSE);
+    assertThat(beforeWrite.get()).isEqualTo(RESPONSE);
+    assertThat(afterWrite.get()).isNull();
+  }
+
+  @Test
+  void writesOfOtherKeysDoNotPreventCoalescing() {
+    final Sinks.Empty<Void> write = Sinks.empty();
+    getCoalescer.write(List.of("other"), write::asMono).subscribe();
+
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+
+    assertThat(pendingGets).hasSize(1);
+  }
+
+  @Test
+  void disabledCoalescerCallsTheComponentEveryTime() {
+    getCoalescer.setEnabled(false);
+
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+    getCoalescer.get(REQUEST, componentGet).subscribe();
+
+    assertThat(pendingGets).hasSize(2);
+    assertThat(getCoalescer.stats()).isEqualTo(new GetCoalescingStats(0, 0));
+  }
+}
@@ -0,0 +1,138 @@
+package io.dapr.components.wrappers;
+
+import io.dapr.components.aspects.Pingable;
+import io.grpc.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HealthProbeTest {
+
+  // Background probes only run once when started, so tests control every other probe.
+  private static final Duration NEVER_AGAIN = Duration.ofHours(1);
+
+  private Pingable mockComponent;
+  private HealthProbe healthProbe;
+
+  @BeforeEach
+  void setUp() {
+    mockComponent = mock();
+    healthProbe = new HealthProbe(mockComponent);
+  }
+
+  @AfterEach
+  void tearDown() {
+    healthProbe.stop();
+  }
+
+  @Test
+  void pingsGoStraightToTheComponentUntilStarted() {
+    when(mockComponent.ping()).thenReturn(Mono.empty());
+
+    healthProbe.ping().block(Duration.ofSeconds(5));
+    healthProbe.ping().block(Duration.ofSeconds(5));
+
+    verify(mockComponent, times(2)).ping();
+    assertThat(healthProbe.history()).isEmpty();
+  }
+
+  @Test
+  void pingsAreAnsweredFromTheLatestProbe() {
+    when(mockComponent.ping()).thenReturn(Mono.empty());
+    healthProbe.start(new HealthProbeOptions(NEVER_AGAIN, NEVER_AGAIN, Duration.ofSeconds(5), 10));
+    verify(mockComponent, timeout(5000)).ping();
+    awaitHistorySize(1);
+
+    healthProbe.ping().block(Duration.ofSeconds(5));
+    healthProbe.ping().block(Duration.ofSeconds(5));
+
+    verify(mockComponent, times(1)).ping();
+    assertThat(healthProbe.history()).singleElement().satisfies(result -> assertThat(result.healthy()).isTrue());
+  }
+
+  @Test
+  void failedProbesAreReported() {
+    final IllegalStateException backendDown = new IllegalStateException("backend down");
+    when(mockComponent.ping()).thenReturn(Mono.error(backendDown));
+    healthProbe.start(new HealthProbeOptions(NEVER_AGAIN, NEVER_AGAIN, Duration.ofSeconds(5), 10));
+    awaitHistorySize(1);
+
+    assertThatThrownBy(() -> healthProbe.ping().block(Duration.ofSeconds(5))).isSameAs(backendDown);
+
+    assertThat(healthProbe.history()).singleElement().satisfies(result -> {
+      assertThat(result.healthy()).isFalse();
+      assertThat(result.status().getCode()).isEqualTo(Status.Code.UNKNOWN);
+      assertThat(result.status().getCause()).isSameAs(backendDown);
+    });
+  }
+
+  @Test
+  void stalePingsShareASingleProbe() {
+    final Sinks.Empty<Void> slowPing = Sinks.empty();
+    when(mockComponent.ping()).thenReturn(slowPing.asMono());
+    // Results are stale right away, so each ping needs a new probe unless one is in progress.
+    healthProbe.start(new HealthProbeOptions(NEVER_AGAIN, Duration.ofNanos(1), Duration.ofSeconds(5), 10));
+    verify(mockComponent, timeout(5000)).ping();
+
+    final Mono<Void> firstPing = healthProbe.ping();
+    final Mono<Void> secondPing = healthProbe.ping();
+    slowPing.tryEmitEmpty();
+
+    firstPing.block(Duration.ofSeconds(5));
+    secondPing.block(Duration.ofSeconds(5));
+    verify(mockComponent, times(1)).ping();
+  }
+
+  @Test
+  void probesTimeOut() {
+    when(mockComponent.ping()).thenReturn(Mono.never());
+    healthProbe.start(new HealthProbeOptions(NEVER_AGAIN, NEVER_AGAIN, Duration.ofMillis(10), 10));
+    awaitHistorySize(1);
+
+    assertThat(healthProbe.history()).singleElement().satisfies(result -> {
+      assertThat(result.healthy()).isFalse();
+      assertThat(result.latency()).isGreaterThanOrEqualTo(Duration.ofMillis(10));
+    });
+  }
+
+  @Test
+  void historyIsBounded() {
+    when(mockComponent.ping()).thenReturn(Mono.empty());
+    healthProbe.start(new HealthProbeOptions(Duration.ofMillis(1), Duration.ofNanos(1), Duration.ofSeconds(5), 3));
+    verify(mockComponent, timeout(5000).atLeast(5)).ping();
+
+    assertThat(healthProbe.history()).hasSizeLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void stoppedProbesPingTheComponentAgain() {
+    when(mockComponent.ping()).thenReturn(Mono.empty());
+    healthProbe.start(new HealthProbeOptions(NEVER_AGAIN, NEVER_AGAIN, Duration.ofSeconds(5), 10));
+    awaitHistorySize(1);
+
+    healthProbe.stop();
+    healthProbe.ping().block(Duration.ofSeconds(5));
+
+    verify(mockComponent, times(2)).ping();
+  }
+
+  private void awaitHistorySize(final int size) {
+    final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (healthProbe.history().size() < size && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertThat(healthProbe.history()).hasSize(size);
+  }
+}
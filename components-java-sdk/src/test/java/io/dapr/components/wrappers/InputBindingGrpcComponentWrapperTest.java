@@ -1,24 +1,38 @@
 package io.dapr.components.wrappers;
 
 import com.google.common.base.Function;
+import com.google.protobuf.ByteString;
 import dapr.proto.components.v1.Bindings;
 import dapr.proto.components.v1.InputBindingGrpc;
 import io.dapr.components.domain.bindings.InputBinding;
+import io.dapr.components.domain.bindings.ReadResponse;
 import io.dapr.v1.ComponentProtos;
+import io.grpc.ManagedChannel;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcCleanupRule;
 import org.junit.Rule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class InputBindingGrpcComponentWrapperTest {
 
@@ -30,7 +44,9 @@ class InputBindingGrpcComponentWrapperTest {
   public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
 
   private InputBinding mockComponent;
+  private InputBindingGrpcComponentWrapper wrapper;
   private InputBindingGrpc.InputBindingBlockingStub client;
+  private InputBindingGrpc.InputBindingStub asyncClient;
 
   @BeforeEach
   void setUp() throws IOException {
@@ -43,14 +59,16 @@ class InputBindingGrpcComponentWrapperTest {
     grpcCleanup.register(InProcessServerBuilder
         .forName(serverName)
         .directExecutor()
-        .addService(new InputBindingGrpcComponentWrapper(mockComponent))
+        .addService(wrapper = new InputBindingGrpcComponentWrapper(mockComponent))
         .build()
         .start()
     );
 
-    client = InputBindingGrpc.newBlockingStub(
-        // Create a client channel and register for automatic graceful shutdown.
-        grpcCleanup.register(InProcessChannelBuilder.forName(serverName).directExecutor().build()));
+    // Create a client channel and register for automatic graceful shutdown.
+    final ManagedChannel channel = grpcCleanup.register(
+        InProcessChannelBuilder.forName(serverName).directExecutor().build());
+    client = InputBindingGrpc.newBlockingStub(channel);
+    asyncClient = InputBindingGrpc.newStub(channel);
   }
 
 
@@ -83,4 +101,108 @@ class InputBindingGrpcComponentWrapperTest {
   @Test
   void read() {
   }
-}
\ No newline at end of file
+
+  @Test
+  void drainCompletesReadStreams() throws InterruptedException {
+    when(mockComponent.read(any())).thenReturn(Flux.never());
+    final CountDownLatch completed = new CountDownLatch(1);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    final StreamObserver<Bindings.ReadRequest> requests = asyncClient.read(new StreamObserver<>() {
+      @Override
+      public void onNext(Bindings.ReadResponse value) {
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        error.set(t);
+      }
+
+      @Override
+      public void onCompleted() {
+        completed.countDown();
+      }
+    });
+    assertThat(completed.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+    wrapper.drain();
+
+    assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(error.get()).isNull();
+    requests.onCompleted();
+  }
+
+  @Test
+  void cancelledReadStreamsStopTheComponent() throws InterruptedException {
+    final CountDownLatch componentCancelled = new CountDownLatch(1);
+    when(mockComponent.read(any())).thenReturn(Flux.<ReadResponse>never().doOnCancel(componentCancelled::countDown));
+    final AtomicReference<ClientCallStreamObserver<Bindings.ReadRequest>> call = new AtomicReference<>();
+
+    asyncClient.read(new ClientResponseObserver<Bindings.ReadRequest, Bindings.ReadResponse>() {
+      @Override
+      public void beforeStart(ClientCallStreamObserver<Bindings.ReadRequest> requestStream) {
+        call.set(requestStream);
+      }
+
+      @Override
+      public void onNext(Bindings.ReadResponse value) {
+      }
+
+      @Override
+      public void onError(Throwable t) {
+      }
+
+      @Override
+      public void onCompleted() {
+      }
+    });
+    assertThat(componentCancelled.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+    call.get().cancel("daprd is done with this stream", null);
+
+    assertThat(componentCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void slowReadersBoundTheMessagesPulledFromTheComponent() throws InterruptedException {
+    wrapper.setStreamFlowControl(new StreamFlowControl(8, 2));
+    final AtomicLong pulled = new AtomicLong();
+    when(mockComponent.read(any())).thenReturn(Flux.generate(sink -> {
+      pulled.incrementAndGet();
+      sink.next(new ReadResponse(ByteString.copyFromUtf8("data"), Map.of(), "text/plain", "id"));
+    }));
+    final CountDownLatch received = new CountDownLatch(20);
+    final AtomicReference<ClientCallStreamObserver<Bindings.ReadRequest>> call = new AtomicReference<>();
+
+    // daprd reading nothing at first, then only 20 messages, from a component that could emit forever.
+    asyncClient.read(new ClientResponseObserver<Bindings.ReadRequest, Bindings.ReadResponse>() {
+      @Override
+      public void beforeStart(ClientCallStreamObserver<Bindings.ReadRequest> requestStream) {
+        requestStream.disableAutoRequestWithInitial(0);
+        call.set(requestStream);
+      }
+
+      @Override
+      public void onNext(Bindings.ReadResponse value) {
+        received.countDown();
+      }
+
+      @Override
+      public void onError(Throwable t) {
+      }
+
+      @Override
+      public void onCompleted() {
+      }
+    });
+    Thread.sleep(200);
+    assertThat(pulled.get()).isLessThanOrEqualTo(8);
+
+    call.get().request(20);
+    assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(200);
+    assertThat(pulled.get()).isBetween(20L, 20L + 8);
+
+    call.get().cancel("done reading", null);
+  }
+}
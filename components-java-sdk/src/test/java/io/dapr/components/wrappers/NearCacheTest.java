@@ -0,0 +1,201 @@
+package io.dapr.components.wrappers;
+
+import io.dapr.components.domain.state.BulkGetStateItem;
+import io.dapr.components.domain.state.GetRequest;
+import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.options.StateConsistency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheTest {
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  private NearCache nearCache;
+
+  // Keys the state store was asked for, and the size of the states it answers with.
+  private List<String> storeGets;
+  private Function<GetRequest, Mono<GetResponse>> storeGet;
+
+  @BeforeEach
+  void setUp() {
+    nearCache = new NearCache(new NearCacheOptions(400, Duration.ofSeconds(10)), nanoTime::get);
+    storeGets = new ArrayList<>();
+    storeGet = request -> {
+      storeGets.add(request.key());
+      return Mono.just(state(request.key(), 10));
+    };
+  }
+
+  @Test
+  void eventuallyConsistentGetsAreServedFromTheCache() {
+    final GetResponse first = nearCache.get(eventual("key"), storeGet).block();
+    final GetResponse second = nearCache.get(eventual("key"), storeGet).block();
+
+    assertThat(second).isEqualTo(first);
+    assertThat(storeGets).containsExactly("key");
+    assertThat(nearCache.stats())
+        .isEqualTo(new NearCacheStats(1, 1, 0, NearCache.ENTRY_OVERHEAD + "key".length() + 10));
+    assertThat(nearCache.stats().hitRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  void stronglyConsistentGetsBypassTheCache() {
+    nearCache.get(eventual("key"), storeGet).block();
+    nearCache.get(new GetRequest("key", Map.of(), StateConsistency.STRONG), storeGet).block();
+
+    assertThat(storeGets).containsExactly("key", "key");
+  }
+
+  @Test
+  void writesEvictTheStatesTheyWrite() {
+    nearCache.get(eventual("key"), storeGet).block();
+    nearCache.get(eventual("other"), storeGet).block();
+
+    nearCache.write(List.of("key"), Mono::empty).block();
+    nearCache.get(eventual("key"), storeGet).block();
+    nearCache.get(eventual("other"), storeGet).block();
+
+    assertThat(storeGets).containsExactly("key", "other", "key");
+  }
+
+  @Test
+  void statesReadWhileAWriteIsInFlightAreNotCached() {
+    final Sinks.Empty<Void> write = Sinks.empty();
+    nearCache.write(List.of("key"), write::asMono).subscribe();
+
+    nearCache.get(eventual("key"), storeGet).block();
+    write.tryEmitEmpty();
+    nearCache.get(eventual("key"), storeGet).block();
+
+    assertThat(storeGets).containsExactly("key", "key");
+  }
+
+  @Test
+  void statesReadAcrossAWriteAreNotCached() {
+    final Sinks.One<GetResponse> slowGet = Sinks.one();
+    nearCache.get(eventual("key"), request -> slowGet.asMono()).subscribe();
+
+    nearCache.write(List.of("key"), Mono::empty).block();
+    slowGet.tryEmitValue(state("key", 10));
+    nearCache.get(eventual("key"), storeGet).block();
+
+    assertThat(storeGets).containsExactly("key");
+  }
+
+  @Test
+  void expiredStatesAreReadAgain() {
+    nearCache.get(eventual("key"), storeGet).block();
+    nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+    nearCache.get(eventual("key"), storeGet).block();
+
+    assertThat(storeGets).containsExactly("key", "key");
+  }
+
+  @Test
+  void sizeIsBoundedByTheBytesOfEntries() {
+    // Room for two entries only.
+    nearCache = new NearCache(new NearCacheOptions(2 * (NearCache.ENTRY_OVERHEAD + 40) + 10, Duration.ofSeconds(10)),
+        nanoTime::get);
+    storeGet = request -> {
+      storeGets.add(request.key());
+      return Mono.just(state(request.key(), 40));
+    };
+    // Makes "hot" more frequent than anything else.
+    for (int i = 0; i < 5; i++) {
+      nearCache.get(eventual("hot"), storeGet).block();
+    }
+    nearCache.get(eventual("warm"), storeGet).block();
+    nearCache.get(eventual("warm"), storeGet).block();
+    // So "warm" is now the least recently used state.
+    nearCache.get(eventual("hot"), storeGet).block();
+
+    // Read once only, cannot replace states read more often.
+    nearCache.get(eventual("cold"), storeGet).block();
+    // Read often enough to replace the least recently used state.
+    for (int i = 0; i < 4; i++) {
+      nearCache.get(eventual("rising"), storeGet).block();
+    }
+
+    assertThat(nearCache.stats().weightedSize())
+        .isEqualTo(2 * NearCache.ENTRY_OVERHEAD + "hot".length() + "rising".length() + 80);
+    assertThat(nearCache.stats().evictions()).isEqualTo(1);
+    storeGets.clear();
+    nearCache.get(eventual("hot"), storeGet).block();
+    nearCache.get(eventual("rising"), storeGet).block();
+    assertThat(storeGets).isEmpty();
+  }
+
+  @Test
+  void statesLargerThanTheCacheAreNotCached() {
+    storeGet = request -> {
+      storeGets.add(request.key());
+      return Mono.just(state(request.key(), 400));
+    };
+
+    nearCache.get(eventual("key"), storeGet).block();
+    nearCache.get(eventual("key"), storeGet).block();
+
+    assertThat(storeGets).containsExactly("key", "key");
+    assertThat(nearCache.stats().weightedSize()).isZero();
+  }
+
+  @Test
+  void statesAreOnlyAdmittedIfReadMoreOftenThanAllTheStatesTheyWouldReplace() {
+    storeGet = request -> {
+      storeGets.add(request.key());
+      return Mono.just(state(request.key(), request.key().equals("big") ? 300 : 10));
+    };
+    nearCache.get(eventual("old"), storeGet).block();
+    for (int i = 0; i < 5; i++) {
+      nearCache.get(eventual("hot"), storeGet).block();
+    }
+
+    // Read more often than "old" but not than "hot", and needs the room of both.
+    nearCache.get(eventual("big"), storeGet).block();
+    nearCache.get(eventual("big"), storeGet).block();
+
+    assertThat(nearCache.stats().evictions()).isZero();
+    storeGets.clear();
+    nearCache.get(eventual("old"), storeGet).block();
+    nearCache.get(eventual("hot"), storeGet).block();
+    assertThat(storeGets).isEmpty();
+  }
+
+  @Test
+  void bulkGetsOnlyAskTheStateStoreForMissingStates() {
+    nearCache.get(eventual("cached"), storeGet).block();
+    final List<List<String>> storeBulkGets = new ArrayList<>();
+
+    final List<String> keys = nearCache.bulkGet(List.of(eventual("cached"), eventual("missing")), requests -> {
+      storeBulkGets.add(requests.stream().map(GetRequest::key).toList());
+      return Flux.fromIterable(requests)
+          .map(request -> new BulkGetStateItem(request.key(), Mono.just(state(request.key(), 10))));
+    }).concatMap(item -> item.response().map(response -> item.key())).collectList().block();
+
+    assertThat(keys).containsExactlyInAnyOrder("cached", "missing");
+    assertThat(storeBulkGets).containsExactly(List.of("missing"));
+    nearCache.get(eventual("missing"), storeGet).block();
+    assertThat(storeGets).containsExactly("cached");
+  }
+
+  private static GetRequest eventual(final String key) {
+    return new GetRequest(key, Map.of(), StateConsistency.EVENTUAL);
+  }
+
+  private static GetResponse state(final String key, final int size) {
+    return new GetResponse(new byte[size], key + "-etag");
+  }
+}
@@ -4,11 +4,13 @@ import com.google.common.base.Function;
 import dapr.proto.components.v1.State;
 import dapr.proto.components.v1.StateStoreGrpc;
 import io.dapr.components.TestData;
+import io.dapr.components.domain.state.BulkGetError;
 import io.dapr.components.domain.state.BulkGetStateItem;
 import io.dapr.components.domain.state.DeleteRequest;
 import io.dapr.components.domain.state.Exceptions;
 import io.dapr.components.domain.state.GetRequest;
 import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.MultiGetStateStore;
 import io.dapr.components.domain.state.SetRequest;
 import io.dapr.components.domain.state.StateStore;
 import io.dapr.components.domain.state.options.StateConcurrency;
@@ -30,6 +32,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -37,9 +40,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowableOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 class StateStoreGrpcComponentWrapperTest {
 
@@ -327,6 +332,58 @@ class StateStoreGrpcComponentWrapperTest {
     assertThat(translatedRequest.get(1).consistency()).isEqualTo(StateConsistency.STRONG);
   }
 
+  @Test
+  void bulkGetKeepsTheOrderOfRequests() {
+    when(mockComponent.bulkGet(any())).thenReturn(Flux.just(
+        // The first key is the slowest to answer.
+        new BulkGetStateItem(TestData.TEST_KEY, Mono.delay(Duration.ofMillis(50))
+            .thenReturn(new GetResponse(TestData.TEST_VALUE, TestData.ETAG_VALUE, TestData.METADATA_RESPONSE_MAP, TestData.CONTENT_TYPE))),
+        new BulkGetStateItem(TestData.TEST_KEY_2, Mono.empty())
+    ));
+
+    final State.BulkGetRequest.Builder requestBuilder = State.BulkGetRequest.newBuilder();
+    requestBuilder.addItemsBuilder().setKey(TestData.TEST_KEY);
+    requestBuilder.addItemsBuilder().setKey(TestData.TEST_KEY_2);
+
+    final State.BulkGetResponse response = client.bulkGet(requestBuilder.build());
+
+    assertThat(response.getItemsList())
+        .extracting(State.BulkStateItem::getKey)
+        .containsExactly(TestData.TEST_KEY, TestData.TEST_KEY_2);
+    assertThat(response.getItems(0).getData()).isEqualTo(TestData.TEST_VALUE);
+    assertThat(response.getItems(1).getError()).isEqualTo(BulkGetError.KEY_DOES_NOT_EXIST);
+  }
+
+  @Test
+  void bulkGetReadsMultiGetStateStoresInASingleCall() throws IOException {
+    final StateStore multiGetComponent = mock(withSettings().extraInterfaces(MultiGetStateStore.class));
+    final GetRequest found = new GetRequest(TestData.TEST_KEY, Map.of(), StateConsistency.UNSPECIFIED);
+    when(((MultiGetStateStore) multiGetComponent).multiGet(any())).thenReturn(Mono.just(Map.of(
+        found, new GetResponse(TestData.TEST_VALUE, TestData.ETAG_VALUE, TestData.METADATA_RESPONSE_MAP, TestData.CONTENT_TYPE))));
+    final String serverName = InProcessServerBuilder.generateName();
+    grpcCleanup.register(InProcessServerBuilder
+        .forName(serverName)
+        .directExecutor()
+        .addService(new StateStoreGrpcComponentWrapper(multiGetComponent))
+        .build()
+        .start());
+    final StateStoreGrpc.StateStoreBlockingStub multiGetClient = StateStoreGrpc.newBlockingStub(
+        grpcCleanup.register(InProcessChannelBuilder.forName(serverName).directExecutor().build()));
+
+    final State.BulkGetRequest.Builder requestBuilder = State.BulkGetRequest.newBuilder();
+    requestBuilder.addItemsBuilder().setKey(TestData.TEST_KEY_2);
+    requestBuilder.addItemsBuilder().setKey(TestData.TEST_KEY);
+    final State.BulkGetResponse response = multiGetClient.bulkGet(requestBuilder.build());
+
+    assertThat(response.getItemsList())
+        .extracting(State.BulkStateItem::getKey)
+        .containsExactly(TestData.TEST_KEY_2, TestData.TEST_KEY);
+    assertThat(response.getItems(0).getError()).isEqualTo(BulkGetError.KEY_DOES_NOT_EXIST);
+    assertThat(response.getItems(1).getData()).isEqualTo(TestData.TEST_VALUE);
+    verify((MultiGetStateStore) multiGetComponent, times(1)).multiGet(any());
+    verify(multiGetComponent, never()).bulkGet(any());
+  }
+
   @Test
   void bulkSet() {
     // Happy case: set was accepted.
@@ -0,0 +1,161 @@
+package io.dapr.components.wrappers;
+
+import io.grpc.Context;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class UnaryCallSubscriberTest {
+
+  private StreamObserver<String> responseObserver;
+
+  @BeforeEach
+  void setUp() {
+    responseObserver = mock();
+  }
+
+  @Test
+  void respondsWithTheConvertedValue() {
+    UnaryCallSubscriber.respond(21, req -> Mono.just(req * 2), String::valueOf, "empty", responseObserver);
+
+    final InOrder inOrder = inOrder(responseObserver);
+    inOrder.verify(responseObserver).onNext("42");
+    inOrder.verify(responseObserver).onCompleted();
+    verify(responseObserver, never()).onError(any());
+  }
+
+  @Test
+  void respondsWithTheDefaultWhenEmpty() {
+    UnaryCallSubscriber.respond(21, req -> Mono.<Integer>empty(), String::valueOf, "empty", responseObserver);
+
+    final InOrder inOrder = inOrder(responseObserver);
+    inOrder.verify(responseObserver).onNext("empty");
+    inOrder.verify(responseObserver).onCompleted();
+  }
+
+  @Test
+  void completesWithoutResponseWhenEmptyAndNoDefault() {
+    UnaryCallSubscriber.respond(21, req -> Mono.<Integer>empty(), String::valueOf, null, responseObserver);
+
+    verify(responseObserver, never()).onNext(any());
+    verify(responseObserver).onCompleted();
+  }
+
+  @Test
+  void respondsWhenDoneIgnoringValues() {
+    UnaryCallSubscriber.respondWhenDone(21, req -> Mono.just(req), "done", responseObserver);
+
+    final InOrder inOrder = inOrder(responseObserver);
+    inOrder.verify(responseObserver).onNext("done");
+    inOrder.verify(responseObserver).onCompleted();
+  }
+
+  @Test
+  void reportsErrorsOfTheComponent() {
+    final IllegalStateException failure = new IllegalStateException("boom");
+    UnaryCallSubscriber.respondWhenDone(21, req -> Mono.error(failure), "done", responseObserver);
+
+    verify(responseObserver).onError(failure);
+    verify(responseObserver, never()).onNext(any());
+    verify(responseObserver, never()).onCompleted();
+  }
+
+  @Test
+  void reportsExceptionsThrownWhileCallingTheComponent() {
+    final IllegalArgumentException failure = new IllegalArgumentException("bad request");
+    UnaryCallSubscriber.respondWhenDone(21, req -> {
+      throw failure;
+    }, "done", responseObserver);
+
+    verify(responseObserver).onError(failure);
+    verify(responseObserver, never()).onCompleted();
+  }
+
+  @Test
+  void reportsNullMonos() {
+    UnaryCallSubscriber.respond(21, req -> null, String::valueOf, "empty", responseObserver);
+
+    verify(responseObserver).onError(isA(NullPointerException.class));
+    verify(responseObserver, never()).onCompleted();
+  }
+
+  @Test
+  void reportsConversionFailuresAndCancelsTheComponent() {
+    final AtomicBoolean cancelled = new AtomicBoolean();
+    final IllegalStateException failure = new IllegalStateException("cannot convert");
+    UnaryCallSubscriber.respond(21,
+        req -> Mono.just(req).concatWith(Mono.never()).next().doOnCancel(() -> cancelled.set(true)),
+        value -> {
+          throw failure;
+        },
+        "empty",
+        responseObserver);
+
+    verify(responseObserver).onError(failure);
+    verify(responseObserver, never()).onNext(any());
+    verify(responseObserver, never()).onCompleted();
+    assertThat(cancelled).isTrue();
+  }
+
+  @Test
+  void cancellingTheCallCancelsTheComponent() {
+    final ServerCallStreamObserver<String> serverCallObserver = mock();
+    final AtomicBoolean cancelled = new AtomicBoolean();
+    UnaryCallSubscriber.respond(21,
+        req -> Mono.<Integer>never().doOnCancel(() -> cancelled.set(true)),
+        String::valueOf,
+        "empty",
+        serverCallObserver);
+
+    final ArgumentCaptor<Runnable> onCancel = ArgumentCaptor.forClass(Runnable.class);
+    verify(serverCallObserver).setOnCancelHandler(onCancel.capture());
+    onCancel.getValue().run();
+
+    assertThat(cancelled).isTrue();
+    verify(serverCallObserver, never()).onNext(any());
+    verify(serverCallObserver, never()).onCompleted();
+  }
+
+  @Test
+  void exposesTheDeadlineOfTheCall() throws Exception {
+    Context.current()
+        .withDeadlineAfter(1, TimeUnit.MINUTES, Executors.newSingleThreadScheduledExecutor(runnable -> {
+          final Thread thread = new Thread(runnable);
+          thread.setDaemon(true);
+          return thread;
+        }))
+        .call(() -> {
+          UnaryCallSubscriber.respond(21, req -> CallDeadline.remaining(), Duration::toString, "none",
+              responseObserver);
+          return null;
+        });
+
+    final ArgumentCaptor<String> response = ArgumentCaptor.forClass(String.class);
+    verify(responseObserver).onNext(response.capture());
+    assertThat(Duration.parse(response.getValue())).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1));
+  }
+
+  @Test
+  void exposesNoDeadlineWhenTheCallHasNone() {
+    UnaryCallSubscriber.respond(21, req -> CallDeadline.remaining(), Duration::toString, "none", responseObserver);
+
+    verify(responseObserver).onNext("none");
+  }
+}
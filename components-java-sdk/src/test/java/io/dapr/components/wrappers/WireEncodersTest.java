@@ -0,0 +1,151 @@
+package io.dapr.components.wrappers;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import dapr.proto.components.v1.Bindings;
+import dapr.proto.components.v1.Pubsub;
+import dapr.proto.components.v1.State;
+import dapr.proto.components.v1.StateStoreGrpc;
+import io.dapr.components.domain.bindings.ReadResponse;
+import io.dapr.components.domain.pubsub.PullMessagesResponse;
+import io.dapr.components.domain.state.BulkGetError;
+import io.dapr.components.domain.state.GetResponse;
+import io.dapr.components.domain.state.QueryResponse;
+import io.dapr.components.domain.state.QueryResponseItem;
+import io.dapr.components.domain.state.StateStore;
+import io.grpc.Drainable;
+import io.grpc.MethodDescriptor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class WireEncodersTest {
+
+  private static final ByteString DATA = ByteString.copyFromUtf8("{\"value\":42}");
+  private static final Map<String, String> METADATA = Map.of("ttlInSeconds", "10", "empty", "", "ünïcode", "✓");
+
+  private static final GetResponse GET_RESPONSE = new GetResponse(DATA, "etag-1", METADATA, "application/json");
+  private static final GetResponse EMPTY_GET_RESPONSE = new GetResponse(ByteString.EMPTY, "", Map.of(), "");
+
+  @Test
+  void getResponseIsWrittenAsGenerated() throws IOException {
+    assertSameBytes(encode(WireEncoders.GET_RESPONSE, GET_RESPONSE), GET_RESPONSE.toProto().toByteArray());
+    assertThat(State.GetResponse.parseFrom(encode(WireEncoders.GET_RESPONSE, GET_RESPONSE)))
+        .isEqualTo(GET_RESPONSE.toProto());
+  }
+
+  @Test
+  void emptyGetResponseStillHasItsEtag() throws IOException {
+    final byte[] encoded = encode(WireEncoders.GET_RESPONSE, EMPTY_GET_RESPONSE);
+
+    assertSameBytes(encoded, EMPTY_GET_RESPONSE.toProto().toByteArray());
+    assertThat(State.GetResponse.parseFrom(encoded).hasEtag()).isTrue();
+  }
+
+  @Test
+  void bulkGetResponseIsWrittenAsGenerated() throws IOException {
+    final WireEncoders.BulkGetItems items = Stream.of(
+        new WireEncoders.BulkGetItem("found", GET_RESPONSE),
+        new WireEncoders.BulkGetItem("missing", null),
+        new WireEncoders.BulkGetItem("empty", EMPTY_GET_RESPONSE))
+        .collect(WireEncoders.toBulkGetItems());
+    final State.BulkGetResponse expected = State.BulkGetResponse.newBuilder()
+        .addItems(GET_RESPONSE.toBulkGetItemProto("found"))
+        .addItems(State.BulkStateItem.newBuilder()
+            .setKey("missing")
+            .setError(BulkGetError.KEY_DOES_NOT_EXIST)
+            .setEtag(State.Etag.getDefaultInstance()))
+        .addItems(EMPTY_GET_RESPONSE.toBulkGetItemProto("empty"))
+        .build();
+
+    assertSameBytes(encode(WireEncoders.BULK_GET_RESPONSE, items), expected.toByteArray());
+    assertThat(State.BulkGetResponse.parseFrom(encode(WireEncoders.BULK_GET_RESPONSE, items))).isEqualTo(expected);
+  }
+
+  @Test
+  void largeBulkGetResponseIsWrittenAsGenerated() throws IOException {
+    final WireEncoders.BulkGetItems items = IntStream.range(0, 100)
+        .mapToObj(i -> new WireEncoders.BulkGetItem("key-" + i, GET_RESPONSE))
+        .collect(WireEncoders.toBulkGetItems());
+    final State.BulkGetResponse.Builder expected = State.BulkGetResponse.newBuilder();
+    IntStream.range(0, 100).forEach(i -> expected.addItems(GET_RESPONSE.toBulkGetItemProto("key-" + i)));
+
+    assertSameBytes(encode(WireEncoders.BULK_GET_RESPONSE, items), expected.build().toByteArray());
+  }
+
+  @Test
+  void queryResponseIsWrittenAsGenerated() throws IOException {
+    final QueryResponse response = new QueryResponse(List.of(
+        new QueryResponseItem("a", DATA, "etag-a", "", "application/json"),
+        new QueryResponseItem("b", ByteString.EMPTY, "", "not found", "")),
+        "next-page", METADATA);
+
+    assertSameBytes(encode(WireEncoders.QUERY_RESPONSE, response), response.toProto().toByteArray());
+  }
+
+  @Test
+  void pullMessagesResponseIsWrittenAsGenerated() throws IOException {
+    final PullMessagesResponse response =
+        new PullMessagesResponse(DATA, "orders", METADATA, "application/json", "message-1");
+
+    assertSameBytes(encode(WireEncoders.PULL_MESSAGES_RESPONSE, response), response.toProto().toByteArray());
+    assertThat(Pubsub.PullMessagesResponse.parseFrom(encode(WireEncoders.PULL_MESSAGES_RESPONSE, response)))
+        .isEqualTo(response.toProto());
+  }
+
+  @Test
+  void readResponseIsWrittenAsGenerated() throws IOException {
+    final ReadResponse response = new ReadResponse(DATA, METADATA, "", "message-1");
+
+    assertSameBytes(encode(WireEncoders.READ_RESPONSE, response), response.toProto().toByteArray());
+    assertThat(Bindings.ReadResponse.parseFrom(encode(WireEncoders.READ_RESPONSE, response)))
+        .isEqualTo(response.toProto());
+  }
+
+  @Test
+  void boundServiceMarshalsDomainResponsesAndProtos() throws IOException {
+    final MethodDescriptor<State.GetRequest, Object> getMethod = boundGetMethod();
+
+    try (InputStream drained = getMethod.streamResponse(GET_RESPONSE)) {
+      final ByteArrayOutputStream target = new ByteArrayOutputStream();
+      assertThat(drained.available()).isEqualTo(GET_RESPONSE.toProto().getSerializedSize());
+      assertThat(((Drainable) drained).drainTo(target)).isEqualTo(target.size());
+      assertSameBytes(target.toByteArray(), GET_RESPONSE.toProto().toByteArray());
+    }
+    try (InputStream read = getMethod.streamResponse(GET_RESPONSE)) {
+      assertSameBytes(read.readAllBytes(), GET_RESPONSE.toProto().toByteArray());
+    }
+    try (InputStream proto = getMethod.streamResponse(GET_RESPONSE.toProto())) {
+      assertThat(getMethod.parseResponse(proto)).isEqualTo(GET_RESPONSE.toProto());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MethodDescriptor<State.GetRequest, Object> boundGetMethod() {
+    return (MethodDescriptor<State.GetRequest, Object>) new StateStoreGrpcComponentWrapper(mock(StateStore.class))
+        .bindDirectService()
+        .getMethod(StateStoreGrpc.getGetMethod().getFullMethodName())
+        .getMethodDescriptor();
+  }
+
+  private static <T> byte[] encode(final WireEncoders.Encoder<T> encoder, final T value) throws IOException {
+    final byte[] bytes = new byte[encoder.serializedSize(value)];
+    final CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    encoder.writeTo(value, output);
+    output.checkNoSpaceLeft();
+    return bytes;
+  }
+
+  private static void assertSameBytes(final byte[] actual, final byte[] expected) {
+    assertThat(actual).containsExactly(expected);
+  }
+}
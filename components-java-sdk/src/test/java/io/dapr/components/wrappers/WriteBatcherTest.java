@@ -0,0 +1,212 @@
+package io.dapr.components.wrappers;
+
+import io.dapr.components.domain.state.DeleteRequest;
+import io.dapr.components.domain.state.Exceptions;
+import io.dapr.components.domain.state.SetRequest;
+import io.dapr.components.domain.state.StateOptions;
+import io.dapr.components.domain.state.StateStore;
+import io.dapr.components.domain.state.options.StateConcurrency;
+import io.dapr.components.domain.state.options.StateConsistency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteBatcherTest {
+
+  private static final StateOptions OPTIONS =
+      new StateOptions(StateConcurrency.UNSPECIFIED, StateConsistency.UNSPECIFIED);
+
+  private StateStore stateStore;
+  private WriteBatcher writeBatcher;
+
+  // Keeps the first write in flight, as an artificially slow state store would.
+  private Sinks.Empty<Void> slowWrite;
+
+  @BeforeEach
+  void setUp() {
+    stateStore = mock();
+    slowWrite = Sinks.empty();
+    when(stateStore.set(any())).thenReturn(slowWrite.asMono());
+    when(stateStore.delete(any())).thenReturn(Mono.empty());
+    when(stateStore.bulkSet(any())).thenReturn(Mono.empty());
+    when(stateStore.bulkDelete(any())).thenReturn(Mono.empty());
+    writeBatcher = new WriteBatcher(stateStore);
+    writeBatcher.setOptions(new WriteBatchingOptions(3, Duration.ofMinutes(1)));
+  }
+
+  @Test
+  void writesAreSentRightAwayWhileNoBatchIsInFlight() {
+    writeBatcher.set(set("a")).subscribe();
+
+    verify(stateStore).set(set("a"));
+    verify(stateStore, never()).bulkSet(any());
+  }
+
+  @Test
+  void writesMadeWhileABatchIsInFlightAreSentTogetherOnceItCompletes() {
+    final AtomicReference<Boolean> secondDone = new AtomicReference<>(false);
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.set(set("b")).subscribe(null, null, () -> secondDone.set(true));
+    writeBatcher.delete(delete("c")).subscribe();
+    verify(stateStore, never()).bulkSet(any());
+
+    slowWrite.tryEmitEmpty();
+
+    verify(stateStore).bulkSet(List.of(set("b")));
+    verify(stateStore).bulkDelete(List.of(delete("c")));
+    assertThat(secondDone.get()).isTrue();
+    assertThat(writeBatcher.stats()).isEqualTo(new WriteBatchingStats(3, 2, 0));
+  }
+
+  @Test
+  void fullBatchesAreSentWithoutWaiting() {
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.set(set("b")).subscribe();
+    writeBatcher.set(set("c")).subscribe();
+    writeBatcher.set(set("d")).subscribe();
+
+    verify(stateStore).bulkSet(List.of(set("b"), set("c"), set("d")));
+  }
+
+  @Test
+  void batchesAreSentOnceTheMaxDelayElapsed() {
+    writeBatcher.setOptions(new WriteBatchingOptions(3, Duration.ofMillis(10)));
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.set(set("b")).subscribe();
+    writeBatcher.set(set("c")).subscribe();
+
+    verify(stateStore, timeout(5000)).bulkSet(List.of(set("b"), set("c")));
+  }
+
+  @Test
+  void twoWritesOfAKeyNeverShareABatch() {
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.delete(delete("b")).subscribe();
+    writeBatcher.delete(delete("b")).subscribe();
+
+    // The first one had to make room for the second one.
+    verify(stateStore).delete(delete("b"));
+  }
+
+  @Test
+  void writesOfAKeyWaitForTheBatchHoldingThePreviousOneToComplete() {
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.set(set("b")).subscribe();
+    verify(stateStore, never()).bulkSet(any());
+
+    slowWrite.tryEmitEmpty();
+
+    verify(stateStore).set(set("a"));
+    verify(stateStore).bulkSet(List.of(set("b"), set("a")));
+  }
+
+  @Test
+  void writesOfABatchNotAppliedAreSentAgainOneByOneAndGetTheirOwnOutcome() {
+    when(stateStore.bulkDelete(any())).thenReturn(Mono.error(Exceptions.getBulkNotAppliedException("batch failed")));
+    when(stateStore.delete(delete("c"))).thenReturn(Mono.error(new IllegalArgumentException("c failed")));
+    final AtomicReference<Boolean> bDone = new AtomicReference<>(false);
+    final AtomicReference<Throwable> cError = new AtomicReference<>();
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.delete(delete("b")).subscribe(null, null, () -> bDone.set(true));
+    writeBatcher.delete(delete("c")).subscribe(null, cError::set);
+
+    slowWrite.tryEmitEmpty();
+
+    assertThat(bDone.get()).isTrue();
+    assertThat(cError.get()).hasMessage("c failed");
+    assertThat(writeBatcher.stats().fallbacks()).isEqualTo(1);
+  }
+
+  @Test
+  void otherFailuresOfABatchAreTheOutcomeOfAllItsWrites() {
+    final IllegalStateException batchFailure = new IllegalStateException("batch failed");
+    when(stateStore.bulkDelete(any())).thenReturn(Mono.error(batchFailure));
+    final AtomicReference<Throwable> bError = new AtomicReference<>();
+    final AtomicReference<Throwable> cError = new AtomicReference<>();
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.delete(delete("b")).subscribe(null, bError::set);
+    writeBatcher.delete(delete("c")).subscribe(null, cError::set);
+
+    slowWrite.tryEmitEmpty();
+
+    assertThat(bError.get()).isSameAs(batchFailure);
+    assertThat(cError.get()).isSameAs(batchFailure);
+    verify(stateStore, never()).delete(any());
+    assertThat(writeBatcher.stats().fallbacks()).isZero();
+  }
+
+  @Test
+  void writesWithAnEtagAreNeverBatched() {
+    writeBatcher.set(set("a")).subscribe();
+    final SetRequest withEtag = new SetRequest("b", new byte[0], "etag", Map.of(), OPTIONS, "");
+    writeBatcher.set(withEtag).subscribe();
+
+    verify(stateStore).set(withEtag);
+    assertThat(writeBatcher.stats().writes()).isEqualTo(1);
+  }
+
+  @Test
+  void writesWithAnEtagWaitForThePreviousWriteOfTheirKeyAndAreSentOnTheirOwn() {
+    final SetRequest withEtag = new SetRequest("a", new byte[0], "etag", Map.of(), OPTIONS, "");
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.set(withEtag).subscribe();
+    writeBatcher.set(set("b")).subscribe();
+    writeBatcher.set(set("c")).subscribe();
+    verify(stateStore, never()).set(withEtag);
+
+    slowWrite.tryEmitEmpty();
+
+    verify(stateStore).set(withEtag);
+    verify(stateStore).bulkSet(List.of(set("b"), set("c")));
+  }
+
+  @Test
+  void writesOfAKeyWaitForTheWriteWithAnEtagBeforeThem() {
+    final Sinks.Empty<Void> etagWrite = Sinks.empty();
+    final DeleteRequest withEtag = new DeleteRequest("a", "etag", Map.of(), OPTIONS);
+    when(stateStore.delete(withEtag)).thenReturn(etagWrite.asMono());
+    writeBatcher.delete(withEtag).subscribe();
+    writeBatcher.set(set("a")).subscribe();
+    verify(stateStore, never()).set(any());
+
+    etagWrite.tryEmitEmpty();
+
+    verify(stateStore).set(set("a"));
+  }
+
+  @Test
+  void disabledBatcherCallsTheStateStoreEveryTime() {
+    writeBatcher.setOptions(null);
+    writeBatcher.set(set("a")).subscribe();
+    writeBatcher.set(set("b")).subscribe();
+
+    final ArgumentCaptor<SetRequest> sets = ArgumentCaptor.forClass(SetRequest.class);
+    verify(stateStore, times(2)).set(sets.capture());
+    assertThat(sets.getAllValues()).containsExactly(set("a"), set("b"));
+  }
+
+  private static SetRequest set(final String key) {
+    return new SetRequest(key, new byte[] {1}, "", Map.of(), OPTIONS, "");
+  }
+
+  private static DeleteRequest delete(final String key) {
+    return new DeleteRequest(key, "", Map.of(), OPTIONS);
+  }
+}